@@ -0,0 +1,43 @@
+package com.api.pagamento.benchmark;
+
+import com.api.pagamento.ApiPagamentoApplication;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+//Sobe a aplicação para os benchmarks contra o H2 em memória do perfil teste.
+//O ContadorInstrucoesSql do perfil teste guarda toda instrução SQL executada, o que em um benchmark cresce sem limite
+//e passa a dominar o tempo medido; por isso ele é trocado por um StatementInspector que não faz nada.
+//Os argumentos são passados como linha de comando (--chave=valor) para terem precedência sobre o application.yaml.
+//O restart do devtools fica desligado: chamado da thread main (ex: CargaHttp), ele executaria o main de novo.
+
+final class AplicacaoBenchmark {
+
+    private AplicacaoBenchmark() { }
+
+    static ConfigurableApplicationContext iniciar(String... argumentos) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> todos = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.jpa.properties.hibernate.session_factory.statement_inspector=" + SemInspecao.class.getName(),
+                "--logging.level.root=warn"));
+        todos.addAll(Arrays.asList(argumentos));
+        return new SpringApplicationBuilder(ApiPagamentoApplication.class)
+                .profiles("teste")
+                .run(todos.toArray(new String[0]));
+    }
+
+    public static class SemInspecao implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            return sql;
+        }
+
+    }
+
+}
@@ -0,0 +1,307 @@
+package com.api.pagamento.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+//Teste de carga HTTP com taxa de chegada fixa (modelo aberto)
+
+//As requisições são disparadas em instantes programados (taxa requisições por segundo, sorteadas pelo mix), sem esperar
+//as respostas anteriores. A latência é medida a partir do instante programado, e não do envio: se a api atrasa, as
+//requisições que deveriam ter saído nesse intervalo também contam o atraso (sem coordinated omission).
+//As latências vão para um HdrHistogram por operação (p50/p90/p99/p99.9/máx) e são gravadas em <resultado>/*.hgrm e
+//em <resultado>/resumo.csv, para comparar as versões da api.
+
+//Sem --url, sobe a ApiPagamentoApplication contra o H2 em memória do perfil teste (AplicacaoBenchmark); os argumentos
+//que não são do teste de carga (ex: --spring.cache.type=none) são repassados à aplicação.
+
+//mvn -P benchmark,carga verify -DskipTests -Dcarga.argumentos="--taxa=200 --duracao=PT60S"
+//(o prefixo -- das opções do teste de carga é opcional)
+
+public final class CargaHttp {
+
+    private static final String CORPO_PAGAMENTO = "{\"cartao\":\"4444********1234\"," +
+            "\"descricao\":{\"valor\":\"500.50\",\"dataHora\":\"01/05/2021 18:00:00\",\"estabelecimento\":\"PetShop Mundo cão\"}," +
+            "\"formaPagamento\":{\"tipo\":\"AVISTA\",\"parcelas\":\"1\"}}";
+
+    enum Operacao {
+
+        PAGAR("pagar"),
+        PROCURAR_PELO_ID("procurarPeloId"),
+        PROCURAR_TODOS("procurarTodos"),
+        ESTORNAR("estornar");
+
+        private final String nome;
+
+        Operacao(String nome) {
+            this.nome = nome;
+        }
+
+        static Operacao peloNome(String nome) {
+            for (Operacao operacao : values()) {
+                if (operacao.nome.equals(nome)) {
+                    return operacao;
+                }
+            }
+            throw new IllegalArgumentException("Operação desconhecida no mix: " + nome);
+        }
+
+    }
+
+    //Resultado de uma operação: latências (em microssegundos) das respostas 2xx e contagem dos erros
+    private static final class Medicao {
+
+        private final Histogram latencias = new ConcurrentHistogram(3);
+
+        private final LongAdder erros = new LongAdder();
+
+    }
+
+    private final HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<Operacao, Medicao> medicoes = new EnumMap<>(Operacao.class);
+
+    //Transações pagas e ainda não estornadas; cada estorno consome uma delas
+    private final Queue<Long> estornaveis = new ConcurrentLinkedQueue<>();
+
+    private final String url;
+
+    private final double taxa;
+
+    private final Duration aquecimento;
+
+    private final Duration duracao;
+
+    private final Operacao[] sorteio;
+
+    private final int maxPendentes;
+
+    private final Semaphore pendentes;
+
+    private long[] ids;
+
+    private CargaHttp(String url, Map<String, String> opcoes) {
+        this.url = url;
+        this.taxa = Double.parseDouble(opcoes.get("taxa"));
+        this.aquecimento = Duration.parse(opcoes.get("aquecimento"));
+        this.duracao = Duration.parse(opcoes.get("duracao"));
+        this.sorteio = montarSorteio(opcoes.get("mix"));
+        this.maxPendentes = Integer.parseInt(opcoes.get("maxPendentes"));
+        this.pendentes = new Semaphore(maxPendentes);
+        for (Operacao operacao : Operacao.values()) {
+            medicoes.put(operacao, new Medicao());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+
+        Map<String, String> opcoes = new LinkedHashMap<>(Map.of(
+                "taxa", "100",
+                "aquecimento", "PT10S",
+                "duracao", "PT30S",
+                "mix", "pagar:30,procurarPeloId:50,procurarTodos:5,estornar:15",
+                "transacoesIniciais", "200",
+                "maxPendentes", "1000",
+                "resultado", "target/carga"));
+        List<String> argumentosAplicacao = new ArrayList<>();
+        for (String arg : args) {
+            String[] chaveValor = arg.replaceFirst("^--", "").split("=", 2);
+            if (chaveValor.length == 2 && (opcoes.containsKey(chaveValor[0]) || chaveValor[0].equals("url"))) {
+                opcoes.put(chaveValor[0], chaveValor[1]);
+            } else {
+                argumentosAplicacao.add(arg);
+            }
+        }
+
+        ConfigurableApplicationContext contexto = null;
+        String url = opcoes.get("url");
+        if (url == null) {
+            contexto = AplicacaoBenchmark.iniciar(argumentosAplicacao.toArray(new String[0]));
+            url = "http://localhost:" + ((WebServerApplicationContext) contexto).getWebServer().getPort();
+        }
+
+        try {
+            CargaHttp carga = new CargaHttp(url + "/transacao/v1", opcoes);
+            carga.preparar(Integer.parseInt(opcoes.get("transacoesIniciais")));
+            carga.executar();
+            carga.relatar(opcoes, Path.of(opcoes.get("resultado")));
+        } finally {
+            if (contexto != null) {
+                contexto.close();
+            }
+        }
+    }
+
+    //Pesos do mix (ex: pagar:30,estornar:10) em uma tabela de 100 posições, sorteada a cada requisição
+    private static Operacao[] montarSorteio(String mix) {
+        Map<Operacao, Integer> pesos = new EnumMap<>(Operacao.class);
+        for (String item : mix.split(",")) {
+            String[] nomePeso = item.trim().split(":");
+            pesos.put(Operacao.peloNome(nomePeso[0]), Integer.parseInt(nomePeso[1]));
+        }
+        int total = pesos.values().stream().mapToInt(Integer::intValue).sum();
+        List<Operacao> tabela = new ArrayList<>();
+        pesos.forEach((operacao, peso) -> {
+            for (int i = 0; i < Math.round(100.0 * peso / total); i++) {
+                tabela.add(operacao);
+            }
+        });
+        return tabela.toArray(new Operacao[0]);
+    }
+
+    //Transações usadas por procurarPeloId e pelos primeiros estornos
+    private void preparar(int quantidade) throws Exception {
+        ids = new long[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            HttpResponse<String> resposta = cliente.send(requisicao(Operacao.PAGAR, null), HttpResponse.BodyHandlers.ofString());
+            ids[i] = objectMapper.readTree(resposta.body()).get("id").asLong();
+            estornaveis.add(ids[i]);
+        }
+    }
+
+    private void executar() throws InterruptedException {
+
+        long inicio = System.nanoTime();
+        long inicioMedicao = inicio + aquecimento.toNanos();
+        long fim = inicioMedicao + duracao.toNanos();
+
+        for (long i = 0; ; i++) {
+
+            long programado = inicio + (long) (i * 1_000_000_000d / taxa);
+            if (programado - fim >= 0) {
+                break;
+            }
+            long espera = programado - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+
+            boolean medir = programado - inicioMedicao >= 0;
+            Operacao operacao = sorteio[ThreadLocalRandom.current().nextInt(sorteio.length)];
+            Long idEstorno = operacao == Operacao.ESTORNAR ? estornaveis.poll() : null;
+            if (operacao == Operacao.ESTORNAR && idEstorno == null) {
+                operacao = Operacao.PAGAR;
+            }
+
+            //Muitas requisições pendentes: a api não acompanha a taxa; a requisição não é enviada e conta como erro
+            if (!pendentes.tryAcquire()) {
+                if (medir) {
+                    medicoes.get(operacao).erros.increment();
+                }
+                continue;
+            }
+            enviar(operacao, idEstorno, programado, medir);
+        }
+
+        //Aguarda as respostas das requisições ainda pendentes
+        if (!pendentes.tryAcquire(maxPendentes, 1, TimeUnit.MINUTES)) {
+            System.err.println("Há requisições sem resposta após 1 minuto; elas não entram no resultado");
+        }
+    }
+
+    private void enviar(Operacao operacao, Long idEstorno, long programado, boolean medir) {
+
+        CompletableFuture<HttpResponse<String>> resposta = cliente.sendAsync(requisicao(operacao, idEstorno),
+                HttpResponse.BodyHandlers.ofString());
+
+        resposta.whenComplete((r, erro) -> {
+            long latencia = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - programado);
+            boolean sucesso = erro == null && r.statusCode() / 100 == 2;
+            if (medir) {
+                Medicao medicao = medicoes.get(operacao);
+                if (sucesso) {
+                    medicao.latencias.recordValue(latencia);
+                } else {
+                    medicao.erros.increment();
+                }
+            }
+            if (sucesso && operacao == Operacao.PAGAR) {
+                try {
+                    estornaveis.add(objectMapper.readTree(r.body()).get("id").asLong());
+                } catch (IOException ignorada) {
+                    //A transação só deixa de ser usada nos estornos
+                }
+            }
+            pendentes.release();
+        });
+    }
+
+    private HttpRequest requisicao(Operacao operacao, Long idEstorno) {
+        switch (operacao) {
+            case PAGAR:
+                return HttpRequest.newBuilder(URI.create(url + "/pagamento"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(CORPO_PAGAMENTO)).build();
+            case PROCURAR_PELO_ID:
+                return HttpRequest.newBuilder(URI.create(url + "/" + ids[ThreadLocalRandom.current().nextInt(ids.length)])).GET().build();
+            case PROCURAR_TODOS:
+                return HttpRequest.newBuilder(URI.create(url)).GET().build();
+            default:
+                return HttpRequest.newBuilder(URI.create(url + "/estorno/" + idEstorno))
+                        .PUT(HttpRequest.BodyPublishers.noBody()).build();
+        }
+    }
+
+    private void relatar(Map<String, String> opcoes, Path diretorio) throws IOException {
+
+        Files.createDirectories(diretorio);
+        double segundos = duracao.toMillis() / 1000d;
+        StringBuilder csv = new StringBuilder("operacao,respostas,erros,vazao,p50_ms,p90_ms,p99_ms,p999_ms,max_ms\n");
+
+        System.out.printf(Locale.ROOT, "%nTaxa programada: %s req/s, mix: %s, medicao: %s%n%n", opcoes.get("taxa"), opcoes.get("mix"), duracao);
+        System.out.printf(Locale.ROOT, "%-16s %10s %8s %12s %9s %9s %9s %9s %9s%n",
+                "operacao", "respostas", "erros", "vazao(r/s)", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+
+        for (Map.Entry<Operacao, Medicao> entrada : medicoes.entrySet()) {
+            Histogram h = entrada.getValue().latencias;
+            if (h.getTotalCount() == 0 && entrada.getValue().erros.sum() == 0) {
+                continue;
+            }
+            String linha = String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f",
+                    entrada.getKey().nome, h.getTotalCount(), entrada.getValue().erros.sum(), h.getTotalCount() / segundos,
+                    ms(h, 50), ms(h, 90), ms(h, 99), ms(h, 99.9), h.getMaxValue() / 1000d);
+            csv.append(linha).append('\n');
+            System.out.printf(Locale.ROOT, "%-16s %10s %8s %12s %9s %9s %9s %9s %9s%n", (Object[]) linha.split(","));
+
+            try (PrintStream saida = new PrintStream(diretorio.resolve(entrada.getKey().nome + ".hgrm").toFile())) {
+                h.outputPercentileDistribution(saida, 1000.0);
+            }
+        }
+
+        Files.writeString(diretorio.resolve("resumo.csv"), csv);
+        System.out.println("\nHistogramas (.hgrm, em ms) e resumo.csv gravados em " + diretorio.toAbsolutePath());
+    }
+
+    private static double ms(Histogram histograma, double percentil) {
+        return histograma.getValueAtPercentile(percentil) / 1000d;
+    }
+
+}
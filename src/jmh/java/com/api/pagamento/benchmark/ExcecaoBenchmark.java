@@ -0,0 +1,84 @@
+package com.api.pagamento.benchmark;
+
+import com.api.pagamento.controller.TratadorExcecoes;
+import com.api.pagamento.domain.dto.ResponseErrorDTO;
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.exception.TransacaoInexistenteException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+//Custo de responder um erro de negócio (ex: GET /transacao/v1/{id} com um id inexistente) comparado a uma resposta de
+//sucesso. A exceção é lançada a uma profundidade de pilha parecida com a de uma requisição (filtros, DispatcherServlet,
+//proxies do Spring), já que capturar a pilha custa proporcionalmente à profundidade.
+//excecaoComPilha reproduz a exceção antiga: pilha capturada e um ResponseErrorDTO novo a cada erro.
+//Sem a pilha, o que resta em excecaoNegocio é o desempilhamento dos frames até o catch, que cresce com a profundidade.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class ExcecaoBenchmark {
+
+    @Param({"10", "100"})
+    private int profundidade;
+
+    private final TratadorExcecoes tratadorExcecoes = new TratadorExcecoes();
+
+    private final TransacaoDTO transacaoDTO = new TransacaoDTO();
+
+    //Como a TransacaoInexistenteException era antes: captura a pilha e monta o corpo do erro a cada chamada
+    private static class ExcecaoComPilha extends Exception {
+
+        ResponseErrorDTO getResponseError() {
+            return new ResponseErrorDTO(404, "Not Found", "Transação(ões) inexistente(s)");
+        }
+
+    }
+
+    @Benchmark
+    public ResponseEntity<TransacaoDTO> sucesso() throws TransacaoInexistenteException {
+        return ResponseEntity.ok().body(procurar(profundidade, false));
+    }
+
+    @Benchmark
+    public ResponseEntity<ResponseErrorDTO> excecaoComPilha() {
+        try {
+            lancarComPilha(profundidade);
+            return null;
+        } catch (ExcecaoComPilha ex) {
+            return ResponseEntity.status(ex.getResponseError().getStatus()).body(ex.getResponseError());
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> excecaoNegocio() {
+        try {
+            return ResponseEntity.ok().body(procurar(profundidade, true));
+        } catch (TransacaoInexistenteException ex) {
+            return tratadorExcecoes.excecaoNegocio(ex);
+        }
+    }
+
+    private TransacaoDTO procurar(int nivel, boolean inexistente) throws TransacaoInexistenteException {
+        if (nivel > 0) {
+            return procurar(nivel - 1, inexistente);
+        }
+        if (inexistente) {
+            throw new TransacaoInexistenteException();
+        }
+        return transacaoDTO;
+    }
+
+    private void lancarComPilha(int nivel) throws ExcecaoComPilha {
+        if (nivel > 0) {
+            lancarComPilha(nivel - 1);
+            return;
+        }
+        throw new ExcecaoComPilha();
+    }
+
+}
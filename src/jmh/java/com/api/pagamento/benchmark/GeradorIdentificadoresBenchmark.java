@@ -0,0 +1,58 @@
+package com.api.pagamento.benchmark;
+
+import com.api.pagamento.service.identificador.GeradorIdentificadores;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Vazão do GeradorIdentificadores.proximoNsu com 1 e 4 threads pedindo nsus ao mesmo tempo. A sequence do banco é
+//simulada em memória, com latenciaReserva milissegundos por nextval: como o bloco seguinte é reservado enquanto o
+//atual é usado, a latência do banco não deve aparecer na vazão (uma reserva a cada 10000 nsus).
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class GeradorIdentificadoresBenchmark {
+
+    @Param({"0", "1"})
+    private long latenciaReserva;
+
+    private GeradorIdentificadores geradorIdentificadores;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        AtomicLong sequencia = new AtomicLong(1 - GeradorIdentificadores.TAMANHO_BLOCO);
+        geradorIdentificadores = new GeradorIdentificadores(nome -> {
+            if (latenciaReserva > 0) {
+                try {
+                    Thread.sleep(latenciaReserva);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return sequencia.addAndGet(GeradorIdentificadores.TAMANHO_BLOCO);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        geradorIdentificadores.encerrar();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String umaThread() {
+        return geradorIdentificadores.proximoNsu();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String quatroThreads() {
+        return geradorIdentificadores.proximoNsu();
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.api.pagamento.benchmark;
+
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.dto.util.Mapper;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+//Custo da serialização (resposta) e da desserialização (requisição) de um TransacaoDTO em JSON.
+//O ObjectMapper é criado pelo Jackson2ObjectMapperBuilder, com a mesma configuração padrão que o Spring Boot usa nos
+//controllers, e o ObjectWriter/ObjectReader são obtidos uma única vez, como o conversor HTTP faz.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class JacksonBenchmark {
+
+    private TransacaoDTO transacaoDTO;
+
+    private byte[] json;
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(TransacaoDTO.class);
+        reader = objectMapper.readerFor(TransacaoDTO.class);
+        transacaoDTO = Mapper.toTransacaoDTO(new Transacao(1L, "4444********1234",
+                new Descricao(1L, new BigDecimal("500.50"), DataHoraCodec.ler("01/05/2021 18:00:00"), "PetShop Mundo cão", "1234567890", "147258369", StatusEnum.AUTORIZADO),
+                new FormaPagamento(1L, TipoEnum.AVISTA, "1")));
+        json = writer.writeValueAsBytes(transacaoDTO);
+    }
+
+    @Benchmark
+    public byte[] serializar() throws IOException {
+        return writer.writeValueAsBytes(transacaoDTO);
+    }
+
+    @Benchmark
+    public TransacaoDTO desserializar() throws IOException {
+        return reader.readValue(json);
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.api.pagamento.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//Custo de gravar e de ler um pagamento em cada layout do esquema, com JDBC puro em um H2 em memória (sem Hibernate,
+//pool nem rede, para que a diferença medida seja a do esquema):
+//    tres_tabelas: o layout até V12 (descricao e forma_pagamento ligadas à transacao por chaves estrangeiras):
+//    três inserts por pagamento e uma leitura com duas junções.
+//    uma_tabela: o layout de V13__transacao_em_uma_tabela.sql: um insert e uma leitura sem junções.
+//gravar faz um commit por pagamento, como o TransacaoServiceImp.pagar. ler procura um id ao acaso entre as
+//transações gravadas no setup, com os mesmos índices das migrações.
+//Os ids vêm de contadores em memória: o custo das sequences fica em PagamentoSequenciaBenchmark.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayoutTabelaBenchmark {
+
+    private static final int TRANSACOES_INICIAIS = 50_000;
+
+    @Param({"tres_tabelas", "uma_tabela"})
+    private String layout;
+
+    private Connection conexao;
+
+    private PreparedStatement inserirDescricao;
+
+    private PreparedStatement inserirFormaPagamento;
+
+    private PreparedStatement inserirTransacao;
+
+    private PreparedStatement ler;
+
+    private long proximoId;
+
+    private final OffsetDateTime dataHora = OffsetDateTime.of(2021, 5, 1, 18, 0, 0, 0, ZoneOffset.ofHours(-3));
+
+    @Setup(Level.Trial)
+    public void iniciar() throws SQLException {
+        conexao = DriverManager.getConnection("jdbc:h2:mem:layout_" + layout);
+        try (Statement ddl = conexao.createStatement()) {
+            if ("tres_tabelas".equals(layout)) {
+                ddl.execute("create table descricao (id bigint primary key, valor numeric(15, 2), " +
+                        "data_hora timestamp with time zone, estabelecimento varchar(255), nsu varchar(255), " +
+                        "codigo_autorizacao varchar(255), status integer)");
+                ddl.execute("create table forma_pagamento (id bigint primary key, tipo integer, parcelas varchar(255))");
+                ddl.execute("create table transacao (id bigint primary key, cartao varchar(255), descricao_id bigint, " +
+                        "forma_pagamento_id bigint, " +
+                        "constraint fk_transacao_descricao foreign key (descricao_id) references descricao (id), " +
+                        "constraint fk_transacao_forma_pagamento foreign key (forma_pagamento_id) references forma_pagamento (id))");
+                ddl.execute("create index idx_descricao_data_hora on descricao (data_hora, id)");
+                ddl.execute("create unique index ux_descricao_nsu on descricao (nsu)");
+                inserirDescricao = conexao.prepareStatement("insert into descricao (id, valor, data_hora, estabelecimento, " +
+                        "nsu, codigo_autorizacao, status) values (?, ?, ?, ?, ?, ?, ?)");
+                inserirFormaPagamento = conexao.prepareStatement("insert into forma_pagamento (id, tipo, parcelas) values (?, ?, ?)");
+                inserirTransacao = conexao.prepareStatement("insert into transacao (id, cartao, descricao_id, forma_pagamento_id) " +
+                        "values (?, ?, ?, ?)");
+                ler = conexao.prepareStatement("select t.id, t.cartao, d.id, d.valor, d.data_hora, d.estabelecimento, d.nsu, " +
+                        "d.codigo_autorizacao, d.status, f.id, f.tipo, f.parcelas from transacao t " +
+                        "left join descricao d on d.id = t.descricao_id " +
+                        "left join forma_pagamento f on f.id = t.forma_pagamento_id where t.id = ?");
+            } else {
+                ddl.execute("create table transacao (id bigint primary key, cartao varchar(255), valor numeric(15, 2), " +
+                        "data_hora timestamp with time zone, estabelecimento varchar(255), nsu varchar(255), " +
+                        "codigo_autorizacao varchar(255), status integer, tipo integer, parcelas varchar(255))");
+                ddl.execute("create index idx_transacao_data_hora on transacao (data_hora, id)");
+                ddl.execute("create unique index ux_transacao_nsu on transacao (nsu)");
+                inserirTransacao = conexao.prepareStatement("insert into transacao (id, cartao, valor, data_hora, " +
+                        "estabelecimento, nsu, codigo_autorizacao, status, tipo, parcelas) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+                ler = conexao.prepareStatement("select id, cartao, valor, data_hora, estabelecimento, nsu, codigo_autorizacao, " +
+                        "status, tipo, parcelas from transacao where id = ?");
+            }
+        }
+        conexao.setAutoCommit(false);
+        for (int i = 0; i < TRANSACOES_INICIAIS; i++) {
+            gravar();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws SQLException {
+        conexao.close();
+    }
+
+    @Benchmark
+    public long gravar() throws SQLException {
+        long id = ++proximoId;
+        if (inserirDescricao != null) {
+            inserirDescricao.setLong(1, id);
+            preencherDescricao(inserirDescricao, 2, id);
+            inserirDescricao.executeUpdate();
+            inserirFormaPagamento.setLong(1, id);
+            inserirFormaPagamento.setInt(2, 0);
+            inserirFormaPagamento.setString(3, "1");
+            inserirFormaPagamento.executeUpdate();
+            inserirTransacao.setLong(1, id);
+            inserirTransacao.setString(2, "4444********1234");
+            inserirTransacao.setLong(3, id);
+            inserirTransacao.setLong(4, id);
+        } else {
+            inserirTransacao.setLong(1, id);
+            inserirTransacao.setString(2, "4444********1234");
+            preencherDescricao(inserirTransacao, 3, id);
+            inserirTransacao.setInt(9, 0);
+            inserirTransacao.setString(10, "1");
+        }
+        inserirTransacao.executeUpdate();
+        conexao.commit();
+        return id;
+    }
+
+    @Benchmark
+    public String ler() throws SQLException {
+        ler.setLong(1, ThreadLocalRandom.current().nextLong(1, TRANSACOES_INICIAIS + 1));
+        try (ResultSet linha = ler.executeQuery()) {
+            linha.next();
+            return linha.getString("estabelecimento");
+        }
+    }
+
+    private void preencherDescricao(PreparedStatement insert, int primeiro, long id) throws SQLException {
+        insert.setBigDecimal(primeiro, new BigDecimal("500.50"));
+        insert.setObject(primeiro + 1, dataHora);
+        insert.setString(primeiro + 2, "PetShop Mundo cão");
+        insert.setString(primeiro + 3, String.valueOf(id));
+        insert.setString(primeiro + 4, "147258369");
+        insert.setInt(primeiro + 5, 0);
+    }
+
+}
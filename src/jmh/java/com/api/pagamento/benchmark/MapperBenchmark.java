@@ -0,0 +1,95 @@
+package com.api.pagamento.benchmark;
+
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.dto.util.Mapper;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Compara o custo por conversão do caminho antigo (um ModelMapper novo a cada chamada) com os conversores
+//dedicados do Mapper e com o Mapper.convert genérico, que despacha para eles.
+//mapperConvert mede o Mapper.convert em cada par entidade <-> DTO (parâmetro par: origem e destino).
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class MapperBenchmark {
+
+    private Transacao transacao;
+
+    private TransacaoDTO transacaoDTO;
+
+    //Par de tipos do mapperConvert, em um @State próprio para que o parâmetro não multiplique os demais benchmarks
+    @State(Scope.Benchmark)
+    public static class Par {
+
+        @Param({"Transacao-TransacaoDTO", "TransacaoDTO-Transacao", "Descricao-DescricaoDTO", "DescricaoDTO-Descricao",
+                "FormaPagamento-FormaPagamentoDTO", "FormaPagamentoDTO-FormaPagamento"})
+        private String par;
+
+        private Object origem;
+
+        private Class<?> destino;
+
+        @Setup
+        public void setUp(MapperBenchmark benchmark) {
+            Map<String, Object> objetos = Map.of(
+                    "Transacao", benchmark.transacao,
+                    "TransacaoDTO", benchmark.transacaoDTO,
+                    "Descricao", benchmark.transacao.getDescricao(),
+                    "DescricaoDTO", benchmark.transacaoDTO.getDescricao(),
+                    "FormaPagamento", benchmark.transacao.getFormaPagamento(),
+                    "FormaPagamentoDTO", benchmark.transacaoDTO.getFormaPagamento());
+            String[] tipos = par.split("-");
+            origem = objetos.get(tipos[0]);
+            destino = objetos.get(tipos[1]).getClass();
+        }
+
+    }
+
+    @Setup
+    public void setUp() {
+        transacao = new Transacao(1L, "4444********1234",
+                new Descricao(1L, new BigDecimal("500.50"), DataHoraCodec.ler("01/05/2021 18:00:00"), "PetShop Mundo cão", "1234567890", "147258369", StatusEnum.AUTORIZADO),
+                new FormaPagamento(1L, TipoEnum.AVISTA, "1"));
+        transacaoDTO = Mapper.toTransacaoDTO(transacao);
+    }
+
+    @Benchmark
+    public TransacaoDTO modelMapperPorChamadaEntidadeParaDTO() {
+        return new ModelMapper().map(transacao, TransacaoDTO.class);
+    }
+
+    @Benchmark
+    public Transacao modelMapperPorChamadaDTOParaEntidade() {
+        return new ModelMapper().map(transacaoDTO, Transacao.class);
+    }
+
+    @Benchmark
+    public TransacaoDTO mapperTipadoEntidadeParaDTO() {
+        return Mapper.toTransacaoDTO(transacao);
+    }
+
+    @Benchmark
+    public Transacao mapperTipadoDTOParaEntidade() {
+        return Mapper.toTransacao(transacaoDTO);
+    }
+
+    @Benchmark
+    public Object mapperConvert(Par par) {
+        return Mapper.convert(par.origem, par.destino);
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.api.pagamento.benchmark;
+
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.domain.model.util.SequenciaEmBlocoGenerator;
+import com.api.pagamento.service.TransacaoService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+//Vazão de TransacaoService.pagar e instruções SQL por pagamento, com ids reservados um a um (tamanhoBloco=1,
+//o comportamento antigo) e em blocos de 50 (pooled-lo).
+//A aplicação sobe contra o H2 em memória do perfil teste e o esquema é gerado pelo Hibernate com o incremento
+//correspondente ao tamanho do bloco. Os contadores (AuxCounters) são totais da iteração: instrucoesSql / pagamentos
+//é a quantidade de idas ao banco por pagamento (2 com tamanhoBloco=1: um nextval e um insert; ~1 com blocos de 50).
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PagamentoSequenciaBenchmark {
+
+    @Param({"1", "50"})
+    private int tamanhoBloco;
+
+    private ConfigurableApplicationContext contexto;
+
+    private TransacaoService transacaoService;
+
+    private Statistics statistics;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Contadores {
+
+        public long instrucoesSql;
+
+        public long pagamentos;
+
+    }
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = AplicacaoBenchmark.iniciar(
+                "--spring.flyway.enabled=false",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.properties." + SequenciaEmBlocoGenerator.TAMANHO_BLOCO + "=" + tamanhoBloco);
+        transacaoService = contexto.getBean(TransacaoService.class);
+        statistics = contexto.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public TransacaoDTO pagar(Contadores contadores) throws Exception {
+        long antes = statistics.getPrepareStatementCount();
+        TransacaoDTO transacaoDTO = transacaoService.pagar(new Transacao(null, "4444********1234",
+                new Descricao(null, new BigDecimal("500.50"), DataHoraCodec.ler("01/05/2021 18:00:00"), "PetShop Mundo cão", null, null, null),
+                new FormaPagamento(null, TipoEnum.AVISTA, "1")));
+        contadores.instrucoesSql += statistics.getPrepareStatementCount() - antes;
+        contadores.pagamentos++;
+        return transacaoDTO;
+    }
+
+}
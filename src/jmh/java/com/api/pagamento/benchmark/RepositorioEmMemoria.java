@@ -0,0 +1,59 @@
+package com.api.pagamento.benchmark;
+
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.repository.TransacaoRepository;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+//TransacaoRepository em memória, para medir o TransacaoServiceImp sem o banco e sem o Hibernate.
+//save, findById e estornar, os métodos usados por pagar e estornar, guardam e leem as transações em um mapa; os demais
+//devolvem o valor padrão do tipo de retorno (ServicoEmMemoria.proxy).
+
+class RepositorioEmMemoria {
+
+    private final Map<Long, Transacao> transacoes = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequencia = new AtomicLong();
+
+    Transacao procurar(Long id) {
+        return transacoes.get(id);
+    }
+
+    TransacaoRepository transacaoRepository() {
+        return ServicoEmMemoria.proxy(TransacaoRepository.class, (proxy, metodo, argumentos) -> {
+            switch (metodo.getName()) {
+                case "save":
+                    return salvar((Transacao) argumentos[0]);
+                case "findById":
+                    return Optional.ofNullable(transacoes.get((Long) argumentos[0]));
+                case "estornar":
+                    return estornar((Long) argumentos[0]);
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private Transacao salvar(Transacao transacao) {
+        if (transacao.getId() == null) {
+            transacao.setId(sequencia.incrementAndGet());
+        }
+        transacoes.put(transacao.getId(), transacao);
+        return transacao;
+    }
+
+    //Mesma condição do UPDATE de TransacaoRepository.estornar
+    private int estornar(Long idTransacao) {
+        Transacao transacao = transacoes.get(idTransacao);
+        if (transacao == null || transacao.getDescricao().getStatus() == StatusEnum.NEGADO) {
+            return 0;
+        }
+        transacao.getDescricao().setStatus(StatusEnum.NEGADO);
+        return 1;
+    }
+
+}
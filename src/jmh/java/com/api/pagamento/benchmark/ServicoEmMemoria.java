@@ -0,0 +1,81 @@
+package com.api.pagamento.benchmark;
+
+import com.api.pagamento.service.TransacaoServiceImp;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.Mockito.mock;
+
+//Monta o TransacaoServiceImp dos benchmarks sem depender da ordem do construtor: cada dependência recebe a instância
+//informada em com(...) ou, se nenhuma for informada, uma implementação que não faz nada. Uma dependência nova no
+//serviço não quebra os benchmarks.
+//Interfaces (os repositórios, chamados a cada pagamento) viram um Proxy que devolve o valor padrão do tipo de retorno
+//(null, Optional vazio, zero ou false); classes viram um mock do Mockito. O Mockito não é usado nas interfaces porque
+//guarda a posição de cada chamada na pilha, o que custa mais que o próprio pagamento e distorceria a medição.
+
+class ServicoEmMemoria {
+
+    private final Map<Class<?>, Object> dependencias = new HashMap<>();
+
+    <T> ServicoEmMemoria com(Class<T> tipo, T instancia) {
+        dependencias.put(tipo, instancia);
+        return this;
+    }
+
+    TransacaoServiceImp criar() throws ReflectiveOperationException {
+        Constructor<?> construtor = TransacaoServiceImp.class.getConstructors()[0];
+        Class<?>[] tipos = construtor.getParameterTypes();
+        Object[] argumentos = new Object[tipos.length];
+        for (int i = 0; i < tipos.length; i++) {
+            argumentos[i] = dependencias.containsKey(tipos[i]) ? dependencias.get(tipos[i]) : vazio(tipos[i]);
+        }
+        return (TransacaoServiceImp) construtor.newInstance(argumentos);
+    }
+
+    private static Object vazio(Class<?> tipo) {
+        return tipo.isInterface() ? proxy(tipo, (proxy, metodo, argumentos) -> null) : mock(tipo);
+    }
+
+    //Proxy da interface: os métodos tratados pelo manipulador devolvem o que ele retornar (null = não tratado); os demais
+    //devolvem o valor padrão do tipo de retorno
+    @SuppressWarnings("unchecked")
+    static <T> T proxy(Class<T> tipo, InvocationHandler manipulador) {
+        return (T) Proxy.newProxyInstance(ServicoEmMemoria.class.getClassLoader(), new Class<?>[]{tipo},
+                (proxy, metodo, argumentos) -> {
+                    if (metodo.getDeclaringClass() == Object.class) {
+                        return objeto(proxy, metodo, argumentos);
+                    }
+                    Object resultado = manipulador.invoke(proxy, metodo, argumentos);
+                    return resultado != null ? resultado : valorPadrao(metodo.getReturnType());
+                });
+    }
+
+    private static Object objeto(Object proxy, Method metodo, Object[] argumentos) {
+        switch (metodo.getName()) {
+            case "equals":
+                return proxy == argumentos[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return proxy.getClass().getInterfaces()[0].getSimpleName();
+        }
+    }
+
+    private static Object valorPadrao(Class<?> tipo) {
+        if (tipo == Optional.class) {
+            return Optional.empty();
+        }
+        if (tipo.isPrimitive() && tipo != void.class) {
+            return Array.get(Array.newInstance(tipo, 1), 0);
+        }
+        return null;
+    }
+
+}
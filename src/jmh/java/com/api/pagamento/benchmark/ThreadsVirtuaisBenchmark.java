@@ -0,0 +1,74 @@
+package com.api.pagamento.benchmark;
+
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.service.TransacaoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+//Teste de carga do GET /transacao/v1/{id} com threads de plataforma (pool do Tomcat limitado a 20 threads) e com
+//threads virtuais (api-pagamento.threads-virtuais.habilitado=true), com 100 clientes simultâneos e o mesmo pool de
+//10 conexões do Hikari nos dois modos. O cache é desligado para que toda requisição vá ao banco.
+//O modo virtual exige Java 21; em Java 17 rode apenas o modo plataforma: -Djmh.filtro="ThreadsVirtuais -p modo=plataforma"
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(100)
+@Fork(1)
+public class ThreadsVirtuaisBenchmark {
+
+    @Param({"plataforma", "virtual"})
+    private String modo;
+
+    private ConfigurableApplicationContext contexto;
+
+    private HttpClient cliente;
+
+    private HttpRequest requisicao;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws Exception {
+        contexto = AplicacaoBenchmark.iniciar(
+                "--server.tomcat.threads.max=20",
+                "--spring.datasource.hikari.maximum-pool-size=10",
+                "--spring.cache.type=none",
+                "--api-pagamento.threads-virtuais.habilitado=" + "virtual".equals(modo));
+
+        Long id = contexto.getBean(TransacaoService.class).pagar(new Transacao(null, "4444********1234",
+                new Descricao(null, new BigDecimal("500.50"), DataHoraCodec.ler("01/05/2021 18:00:00"), "PetShop Mundo cão", null, null, null),
+                new FormaPagamento(null, TipoEnum.AVISTA, "1"))).getId();
+
+        int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+        cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/transacao/v1/" + id)).GET().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public int procurarPeloId() throws Exception {
+        HttpResponse<Void> resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding());
+        if (resposta.statusCode() != 200) {
+            throw new IllegalStateException("Status inesperado: " + resposta.statusCode());
+        }
+        return resposta.statusCode();
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.api.pagamento.benchmark;
+
+import com.api.pagamento.config.AutorizadorProperties;
+import com.api.pagamento.config.MetricasConfig;
+import com.api.pagamento.config.ReplicasProperties;
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.repository.TransacaoRepository;
+import com.api.pagamento.repository.replica.EscritasRecentes;
+import com.api.pagamento.service.TransacaoService;
+import com.api.pagamento.service.TransacaoServiceImp;
+import com.api.pagamento.service.autorizador.AutorizadorSimulado;
+import com.api.pagamento.service.autorizador.ClienteAutorizador;
+import com.api.pagamento.service.identificador.GeradorIdentificadores;
+import com.api.pagamento.service.util.MetricasMapeamento;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Custo do TransacaoServiceImp em pagar e estornar, com as transações em memória (RepositorioEmMemoria) e as demais
+//dependências do serviço como mocks que não fazem nada (ServicoEmMemoria): mede as regras do pagamento e a conversão
+//para DTO, sem banco, Hibernate, transação ou cache (o serviço não passa pelos proxies do Spring, e o
+//TransactionTemplate apenas executa a gravação). Para o custo com o banco, ver PagamentoSequenciaBenchmark.
+//estornar devolve a mesma transação ao status AUTORIZADO a cada chamada (uma atribuição), para que todo estorno
+//seja aceito.
+//Com metricas=prometheus, o serviço é medido como na aplicação (advisor do @Timed de MetricasConfig e timers de
+//mapeamento ligados a um PrometheusMeterRegistry); a diferença para metricas=desligadas é o custo da instrumentação.
+//O emissor é o AutorizadorSimulado sem latência e os nsus vêm de uma sequence em memória: a medição inclui o
+//bulkhead e o retorno do ClienteAutorizador, mas não a espera pelo emissor nem pelo banco.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class TransacaoServicoBenchmark {
+
+    @Param({"desligadas", "prometheus"})
+    private String metricas;
+
+    private PrometheusMeterRegistry meterRegistry;
+
+    private RepositorioEmMemoria repositorio;
+
+    private TransacaoService transacaoService;
+
+    private AutorizadorSimulado autorizadorSimulado;
+
+    private ClienteAutorizador clienteAutorizador;
+
+    private GeradorIdentificadores geradorIdentificadores;
+
+    //Com metricas=desligadas, os timers de mapeamento ficam em um CompositeMeterRegistry vazio, que não grava nada
+    @Setup(Level.Trial)
+    public void ligarMetricas() {
+        if ("prometheus".equals(metricas)) {
+            meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        }
+        AutorizadorProperties autorizadorProperties = new AutorizadorProperties();
+        AtomicLong sequencia = new AtomicLong(1 - GeradorIdentificadores.TAMANHO_BLOCO);
+        geradorIdentificadores = new GeradorIdentificadores(nome -> sequencia.addAndGet(GeradorIdentificadores.TAMANHO_BLOCO));
+        autorizadorSimulado = new AutorizadorSimulado(autorizadorProperties, geradorIdentificadores);
+        clienteAutorizador = new ClienteAutorizador(autorizadorSimulado, autorizadorProperties);
+    }
+
+    @TearDown(Level.Trial)
+    public void desligarMetricas() {
+        if (meterRegistry != null) {
+            meterRegistry.close();
+        }
+        clienteAutorizador.encerrar();
+        autorizadorSimulado.encerrar();
+        geradorIdentificadores.encerrar();
+    }
+
+    private Transacao estornada;
+
+    //Um repositório novo a cada iteração, para que os pagamentos gravados não se acumulem durante a medição
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        repositorio = new RepositorioEmMemoria();
+        TransacaoServiceImp servico = new ServicoEmMemoria()
+                .com(TransacaoRepository.class, repositorio.transacaoRepository())
+                .com(MetricasMapeamento.class, new MetricasMapeamento(meterRegistry != null ? meterRegistry : new CompositeMeterRegistry()))
+                .com(ClienteAutorizador.class, clienteAutorizador)
+                .com(GeradorIdentificadores.class, geradorIdentificadores)
+                .com(EscritasRecentes.class, new EscritasRecentes(new ReplicasProperties()))
+                .com(TransactionTemplate.class, new TransactionTemplate(ServicoEmMemoria.proxy(PlatformTransactionManager.class,
+                        (proxy, metodo, argumentos) -> null)))
+                .criar();
+        if (meterRegistry != null) {
+            ProxyFactory proxyFactory = new ProxyFactory(servico);
+            proxyFactory.setProxyTargetClass(true);
+            proxyFactory.addAdvisor(new MetricasConfig().timedAdvisor(meterRegistry));
+            transacaoService = (TransacaoService) proxyFactory.getProxy();
+        } else {
+            transacaoService = servico;
+        }
+        estornada = repositorio.procurar(transacaoService.pagar(novaTransacao()).getId());
+    }
+
+    @Benchmark
+    public TransacaoDTO pagar() throws Exception {
+        return transacaoService.pagar(novaTransacao());
+    }
+
+    @Benchmark
+    public TransacaoDTO estornar() throws Exception {
+        estornada.getDescricao().setStatus(StatusEnum.AUTORIZADO);
+        return transacaoService.estornar(estornada.getId());
+    }
+
+    private Transacao novaTransacao() {
+        return new Transacao(null, "4444********1234",
+                new Descricao(null, new BigDecimal("500.50"), DataHoraCodec.ler("01/05/2021 18:00:00"), "PetShop Mundo cão", null, null, null),
+                new FormaPagamento(null, TipoEnum.AVISTA, "1"));
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.api.pagamento.benchmark;
+
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+import org.openjdk.jmh.annotations.*;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+//Custo da Bean Validation de uma Transacao (o que o @Valid faz em POST /transacao/v1/pagamento), com a transação
+//válida e com campos obrigatórios ausentes, que além de percorrer as restrições monta as mensagens de erro.
+//O Validator é criado uma única vez, como o LocalValidatorFactoryBean do Spring.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class ValidacaoBenchmark {
+
+    private ValidatorFactory validatorFactory;
+
+    private Validator validator;
+
+    private Transacao valida;
+
+    private Transacao invalida;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        valida = new Transacao(null, "4444********1234",
+                new Descricao(null, new BigDecimal("500.50"), DataHoraCodec.ler("01/05/2021 18:00:00"), "PetShop Mundo cão", null, null, null),
+                new FormaPagamento(null, TipoEnum.AVISTA, "1"));
+        invalida = new Transacao(null, null,
+                new Descricao(null, null, DataHoraCodec.ler("01/05/2021 18:00:00"), null, null, null, null),
+                new FormaPagamento(null, TipoEnum.AVISTA, "1"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Transacao>> validarTransacaoValida() {
+        return validator.validate(valida);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Transacao>> validarTransacaoInvalida() {
+        return validator.validate(invalida);
+    }
+
+}
@@ -2,9 +2,9 @@ package com.api.pagamento;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
@@ -39,8 +39,8 @@ import springfox.documentation.swagger2.annotations.EnableSwagger2;
         Depois de ver o log sem erros, você pode ir para o navegador e abrir o localhost com a porta do servidor para
         acessar seu aplicativo Spring Boot.
 */
-@EnableWebMvc
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class ApiPagamentoApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,12 @@
+package com.api.pagamento.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+//@EnableScheduling
+//Ativa a execução dos métodos anotados com @Scheduled (ex: a limpeza das chaves de idempotência expiradas).
+//Fica em uma classe de configuração própria para que os testes de fatia (ex: @DataJpaTest) não executem as tarefas.
+
+@EnableScheduling
+@Configuration
+public class AgendamentoConfig { }
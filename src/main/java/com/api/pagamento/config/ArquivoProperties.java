@@ -0,0 +1,33 @@
+package com.api.pagamento.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+//@ConfigurationProperties
+//Liga as propriedades com o prefixo api-pagamento.arquivo (application.yaml) aos campos desta classe.
+
+@Data
+@ConfigurationProperties(prefix = "api-pagamento.arquivo")
+public class ArquivoProperties {
+
+    //Executa o ArquivadorTransacoes. A leitura dos arquivos já gravados (ArquivoTransacoes) não depende dele.
+    private boolean habilitado = false;
+
+    //Diretório dos arquivos. Com mais de uma instância da api, precisa ser compartilhado por todas: cada uma lê os
+    //arquivos gravados pelas outras.
+    private String diretorio = "arquivo";
+
+    //Transações com data e hora anterior a esta quantidade de meses saem do banco para os arquivos
+    private int idadeMeses = 12;
+
+    //Transações por arquivo (e por transação do banco ao apagá-las)
+    private int tamanhoLote = 10_000;
+
+    //Ids guardados em memória (8 bytes cada), entre todos os arquivos, para saber sem descomprimi-los se um arquivo
+    //tem o id procurado
+    private long idsEmCache = 2_000_000;
+
+    //Arquivos inteiros guardados em memória depois de lidos, para as procuras seguintes no mesmo arquivo
+    private int arquivosEmCache = 4;
+
+}
@@ -0,0 +1,49 @@
+package com.api.pagamento.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+//@ConfigurationProperties
+//Liga as propriedades com o prefixo api-pagamento.autorizador (application.yaml) aos campos desta classe.
+
+@Data
+@ConfigurationProperties(prefix = "api-pagamento.autorizador")
+public class AutorizadorProperties {
+
+    //Implementação do Autorizador: simulado (AutorizadorSimulado, emissor local). Outra implementação é um bean
+    //Autorizador com outro valor para esta propriedade.
+    private String tipo = "simulado";
+
+    //Tempo máximo de espera pela resposta do emissor; acima dele o pagamento responde 503 e não é gravado
+    private Duration timeout = Duration.ofSeconds(2);
+
+    //Autorizações em andamento por instância (bulkhead). Acima disso o pagamento responde 503 na hora, em vez de
+    //formar uma fila que só aumentaria a latência de todos quando o emissor fica lento.
+    private int maximoEmAndamento = 2000;
+
+    //Threads que recebem as respostas do emissor e gravam os pagamentos autorizados. Como a gravação usa uma conexão do
+    //banco, mais threads que o pool do Hikari não aumentam a vazão.
+    private int threadsRetorno = 10;
+
+    private final Simulado simulado = new Simulado();
+
+    @Data
+    public static class Simulado {
+
+        //Latência de cada autorização: latencia, mais um valor sorteado entre 0 e variacaoLatencia
+        private Duration latencia = Duration.ZERO;
+
+        private Duration variacaoLatencia = Duration.ZERO;
+
+        //Fração das autorizações negadas por sorteio (0 a 1)
+        private double taxaNegacao;
+
+        //Pagamentos acima deste valor são sempre negados (sem limite quando nulo)
+        private BigDecimal valorMaximo;
+
+    }
+
+}
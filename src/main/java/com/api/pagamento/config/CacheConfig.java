@@ -0,0 +1,19 @@
+package com.api.pagamento.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+//@EnableCaching
+//Ativa as anotações @Cacheable/@CachePut/@CacheEvict. O provedor do cache não é escolhido aqui: o Spring Boot cria o
+//CacheManager a partir de spring.cache.* (application.yaml). Hoje é o Caffeine (em memória, limitado por tamanho e TTL),
+//mas basta trocar spring.cache.type (ex: redis) para usar um cache distribuído, ou usar none para desligar o cache,
+//sem alterar o serviço.
+
+@EnableCaching
+@Configuration
+public class CacheConfig {
+
+    //Cache de TransacaoDTO pelo id, usado por TransacaoServiceImp.procurarPeloId
+    public static final String CACHE_TRANSACAO = "transacao";
+
+}
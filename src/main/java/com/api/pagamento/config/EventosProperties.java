@@ -0,0 +1,33 @@
+package com.api.pagamento.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+//@ConfigurationProperties
+//Liga as propriedades com o prefixo api-pagamento.eventos (application.yaml) aos campos desta classe.
+
+@Data
+@ConfigurationProperties(prefix = "api-pagamento.eventos")
+public class EventosProperties {
+
+    //Publicador dos eventos do outbox: log (PublicadorEventosLog), fila (PublicadorEventosFila, na memória da
+    //instância) ou webhook (PublicadorEventosWebhook)
+    private String destino = "log";
+
+    //Eventos reservados e publicados em cada transação do relay
+    private int tamanhoLote = 100;
+
+    //Tempo em que um evento publicado continua na tabela evento. Dentro dele, um assinante de GET /transacao/v1/stream
+    //pode retomar o stream a partir de qualquer posição.
+    private Duration retencao = Duration.ofHours(24);
+
+    //Endereço que recebe os lotes de eventos (POST com uma lista em JSON) quando o destino é webhook
+    private String webhookUrl;
+
+    //Tempo máximo de conexão e de resposta do webhook. Um lote sem resposta é publicado de novo na próxima execução
+    //do relay.
+    private Duration webhookTimeout = Duration.ofSeconds(5);
+
+}
@@ -0,0 +1,23 @@
+package com.api.pagamento.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+//@ConfigurationProperties
+//Liga as propriedades com o prefixo api-pagamento.idempotencia (application.yaml) aos campos desta classe.
+
+@Data
+@ConfigurationProperties(prefix = "api-pagamento.idempotencia")
+public class IdempotenciaProperties {
+
+    //Por quanto tempo o resultado de uma chave fica na memória da instância. Retentativas dentro desse prazo são
+    //respondidas sem acessar o banco.
+    private Duration ttlMemoria = Duration.ofMinutes(10);
+
+    //Por quanto tempo a chave fica gravada na tabela idempotencia. Retentativas dentro desse prazo (inclusive depois
+    //de um restart ou em outra instância) retornam a transação original.
+    private Duration retencao = Duration.ofHours(24);
+
+}
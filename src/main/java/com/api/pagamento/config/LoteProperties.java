@@ -0,0 +1,17 @@
+package com.api.pagamento.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+//@ConfigurationProperties
+//Liga as propriedades com o prefixo api-pagamento.lote (application.yaml) aos campos desta classe.
+
+@Data
+@ConfigurationProperties(prefix = "api-pagamento.lote")
+public class LoteProperties {
+
+    //Quantidade de pagamentos gravados em cada transação do banco pelo POST /transacao/v1/pagamentos.
+    //O tamanho de cada batch JDBC é definido por spring.jpa.properties.hibernate.jdbc.batch_size.
+    private int tamanhoTransacao = 500;
+
+}
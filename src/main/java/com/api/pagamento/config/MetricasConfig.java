@@ -0,0 +1,118 @@
+package com.api.pagamento.config;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+//Métricas (Micrometer)
+
+//O Spring Boot já registra, sem código na api:
+//  http.server.requests               tempo de cada endpoint, por uri, status e exceção
+//  spring.data.repository.invocations tempo de cada método dos repositórios (tempo de banco), por repositório e método
+//  hikaricp.connections.*             conexões ativas, ociosas e pendentes do pool
+//  cache.*                            acertos e falhas do cache de transações
+//Esta classe acrescenta as métricas do serviço, expostas em /actuator/prometheus junto com as acima.
+
+@Configuration
+public class MetricasConfig {
+
+    //Tempo de cada operação do TransacaoService, pela tag operacao. A tag exception traz a exceção lançada
+    //(ex: InsercaoNaoPermitidaException, TransacaoInexistenteException) ou none quando a operação terminou bem.
+    public static final String METRICA_SERVICO = "transacao.servico";
+
+    //Tempo da conversão entidade -> DTO dentro de cada operação do serviço, pela tag operacao
+    public static final String METRICA_MAPEAMENTO = "transacao.mapeamento";
+
+    //Mede os métodos anotados com @Timed (mesmas tags do TimedAspect do Micrometer: class, method, exception e extraTags).
+    //Registrado como Advisor, e não como @Aspect, para ter a maior precedência: a medição envolve o cache e a transação
+    //(como @Aspect ela ficaria dentro deles, sem contar os acertos do cache nem o commit).
+    @Bean
+    public Advisor timedAdvisor(MeterRegistry meterRegistry) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(Timed.class), new MedicaoTimed(meterRegistry));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    //Ao contrário do TimedAspect, que monta e procura o Timer no registro a cada chamada, os Timers ficam guardados por
+    //método e exceção: depois da primeira chamada, a medição custa duas leituras do relógio e a gravação no Timer.
+    static final class MedicaoTimed implements MethodInterceptor {
+
+        private static final Class<?> SEM_EXCECAO = Void.class;
+
+        private final MeterRegistry meterRegistry;
+
+        private final Map<Method, Map<Class<?>, Timer>> timers = new ConcurrentHashMap<>();
+
+        MedicaoTimed(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        //Um método assíncrono (CompletionStage) é medido até o futuro completar, com a exceção que o completou
+        @Override
+        public Object invoke(MethodInvocation invocacao) throws Throwable {
+            long inicio = meterRegistry.config().clock().monotonicTime();
+            Object resultado;
+            try {
+                resultado = invocacao.proceed();
+            } catch (Throwable ex) {
+                gravar(invocacao, ex.getClass(), inicio);
+                throw ex;
+            }
+            if (resultado instanceof CompletionStage) {
+                return ((CompletionStage<?>) resultado).whenComplete((valor, ex) ->
+                        gravar(invocacao, ex == null ? SEM_EXCECAO : causa(ex).getClass(), inicio));
+            }
+            gravar(invocacao, SEM_EXCECAO, inicio);
+            return resultado;
+        }
+
+        private void gravar(MethodInvocation invocacao, Class<?> excecao, long inicio) {
+            timer(invocacao, excecao).record(meterRegistry.config().clock().monotonicTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+
+        private static Throwable causa(Throwable ex) {
+            return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        }
+
+        private Timer timer(MethodInvocation invocacao, Class<?> excecao) {
+            Map<Class<?>, Timer> porExcecao = timers.computeIfAbsent(invocacao.getMethod(), metodo -> new ConcurrentHashMap<>());
+            Timer timer = porExcecao.get(excecao);
+            return timer != null ? timer : porExcecao.computeIfAbsent(excecao, e -> criar(invocacao, e));
+        }
+
+        private Timer criar(MethodInvocation invocacao, Class<?> excecao) {
+            Object alvo = invocacao.getThis();
+            Method metodo = AopUtils.getMostSpecificMethod(invocacao.getMethod(), alvo == null ? null : AopUtils.getTargetClass(alvo));
+            Timed timed = AnnotatedElementUtils.findMergedAnnotation(metodo, Timed.class);
+            return Timer.builder(timed.value())
+                    .description(timed.description().isEmpty() ? null : timed.description())
+                    .tags(timed.extraTags())
+                    .tag("class", metodo.getDeclaringClass().getName())
+                    .tag("method", metodo.getName())
+                    .tag("exception", excecao == SEM_EXCECAO ? "none" : excecao.getSimpleName())
+                    .publishPercentileHistogram(timed.histogram())
+                    .publishPercentiles(timed.percentiles().length == 0 ? null : timed.percentiles())
+                    .register(meterRegistry);
+        }
+
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.api.pagamento.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+//@ConfigurationProperties
+//Liga as propriedades com o prefixo api-pagamento.particoes (application.yaml) aos campos desta classe.
+
+@Data
+@ConfigurationProperties(prefix = "api-pagamento.particoes")
+public class ParticoesProperties {
+
+    //Manutenção das partições mensais da transacao (GerenciadorParticoes). Só no PostgreSQL (migração V14).
+    private boolean habilitado = false;
+
+    //Meses à frente do atual que já têm partição, para que um pagamento nunca espere a criação de uma
+    private int mesesFuturos = 3;
+
+    //Meses anteriores ao atual que continuam na transacao. As partições mais antigas são desanexadas: saem das
+    //consultas, mas continuam no banco como tabelas comuns (transacao_AAAA_MM).
+    private int retencaoMeses = 24;
+
+}
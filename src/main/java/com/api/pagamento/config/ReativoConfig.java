@@ -0,0 +1,22 @@
+package com.api.pagamento.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+//Perfil reativo
+
+//Com o Tomcat e o Reactor Netty no classpath, o Spring Boot escolheria o Tomcat também para o WebFlux. O Netty atende
+//todas as conexões com um event loop de poucas threads (uma por núcleo), sem uma thread por requisição.
+
+@Configuration
+@Profile("reativo")
+public class ReativoConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+}
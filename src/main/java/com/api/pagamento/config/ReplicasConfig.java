@@ -0,0 +1,103 @@
+package com.api.pagamento.config;
+
+import com.api.pagamento.repository.replica.EscritasRecentes;
+import com.api.pagamento.repository.replica.LeituraReplica;
+import com.api.pagamento.repository.replica.RoteadorReplicas;
+import com.zaxxer.hikari.HikariDataSource;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+//Leituras nas réplicas (api-pagamento.replicas)
+
+//Com um DataSource no contexto, o Spring Boot deixa de criar o dele: o primário é criado aqui, com as mesmas
+//propriedades (spring.datasource e spring.datasource.hikari), e o DataSource usado pelo JPA, pelo Flyway e pelo
+//JdbcTemplate (@Primary) passa a ser o RoteadorReplicas.
+//LazyConnectionDataSourceProxy: o JpaTransactionManager pede a conexão ao abrir a transação, antes de marcá-la como
+//somente de leitura. O proxy só a obtém do RoteadorReplicas na primeira instrução SQL, quando a marcação já existe.
+
+@Configuration
+@Profile("!reativo")
+@ConditionalOnProperty(prefix = "api-pagamento.replicas", name = "habilitado", havingValue = "true")
+public class ReplicasConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primario(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public RoteadorReplicas roteadorReplicas(HikariDataSource primario, DataSourceProperties dataSourceProperties,
+                                             ReplicasProperties replicasProperties, EscritasRecentes escritasRecentes) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (ReplicasProperties.Instancia instancia : replicasProperties.getInstancias()) {
+            replicas.add(replica(instancia, "replica-" + (replicas.size() + 1), dataSourceProperties, primario));
+        }
+        return new RoteadorReplicas(primario, replicas, escritasRecentes, replicasProperties);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(RoteadorReplicas roteadorReplicas) {
+        return new LazyConnectionDataSourceProxy(roteadorReplicas);
+    }
+
+    //Marca as chamadas dos métodos com @LeituraReplica para o RoteadorReplicas. A ordem em relação à transação não
+    //importa: a conexão só é escolhida na primeira instrução SQL, já dentro do método.
+    @Bean
+    public Advisor leituraReplicaAdvisor(RoteadorReplicas roteadorReplicas) {
+        return new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forMethodAnnotation(LeituraReplica.class),
+                new MarcacaoLeitura(roteadorReplicas));
+    }
+
+    //O pool só abre conexões na primeira medição do atraso: uma réplica fora do ar não impede a api de subir.
+    //A espera por uma conexão é a mesma do primário.
+    private static HikariDataSource replica(ReplicasProperties.Instancia instancia, String nome,
+                                            DataSourceProperties dataSourceProperties, HikariDataSource primario) {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName(nome);
+        replica.setJdbcUrl(instancia.getUrl());
+        replica.setUsername(instancia.getUsername() != null ? instancia.getUsername() : dataSourceProperties.determineUsername());
+        replica.setPassword(instancia.getPassword() != null ? instancia.getPassword() : dataSourceProperties.determinePassword());
+        replica.setMaximumPoolSize(instancia.getMaximumPoolSize());
+        replica.setConnectionTimeout(primario.getConnectionTimeout());
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    static final class MarcacaoLeitura implements MethodInterceptor {
+
+        private final RoteadorReplicas roteadorReplicas;
+
+        MarcacaoLeitura(RoteadorReplicas roteadorReplicas) {
+            this.roteadorReplicas = roteadorReplicas;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            boolean anterior = roteadorReplicas.marcarLeituraReplica(true);
+            try {
+                return invocation.proceed();
+            } finally {
+                roteadorReplicas.marcarLeituraReplica(anterior);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.api.pagamento.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+//@ConfigurationProperties
+//Liga as propriedades com o prefixo api-pagamento.replicas (application.yaml) aos campos desta classe.
+
+@Data
+@ConfigurationProperties(prefix = "api-pagamento.replicas")
+public class ReplicasProperties {
+
+    //Leituras (métodos com @LeituraReplica) nas réplicas (ReplicasConfig). Desligado, tudo vai ao spring.datasource.
+    private boolean habilitado = false;
+
+    //Escolha entre as réplicas disponíveis: RODIZIO (uma de cada vez) ou MENOS_OCUPADA (a com menos conexões em uso)
+    private Balanceamento balanceamento = Balanceamento.RODIZIO;
+
+    //Réplicas com atraso acima deste valor deixam de receber leituras até alcançarem o primário
+    private Duration atrasoMaximo = Duration.ofSeconds(5);
+
+    //Posição do log de escritas (WAL) já gravada no primário, executada nele a cada api-pagamento.replicas.intervalo
+    private String consultaPosicaoPrimario = "select pg_current_wal_lsn() - '0/0'";
+
+    //Posição do WAL já aplicada pela réplica, executada nela logo depois da consulta ao primário. Ela só alcança o
+    //momento de uma medição do primário quando aplicou tudo até a posição lida nele, não apenas o que já recebeu.
+    private String consultaPosicaoReplica = "select pg_last_wal_replay_lsn() - '0/0'";
+
+    private List<Instancia> instancias = new ArrayList<>();
+
+    public enum Balanceamento {
+        RODIZIO, MENOS_OCUPADA
+    }
+
+    @Data
+    public static class Instancia {
+
+        //Mesmo formato de spring.datasource.url; usuário e senha vazios usam os do spring.datasource
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        //Conexões do pool (Hikari) desta réplica
+        private int maximumPoolSize = 10;
+
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.api.pagamento.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+//@ConfigurationProperties
+//Liga as propriedades com o prefixo api-pagamento.stream (application.yaml) aos campos desta classe.
+
+@Data
+@ConfigurationProperties(prefix = "api-pagamento.stream")
+public class StreamProperties {
+
+    //Eventos mais recentes mantidos na memória (BufferEventos), compartilhados por todos os assinantes. Um assinante
+    //mais atrasado que isso lê os eventos da tabela evento até alcançar o buffer.
+    private int capacidade = 10000;
+
+    //Eventos enviados a um assinante de cada vez, e lidos da tabela evento por consulta
+    private int loteEnvio = 256;
+
+    //Assinantes simultâneos por instância; acima disso GET /transacao/v1/stream responde 503
+    private int maximoAssinantes = 10000;
+
+    //Threads que escrevem nas conexões dos assinantes. Um assinante lento ocupa uma delas enquanto a escrita espera.
+    private int threadsEnvio = 8;
+
+    //Duração máxima de uma escrita na conexão de um assinante. Passado esse tempo, a assinatura é encerrada e outra
+    //thread assume o lugar da que continua presa na escrita (ver FeedEventosServiceImp).
+    private Duration prazoEscrita = Duration.ofSeconds(10);
+
+    //Duração máxima de uma conexão; o cliente reconecta com o cabeçalho Last-Event-ID e não perde eventos
+    private Duration timeout = Duration.ofMinutes(30);
+
+    //Intervalo máximo sem escrita na conexão: um comentário é enviado para que proxies não a encerrem
+    private Duration heartbeat = Duration.ofSeconds(15);
+
+}
@@ -0,0 +1,54 @@
+package com.api.pagamento.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//Modo de execução com threads virtuais (opt-in: api-pagamento.threads-virtuais.habilitado=true)
+
+//Cada requisição é atendida por uma thread virtual nova, em vez de uma thread do pool do Tomcat
+//(server.tomcat.threads.max). As chamadas ao repositório são feitas na thread da requisição, então também rodam em
+//threads virtuais: enquanto uma delas espera o banco, a thread do sistema operacional fica livre para outra requisição.
+//O que limita o acesso ao banco passa a ser apenas o pool do Hikari (spring.datasource.hikari.maximum-pool-size),
+//dimensionado pelo banco e não pela quantidade de requisições simultâneas.
+//O mesmo executor atende as respostas assíncronas do MVC (ex: StreamingResponseBody do /exportacao).
+
+//Threads virtuais exigem Java 21. O projeto compila em Java 17, por isso o executor é obtido por reflexão; em uma JVM
+//sem suporte a aplicação não sobe com o modo habilitado, para que um teste de carga não rode com threads de
+//plataforma sem perceber.
+
+@Configuration
+@ConditionalOnProperty(prefix = "api-pagamento.threads-virtuais", name = "habilitado", havingValue = "true")
+public class ThreadsVirtuaisConfig implements WebMvcConfigurer {
+
+    private final ExecutorService executor = criarExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> executorThreadsVirtuais() {
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+    }
+
+    static ExecutorService criarExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException ex) {
+            throw new IllegalStateException("api-pagamento.threads-virtuais.habilitado=true exige Java 21 ou superior "
+                    + "(JVM atual: " + Runtime.version() + ")", ex);
+        }
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.api.pagamento.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+//@EnableWebMvc
+//Ativa a configuração do Spring MVC. Fica em uma classe de configuração própria, e não em ApiPagamentoApplication,
+//para que os testes de fatia (ex: @DataJpaTest), que não sobem um ServletContext, não carreguem a camada web.
+//No perfil reativo a aplicação roda no WebFlux (Netty) e o Spring MVC não é ativado.
+
+@EnableWebMvc
+@Configuration
+@Profile("!reativo")
+public class WebMvcConfig { }
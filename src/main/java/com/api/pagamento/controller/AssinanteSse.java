@@ -0,0 +1,43 @@
+package com.api.pagamento.controller;
+
+import com.api.pagamento.domain.dto.EventoDTO;
+import com.api.pagamento.service.stream.AssinanteFeed;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+
+//Envia os eventos do stream em uma conexão SSE: cada evento tem como id a posição (o navegador a reenvia no cabeçalho
+//Last-Event-ID ao reconectar), como nome o tipo (PAGAMENTO ou ESTORNO) e como dados o EventoDTO em JSON.
+
+class AssinanteSse implements AssinanteFeed {
+
+    private final SseEmitter emitter;
+
+    AssinanteSse(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void enviar(List<EventoDTO> eventos) throws IOException {
+        for (EventoDTO evento : eventos) {
+            emitter.send(SseEmitter.event()
+                    .id(evento.getPosicao().toString())
+                    .name(evento.getTipo().name())
+                    .data(evento, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    @Override
+    public void manterConexao() throws IOException {
+        emitter.send(SseEmitter.event().comment(""));
+    }
+
+    //Os métodos do emitter esperam o send em andamento, por isso só é chamado depois que a escrita termina
+    @Override
+    public void encerrar() {
+        emitter.completeWithError(new IOException("O assinante não recebeu os eventos dentro do prazo"));
+    }
+
+}
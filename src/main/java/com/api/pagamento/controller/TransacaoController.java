@@ -1,20 +1,43 @@
 package com.api.pagamento.controller;
 
-import com.api.pagamento.domain.dto.ResponseErrorDTO;
+import com.api.pagamento.config.StreamProperties;
+import com.api.pagamento.domain.dto.FiltroRelatorioDTO;
+import com.api.pagamento.domain.dto.FiltroTransacaoDTO;
+import com.api.pagamento.domain.dto.PaginaTransacaoDTO;
+import com.api.pagamento.domain.dto.ResultadoPagamentoDTO;
+import com.api.pagamento.domain.dto.TotalDTO;
 import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.exception.AutorizadorIndisponivelException;
+import com.api.pagamento.domain.exception.ChaveIdempotenciaInvalidaException;
+import com.api.pagamento.domain.exception.CursorInvalidoException;
+import com.api.pagamento.domain.exception.EstornoNaoPermitidoException;
+import com.api.pagamento.domain.exception.FiltroInvalidoException;
 import com.api.pagamento.domain.exception.InsercaoNaoPermitidaException;
+import com.api.pagamento.domain.exception.LimiteAssinantesException;
+import com.api.pagamento.domain.exception.RelatorioInvalidoException;
 import com.api.pagamento.domain.exception.TransacaoInexistenteException;
 import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.service.FeedEventosService;
+import com.api.pagamento.service.IdempotenciaService;
 import com.api.pagamento.service.TransacaoService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 //@RestController: @Controller + @ResponseBody
 
@@ -42,9 +65,25 @@ import java.util.List;
 //Gera um construtor com argumentos necessários. Os argumentos obrigatórios são campos finais e campos com restrições como @NonNull.
 
 @RequiredArgsConstructor
+
+//Api servlet (Spring MVC); no perfil reativo os endpoints são atendidos pelo TransacaoReativoController
+@Profile("!reativo")
 public class TransacaoController {
+
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final TransacaoService transacaoService;
 
+    private final IdempotenciaService idempotenciaService;
+
+    private final FeedEventosService feedEventosService;
+
+    private final StreamProperties streamProperties;
+
+    private final ObjectMapper objectMapper;
+
     //ResponseEntity vs ResponseStatus: https://www.youtube.com/watch?v=D1TiEm956WE
 
     @ApiOperation(value = "Procura uma transação pelo id")
@@ -73,46 +112,158 @@ public class TransacaoController {
 
     }
 
-    @ApiOperation(value = "Realiza um pagamento")
+    @ApiOperation(value = "Procura as transações de forma paginada, ordenadas pelo id")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "O pagamento foi realizado"),
-            @ApiResponse(code = 404, message = "O código de autorização, o nsu e o status não podem ser inseridos pelo usuário"),
-            @ApiResponse(code = 400, message = "Há campos obrigatórios que não foram preenchidos"),
+            @ApiResponse(code = 200, message = "A página foi retornada; proximoCursor é nulo na última página"),
+            @ApiResponse(code = 400, message = "O cursor informado é inválido"),
             @ApiResponse(code = 500, message = "Internal Server Error")
     })
-    @PostMapping(value = "/pagamento", produces = "application/json", consumes = "application/json")
-    public ResponseEntity<TransacaoDTO> pagar(@RequestBody @Valid Transacao transacao) throws InsercaoNaoPermitidaException {
+    @GetMapping(value = "/pagina", produces = "application/json")
+    public ResponseEntity<PaginaTransacaoDTO> procurarPagina(@RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer tamanho) throws CursorInvalidoException {
 
-        return ResponseEntity.ok().body(transacaoService.pagar(transacao));
+        return ResponseEntity.ok().body(transacaoService.procurarPagina(cursor, tamanho));
 
     }
 
-    @ApiOperation(value = "Solicita um estorno pelo id da transação")
+    //Os filtros são preenchidos pelos parâmetros da requisição com o mesmo nome (ex: ?estabelecimento=...&status=AUTORIZADO)
+
+    @ApiOperation(value = "Busca transações por estabelecimento, status, tipo, período e final do cartão, da mais recente para a mais antiga")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "O estorno foi realizado"),
-            @ApiResponse(code = 404, message = "Nenhuma transação foi encontrada"),
-            @ApiResponse(code = 400, message = "Há campos obrigatórios que não foram preenchidos"),
+            @ApiResponse(code = 200, message = "A página foi retornada; proximoCursor é nulo na última página"),
+            @ApiResponse(code = 400, message = "O cursor ou algum dos filtros é inválido"),
             @ApiResponse(code = 500, message = "Internal Server Error")
     })
-    @PutMapping(value = "/estorno/{id}", produces = "application/json")
-    public ResponseEntity<TransacaoDTO> estornar(@PathVariable Long id) throws TransacaoInexistenteException {
+    @GetMapping(value = "/busca", produces = "application/json")
+    public ResponseEntity<PaginaTransacaoDTO> buscar(FiltroTransacaoDTO filtro,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer tamanho) throws CursorInvalidoException, FiltroInvalidoException {
+
+        return ResponseEntity.ok().body(transacaoService.buscar(filtro, cursor, tamanho));
 
-        return ResponseEntity.ok().body(transacaoService.estornar(id));
     }
 
-    @ExceptionHandler(InsercaoNaoPermitidaException.class)
-    public ResponseEntity<ResponseErrorDTO> InsercaoNaoPermitidaException(InsercaoNaoPermitidaException ex) {
+    //Os totais são somados no banco a partir do resumo diário, mantido a cada pagamento e estorno
 
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getResponseError());
+    @ApiOperation(value = "Retorna a quantidade, o total e o valor médio das transações, agrupados por dia, estabelecimento, status, tipo e/ou parcelas")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "O relatório foi retornado (vazio se nenhuma transação atende aos filtros)"),
+            @ApiResponse(code = 400, message = "O período informado é inválido"),
+            @ApiResponse(code = 500, message = "Internal Server Error")
+    })
+    @GetMapping(value = "/relatorio", produces = "application/json")
+    public ResponseEntity<List<TotalDTO>> totalizar(FiltroRelatorioDTO filtro) throws RelatorioInvalidoException {
+
+        return ResponseEntity.ok().body(transacaoService.totalizar(filtro));
 
     }
 
-    @ExceptionHandler(TransacaoInexistenteException.class)
-    public ResponseEntity<ResponseErrorDTO> TranscaoInexistenteException(TransacaoInexistenteException ex) {
+    //StreamingResponseBody
+    //O corpo é escrito de forma assíncrona, uma transação por linha (NDJSON), à medida que as linhas são lidas do cursor
+    //do banco. Assim a memória usada não depende da quantidade de transações.
 
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getResponseError());
+    @ApiOperation(value = "Exporta todas as transações em NDJSON (uma transação por linha)")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "As transações estão sendo transmitidas"),
+            @ApiResponse(code = 500, message = "Internal Server Error")
+    })
+    @GetMapping(value = "/exportacao", produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportarTodos() {
+
+        //AUTO_CLOSE_TARGET desligado: cada linha é escrita no mesmo OutputStream da resposta, que só é fechado ao final
+        ObjectWriter writer = objectMapper.writerFor(TransacaoDTO.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        StreamingResponseBody corpo = saida -> transacaoService.transmitirTodos(transacaoDTO -> {
+            try {
+                writer.writeValue(saida, transacaoDTO);
+                saida.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON)).body(corpo);
 
     }
 
+    //SseEmitter
+    //A conexão fica aberta e cada evento é enviado assim que é publicado (Server-Sent Events). Para retomar, o cliente
+    //informa a posição do último evento recebido: o cabeçalho Last-Event-ID, enviado pelo navegador ao reconectar, ou
+    //o parâmetro apos. Sem nenhum dos dois, apenas os eventos publicados a partir da conexão são enviados.
+
+    @ApiOperation(value = "Transmite os pagamentos e estornos à medida que são publicados (text/event-stream)")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Os eventos estão sendo transmitidos"),
+            @ApiResponse(code = 503, message = "O limite de assinantes do stream foi atingido"),
+            @ApiResponse(code = 500, message = "Internal Server Error")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter transmitirEventos(@RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEvento,
+                                        @RequestParam(required = false) Long apos) throws LimiteAssinantesException {
+
+        SseEmitter emitter = new SseEmitter(streamProperties.getTimeout().toMillis());
+        Runnable cancelar = feedEventosService.assinar(ultimoEvento != null ? ultimoEvento : apos, new AssinanteSse(emitter));
+        emitter.onCompletion(cancelar);
+        emitter.onTimeout(cancelar);
+        emitter.onError(ex -> cancelar.run());
+        return emitter;
+
+    }
+
+    //CompletableFuture
+    //A thread da requisição é liberada enquanto o emissor autoriza o pagamento; a resposta é escrita quando o pagamento
+    //autorizado (ou negado) é gravado. Com o Idempotency-Key, a requisição é atendida na própria thread.
+
+    @ApiOperation(value = "Realiza um pagamento")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "O pagamento foi processado; o status diz se o emissor o autorizou ou negou"),
+            @ApiResponse(code = 404, message = "O código de autorização, o nsu e o status não podem ser inseridos pelo usuário"),
+            @ApiResponse(code = 400, message = "Há campos obrigatórios que não foram preenchidos ou o Idempotency-Key é inválido"),
+            @ApiResponse(code = 503, message = "O emissor não respondeu a tempo ou está sobrecarregado; o pagamento não foi gravado"),
+            @ApiResponse(code = 500, message = "Internal Server Error")
+    })
+    @PostMapping(value = "/pagamento", produces = "application/json", consumes = "application/json")
+    public CompletableFuture<ResponseEntity<TransacaoDTO>> pagar(@RequestHeader(value = IDEMPOTENCY_KEY, required = false) String chaveIdempotencia,
+                                                                 @RequestBody @Valid Transacao transacao)
+            throws InsercaoNaoPermitidaException, ChaveIdempotenciaInvalidaException, AutorizadorIndisponivelException {
+
+        //Com o cabeçalho Idempotency-Key, uma retentativa com a mesma chave retorna a transação criada pela primeira
+        //requisição, em vez de criar outra
+        if (chaveIdempotencia != null) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok().body(idempotenciaService.pagar(chaveIdempotencia, transacao)));
+        }
+
+        return transacaoService.pagarAssincrono(transacao).thenApply(transacaoDTO -> ResponseEntity.ok().body(transacaoDTO));
+
+    }
+
+    //A validação de cada item é feita pelo serviço, e não pelo @Valid, para que um item inválido não rejeite o lote
+    //inteiro: a resposta traz o resultado de cada item, na mesma ordem da requisição.
+
+    @ApiOperation(value = "Realiza pagamentos em lote")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "O lote foi processado; cada item traz a transação gravada ou o erro"),
+            @ApiResponse(code = 500, message = "Internal Server Error")
+    })
+    @PostMapping(value = "/pagamentos", produces = "application/json", consumes = "application/json")
+    public ResponseEntity<List<ResultadoPagamentoDTO>> pagarEmLote(@RequestBody List<Transacao> transacoes) {
+
+        return ResponseEntity.ok().body(transacaoService.pagarEmLote(transacoes));
+
+    }
+
+    @ApiOperation(value = "Solicita um estorno pelo id da transação")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "O estorno foi realizado"),
+            @ApiResponse(code = 404, message = "Nenhuma transação foi encontrada"),
+            @ApiResponse(code = 400, message = "Há campos obrigatórios que não foram preenchidos"),
+            @ApiResponse(code = 409, message = "A transação já foi estornada"),
+            @ApiResponse(code = 500, message = "Internal Server Error")
+    })
+    @PutMapping(value = "/estorno/{id}", produces = "application/json")
+    public ResponseEntity<TransacaoDTO> estornar(@PathVariable Long id) throws TransacaoInexistenteException, EstornoNaoPermitidoException {
+
+        return ResponseEntity.ok().body(transacaoService.estornar(id));
+    }
 
 }
@@ -0,0 +1,72 @@
+package com.api.pagamento.controller;
+
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.exception.EstornoNaoPermitidoException;
+import com.api.pagamento.domain.exception.InsercaoNaoPermitidaException;
+import com.api.pagamento.domain.exception.TransacaoInexistenteException;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.service.TransacaoReativoService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.util.List;
+
+//Api reativa (perfil reativo)
+
+//Mesmas rotas e respostas do TransacaoController, atendidas pelo WebFlux: cada requisição é um fluxo de eventos
+//(Mono/Flux) e nenhuma thread fica parada esperando o banco, então poucas threads do event loop atendem muitas
+//requisições simultâneas.
+
+@RestController
+@RequestMapping("/transacao/v1")
+@RequiredArgsConstructor
+@Profile("reativo")
+public class TransacaoReativoController {
+
+    private final TransacaoReativoService transacaoService;
+
+    @GetMapping(value = "/{id}", produces = "application/json")
+    public Mono<TransacaoDTO> procurarPeloId(@PathVariable Long id) {
+
+        return transacaoService.procurarPeloId(id);
+
+    }
+
+    //A lista é montada na memória, como no TransacaoController; para transmitir sem acumular, use /exportacao
+    @GetMapping(produces = "application/json")
+    public Mono<List<TransacaoDTO>> procurarTodos() {
+
+        return transacaoService.procurarTodos().collectList();
+
+    }
+
+    //Cada transação é escrita em uma linha (NDJSON) assim que é lida do banco; o consumo do cliente controla o ritmo
+    //da leitura (backpressure)
+    @GetMapping(value = "/exportacao", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TransacaoDTO> exportarTodos() {
+
+        return transacaoService.procurarTodos().onErrorResume(TransacaoInexistenteException.class, ex -> Flux.empty());
+
+    }
+
+    @PostMapping(value = "/pagamento", produces = "application/json", consumes = "application/json")
+    public Mono<TransacaoDTO> pagar(@RequestBody @Valid Transacao transacao) {
+
+        return transacaoService.pagar(transacao);
+
+    }
+
+    @PutMapping(value = "/estorno/{id}", produces = "application/json")
+    public Mono<TransacaoDTO> estornar(@PathVariable Long id) {
+
+        return transacaoService.estornar(id);
+
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.api.pagamento.controller;
+
+import com.api.pagamento.domain.dto.ResponseErrorDTO;
+import com.api.pagamento.domain.exception.ExcecaoNegocio;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+//@RestControllerAdvice = @ControllerAdvice + @ResponseBody
+
+//@ControllerAdvice
+//Os métodos @ExceptionHandler desta classe valem para todos os controllers (TransacaoController no Spring MVC e
+//TransacaoReativoController no WebFlux), em vez de cada controller repetir um handler por exceção.
+
+@RestControllerAdvice
+public class TratadorExcecoes {
+
+    //Toda exceção de negócio já traz o corpo da resposta, com o status HTTP
+    @ExceptionHandler(ExcecaoNegocio.class)
+    public ResponseEntity<ResponseErrorDTO> excecaoNegocio(ExcecaoNegocio ex) {
+
+        return ResponseEntity.status(ex.getResponseError().getStatus()).body(ex.getResponseError());
+
+    }
+
+}
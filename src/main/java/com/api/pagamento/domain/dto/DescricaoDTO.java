@@ -1,12 +1,19 @@
 package com.api.pagamento.domain.dto;
 
 import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.dto.util.ValorCodec;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
 //@Data = @Data é uma anotação que gera o código padronizado para classes Java: getters para todos os campos,
 //setters para todos os campos não-finais e o toString apropriado, equals e implementações hashCode
 //que envolvem os campos da classe.
@@ -45,8 +52,12 @@ public class DescricaoDTO {
 
     @JsonIgnore
     private Long id;
-    private String valor;
-    private String dataHora;
+    @JsonSerialize(using = ValorCodec.Serializador.class)
+    @JsonDeserialize(using = ValorCodec.Desserializador.class)
+    private BigDecimal valor;
+    @JsonSerialize(using = DataHoraCodec.Serializador.class)
+    @JsonDeserialize(using = DataHoraCodec.Desserializador.class)
+    private OffsetDateTime dataHora;
     private String estabelecimento;
     private String nsu;
     private String codigoAutorizacao;
@@ -0,0 +1,40 @@
+package com.api.pagamento.domain.dto;
+
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.TipoEventoEnum;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+//@Data = @Data é uma anotação que gera o código padronizado para classes Java: getters para todos os campos,
+//setters para todos os campos não-finais e o toString apropriado, equals e implementações hashCode
+//que envolvem os campos da classe.
+
+@Data
+
+@AllArgsConstructor
+
+@NoArgsConstructor
+
+//Evento entregue aos publicadores e aos assinantes do stream. A entrega é "pelo menos uma vez": um evento pode ser
+//repetido (ex: o relay caiu depois de publicar e antes de confirmar o lote), e o id permite que o consumidor descarte as
+//repetições. posicao é a ordem de publicação, usada para retomar o stream (GET /transacao/v1/stream).
+
+//@JsonRawValue: transacao já é o JSON do TransacaoDTO gravado no outbox e é escrito como está, sem ser lido de volta
+
+public class EventoDTO {
+
+    private Long id;
+    private Long posicao;
+    private Long transacaoId;
+    private TipoEventoEnum tipo;
+    @JsonSerialize(using = DataHoraCodec.Serializador.class)
+    private OffsetDateTime criadoEm;
+    @JsonRawValue
+    private String transacao;
+
+}
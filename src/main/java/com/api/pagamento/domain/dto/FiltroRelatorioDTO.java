@@ -0,0 +1,39 @@
+package com.api.pagamento.domain.dto;
+
+import com.api.pagamento.domain.enumeration.AgrupamentoEnum;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+//@Data = @Data é uma anotação que gera o código padronizado para classes Java: getters para todos os campos,
+//setters para todos os campos não-finais e o toString apropriado, equals e implementações hashCode
+//que envolvem os campos da classe.
+
+@Data
+
+@Builder
+
+@AllArgsConstructor
+
+@NoArgsConstructor
+
+//Parâmetros de GET /transacao/v1/relatorio, preenchidos pelos parâmetros da requisição com o mesmo nome.
+//agrupamento são as dimensões do relatório (ex: ?agrupamento=ESTABELECIMENTO,DIA); sem agrupamento, o relatório tem
+//uma única linha com o total geral. inicio e fim são dias no formato dd/MM/yyyy e incluem os extremos. Filtros nulos
+//são ignorados.
+
+public class FiltroRelatorioDTO {
+
+    private List<AgrupamentoEnum> agrupamento;
+    private String inicio;
+    private String fim;
+    private String estabelecimento;
+    private StatusEnum status;
+    private TipoEnum tipo;
+
+}
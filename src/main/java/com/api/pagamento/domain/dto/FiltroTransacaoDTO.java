@@ -0,0 +1,35 @@
+package com.api.pagamento.domain.dto;
+
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//@Data = @Data é uma anotação que gera o código padronizado para classes Java: getters para todos os campos,
+//setters para todos os campos não-finais e o toString apropriado, equals e implementações hashCode
+//que envolvem os campos da classe.
+
+@Data
+
+@Builder
+
+@AllArgsConstructor
+
+@NoArgsConstructor
+
+//Filtros de GET /transacao/v1/busca, preenchidos pelos parâmetros da requisição. Filtros nulos são ignorados.
+//inicio e fim usam o formato de dataHora (dd/MM/yyyy HH:mm:ss) e incluem os extremos; finalCartao são os 4 últimos
+//dígitos do cartão.
+
+public class FiltroTransacaoDTO {
+
+    private String estabelecimento;
+    private StatusEnum status;
+    private TipoEnum tipo;
+    private String inicio;
+    private String fim;
+    private String finalCartao;
+
+}
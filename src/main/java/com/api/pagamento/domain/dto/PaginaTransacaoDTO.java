@@ -0,0 +1,27 @@
+package com.api.pagamento.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+//@Data = @Data é uma anotação que gera o código padronizado para classes Java: getters para todos os campos,
+//setters para todos os campos não-finais e o toString apropriado, equals e implementações hashCode
+//que envolvem os campos da classe.
+
+@Data
+
+@AllArgsConstructor
+
+@NoArgsConstructor
+
+//Página de transações ordenada pelo id.
+//proximoCursor é nulo quando não há mais páginas; caso contrário deve ser enviado como parâmetro cursor na próxima requisição.
+
+public class PaginaTransacaoDTO {
+
+    private List<TransacaoDTO> conteudo;
+    private String proximoCursor;
+
+}
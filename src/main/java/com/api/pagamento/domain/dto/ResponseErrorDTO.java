@@ -1,30 +1,18 @@
 package com.api.pagamento.domain.dto;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
 
-//@Data = @Data é uma anotação que gera o código padronizado para classes Java: getters para todos os campos,
-//setters para todos os campos não-finais e o toString apropriado, equals e implementações hashCode
-//que envolvem os campos da classe.
+//@Value = versão imutável do @Data: campos private final, getters, construtor com todos os campos, toString, equals e
+//hashCode, sem setters.
 
-@Data
-
-@AllArgsConstructor
-
-//@NoArgsConstructor = essa anotação é responsável por gerar um construtor sem parâmetros,
-//vale ressaltar que se tiver campos final na sua classe deverá usar um atributo force = true em sua anotação.
-
-@NoArgsConstructor
-
-//Obs: A especificação do JPA diz: "A especificação JPA requer que todas as classes persistentes tenham um construtor no-arg.
-//Este construtor pode ser público ou protegido. Como o compilador cria automaticamente um construtor no-arg padrão
-//quando nenhum outro construtor é definido, apenas as classes que definem os construtores também deve incluir um construtor sem argumentos."
+//Imutável para que o mesmo corpo de erro seja compartilhado por todas as respostas: cada ExcecaoNegocio guarda o seu
+//em uma constante, em vez de montar um novo a cada erro.
 
+@Value
 public class ResponseErrorDTO  {
 
-    private int status;
-    private String error;
-    private String message;
+    int status;
+    String error;
+    String message;
 
 }
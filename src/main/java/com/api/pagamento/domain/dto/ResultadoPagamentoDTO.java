@@ -0,0 +1,30 @@
+package com.api.pagamento.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//@Data = @Data é uma anotação que gera o código padronizado para classes Java: getters para todos os campos,
+//setters para todos os campos não-finais e o toString apropriado, equals e implementações hashCode
+//que envolvem os campos da classe.
+
+@Data
+
+@AllArgsConstructor
+
+@NoArgsConstructor
+
+//@JsonInclude(NON_NULL): omite transacao quando o item falhou e erro quando ele foi gravado
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+
+//Resultado de um item do pagamento em lote: indice é a posição do item na lista enviada.
+
+public class ResultadoPagamentoDTO {
+
+    private int indice;
+    private TransacaoDTO transacao;
+    private ResponseErrorDTO erro;
+
+}
@@ -0,0 +1,47 @@
+package com.api.pagamento.domain.dto;
+
+import com.api.pagamento.domain.dto.util.ValorCodec;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+//@Data = @Data é uma anotação que gera o código padronizado para classes Java: getters para todos os campos,
+//setters para todos os campos não-finais e o toString apropriado, equals e implementações hashCode
+//que envolvem os campos da classe.
+
+@Data
+
+@AllArgsConstructor
+
+@NoArgsConstructor
+
+//@JsonInclude(NON_NULL): as dimensões que não foram agrupadas são nulas e ficam fora do JSON
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+
+//Uma linha do relatório de totais: as dimensões agrupadas, a quantidade de transações, o total e o valor médio.
+//total e media usam o formato de valor da api ("500.50").
+
+public class TotalDTO {
+
+    @JsonFormat(pattern = "dd/MM/yyyy")
+    private LocalDate dia;
+    private String estabelecimento;
+    private StatusEnum status;
+    private TipoEnum tipo;
+    private String parcelas;
+    private Long quantidade;
+    @JsonSerialize(using = ValorCodec.Serializador.class)
+    private BigDecimal total;
+    @JsonSerialize(using = ValorCodec.Serializador.class)
+    private BigDecimal media;
+
+}
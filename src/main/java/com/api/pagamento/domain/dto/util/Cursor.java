@@ -0,0 +1,85 @@
+package com.api.pagamento.domain.dto.util;
+
+import com.api.pagamento.domain.exception.CursorInvalidoException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+//Cursor
+
+//Token opaco da paginação por chave (keyset): codifica o último id entregue em Base64 url-safe, de forma que o cliente
+//não dependa do formato interno e a próxima página seja buscada com "id > cursor", sem OFFSET.
+//Na busca com filtros a ordem é (dataHora, id da transação), decrescente, e o cursor codifica a Posicao: a data e hora
+//em microssegundos (a precisão do timestamp do PostgreSQL) e o id.
+
+public class Cursor {
+
+    private Cursor() { }
+
+    public static String codificar(Long id) {
+        if (id == null) {
+            return null;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static Long decodificar(String cursor) throws CursorInvalidoException {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            long id = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+            if (id < 0) {
+                throw new CursorInvalidoException();
+            }
+            return id;
+        } catch (IllegalArgumentException ex) {
+            throw new CursorInvalidoException();
+        }
+    }
+
+    public static String codificar(OffsetDateTime dataHora, Long id) {
+        if (dataHora == null || id == null) {
+            return null;
+        }
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, dataHora.toInstant());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((micros + ":" + id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static Posicao decodificarPosicao(String cursor) throws CursorInvalidoException {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String posicao = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separador = posicao.indexOf(':');
+            if (separador < 0) {
+                throw new CursorInvalidoException();
+            }
+            long micros = Long.parseLong(posicao.substring(0, separador));
+            long id = Long.parseLong(posicao.substring(separador + 1));
+            if (id < 0) {
+                throw new CursorInvalidoException();
+            }
+            return new Posicao(Instant.EPOCH.plus(micros, ChronoUnit.MICROS).atOffset(ZoneOffset.UTC), id);
+        } catch (IllegalArgumentException | ArithmeticException | DateTimeException ex) {
+            throw new CursorInvalidoException();
+        }
+    }
+
+    //Última linha entregue na busca com filtros: a próxima página começa depois dela
+    @Value
+    public static class Posicao {
+
+        OffsetDateTime dataHora;
+        Long id;
+
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.api.pagamento.domain.dto.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+//Conversão da data e hora entre o formato da api ("01/05/2021 18:00:00", dd/MM/yyyy HH:mm:ss) e o OffsetDateTime
+//gravado em timestamp with time zone.
+
+//O formato da api não tem fuso: a data e hora é interpretada e escrita no horário de Brasília (ZONA).
+//A leitura e a escrita são feitas por posição (o formato tem tamanho fixo), sem DateTimeFormatter: não há
+//ParsePosition, mapa de campos nem resolução de campos por chamada.
+
+public final class DataHoraCodec {
+
+    public static final ZoneId ZONA = ZoneId.of("America/Sao_Paulo");
+
+    private static final int TAMANHO = 19;
+
+    private static final int TAMANHO_DIA = 10;
+
+    private DataHoraCodec() {
+    }
+
+    //Retorna null se o texto não estiver no formato dd/MM/yyyy HH:mm:ss ou não for uma data e hora existente
+    public static OffsetDateTime ler(CharSequence texto) {
+
+        if (texto.length() != TAMANHO || texto.charAt(2) != '/' || texto.charAt(5) != '/' || texto.charAt(10) != ' '
+                || texto.charAt(13) != ':' || texto.charAt(16) != ':') {
+            return null;
+        }
+        int dia = numero(texto, 0, 2);
+        int mes = numero(texto, 3, 2);
+        int ano = numero(texto, 6, 4);
+        int hora = numero(texto, 11, 2);
+        int minuto = numero(texto, 14, 2);
+        int segundo = numero(texto, 17, 2);
+        if ((dia | mes | ano | hora | minuto | segundo) < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(ano, mes, dia, hora, minuto, segundo).atZone(ZONA).toOffsetDateTime();
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    //Dia no formato dd/MM/yyyy (a parte da data do formato da api). Retorna null se o texto não estiver no formato ou
+    //não for uma data existente
+    public static LocalDate lerDia(CharSequence texto) {
+
+        if (texto.length() != TAMANHO_DIA || texto.charAt(2) != '/' || texto.charAt(5) != '/') {
+            return null;
+        }
+        int dia = numero(texto, 0, 2);
+        int mes = numero(texto, 3, 2);
+        int ano = numero(texto, 6, 4);
+        if ((dia | mes | ano) < 0) {
+            return null;
+        }
+        try {
+            return LocalDate.of(ano, mes, dia);
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    //Dia do instante no horário de Brasília: o dia do resumo diário das transações
+    public static LocalDate dia(OffsetDateTime dataHora) {
+        return dataHora.atZoneSameInstant(ZONA).toLocalDate();
+    }
+
+    //Mesmo instante no deslocamento de Brasília. O banco devolve o timestamp no fuso da JVM; normalizado, o DTO tem o
+    //mesmo OffsetDateTime (equals) que o informado no pagamento. Sem alocação se o deslocamento já for o de Brasília.
+    public static OffsetDateTime normalizar(OffsetDateTime dataHora) {
+        if (dataHora == null) {
+            return null;
+        }
+        ZoneOffset deslocamento = ZONA.getRules().getOffset(dataHora.toInstant());
+        return dataHora.getOffset().equals(deslocamento) ? dataHora : dataHora.withOffsetSameInstant(deslocamento);
+    }
+
+    public static String escrever(OffsetDateTime dataHora) {
+
+        ZonedDateTime local = dataHora.atZoneSameInstant(ZONA);
+        char[] texto = new char[TAMANHO];
+        digitos(texto, 0, local.getDayOfMonth(), 2);
+        texto[2] = '/';
+        digitos(texto, 3, local.getMonthValue(), 2);
+        texto[5] = '/';
+        digitos(texto, 6, local.getYear(), 4);
+        texto[10] = ' ';
+        digitos(texto, 11, local.getHour(), 2);
+        texto[13] = ':';
+        digitos(texto, 14, local.getMinute(), 2);
+        texto[16] = ':';
+        digitos(texto, 17, local.getSecond(), 2);
+        return new String(texto);
+    }
+
+    //-1 se algum caractere não for dígito
+    private static int numero(CharSequence texto, int inicio, int tamanho) {
+        int numero = 0;
+        for (int i = inicio; i < inicio + tamanho; i++) {
+            char c = texto.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            numero = numero * 10 + (c - '0');
+        }
+        return numero;
+    }
+
+    private static void digitos(char[] texto, int inicio, int numero, int tamanho) {
+        for (int i = inicio + tamanho - 1; i >= inicio; i--) {
+            texto[i] = (char) ('0' + numero % 10);
+            numero /= 10;
+        }
+    }
+
+    public static class Serializador extends JsonSerializer<OffsetDateTime> {
+
+        @Override
+        public void serialize(OffsetDateTime dataHora, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+            gerador.writeString(escrever(dataHora));
+        }
+
+    }
+
+    public static class Desserializador extends JsonDeserializer<OffsetDateTime> {
+
+        @Override
+        public OffsetDateTime deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+
+            if (parser.currentToken() != JsonToken.VALUE_STRING) {
+                return (OffsetDateTime) contexto.handleUnexpectedToken(OffsetDateTime.class, parser);
+            }
+            String texto = parser.getText();
+            OffsetDateTime dataHora = ler(texto);
+            if (dataHora == null) {
+                return (OffsetDateTime) contexto.handleWeirdStringValue(OffsetDateTime.class, texto,
+                        "a data e hora deve estar no formato dd/MM/yyyy HH:mm:ss (ex: 01/05/2021 18:00:00)");
+            }
+            return dataHora;
+        }
+
+    }
+
+}
@@ -1,12 +1,202 @@
 package com.api.pagamento.domain.dto.util;
 
+import com.api.pagamento.domain.dto.DescricaoDTO;
+import com.api.pagamento.domain.dto.EventoDTO;
+import com.api.pagamento.domain.dto.FormaPagamentoDTO;
+import com.api.pagamento.domain.dto.TotalDTO;
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.Evento;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.domain.model.reativo.TransacaoRegistro;
+import com.api.pagamento.domain.model.util.Totalizacao;
 import org.modelmapper.ModelMapper;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.function.Function;
+
+//Mapper
+
+//Os pares entidade <-> DTO da api são convertidos por métodos escritos à mão: não há reflexão, descoberta de TypeMap
+//nem casts, e cada conversão aloca apenas os objetos de destino.
+//O ModelMapper fica restrito aos pares de tipos sem conversor dedicado e é criado uma única vez, já que a
+//configuração dele é cara e, depois de configurado, ele é thread-safe.
+
 public class Mapper {
 
+    private static final ModelMapper MODEL_MAPPER = new ModelMapper();
+
+    private static final Map<Class<?>, Map<Class<?>, Function<Object, Object>>> CONVERSORES = Map.of(
+            Transacao.class, Map.of(TransacaoDTO.class, o -> toTransacaoDTO((Transacao) o)),
+            TransacaoDTO.class, Map.of(Transacao.class, o -> toTransacao((TransacaoDTO) o)),
+            Descricao.class, Map.of(DescricaoDTO.class, o -> toDescricaoDTO((Descricao) o)),
+            DescricaoDTO.class, Map.of(Descricao.class, o -> toDescricao((DescricaoDTO) o)),
+            FormaPagamento.class, Map.of(FormaPagamentoDTO.class, o -> toFormaPagamentoDTO((FormaPagamento) o)),
+            FormaPagamentoDTO.class, Map.of(FormaPagamento.class, o -> toFormaPagamento((FormaPagamentoDTO) o))
+    );
+
     public static Object convert(Object origem, Class<?> destino) {
 
-        return new ModelMapper().map(origem, destino);
+        Map<Class<?>, Function<Object, Object>> conversores = CONVERSORES.get(origem.getClass());
+        Function<Object, Object> conversor = conversores != null ? conversores.get(destino) : null;
+
+        return conversor != null ? conversor.apply(origem) : MODEL_MAPPER.map(origem, destino);
+    }
+
+    public static TransacaoDTO toTransacaoDTO(Transacao transacao) {
+        if (transacao == null) {
+            return null;
+        }
+        return new TransacaoDTO(
+                transacao.getId(),
+                transacao.getCartao(),
+                toDescricaoDTO(transacao.getDescricao(), transacao.getId()),
+                toFormaPagamentoDTO(transacao.getFormaPagamento(), transacao.getId()));
+    }
+
+    public static Transacao toTransacao(TransacaoDTO transacaoDTO) {
+        if (transacaoDTO == null) {
+            return null;
+        }
+        return new Transacao(
+                transacaoDTO.getId(),
+                transacaoDTO.getCartao(),
+                toDescricao(transacaoDTO.getDescricao()),
+                toFormaPagamento(transacaoDTO.getFormaPagamento()));
+    }
+
+    public static DescricaoDTO toDescricaoDTO(Descricao descricao) {
+        return toDescricaoDTO(descricao, descricao == null ? null : descricao.getId());
+    }
+
+    //Descrição e forma de pagamento são colunas da transacao (@Embeddable) e não têm id próprio: na api, o id delas é
+    //o da transação, e o formato do TransacaoDTO não muda
+    private static DescricaoDTO toDescricaoDTO(Descricao descricao, Long id) {
+        if (descricao == null) {
+            return null;
+        }
+        return new DescricaoDTO(
+                id,
+                descricao.getValor(),
+                DataHoraCodec.normalizar(descricao.getDataHora()),
+                descricao.getEstabelecimento(),
+                descricao.getNsu(),
+                descricao.getCodigoAutorizacao(),
+                descricao.getStatus());
+    }
+
+    public static Descricao toDescricao(DescricaoDTO descricaoDTO) {
+        if (descricaoDTO == null) {
+            return null;
+        }
+        return new Descricao(
+                descricaoDTO.getId(),
+                descricaoDTO.getValor(),
+                descricaoDTO.getDataHora(),
+                descricaoDTO.getEstabelecimento(),
+                descricaoDTO.getNsu(),
+                descricaoDTO.getCodigoAutorizacao(),
+                descricaoDTO.getStatus());
+    }
+
+    public static FormaPagamentoDTO toFormaPagamentoDTO(FormaPagamento formaPagamento) {
+        return toFormaPagamentoDTO(formaPagamento, formaPagamento == null ? null : formaPagamento.getId());
+    }
+
+    private static FormaPagamentoDTO toFormaPagamentoDTO(FormaPagamento formaPagamento, Long id) {
+        if (formaPagamento == null) {
+            return null;
+        }
+        return new FormaPagamentoDTO(
+                id,
+                formaPagamento.getTipo(),
+                formaPagamento.getParcelas());
+    }
+
+    public static FormaPagamento toFormaPagamento(FormaPagamentoDTO formaPagamentoDTO) {
+        if (formaPagamentoDTO == null) {
+            return null;
+        }
+        return new FormaPagamento(
+                formaPagamentoDTO.getId(),
+                formaPagamentoDTO.getTipo(),
+                formaPagamentoDTO.getParcelas());
+    }
+
+    //Api reativa (R2DBC): o registro guarda os enums pelo ordinal, como as entidades JPA
+
+    public static TransacaoDTO toTransacaoDTO(TransacaoRegistro registro) {
+        if (registro == null) {
+            return null;
+        }
+        return new TransacaoDTO(
+                registro.getId(),
+                registro.getCartao(),
+                new DescricaoDTO(
+                        registro.getId(),
+                        registro.getValor(),
+                        DataHoraCodec.normalizar(registro.getDataHora()),
+                        registro.getEstabelecimento(),
+                        registro.getNsu(),
+                        registro.getCodigoAutorizacao(),
+                        registro.getStatus() == null ? null : StatusEnum.values()[registro.getStatus()]),
+                new FormaPagamentoDTO(
+                        registro.getId(),
+                        registro.getTipo() == null ? null : TipoEnum.values()[registro.getTipo()],
+                        registro.getParcelas()));
+    }
+
+    public static TransacaoRegistro toTransacaoRegistro(Transacao transacao) {
+        if (transacao == null) {
+            return null;
+        }
+        Descricao descricao = transacao.getDescricao();
+        FormaPagamento formaPagamento = transacao.getFormaPagamento();
+        return new TransacaoRegistro(
+                transacao.getId(),
+                transacao.getCartao(),
+                descricao.getValor(),
+                descricao.getDataHora(),
+                descricao.getEstabelecimento(),
+                descricao.getNsu(),
+                descricao.getCodigoAutorizacao(),
+                descricao.getStatus() == null ? null : descricao.getStatus().ordinal(),
+                formaPagamento.getTipo() == null ? null : formaPagamento.getTipo().ordinal(),
+                formaPagamento.getParcelas());
+    }
+
+    //A média é o total dividido pela quantidade, com as 2 casas decimais do valor
+    public static TotalDTO toTotalDTO(Totalizacao totalizacao) {
+        if (totalizacao == null) {
+            return null;
+        }
+        return new TotalDTO(
+                totalizacao.getDia(),
+                totalizacao.getEstabelecimento(),
+                totalizacao.getStatus(),
+                totalizacao.getTipo(),
+                totalizacao.getParcelas(),
+                totalizacao.getQuantidade(),
+                totalizacao.getTotal(),
+                totalizacao.getTotal().divide(BigDecimal.valueOf(totalizacao.getQuantidade()), 2, RoundingMode.HALF_EVEN));
+    }
+
+    public static EventoDTO toEventoDTO(Evento evento) {
+        if (evento == null) {
+            return null;
+        }
+        return new EventoDTO(
+                evento.getId(),
+                evento.getPosicao(),
+                evento.getTransacaoId(),
+                evento.getTipo(),
+                DataHoraCodec.normalizar(evento.getCriadoEm()),
+                evento.getPayload());
     }
 
 }
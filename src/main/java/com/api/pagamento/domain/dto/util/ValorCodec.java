@@ -0,0 +1,93 @@
+package com.api.pagamento.domain.dto.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+//Conversão do valor monetário entre o formato da api ("500.50") e o BigDecimal gravado em numeric(15, 2).
+
+//O texto é lido caractere a caractere para um long de centavos, sem regex nem o parser genérico do BigDecimal,
+//e o resultado é um BigDecimal compacto (long + escala), sem BigInteger.
+//Na api o valor continua sendo uma string JSON; um número JSON também é aceito na entrada.
+
+public final class ValorCodec {
+
+    private static final int ESCALA = 2;
+
+    //numeric(15, 2): até 13 dígitos antes do ponto
+    private static final int DIGITOS_INTEIROS = 13;
+
+    private ValorCodec() {
+    }
+
+    //Retorna null se o texto não for um valor válido: dígitos, opcionalmente um ponto e até duas casas decimais
+    public static BigDecimal ler(CharSequence texto) {
+
+        int tamanho = texto.length();
+        int inteiros = 0;
+        int decimais = -1;
+        long centavos = 0;
+
+        for (int i = 0; i < tamanho; i++) {
+            char c = texto.charAt(i);
+            if (c == '.' && decimais < 0 && inteiros > 0) {
+                decimais = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (decimais < 0 ? ++inteiros > DIGITOS_INTEIROS : ++decimais > ESCALA) {
+                    return null;
+                }
+                centavos = centavos * 10 + (c - '0');
+            } else {
+                return null;
+            }
+        }
+        if (inteiros == 0 || decimais == 0) {
+            return null;
+        }
+        for (int i = Math.max(decimais, 0); i < ESCALA; i++) {
+            centavos *= 10;
+        }
+        return BigDecimal.valueOf(centavos, ESCALA);
+    }
+
+    public static String escrever(BigDecimal valor) {
+        return valor.setScale(ESCALA, RoundingMode.UNNECESSARY).toPlainString();
+    }
+
+    public static class Serializador extends JsonSerializer<BigDecimal> {
+
+        @Override
+        public void serialize(BigDecimal valor, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+            gerador.writeString(escrever(valor));
+        }
+
+    }
+
+    public static class Desserializador extends JsonDeserializer<BigDecimal> {
+
+        @Override
+        public BigDecimal deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+
+            if (parser.currentToken() != JsonToken.VALUE_STRING && !parser.currentToken().isNumeric()) {
+                return (BigDecimal) contexto.handleUnexpectedToken(BigDecimal.class, parser);
+            }
+            String texto = parser.getText();
+            BigDecimal valor = ler(texto);
+            if (valor == null) {
+                return (BigDecimal) contexto.handleWeirdStringValue(BigDecimal.class, texto,
+                        "o valor deve ter até %d dígitos inteiros e %d casas decimais (ex: 500.50)", DIGITOS_INTEIROS, ESCALA);
+            }
+            return valor;
+        }
+
+    }
+
+}
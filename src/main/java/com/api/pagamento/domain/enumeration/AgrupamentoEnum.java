@@ -0,0 +1,17 @@
+package com.api.pagamento.domain.enumeration;
+
+//Dimensões do relatório de totais (GET /transacao/v1/relatorio); atributo é o atributo do ResumoDiario agrupado
+
+public enum AgrupamentoEnum {
+    DIA("dia"), ESTABELECIMENTO("estabelecimento"), STATUS("status"), TIPO("tipo"), PARCELAS("parcelas");
+
+    private final String atributo;
+
+    AgrupamentoEnum(String atributo) {
+        this.atributo = atributo;
+    }
+
+    public String getAtributo() {
+        return atributo;
+    }
+}
@@ -0,0 +1,8 @@
+package com.api.pagamento.domain.enumeration;
+
+//Tipos dos eventos publicados pelo outbox (gravados pelo nome na coluna evento.tipo)
+
+public enum TipoEventoEnum {
+    PAGAMENTO, ESTORNO;
+    TipoEventoEnum(){}
+}
@@ -0,0 +1,19 @@
+package com.api.pagamento.domain.exception;
+
+import com.api.pagamento.domain.dto.ResponseErrorDTO;
+
+public class AutorizadorIndisponivelException extends ExcecaoNegocio {
+
+    private static final ResponseErrorDTO RESPONSE_ERROR = new ResponseErrorDTO(503, "Service Unavailable",
+            "O emissor não respondeu a tempo ou está com o limite de autorizações em andamento; tente novamente");
+
+    public AutorizadorIndisponivelException() {
+        super(RESPONSE_ERROR.getMessage());
+    }
+
+    @Override
+    public ResponseErrorDTO getResponseError() {
+        return RESPONSE_ERROR;
+    }
+
+}
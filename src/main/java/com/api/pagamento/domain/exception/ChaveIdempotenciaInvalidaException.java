@@ -0,0 +1,18 @@
+package com.api.pagamento.domain.exception;
+
+import com.api.pagamento.domain.dto.ResponseErrorDTO;
+
+public class ChaveIdempotenciaInvalidaException extends ExcecaoNegocio {
+
+    private static final ResponseErrorDTO RESPONSE_ERROR = new ResponseErrorDTO(400, "Bad Request", "O cabeçalho Idempotency-Key deve ter entre 1 e 255 caracteres");
+
+    public ChaveIdempotenciaInvalidaException() {
+        super(RESPONSE_ERROR.getMessage());
+    }
+
+    @Override
+    public ResponseErrorDTO getResponseError() {
+        return RESPONSE_ERROR;
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.api.pagamento.domain.exception;
+
+import com.api.pagamento.domain.dto.ResponseErrorDTO;
+
+public class CursorInvalidoException extends ExcecaoNegocio {
+
+    private static final ResponseErrorDTO RESPONSE_ERROR = new ResponseErrorDTO(400, "Bad Request", "O cursor informado é inválido");
+
+    public CursorInvalidoException() {
+        super(RESPONSE_ERROR.getMessage());
+    }
+
+    @Override
+    public ResponseErrorDTO getResponseError() {
+        return RESPONSE_ERROR;
+    }
+
+}
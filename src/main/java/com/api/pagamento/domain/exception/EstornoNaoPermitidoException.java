@@ -0,0 +1,18 @@
+package com.api.pagamento.domain.exception;
+
+import com.api.pagamento.domain.dto.ResponseErrorDTO;
+
+public class EstornoNaoPermitidoException extends ExcecaoNegocio {
+
+    private static final ResponseErrorDTO RESPONSE_ERROR = new ResponseErrorDTO(409, "Conflict", "A transação já foi estornada");
+
+    public EstornoNaoPermitidoException() {
+        super(RESPONSE_ERROR.getMessage());
+    }
+
+    @Override
+    public ResponseErrorDTO getResponseError() {
+        return RESPONSE_ERROR;
+    }
+
+}
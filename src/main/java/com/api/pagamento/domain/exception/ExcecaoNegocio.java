@@ -0,0 +1,23 @@
+package com.api.pagamento.domain.exception;
+
+import com.api.pagamento.domain.dto.ResponseErrorDTO;
+
+//Exceção de negócio: um resultado esperado da api (ex: transação inexistente, inserção não permitida), e não uma falha.
+
+//Não captura a pilha de chamadas (writableStackTrace = false) nem aceita exceções suprimidas: montar a pilha é a parte
+//cara de criar uma exceção, e ela não diz nada sobre um resultado esperado. O corpo da resposta de erro é imutável e
+//criado uma única vez por tipo de exceção (constante em cada subclasse), então lançar e responder um erro custa
+//próximo de uma resposta de sucesso.
+//As respostas são montadas em um único lugar, o TratadorExcecoes (@RestControllerAdvice).
+
+public abstract class ExcecaoNegocio extends Exception {
+
+    protected ExcecaoNegocio(String message) {
+        super(message, null, false, false);
+    }
+
+    //Sempre a constante da subclasse, e não um campo da instância: uma exceção criada sem passar pelo construtor
+    //(ex: thenThrow(Classe.class) do Mockito) continua com o corpo da resposta
+    public abstract ResponseErrorDTO getResponseError();
+
+}
@@ -0,0 +1,19 @@
+package com.api.pagamento.domain.exception;
+
+import com.api.pagamento.domain.dto.ResponseErrorDTO;
+
+public class FiltroInvalidoException extends ExcecaoNegocio {
+
+    private static final ResponseErrorDTO RESPONSE_ERROR = new ResponseErrorDTO(400, "Bad Request",
+            "inicio e fim devem estar no formato dd/MM/yyyy HH:mm:ss e finalCartao deve ter 4 dígitos");
+
+    public FiltroInvalidoException() {
+        super(RESPONSE_ERROR.getMessage());
+    }
+
+    @Override
+    public ResponseErrorDTO getResponseError() {
+        return RESPONSE_ERROR;
+    }
+
+}
@@ -2,16 +2,17 @@ package com.api.pagamento.domain.exception;
 
 import com.api.pagamento.domain.dto.ResponseErrorDTO;
 
-public class InsercaoNaoPermitidaException extends Exception{
+public class InsercaoNaoPermitidaException extends ExcecaoNegocio {
 
-    public InsercaoNaoPermitidaException( ){}
+    private static final ResponseErrorDTO RESPONSE_ERROR = new ResponseErrorDTO(400, "Bad Request", "O id, o código de autorização, o nsu e o status não podem ser inseridos pelo usuário");
 
-    public ResponseErrorDTO getResponseError(){
-        ResponseErrorDTO rmDTO = new ResponseErrorDTO();
-        rmDTO.setStatus(400);
-        rmDTO.setError("Bad Request");
-        rmDTO.setMessage("O id, o código de autorização, o nsu e o status não podem ser inseridos pelo usuário");
-        return rmDTO;
+    public InsercaoNaoPermitidaException() {
+        super(RESPONSE_ERROR.getMessage());
+    }
+
+    @Override
+    public ResponseErrorDTO getResponseError() {
+        return RESPONSE_ERROR;
     }
 
 }
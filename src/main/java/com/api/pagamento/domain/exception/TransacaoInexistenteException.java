@@ -2,13 +2,17 @@ package com.api.pagamento.domain.exception;
 
 import com.api.pagamento.domain.dto.ResponseErrorDTO;
 
-public class TransacaoInexistenteException extends Exception{
-    public TransacaoInexistenteException() {}
-    public ResponseErrorDTO getResponseError(){
-        ResponseErrorDTO rmDTO = new ResponseErrorDTO();
-        rmDTO.setStatus(404);
-        rmDTO.setError("Not Found");
-        rmDTO.setMessage("Transação(ões) inexistente(s)");
-        return rmDTO;
+public class TransacaoInexistenteException extends ExcecaoNegocio {
+
+    private static final ResponseErrorDTO RESPONSE_ERROR = new ResponseErrorDTO(404, "Not Found", "Transação(ões) inexistente(s)");
+
+    public TransacaoInexistenteException() {
+        super(RESPONSE_ERROR.getMessage());
     }
+
+    @Override
+    public ResponseErrorDTO getResponseError() {
+        return RESPONSE_ERROR;
+    }
+
 }
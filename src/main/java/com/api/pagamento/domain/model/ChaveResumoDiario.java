@@ -0,0 +1,48 @@
+package com.api.pagamento.domain.model;
+
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+
+//Chave do ResumoDiario (@IdClass): dia, estabelecimento, status, tipo e parcelas
+
+//Comparable
+//As linhas do resumo são alteradas sempre na ordem da chave (MovimentoResumo). Duas transações que alteram as mesmas
+//linhas bloqueiam elas na mesma ordem e, por isso, uma espera a outra em vez de entrarem em deadlock.
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChaveResumoDiario implements Serializable, Comparable<ChaveResumoDiario> {
+
+    private static final Comparator<ChaveResumoDiario> ORDEM = Comparator.comparing(ChaveResumoDiario::getDia)
+            .thenComparing(ChaveResumoDiario::getEstabelecimento)
+            .thenComparing(ChaveResumoDiario::getStatus)
+            .thenComparing(ChaveResumoDiario::getTipo)
+            .thenComparing(ChaveResumoDiario::getParcelas);
+
+    private LocalDate dia;
+    private String estabelecimento;
+    private StatusEnum status;
+    private TipoEnum tipo;
+    private String parcelas;
+
+    //Chave da transação com o status informado (o estorno move a transação da linha AUTORIZADO para a linha NEGADO)
+    public static ChaveResumoDiario de(OffsetDateTime dataHora, String estabelecimento, StatusEnum status, TipoEnum tipo, String parcelas) {
+        return new ChaveResumoDiario(DataHoraCodec.dia(dataHora), estabelecimento, status, tipo, parcelas);
+    }
+
+    @Override
+    public int compareTo(ChaveResumoDiario outra) {
+        return ORDEM.compare(this, outra);
+    }
+
+}
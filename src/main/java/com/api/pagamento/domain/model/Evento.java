@@ -0,0 +1,43 @@
+package com.api.pagamento.domain.model;
+
+import com.api.pagamento.domain.enumeration.TipoEventoEnum;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.OffsetDateTime;
+
+//Evento
+
+//Evento de pagamento ou estorno (outbox, V10__eventos.sql e V11__posicao_eventos.sql). payload é o TransacaoDTO em
+//JSON, como ele estava quando o evento foi gravado. posicao é a ordem de publicação, atribuída pelo relay.
+
+//Somente leitura pelo JPA: os eventos são gravados e posicionados por EventoGravacaoRepository (JDBC, com o id e a
+//posição gerados pelo banco).
+
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "evento")
+public class Evento {
+
+    @Id
+    private Long id;
+
+    private Long transacaoId;
+
+    @Enumerated(EnumType.STRING)
+    private TipoEventoEnum tipo;
+
+    private String payload;
+
+    @Column(columnDefinition = "timestamp with time zone")
+    private OffsetDateTime criadoEm;
+
+    //Nulos enquanto o evento está pendente
+    private Long posicao;
+
+    @Column(columnDefinition = "timestamp with time zone")
+    private OffsetDateTime publicadoEm;
+
+}
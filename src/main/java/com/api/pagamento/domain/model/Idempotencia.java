@@ -0,0 +1,63 @@
+package com.api.pagamento.domain.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+//Idempotencia
+
+//Associa uma chave de idempotência (cabeçalho Idempotency-Key) à transação criada pela primeira requisição com ela.
+
+//Persistable
+//A chave é informada pelo cliente, e não gerada pelo banco. Sem o Persistable, o save do Spring Data trataria toda
+//Idempotencia como existente (id preenchido) e faria um merge, com um select antes do insert. isNew() indica que a
+//entidade é nova até ser gravada ou lida do banco.
+
+//@Getter/@NoArgsConstructor em vez de @Data: o toString/equals/hashCode do @Data acessariam a transação (LAZY) e
+//disparariam a leitura dela.
+
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "idempotencia")
+public class Idempotencia implements Persistable<String> {
+
+    @Id
+    private String chave;
+
+    //Uma associação (e não apenas o id) para que o Hibernate grave a transação antes da chave, que referencia ela
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "transacao_id")
+    private Transacao transacao;
+
+    private LocalDateTime criadaEm;
+
+    @Transient
+    private boolean nova = true;
+
+    public Idempotencia(String chave, Transacao transacao, LocalDateTime criadaEm) {
+        this.chave = chave;
+        this.transacao = transacao;
+        this.criadaEm = criadaEm;
+    }
+
+    @Override
+    public String getId() {
+        return chave;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nova;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarComoGravada() {
+        nova = false;
+    }
+
+}
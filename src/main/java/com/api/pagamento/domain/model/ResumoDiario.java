@@ -0,0 +1,52 @@
+package com.api.pagamento.domain.model;
+
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+//ResumoDiario
+
+//Quantidade e total das transações de um dia (no horário de Brasília), estabelecimento, status, tipo e parcelas
+//(V8__resumo_diario.sql). O relatório agrega estas linhas, e não as transações.
+
+//Somente leitura pelo JPA: as linhas são criadas e somadas por ResumoDiarioAgregacaoRepository.acumular, com
+//instruções que somam no próprio banco (quantidade = quantidade + ?). Um save do JPA gravaria o valor lido, e dois
+//pagamentos simultâneos perderiam um ao outro.
+
+//@IdClass
+//A chave composta fica em ChaveResumoDiario; os atributos da chave continuam na entidade, e a Criteria API agrupa
+//por eles diretamente (resumo.get("dia")).
+
+@Entity
+@Getter
+@NoArgsConstructor
+@IdClass(ChaveResumoDiario.class)
+@Table(name = "resumo_diario")
+public class ResumoDiario {
+
+    @Id
+    private LocalDate dia;
+
+    @Id
+    private String estabelecimento;
+
+    @Id
+    private StatusEnum status;
+
+    @Id
+    private TipoEnum tipo;
+
+    @Id
+    private String parcelas;
+
+    private Long quantidade;
+
+    @Column(precision = 17, scale = 2)
+    private BigDecimal total;
+
+}
@@ -5,6 +5,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import javax.validation.Valid;
@@ -86,67 +89,33 @@ public class Transacao implements Serializable {
 
     //@SequenceGenerator: https://stackoverflow.com/questions/54866321/hibernate-sequence-for-each-enitity-or-table
 
+    //@GenericGenerator: os ids são reservados em blocos (pooled-lo) pelo SequenciaEmBlocoGenerator, em vez de um nextval por insert.
+
     @Id
     @GeneratedValue(strategy= GenerationType.SEQUENCE, generator = "seq_transacao")
-    @SequenceGenerator(name = "seq_transacao", sequenceName = "seq_transacao", allocationSize=1)
+    @GenericGenerator(name = "seq_transacao", strategy = "com.api.pagamento.domain.model.util.SequenciaEmBlocoGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "seq_transacao"))
 
     private Long id;
 
     @NotBlank
     private String cartao;
 
-    //O atributo mappedBy é obrigatório numa associação bidirecional e opcional numa associação unidirecional.
-    //O atributo cascade também é opcional, possuindo um membro da enumeração javax.persistence.CascadeType.
-    //O atributo targetEntity também é opcional.
-    //Por fim, fetch também é opcional permitindo LAZY ou EAGER.
-
-    //LAZY:  Lazy Loading faz com que determinados objetos não sejam carregados do banco até que você precise deles,
-    //ou seja, são carregados 'on demand' (apenas quando você solicitar explicitamente o carregamento destes).
-
-    //EAGER: Eager Loading carrega os dados mesmo que você não vá utilizá-los, mas é óbvio que você só utilizará
-    //esta técnica se de fato você for precisar com muita frequência dos dados carregados.
-
-    //CascadeType.ALL: propaga todas as operações - incluindo aquelas específicas do Hibernate
-    //- de uma entidade pai para uma entidade filha.
-
-    //CascadeType.PERSIST: Propaga a operação de persistência de uma entidade pai para uma entidade filha.
-
-    //CascadeType.MERGE: Propaga a operação de mesclagem de uma entidade pai para uma entidade filha.
-
-    //CascadeType.REMOVE: Propaga a operação de remoção da entidade pai para a entidade filha.
-    //Semelhante ao CascadeType.REMOVE do JPA  , temos o CascadeType.DELETE , que é específico do Hibernate.
-    //Não há diferença entre os dois.
-
-    //CascadeType.DETACH: a entidade filha também é removida do contexto persistente.
-
-    //CascadeType.LOCK: De forma não intuitiva, CascadeType.LOCK reanexa a entidade e sua entidade
-    //filha associada ao contexto persistente novamente.
-
-    //CascadeType.REFRESH: As operações de atualização relêem o valor de uma determinada instância do banco de dados.
-    //Em alguns casos, podemos alterar uma instância após persistir no banco de dados, mas depois precisamos desfazer
-    //essas alterações.
-
-    //Nesse tipo de cenário, isso pode ser útil. Quando usamos esta operação com Cascade Type REFRESH,
-    //a entidade filha também é recarregada do banco de dados sempre que a entidade pai é atualizada.
-
-    //CascadeType.REPLICATE: A operação de replicação é usada quando temos mais de uma fonte de dados e queremos os
-    //dados sincronizados.
-    //Com CascadeType.REPLICATE , uma operação de sincronização também se propaga para entidades filhas sempre que
-    //executada na entidade pai.
-
-    //CascadeType.SAVE_UPDATE: Propaga a mesma operação para a entidade filha associada. É útil quando usamos
-    //operações específicas do Hibernate, como salvar , atualizar  e salvarOrUpdate .
-
     //@NotNull: https://www.baeldung.com/java-bean-validation-not-null-empty-blank
 
+    //@Embedded: descricao e formaPagamento são @Embeddable, gravadas nas colunas da própria transacao
+    //(V13__transacao_em_uma_tabela.sql). Antes eram @OneToOne com tabelas próprias: cada pagamento fazia três inserts
+    //e cada leitura juntava três tabelas. Agora são um insert e um select sem junções, e não há associação a
+    //carregar (nem N+1, nem @EntityGraph).
+
     @Valid
     @NotNull
-    @OneToOne(cascade= CascadeType.PERSIST)
+    @Embedded
     private Descricao descricao;
 
     @Valid
     @NotNull
-    @OneToOne(cascade=CascadeType.PERSIST)
+    @Embedded
     private FormaPagamento formaPagamento;
 
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.api.pagamento.domain.model.reativo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+//Linha da tabela transacao para a api reativa (R2DBC)
+
+//A descrição e a forma de pagamento são colunas da própria transacao (V13__transacao_em_uma_tabela.sql), então o
+//pagamento é um único insert e a leitura, um select sem junções.
+//O status e o tipo são gravados pelo ordinal do StatusEnum e do TipoEnum, como no @Enumerated(EnumType.ORDINAL) da
+//Descricao e da FormaPagamento.
+//Com o id nulo, o insert omite a coluna e o banco gera o valor pela sequence (V4__id_padrao_por_sequence.sql).
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table("transacao")
+public class TransacaoRegistro {
+
+    @Id
+    private Long id;
+    private String cartao;
+    private BigDecimal valor;
+    private OffsetDateTime dataHora;
+    private String estabelecimento;
+    private String nsu;
+    private String codigoAutorizacao;
+    private Integer status;
+    private Integer tipo;
+    private String parcelas;
+
+}
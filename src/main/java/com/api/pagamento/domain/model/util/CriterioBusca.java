@@ -0,0 +1,26 @@
+package com.api.pagamento.domain.model.util;
+
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.OffsetDateTime;
+
+//Critérios da busca de transações (TransacaoBuscaRepository), já convertidos dos parâmetros da api.
+//Critérios nulos não filtram. aposDataHora e aposId são a posição do cursor: a busca continua depois dela.
+
+@Value
+@Builder
+public class CriterioBusca {
+
+    String estabelecimento;
+    StatusEnum status;
+    TipoEnum tipo;
+    OffsetDateTime inicio;
+    OffsetDateTime fim;
+    String finalCartao;
+    OffsetDateTime aposDataHora;
+    Long aposId;
+
+}
@@ -0,0 +1,26 @@
+package com.api.pagamento.domain.model.util;
+
+import com.api.pagamento.domain.enumeration.AgrupamentoEnum;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.List;
+
+//Critérios do relatório de totais (ResumoDiarioAgregacaoRepository), já convertidos dos parâmetros da api.
+//agrupamentos são as dimensões do relatório, sem repetição e na ordem pedida; critérios nulos não filtram.
+
+@Value
+@Builder
+public class CriterioRelatorio {
+
+    List<AgrupamentoEnum> agrupamentos;
+    LocalDate inicio;
+    LocalDate fim;
+    String estabelecimento;
+    StatusEnum status;
+    TipoEnum tipo;
+
+}
@@ -0,0 +1,60 @@
+package com.api.pagamento.domain.model.util;
+
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.model.ChaveResumoDiario;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.Transacao;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+//Variações do resumo diário causadas por uma operação (pagamento, bloco do lote ou estorno), somadas por linha.
+
+//Um bloco do lote com várias transações do mesmo estabelecimento e dia altera a linha dele uma vez só. O TreeMap
+//mantém as linhas na ordem da ChaveResumoDiario, a ordem em que elas são alteradas no banco.
+
+public class MovimentoResumo {
+
+    private final SortedMap<ChaveResumoDiario, Variacao> variacoes = new TreeMap<>();
+
+    //Transação gravada: soma na linha do status dela
+    public MovimentoResumo somar(Transacao transacao) {
+        Descricao descricao = transacao.getDescricao();
+        return variar(chave(transacao, descricao.getStatus()), 1, descricao.getValor());
+    }
+
+    //Transação estornada: sai da linha AUTORIZADO e entra na linha NEGADO
+    public MovimentoResumo estornar(Transacao transacao) {
+        BigDecimal valor = transacao.getDescricao().getValor();
+        variar(chave(transacao, StatusEnum.AUTORIZADO), -1, valor.negate());
+        return variar(chave(transacao, StatusEnum.NEGADO), 1, valor);
+    }
+
+    public MovimentoResumo variar(ChaveResumoDiario chave, long quantidade, BigDecimal total) {
+        variacoes.merge(chave, new Variacao(quantidade, total),
+                (atual, nova) -> new Variacao(atual.getQuantidade() + nova.getQuantidade(), atual.getTotal().add(nova.getTotal())));
+        return this;
+    }
+
+    public SortedMap<ChaveResumoDiario, Variacao> getVariacoes() {
+        return Collections.unmodifiableSortedMap(variacoes);
+    }
+
+    private static ChaveResumoDiario chave(Transacao transacao, StatusEnum status) {
+        Descricao descricao = transacao.getDescricao();
+        return ChaveResumoDiario.de(descricao.getDataHora(), descricao.getEstabelecimento(), status,
+                transacao.getFormaPagamento().getTipo(), transacao.getFormaPagamento().getParcelas());
+    }
+
+    @Value
+    public static class Variacao {
+
+        long quantidade;
+        BigDecimal total;
+
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.api.pagamento.domain.model.util;
+
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+//Uma linha do relatório de totais: as dimensões agrupadas (as demais são nulas), a quantidade e o total somados no
+//banco
+
+@Value
+public class Totalizacao {
+
+    LocalDate dia;
+    String estabelecimento;
+    StatusEnum status;
+    TipoEnum tipo;
+    String parcelas;
+    long quantidade;
+    BigDecimal total;
+
+}
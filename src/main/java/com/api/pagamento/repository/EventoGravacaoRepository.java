@@ -0,0 +1,20 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.enumeration.TipoEventoEnum;
+
+import java.util.List;
+
+//Fragmento do EventoRepository, implementado em EventoGravacaoRepositoryImpl
+
+public interface EventoGravacaoRepository {
+
+    //Grava um evento do tipo informado para cada transação, na transação corrente e na ordem da lista
+    void registrar(TipoEventoEnum tipo, List<TransacaoDTO> transacoes);
+
+    //Bloqueia (select ... for update) até limite eventos pendentes, os mais antigos, e atribui a eles as próximas
+    //posições de publicação, na ordem do id. Retorna os ids reservados. Com mais de uma instância da api, um relay
+    //espera o outro terminar o lote, então as posições seguem a ordem em que os lotes são gravados.
+    List<Long> reservarPendentes(int limite);
+
+}
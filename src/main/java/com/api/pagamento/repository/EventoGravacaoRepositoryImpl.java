@@ -0,0 +1,76 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.enumeration.TipoEventoEnum;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+//Gravação e reserva no outbox
+
+//Com JDBC (NamedParameterJdbcTemplate), como o acúmulo do resumo diário: na mesma conexão e transação do JPA, sem
+//forçar o flush dos inserts pendentes, e com os eventos de um bloco do lote em um único batch. O id não é informado:
+//vem do valor padrão da coluna (nextval('seq_evento')) no momento do insert.
+
+//O TransacaoDTO tem os conversores de valor e dataHora nas próprias anotações, então um ObjectMapper sem configuração
+//escreve o mesmo JSON da api. O ObjectWriter é imutável e thread-safe, e é criado uma única vez.
+
+@RequiredArgsConstructor
+public class EventoGravacaoRepositoryImpl implements EventoGravacaoRepository {
+
+    private static final ObjectWriter TRANSACAO_WRITER = new ObjectMapper().writerFor(TransacaoDTO.class);
+
+    private static final String INSERIR = "insert into evento (transacao_id, tipo, payload, criado_em) " +
+            "values (:transacaoId, :tipo, :payload, current_timestamp)";
+
+    private static final String PENDENTES = "select id from evento where posicao is null order by id limit :limite for update";
+
+    private static final String POSICIONAR = "update evento set posicao = nextval('seq_posicao_evento'), " +
+            "publicado_em = current_timestamp where id = :id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public void registrar(TipoEventoEnum tipo, List<TransacaoDTO> transacoes) {
+
+        if (transacoes.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] eventos = transacoes.stream()
+                .map(transacao -> new MapSqlParameterSource()
+                        .addValue("transacaoId", transacao.getId())
+                        .addValue("tipo", tipo.name())
+                        .addValue("payload", json(transacao)))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERIR, eventos);
+    }
+
+    //As instruções de um batch são executadas na ordem: o nextval de cada evento segue a ordem do id
+    @Override
+    public List<Long> reservarPendentes(int limite) {
+
+        List<Long> ids = jdbcTemplate.queryForList(PENDENTES, new MapSqlParameterSource("limite", limite), Long.class);
+        if (!ids.isEmpty()) {
+            jdbcTemplate.batchUpdate(POSICIONAR, ids.stream()
+                    .map(id -> new MapSqlParameterSource("id", id))
+                    .toArray(SqlParameterSource[]::new));
+        }
+        return ids;
+    }
+
+    private static String json(TransacaoDTO transacao) {
+        try {
+            return TRANSACAO_WRITER.writeValueAsString(transacao);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+}
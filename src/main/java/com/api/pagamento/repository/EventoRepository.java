@@ -0,0 +1,31 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.domain.model.Evento;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+//Outbox dos eventos; a gravação fica no fragmento EventoGravacaoRepository
+
+public interface EventoRepository extends JpaRepository<Evento, Long>, EventoGravacaoRepository {
+
+    //Eventos reservados pelo relay (reservarPendentes), na ordem da publicação
+    List<Evento> findByIdInOrderByPosicaoAsc(Collection<Long> ids);
+
+    //Eventos publicados depois do offset, na ordem da publicação (índice evento (posicao, id))
+    List<Evento> findByPosicaoGreaterThanOrderByPosicaoAsc(Long posicao, Pageable limite);
+
+    @Query("select coalesce(max(e.posicao), 0) from Evento e")
+    long ultimaPosicao();
+
+    @Modifying
+    @Query("delete from Evento e where e.publicadoEm < :limite")
+    int apagarPublicadosAntesDe(@Param("limite") OffsetDateTime limite);
+
+}
@@ -1,6 +0,0 @@
-package com.api.pagamento.repository;
-
-import com.api.pagamento.domain.model.FormaPagamento;
-import org.springframework.data.jpa.repository.JpaRepository;
-
-public interface FormaPagamentoRepository extends JpaRepository<FormaPagamento, Long> { }
@@ -0,0 +1,30 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.domain.model.Idempotencia;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+public interface IdempotenciaRepository extends JpaRepository<Idempotencia, String> {
+
+    //Carrega a chave junto com a transação (com a descrição e a forma de pagamento, colunas dela) em um único select
+    @Override
+    @EntityGraph(attributePaths = {"transacao"})
+    Optional<Idempotencia> findById(String chave);
+
+    @Modifying
+    @Query("delete from Idempotencia i where i.criadaEm < :limite")
+    int apagarCriadasAntesDe(@Param("limite") LocalDateTime limite);
+
+    //Chaves das transações que vão para o arquivo (ArquivadorTransacoes), para que o delete delas não as deixe órfãs
+    @Modifying
+    @Query("delete from Idempotencia i where i.transacao.id in :ids")
+    int apagarPelasTransacoes(@Param("ids") Collection<Long> ids);
+
+}
@@ -0,0 +1,53 @@
+package com.api.pagamento.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.transaction.Transactional;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+//Partições pelo JDBC, com as instruções de particionamento do PostgreSQL (sem equivalente no JPA).
+//Os nomes e os limites vêm do GerenciadorParticoes, nunca da requisição, e são escritos no SQL: o DDL não aceita
+//parâmetros.
+
+@Repository
+@Profile("!reativo")
+@ConditionalOnProperty(prefix = "api-pagamento.particoes", name = "habilitado", havingValue = "true")
+@RequiredArgsConstructor
+public class ParticaoJdbcRepository implements ParticaoRepository {
+
+    static final String PARTICAO_PADRAO = "transacao_padrao";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<String> listar() {
+        return jdbcTemplate.queryForList("select c.relname from pg_inherits i " +
+                "join pg_class c on c.oid = i.inhrelid " +
+                "join pg_class p on p.oid = i.inhparent " +
+                "where p.relname = 'transacao' order by c.relname", String.class);
+    }
+
+    //Uma partição não pode ser criada para um intervalo que tem linhas na partição padrão: as linhas vão antes para uma
+    //tabela nova, que é então anexada como partição. O attach confere só a tabela nova (pequena) e a partição padrão.
+    @Override
+    @Transactional
+    public void criar(String nome, OffsetDateTime inicio, OffsetDateTime fim) {
+        jdbcTemplate.execute("create table " + nome + " (like transacao including defaults including constraints)");
+        jdbcTemplate.update("with movidas as (delete from " + PARTICAO_PADRAO + " where data_hora >= ? and data_hora < ? returning *) " +
+                "insert into " + nome + " select * from movidas", inicio, fim);
+        jdbcTemplate.execute("alter table transacao attach partition " + nome +
+                " for values from ('" + inicio + "') to ('" + fim + "')");
+    }
+
+    @Override
+    @Transactional
+    public void desanexar(String nome) {
+        jdbcTemplate.execute("alter table transacao detach partition " + nome);
+    }
+
+}
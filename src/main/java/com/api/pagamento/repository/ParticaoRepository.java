@@ -0,0 +1,19 @@
+package com.api.pagamento.repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+//Partições mensais da tabela transacao (migração V14, só no PostgreSQL)
+
+public interface ParticaoRepository {
+
+    //Nomes das partições anexadas à transacao, inclusive a padrão
+    List<String> listar();
+
+    //Cria a partição [inicio, fim) com as linhas desse intervalo que estavam na partição padrão
+    void criar(String nome, OffsetDateTime inicio, OffsetDateTime fim);
+
+    //Retira a partição da transacao, sem apagar a tabela nem as linhas dela
+    void desanexar(String nome);
+
+}
@@ -0,0 +1,29 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.domain.model.util.CriterioRelatorio;
+import com.api.pagamento.domain.model.util.MovimentoResumo;
+import com.api.pagamento.domain.model.util.Totalizacao;
+
+import java.util.List;
+
+//Fragmento do ResumoDiarioRepository, implementado em ResumoDiarioAgregacaoRepositoryImpl
+
+public interface ResumoDiarioAgregacaoRepository {
+
+    //Instruções do acúmulo, com parâmetros nomeados (também usadas por ResumoDiarioReativoRepository).
+    //SOMAR altera a linha no próprio banco; se ela ainda não existe (0 linhas alteradas), CRIAR insere a linha zerada e
+    //SOMAR é repetida. O "on conflict do nothing" resolve dois pagamentos que criam a mesma linha ao mesmo tempo: o
+    //segundo espera o primeiro e não insere nada.
+    String SOMAR = "update resumo_diario set quantidade = quantidade + :quantidade, total = total + :total " +
+            "where dia = :dia and estabelecimento = :estabelecimento and status = :status and tipo = :tipo and parcelas = :parcelas";
+
+    String CRIAR = "insert into resumo_diario (dia, estabelecimento, status, tipo, parcelas, quantidade, total) " +
+            "values (:dia, :estabelecimento, :status, :tipo, :parcelas, 0, 0) on conflict do nothing";
+
+    //Soma as variações no resumo, na transação corrente e na ordem da chave
+    void acumular(MovimentoResumo movimento);
+
+    //Quantidade e total por combinação das dimensões pedidas, somados no banco e ordenados pelas dimensões
+    List<Totalizacao> totalizar(CriterioRelatorio criterio);
+
+}
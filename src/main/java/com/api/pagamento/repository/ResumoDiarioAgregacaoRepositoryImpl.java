@@ -0,0 +1,154 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.domain.enumeration.AgrupamentoEnum;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.model.ChaveResumoDiario;
+import com.api.pagamento.domain.model.ResumoDiario;
+import com.api.pagamento.domain.model.util.CriterioRelatorio;
+import com.api.pagamento.domain.model.util.MovimentoResumo;
+import com.api.pagamento.domain.model.util.Totalizacao;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+//Acúmulo
+
+//Feito com JDBC (NamedParameterJdbcTemplate), na mesma conexão e transação do JPA. Uma consulta nativa do Hibernate
+//forçaria o flush de tudo o que está pendente antes dela, e os inserts dos pagamentos deixariam de ser agrupados em
+//batch (hibernate.jdbc.batch_size). As variações vão em batch: uma ida ao banco para todas as linhas que já existem e,
+//só se alguma linha for nova, mais duas.
+
+//Relatório
+
+//Agrupado e somado no banco com a Criteria API: só as dimensões pedidas entram no SELECT e no GROUP BY. A média é
+//calculada depois, uma divisão por linha do relatório (total / quantidade). Linhas zeradas (todas as transações do
+//dia foram estornadas) não entram.
+//A chave primária (dia, ...) atende o filtro por período; resumo_diario (estabelecimento, dia), o filtro por
+//estabelecimento.
+
+@RequiredArgsConstructor
+public class ResumoDiarioAgregacaoRepositoryImpl implements ResumoDiarioAgregacaoRepository {
+
+    private static final String QUANTIDADE = "quantidade";
+
+    private static final String TOTAL = "total";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void acumular(MovimentoResumo movimento) {
+
+        List<SqlParameterSource> variacoes = movimento.getVariacoes().entrySet().stream()
+                .map(variacao -> parametros(variacao.getKey(), variacao.getValue()))
+                .collect(Collectors.toList());
+        if (variacoes.isEmpty()) {
+            return;
+        }
+
+        int[] alteradas = jdbcTemplate.batchUpdate(SOMAR, variacoes.toArray(new SqlParameterSource[0]));
+
+        List<SqlParameterSource> novas = new ArrayList<>();
+        for (int i = 0; i < alteradas.length; i++) {
+            if (alteradas[i] == 0) {
+                novas.add(variacoes.get(i));
+            }
+        }
+        if (!novas.isEmpty()) {
+            SqlParameterSource[] parametros = novas.toArray(new SqlParameterSource[0]);
+            jdbcTemplate.batchUpdate(CRIAR, parametros);
+            jdbcTemplate.batchUpdate(SOMAR, parametros);
+        }
+    }
+
+    @Override
+    public List<Totalizacao> totalizar(CriterioRelatorio criterio) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<ResumoDiario> resumo = query.from(ResumoDiario.class);
+
+        Map<AgrupamentoEnum, Expression<?>> dimensoes = new EnumMap<>(AgrupamentoEnum.class);
+        for (AgrupamentoEnum agrupamento : criterio.getAgrupamentos()) {
+            dimensoes.put(agrupamento, resumo.get(agrupamento.getAtributo()));
+        }
+
+        List<Selection<?>> selecao = new ArrayList<>();
+        criterio.getAgrupamentos().forEach(agrupamento -> selecao.add(dimensoes.get(agrupamento).alias(agrupamento.name())));
+        selecao.add(cb.sum(resumo.<Long>get(QUANTIDADE)).alias(QUANTIDADE));
+        selecao.add(cb.sum(resumo.<BigDecimal>get(TOTAL)).alias(TOTAL));
+
+        List<Predicate> filtros = new ArrayList<>();
+        filtros.add(cb.notEqual(resumo.get(QUANTIDADE), 0L));
+        if (criterio.getInicio() != null) {
+            filtros.add(cb.greaterThanOrEqualTo(resumo.get("dia"), criterio.getInicio()));
+        }
+        if (criterio.getFim() != null) {
+            filtros.add(cb.lessThanOrEqualTo(resumo.get("dia"), criterio.getFim()));
+        }
+        if (criterio.getEstabelecimento() != null) {
+            filtros.add(cb.equal(resumo.get("estabelecimento"), criterio.getEstabelecimento()));
+        }
+        if (criterio.getStatus() != null) {
+            filtros.add(cb.equal(resumo.get("status"), criterio.getStatus()));
+        }
+        if (criterio.getTipo() != null) {
+            filtros.add(cb.equal(resumo.get("tipo"), criterio.getTipo()));
+        }
+
+        List<Expression<?>> agrupamentos = criterio.getAgrupamentos().stream().map(dimensoes::get).collect(Collectors.toList());
+        query.multiselect(selecao)
+                .where(filtros.toArray(new Predicate[0]))
+                .groupBy(agrupamentos)
+                .orderBy(agrupamentos.stream().map(cb::asc).collect(Collectors.toList()));
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(linha -> new Totalizacao(
+                        dimensao(linha, dimensoes, AgrupamentoEnum.DIA, LocalDate.class),
+                        dimensao(linha, dimensoes, AgrupamentoEnum.ESTABELECIMENTO, String.class),
+                        dimensao(linha, dimensoes, AgrupamentoEnum.STATUS, StatusEnum.class),
+                        dimensao(linha, dimensoes, AgrupamentoEnum.TIPO, TipoEnum.class),
+                        dimensao(linha, dimensoes, AgrupamentoEnum.PARCELAS, String.class),
+                        linha.get(QUANTIDADE, Long.class),
+                        linha.get(TOTAL, BigDecimal.class)))
+                .collect(Collectors.toList());
+    }
+
+    //Status e tipo pelo ordinal, como o JPA grava as colunas (@Enumerated padrão)
+    private static SqlParameterSource parametros(ChaveResumoDiario chave, MovimentoResumo.Variacao variacao) {
+        return new MapSqlParameterSource()
+                .addValue("dia", chave.getDia())
+                .addValue("estabelecimento", chave.getEstabelecimento())
+                .addValue("status", chave.getStatus().ordinal())
+                .addValue("tipo", chave.getTipo().ordinal())
+                .addValue("parcelas", chave.getParcelas())
+                .addValue(QUANTIDADE, variacao.getQuantidade())
+                .addValue(TOTAL, variacao.getTotal());
+    }
+
+    private static <T> T dimensao(Tuple linha, Map<AgrupamentoEnum, Expression<?>> dimensoes, AgrupamentoEnum agrupamento, Class<T> tipo) {
+        return dimensoes.containsKey(agrupamento) ? linha.get(agrupamento.name(), tipo) : null;
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.domain.model.ChaveResumoDiario;
+import com.api.pagamento.domain.model.ResumoDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+//Resumo diário das transações; o acúmulo e o relatório ficam no fragmento ResumoDiarioAgregacaoRepository
+
+public interface ResumoDiarioRepository extends JpaRepository<ResumoDiario, ChaveResumoDiario>, ResumoDiarioAgregacaoRepository {
+
+}
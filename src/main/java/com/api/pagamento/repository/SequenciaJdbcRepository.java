@@ -0,0 +1,24 @@
+package com.api.pagamento.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+//Reserva pelo JDBC, na api JPA. O nextval não faz parte da transação: um bloco reservado nunca é devolvido, mesmo que a
+//transação de quem o usou seja desfeita.
+
+@Repository
+@Profile("!reativo")
+@RequiredArgsConstructor
+public class SequenciaJdbcRepository implements SequenciaRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    //O nome vem das constantes do GeradorIdentificadores, nunca da requisição
+    @Override
+    public long reservar(String sequencia) {
+        return jdbcTemplate.queryForObject("select nextval('" + sequencia + "')", Long.class);
+    }
+
+}
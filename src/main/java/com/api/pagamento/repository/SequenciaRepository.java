@@ -0,0 +1,10 @@
+package com.api.pagamento.repository;
+
+//Reserva de blocos de valores de uma sequence do banco (ver GeradorIdentificadores)
+
+public interface SequenciaRepository {
+
+    //Próximo valor da sequence: o início do bloco reservado, cujo tamanho é o INCREMENT BY da sequence
+    long reservar(String sequencia);
+
+}
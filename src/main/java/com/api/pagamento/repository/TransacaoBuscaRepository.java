@@ -0,0 +1,17 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.domain.model.util.CriterioBusca;
+
+import java.util.List;
+
+//Fragmento do TransacaoRepository com a busca por filtros, implementado em TransacaoBuscaRepositoryImpl.
+//O Spring Data encontra a implementação pelo sufixo Impl e a combina com os métodos derivados do TransacaoRepository.
+
+public interface TransacaoBuscaRepository {
+
+    //Até limite transações que atendem aos critérios, da mais recente para a mais antiga (dataHora e id da transação,
+    //decrescentes)
+    List<Transacao> buscar(CriterioBusca criterio, int limite);
+
+}
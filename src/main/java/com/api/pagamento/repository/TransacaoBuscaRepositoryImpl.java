@@ -0,0 +1,98 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.domain.model.util.CriterioBusca;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+
+//Busca por filtros com a Criteria API: só os filtros informados entram no WHERE, então cada combinação gera o SQL mais
+//simples possível para ela.
+
+//Partições (no PostgreSQL, V14__transacao_particionada.sql): a transacao é dividida por mês de data_hora, e os filtros
+//inicio e fim e o cursor limitam as partições lidas às dos meses do intervalo.
+
+//Índices (V13__transacao_em_uma_tabela.sql e, no PostgreSQL, V7__indice_final_cartao.sql):
+//    transacao (estabelecimento, data_hora, id), transacao (status, data_hora, id) e transacao (data_hora, id):
+//    o filtro por igualdade seguido da ordem da busca, então o banco lê as linhas já ordenadas e para no limite,
+//    e o cursor (data_hora, id) vira um intervalo do mesmo índice.
+//    transacao (right(cartao, 4)): final do cartão.
+//O tipo da forma de pagamento tem poucos valores distintos e é aplicado como filtro das linhas lidas pelo índice,
+//sem índice próprio.
+
+public class TransacaoBuscaRepositoryImpl implements TransacaoBuscaRepository {
+
+    private static final int DIGITOS_FINAL_CARTAO = 4;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Transacao> buscar(CriterioBusca criterio, int limite) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Transacao> query = cb.createQuery(Transacao.class);
+        Root<Transacao> transacao = query.from(Transacao.class);
+
+        //descricao e formaPagamento são colunas da transacao (@Embedded): caminhos, e não junções
+        Path<Descricao> descricao = transacao.get("descricao");
+        Path<FormaPagamento> formaPagamento = transacao.get("formaPagamento");
+
+        //Números passados direto à Criteria API são escritos no SQL; o id do cursor é um parâmetro para que todas as
+        //páginas usem o mesmo SQL (e a mesma instrução preparada)
+        ParameterExpression<Long> aposId = cb.parameter(Long.class);
+
+        List<Predicate> filtros = new ArrayList<>();
+        if (criterio.getEstabelecimento() != null) {
+            filtros.add(cb.equal(descricao.get("estabelecimento"), criterio.getEstabelecimento()));
+        }
+        if (criterio.getStatus() != null) {
+            filtros.add(cb.equal(descricao.get("status"), criterio.getStatus()));
+        }
+        if (criterio.getTipo() != null) {
+            filtros.add(cb.equal(formaPagamento.get("tipo"), criterio.getTipo()));
+        }
+        if (criterio.getInicio() != null) {
+            filtros.add(cb.greaterThanOrEqualTo(descricao.get("dataHora"), criterio.getInicio()));
+        }
+        if (criterio.getFim() != null) {
+            filtros.add(cb.lessThanOrEqualTo(descricao.get("dataHora"), criterio.getFim()));
+        }
+        if (criterio.getFinalCartao() != null) {
+            //O número é escrito no SQL (não é parâmetro), então a expressão é igual à do índice
+            filtros.add(cb.equal(cb.function("right", String.class, transacao.get("cartao"), cb.literal(DIGITOS_FINAL_CARTAO)),
+                    criterio.getFinalCartao()));
+        }
+        if (criterio.getAposDataHora() != null) {
+            //(dataHora, id) < (aposDataHora, aposId). O dataHora <= aposDataHora repetido fora do OR é um intervalo
+            //simples da chave de partição, então o PostgreSQL não lê as partições dos meses posteriores ao cursor.
+            filtros.add(cb.lessThanOrEqualTo(descricao.get("dataHora"), criterio.getAposDataHora()));
+            filtros.add(cb.or(
+                    cb.lessThan(descricao.get("dataHora"), criterio.getAposDataHora()),
+                    cb.and(cb.equal(descricao.get("dataHora"), criterio.getAposDataHora()),
+                            cb.lessThan(transacao.get("id"), aposId))));
+        }
+
+        query.select(transacao)
+                .where(filtros.toArray(new Predicate[0]))
+                .orderBy(cb.desc(descricao.get("dataHora")), cb.desc(transacao.get("id")));
+
+        TypedQuery<Transacao> consulta = entityManager.createQuery(query).setMaxResults(limite);
+        if (criterio.getAposDataHora() != null) {
+            consulta.setParameter(aposId, criterio.getAposId());
+        }
+        return consulta.getResultList();
+    }
+
+}
@@ -1,7 +1,20 @@
 package com.api.pagamento.repository;
 
 import com.api.pagamento.domain.model.Transacao;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 //JPA
 //Java Persistence API (ou simplesmente JPA) é uma API padrão da linguagem Java que descreve uma interface comum
@@ -22,4 +35,39 @@ import org.springframework.data.jpa.repository.JpaRepository;
 //Com a utilização do Hibernate, não há necessidade de escrever SQL “puro”, pois ele utiliza seu próprio código,
 //chamado de HQL (Hibernate Query Language).
 
-public interface TransacaoRepository extends JpaRepository<Transacao, Long> { }
+public interface TransacaoRepository extends JpaRepository<Transacao, Long>, TransacaoBuscaRepository {
+
+    int TAMANHO_BLOCO_STREAM = 500;
+
+    //descricao e formaPagamento são colunas da própria transacao (@Embedded): cada leitura é um único select, sem
+    //junções nem plano de busca (@EntityGraph).
+
+    //Paginação por chave (keyset): a página seguinte começa depois do último id entregue, então o custo de cada página
+    //não cresce com a posição dela na tabela, ao contrário de LIMIT/OFFSET.
+    List<Transacao> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<Transacao> findAllByOrderByIdAsc(Pageable pageable);
+
+    //Lote do arquivamento (ArquivadorTransacoes): as transações anteriores ao limite, na ordem do id. No PostgreSQL a
+    //condição em data_hora restringe a leitura às partições antigas (V14__transacao_particionada.sql).
+    List<Transacao> findByDescricaoDataHoraBeforeOrderByIdAsc(OffsetDateTime limite, Pageable pageable);
+
+    //Cursor JDBC somente de avanço: com fetch size o driver do PostgreSQL busca as linhas em blocos em vez de
+    //materializar o resultado inteiro. Precisa ser consumido dentro de uma transação e fechado ao final.
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + TAMANHO_BLOCO_STREAM),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select t from Transacao t order by t.id")
+    Stream<Transacao> streamAllByOrderByIdAsc();
+
+    //Estorno em uma única instrução: nega a transação informada, desde que ela ainda não esteja negada.
+    //A condição fica no próprio UPDATE, então dois estornos simultâneos da mesma transação não são ambos aceitos.
+    //Retorna a quantidade de linhas alteradas (1 = estornada, 0 = inexistente ou já estornada).
+    //clearAutomatically: descarta do contexto de persistência as entidades que o UPDATE deixou desatualizadas.
+    @Modifying(clearAutomatically = true)
+    @Query("update Transacao t set t.descricao.status = com.api.pagamento.domain.enumeration.StatusEnum.NEGADO " +
+            "where t.id = :id and t.descricao.status <> com.api.pagamento.domain.enumeration.StatusEnum.NEGADO")
+    int estornar(@Param("id") Long id);
+
+}
@@ -0,0 +1,51 @@
+package com.api.pagamento.repository.reativo;
+
+import com.api.pagamento.domain.model.ChaveResumoDiario;
+import com.api.pagamento.domain.model.util.MovimentoResumo;
+import com.api.pagamento.repository.ResumoDiarioAgregacaoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//Acúmulo do resumo diário na api reativa, com as mesmas instruções de ResumoDiarioAgregacaoRepository.
+//Sem batch no R2DBC: as linhas são alteradas uma após a outra, na ordem da chave (um pagamento altera uma linha e um
+//estorno, duas).
+
+@Repository
+@Profile("reativo")
+@RequiredArgsConstructor
+public class ResumoDiarioReativoRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Void> acumular(MovimentoResumo movimento) {
+        return Flux.fromIterable(movimento.getVariacoes().entrySet())
+                .concatMap(variacao -> somar(variacao.getKey(), variacao.getValue())
+                        .flatMap(alteradas -> alteradas == 0
+                                ? chave(ResumoDiarioAgregacaoRepository.CRIAR, variacao.getKey()).fetch().rowsUpdated()
+                                        .then(somar(variacao.getKey(), variacao.getValue()))
+                                : Mono.just(alteradas)))
+                .then();
+    }
+
+    private Mono<Integer> somar(ChaveResumoDiario chave, MovimentoResumo.Variacao variacao) {
+        return chave(ResumoDiarioAgregacaoRepository.SOMAR, chave)
+                .bind("quantidade", variacao.getQuantidade())
+                .bind("total", variacao.getTotal())
+                .fetch().rowsUpdated();
+    }
+
+    //Status e tipo pelo ordinal, como nos demais repositórios reativos
+    private DatabaseClient.GenericExecuteSpec chave(String sql, ChaveResumoDiario chave) {
+        return databaseClient.sql(sql)
+                .bind("dia", chave.getDia())
+                .bind("estabelecimento", chave.getEstabelecimento())
+                .bind("status", chave.getStatus().ordinal())
+                .bind("tipo", chave.getTipo().ordinal())
+                .bind("parcelas", chave.getParcelas());
+    }
+
+}
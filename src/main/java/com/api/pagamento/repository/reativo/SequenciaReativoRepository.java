@@ -0,0 +1,27 @@
+package com.api.pagamento.repository.reativo;
+
+import com.api.pagamento.repository.SequenciaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+//Reserva pelo R2DBC, na api reativa. O block() é chamado apenas na thread de reserva do ContadorEmBloco, nunca no
+//event loop.
+
+@Repository
+@Profile("reativo")
+@RequiredArgsConstructor
+public class SequenciaReativoRepository implements SequenciaRepository {
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public long reservar(String sequencia) {
+        return databaseClient.sql("select nextval('" + sequencia + "')")
+                .map(linha -> linha.get(0, Long.class))
+                .one()
+                .block();
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.api.pagamento.repository.reativo;
+
+import com.api.pagamento.domain.model.reativo.TransacaoRegistro;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface TransacaoReativoRepository extends R2dbcRepository<TransacaoRegistro, Long> {
+
+    //As linhas são emitidas à medida que chegam do banco (com backpressure), sem carregar a tabela inteira na memória
+    Flux<TransacaoRegistro> findAllByOrderByIdAsc();
+
+    //Mesmo UPDATE condicional de TransacaoRepository.estornar (status pelo ordinal do StatusEnum)
+    @Modifying
+    @Query("update transacao set status = :negado where id = :id and status <> :negado")
+    Mono<Integer> estornar(Long id, int negado);
+
+}
@@ -0,0 +1,82 @@
+package com.api.pagamento.repository.replica;
+
+import com.api.pagamento.config.ReplicasProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+//Leitura das próprias escritas com réplicas
+
+//Guarda o momento do commit de cada transação paga ou estornada nesta instância. Uma leitura pelo id feita em ler()
+//só vai a uma réplica que já alcançou esse momento (RoteadorReplicas); se nenhuma alcançou, vai ao primário.
+//Uma escrita mais antiga que replicasProperties.atrasoMaximo já está em toda réplica que recebe leituras (as mais
+//atrasadas não recebem), então sai daqui: o mapa guarda apenas as escritas dos últimos segundos.
+//Com as réplicas desligadas, nada é guardado.
+
+@Component
+@Profile("!reativo")
+public class EscritasRecentes {
+
+    private final boolean habilitado;
+
+    private final long atrasoMaximo;
+
+    private final Map<Long, Long> escritas = new ConcurrentHashMap<>();
+
+    //Momento que a réplica precisa ter alcançado para atender a leitura em andamento nesta thread
+    private final ThreadLocal<Long> exigencia = new ThreadLocal<>();
+
+    public EscritasRecentes(ReplicasProperties replicasProperties) {
+        this.habilitado = replicasProperties.isHabilitado();
+        this.atrasoMaximo = replicasProperties.getAtrasoMaximo().toMillis();
+    }
+
+    //Dentro de uma transação, o momento é o do commit: antes dele, nenhuma réplica pode ter a escrita
+    public void registrar(Long id) {
+        if (!habilitado || id == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    escritas.put(id, System.currentTimeMillis());
+                }
+            });
+        } else {
+            escritas.put(id, System.currentTimeMillis());
+        }
+    }
+
+    public <T> T ler(Long id, Supplier<T> leitura) {
+        Long escritaEm = habilitado ? escritas.get(id) : null;
+        if (escritaEm == null) {
+            return leitura.get();
+        }
+        exigencia.set(escritaEm);
+        try {
+            return leitura.get();
+        } finally {
+            exigencia.remove();
+        }
+    }
+
+    Long exigencia() {
+        return exigencia.get();
+    }
+
+    @Scheduled(fixedDelayString = "${api-pagamento.replicas.intervalo:PT1S}")
+    public void limpar() {
+        if (habilitado) {
+            long limite = System.currentTimeMillis() - atrasoMaximo;
+            escritas.values().removeIf(escritaEm -> escritaEm < limite);
+        }
+    }
+
+}
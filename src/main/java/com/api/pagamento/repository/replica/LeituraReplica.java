@@ -0,0 +1,22 @@
+package com.api.pagamento.repository.replica;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//Transação somente de leitura, que pode ser atendida por uma réplica (RoteadorReplicas)
+
+//É o @Transactional(readOnly = true) do Spring: o javax.transaction.Transactional, usado nos serviços, não tem
+//readOnly. Na anotação do método, tem precedência sobre o @Transactional da classe. Além do roteamento, o Hibernate
+//não confere (dirty checking) nem grava as entidades lidas nessa transação.
+
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true)
+public @interface LeituraReplica {
+}
@@ -0,0 +1,219 @@
+package com.api.pagamento.repository.replica;
+
+import com.api.pagamento.config.ReplicasProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+//DataSource que envia as transações dos métodos com @LeituraReplica às réplicas e todo o resto ao primário
+
+//A conexão é escolhida quando a transação executa a primeira instrução SQL (LazyConnectionDataSourceProxy, em
+//ReplicasConfig), quando o Spring já marcou a transação como somente de leitura. A réplica exige as duas coisas: a
+//transação somente de leitura e a chamada a um método com @LeituraReplica (marcada por ReplicasConfig.MarcacaoLeitura).
+//Só a marcação do Spring não basta: os métodos dos repositórios (SimpleJpaRepository) também abrem transações somente
+//de leitura quando chamados fora de uma transação, e uma leitura atrasada ali pode ser perigosa (ex: a chave de
+//idempotência de um pagamento que acabou de ser gravado). Todo o resto (escritas, Flyway, JdbcTemplate) vai ao
+//primário.
+//Cada réplica tem o momento até onde já aplicou as escritas do primário (alcancadoEm). A cada medição, a posição do
+//WAL do primário é lida e guardada com o momento em que a leitura começou; tudo o que foi confirmado no primário antes
+//desse momento está até essa posição. O momento alcançado pela réplica é o da medição mais recente cuja posição ela já
+//aplicou. A comparação é feita com a posição do primário, e não com o que a réplica já recebeu: uma réplica que
+//aplicou tudo o que recebeu, mas ainda não recebeu a última escrita, não a alcançou.
+//A réplica recebe leituras enquanto esse momento está a menos de replicasProperties.atrasoMaximo de agora, o que
+//exclui tanto a réplica atrasada quanto a que não pôde ser medida. Uma leitura das próprias escritas
+//(EscritasRecentes) exige ainda que a réplica tenha alcançado o momento do commit da escrita.
+//Sem réplica disponível, ou se a réplica escolhida não entrega a conexão, a leitura vai ao primário.
+
+public class RoteadorReplicas extends AbstractDataSource implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RoteadorReplicas.class);
+
+    private final DataSource primario;
+
+    private final List<Replica> replicas;
+
+    private final EscritasRecentes escritasRecentes;
+
+    private final ReplicasProperties replicasProperties;
+
+    private final AtomicInteger rodizio = new AtomicInteger();
+
+    //Medições do primário dos últimos replicasProperties.atrasoMaximo, da mais recente para a mais antiga (apenas
+    //medirAtraso as usa)
+    private final Deque<Medicao> medicoes = new ArrayDeque<>();
+
+    //Chamada em andamento, nesta thread, de um método com @LeituraReplica
+    private final ThreadLocal<Boolean> leituraReplica = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    public RoteadorReplicas(DataSource primario, List<HikariDataSource> replicas, EscritasRecentes escritasRecentes,
+                            ReplicasProperties replicasProperties) {
+        this.primario = primario;
+        this.replicas = replicas.stream().map(Replica::new).collect(Collectors.toList());
+        this.escritasRecentes = escritasRecentes;
+        this.replicasProperties = replicasProperties;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!leituraReplica.get() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primario.getConnection();
+        }
+        Replica replica = escolher(System.currentTimeMillis(), escritasRecentes.exigencia());
+        if (replica == null) {
+            return primario.getConnection();
+        }
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException ex) {
+            replica.marcarIndisponivel();
+            LOG.warn("A réplica {} não entregou uma conexão; a leitura vai ao primário", replica.dataSource.getPoolName(), ex);
+            return primario.getConnection();
+        }
+    }
+
+    //Usuário e senha diferentes dos configurados: apenas no primário
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primario.getConnection(username, password);
+    }
+
+    //Marca (ou desmarca) a chamada de um método com @LeituraReplica nesta thread; retorna a marcação anterior, para
+    //ser restaurada ao final da chamada
+    public boolean marcarLeituraReplica(boolean marcada) {
+        boolean anterior = leituraReplica.get();
+        leituraReplica.set(marcada);
+        return anterior;
+    }
+
+    //Réplica que atende a leitura; nula quando ela deve ir ao primário
+    HikariDataSource escolher() {
+        Replica replica = escolher(System.currentTimeMillis(), escritasRecentes.exigencia());
+        return replica == null ? null : replica.dataSource;
+    }
+
+    private Replica escolher(long agora, Long exigencia) {
+        long atrasoMaximo = replicasProperties.getAtrasoMaximo().toMillis();
+        List<Replica> disponiveis = replicas.stream()
+                .filter(replica -> replica.atende(agora, atrasoMaximo, exigencia))
+                .collect(Collectors.toList());
+        if (disponiveis.isEmpty()) {
+            return null;
+        }
+        if (replicasProperties.getBalanceamento() == ReplicasProperties.Balanceamento.MENOS_OCUPADA) {
+            return disponiveis.stream().min(Comparator.comparingInt(Replica::conexoesEmUso)).orElseThrow();
+        }
+        return disponiveis.get(Math.floorMod(rodizio.getAndIncrement(), disponiveis.size()));
+    }
+
+    //Ao subir e depois a cada segundo (api-pagamento.replicas.intervalo), que precisa ser menor que o atraso máximo:
+    //uma medição mais antiga que ele tira a réplica das leituras
+    @Scheduled(initialDelay = 0, fixedDelayString = "${api-pagamento.replicas.intervalo:PT1S}")
+    public synchronized void medirAtraso() {
+        long medidaEm = System.currentTimeMillis();
+        try {
+            medicoes.addFirst(new Medicao(medidaEm, posicao(primario, replicasProperties.getConsultaPosicaoPrimario())));
+        } catch (SQLException ex) {
+            LOG.warn("A posição do primário não pôde ser medida; as réplicas não avançam nesta medição", ex);
+            return;
+        }
+        //Medições mais antigas que o atraso máximo não colocam nenhuma réplica de volta nas leituras
+        medicoes.removeIf(medicao -> medidaEm - medicao.medidaEm > replicasProperties.getAtrasoMaximo().toMillis());
+
+        for (Replica replica : replicas) {
+            try {
+                long aplicada = posicao(replica.dataSource, replicasProperties.getConsultaPosicaoReplica());
+                //As posições crescem com o tempo: a primeira medição (da mais recente para a mais antiga) que a
+                //réplica já aplicou é a mais recente que ela alcançou
+                medicoes.stream()
+                        .filter(medicao -> medicao.posicao <= aplicada)
+                        .findFirst()
+                        .ifPresent(medicao -> replica.alcancadoEm = Math.max(replica.alcancadoEm, medicao.medidaEm));
+            } catch (SQLException ex) {
+                if (replica.alcancadoEm != 0) {
+                    LOG.warn("O atraso da réplica {} não pôde ser medido; as leituras vão às demais ou ao primário",
+                            replica.dataSource.getPoolName(), ex);
+                }
+                replica.marcarIndisponivel();
+            }
+        }
+    }
+
+    private long posicao(DataSource dataSource, String consulta) throws SQLException {
+        try (Connection conexao = dataSource.getConnection();
+             Statement statement = conexao.createStatement()) {
+            statement.setQueryTimeout((int) Math.max(1, replicasProperties.getAtrasoMaximo().toSeconds()));
+            try (ResultSet posicao = statement.executeQuery(consulta)) {
+                posicao.next();
+                long valor = posicao.getLong(1);
+                //Nula no PostgreSQL quando a réplica não está replicando (ex: foi promovida)
+                if (posicao.wasNull()) {
+                    throw new SQLException("Posição nula: " + consulta);
+                }
+                return valor;
+            }
+        }
+    }
+
+    //O primário é um bean próprio (ReplicasConfig.primario), fechado pelo Spring
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private static final class Medicao {
+
+        private final long medidaEm;
+
+        private final long posicao;
+
+        private Medicao(long medidaEm, long posicao) {
+            this.medidaEm = medidaEm;
+            this.posicao = posicao;
+        }
+
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+
+        //Momento (epoch em milissegundos) até onde a réplica aplicou as escritas do primário; 0 enquanto não foi medida
+        private volatile long alcancadoEm;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private boolean atende(long agora, long atrasoMaximo, Long exigencia) {
+            return agora - alcancadoEm <= atrasoMaximo && (exigencia == null || alcancadoEm > exigencia);
+        }
+
+        private void marcarIndisponivel() {
+            alcancadoEm = 0;
+        }
+
+        private int conexoesEmUso() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.api.pagamento.service;
+
+import com.api.pagamento.domain.exception.LimiteAssinantesException;
+import com.api.pagamento.service.stream.AssinanteFeed;
+
+public interface FeedEventosService {
+
+    //Envia ao assinante os eventos publicados depois da posição informada (ou, se nula, os publicados a partir de
+    //agora), e depois cada novo evento. Retorna a ação que encerra a assinatura.
+    Runnable assinar(Long apos, AssinanteFeed assinante) throws LimiteAssinantesException;
+
+}
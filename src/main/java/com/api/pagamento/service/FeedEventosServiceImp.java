@@ -0,0 +1,286 @@
+package com.api.pagamento.service;
+
+import com.api.pagamento.config.StreamProperties;
+import com.api.pagamento.domain.dto.EventoDTO;
+import com.api.pagamento.domain.dto.util.Mapper;
+import com.api.pagamento.domain.exception.LimiteAssinantesException;
+import com.api.pagamento.repository.EventoRepository;
+import com.api.pagamento.service.stream.AssinanteFeed;
+import com.api.pagamento.service.stream.BufferEventos;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+//Stream dos eventos de pagamento e estorno (GET /transacao/v1/stream)
+
+//Uma única consulta por intervalo (api-pagamento.stream.intervalo), por instância, lê da tabela evento os eventos
+//publicados pelo relay desde a última leitura e os adiciona ao BufferEventos, compartilhado por todos os assinantes. A
+//quantidade de assinantes não muda a quantidade de consultas: eles são servidos a partir da memória.
+
+//Cada assinatura guarda apenas a posição do último evento enviado. Quando há eventos novos, ela é agendada no executor
+//de envio e envia um lote de cada vez (loteEnvio), reagendando-se enquanto estiver atrasada. Um assinante lento não
+//acumula eventos na memória: a escrita na conexão dele espera (backpressure do TCP) e ocupa uma thread do executor. Se
+//ele ficar para trás do que o buffer guarda, passa a ler a tabela evento, um lote por consulta, até alcançar o buffer.
+
+//Uma escrita que passa de prazoEscrita é abandonada pelo atualizar: a assinatura é cancelada e o executor ganha uma
+//thread no lugar da que continua presa. A escrita do servlet não responde à interrupção e só termina no timeout de
+//escrita do servidor, então sem isso poucos clientes que param de ler (sem fechar a conexão) ocupariam todas as threads
+//e deixariam os demais sem eventos. Quando a escrita termina, a thread presa encerra a conexão (AssinanteFeed.encerrar)
+//e a thread a mais sai do executor. As threads a mais são limitadas a threadsEnvio.
+
+//Como a posição é atribuída pelo relay na transação que publica o evento, um evento só é lido depois de publicado e
+//confirmado, e o stream entrega os eventos na mesma ordem que os publicadores.
+
+@Service
+@Profile("!reativo")
+public class FeedEventosServiceImp implements FeedEventosService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FeedEventosServiceImp.class);
+
+    private final EventoRepository eventoRepository;
+
+    private final StreamProperties streamProperties;
+
+    private final BufferEventos buffer;
+
+    private final Set<Assinatura> assinaturas = ConcurrentHashMap.newKeySet();
+
+    //Uma vaga por assinatura, reservada antes de ela existir: assinaturas simultâneas não passam de maximoAssinantes
+    private final Semaphore vagas;
+
+    private final ThreadPoolExecutor executor;
+
+    //Threads no executor além de threadsEnvio, no lugar das presas em escritas abandonadas
+    private int threadsExtras;
+
+    public FeedEventosServiceImp(EventoRepository eventoRepository, StreamProperties streamProperties) {
+        this.eventoRepository = eventoRepository;
+        this.streamProperties = streamProperties;
+        //O buffer começa vazio, a partir do último evento publicado; os anteriores são lidos da tabela
+        this.buffer = new BufferEventos(streamProperties.getCapacidade(), eventoRepository.ultimaPosicao());
+        this.vagas = new Semaphore(streamProperties.getMaximoAssinantes());
+        this.executor = new ThreadPoolExecutor(streamProperties.getThreadsEnvio(), streamProperties.getThreadsEnvio(),
+                0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new CustomizableThreadFactory("stream-eventos-"));
+    }
+
+    @Override
+    public Runnable assinar(Long apos, AssinanteFeed assinante) throws LimiteAssinantesException {
+
+        if (!vagas.tryAcquire()) {
+            throw new LimiteAssinantesException();
+        }
+        Assinatura assinatura = new Assinatura(assinante, apos != null ? Math.max(apos, 0) : buffer.getUltima());
+        assinaturas.add(assinatura);
+        assinatura.agendar();
+        return assinatura::cancelar;
+    }
+
+    //A cada 200 ms (api-pagamento.stream.intervalo), contado a partir do fim da execução anterior
+    @Scheduled(fixedDelayString = "${api-pagamento.stream.intervalo:PT0.2S}")
+    public void atualizar() {
+
+        try {
+            List<EventoDTO> novos;
+            do {
+                novos = ler(buffer.getUltima());
+                novos.forEach(buffer::adicionar);
+            } while (novos.size() == streamProperties.getLoteEnvio());
+        } catch (RuntimeException ex) {
+            LOG.warn("Os eventos publicados não puderam ser lidos; nova tentativa na próxima execução", ex);
+        }
+
+        long agora = System.nanoTime();
+        for (Assinatura assinatura : assinaturas) {
+            if (!assinatura.abandonar(agora)
+                    && (assinatura.posicao < buffer.getUltima() || assinatura.semEscrita(agora))) {
+                assinatura.agendar();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    //Adiciona (1) ou remove (-1) uma thread do executor. Ao adicionar, retorna false se o limite de threads a mais já
+    //foi atingido. O núcleo do executor nunca pode passar do máximo.
+    private synchronized boolean redimensionar(int diferenca) {
+        if (diferenca > 0 && threadsExtras >= streamProperties.getThreadsEnvio()) {
+            return false;
+        }
+        threadsExtras += diferenca;
+        int threads = streamProperties.getThreadsEnvio() + threadsExtras;
+        if (diferenca > 0) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+        return true;
+    }
+
+    private List<EventoDTO> ler(long apos) {
+        return eventoRepository.findByPosicaoGreaterThanOrderByPosicaoAsc(apos, PageRequest.ofSize(streamProperties.getLoteEnvio()))
+                .stream()
+                .map(Mapper::toEventoDTO)
+                .collect(Collectors.toList());
+    }
+
+    private final class Assinatura implements Runnable {
+
+        private final AssinanteFeed assinante;
+
+        //Executada por uma thread de cada vez: agendada só passa a false quando o envio termina
+        private final AtomicBoolean agendada = new AtomicBoolean();
+
+        private volatile long posicao;
+
+        private volatile long ultimaEscrita = System.nanoTime();
+
+        private volatile boolean cancelada;
+
+        //Thread que está escrevendo na conexão e o início da escrita (nula fora dela), lidos pelo atualizar; estes
+        //campos são protegidos pelo monitor da assinatura
+        private Thread escrevendo;
+
+        private long inicioEscrita;
+
+        private boolean abandonada;
+
+        //A thread presa na escrita abandonada foi substituída por uma thread a mais no executor
+        private boolean substituida;
+
+        private Assinatura(AssinanteFeed assinante, long posicao) {
+            this.assinante = assinante;
+            this.posicao = posicao;
+        }
+
+        private void agendar() {
+            if (!cancelada && agendada.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        //Chamado também pelo emitter (conclusão, timeout e erro) e após uma IOException: a vaga volta uma vez só
+        private void cancelar() {
+            cancelada = true;
+            if (assinaturas.remove(this)) {
+                vagas.release();
+            }
+        }
+
+        //Pelo atualizar: true se a escrita em andamento passou do prazo e foi abandonada
+        private boolean abandonar(long agora) {
+            synchronized (this) {
+                if (escrevendo == null || abandonada
+                        || agora - inicioEscrita < streamProperties.getPrazoEscrita().toNanos()) {
+                    return false;
+                }
+                abandonada = true;
+                substituida = redimensionar(1);
+                //Libera as escritas que respondem à interrupção; a do servlet continua até o timeout de escrita
+                escrevendo.interrupt();
+            }
+            cancelar();
+            LOG.warn("Um assinante do stream não recebeu os eventos em {}; a assinatura foi encerrada",
+                    streamProperties.getPrazoEscrita());
+            return true;
+        }
+
+        private synchronized void iniciarEscrita() {
+            escrevendo = Thread.currentThread();
+            inicioEscrita = System.nanoTime();
+        }
+
+        //Depois de uma escrita abandonada, a thread volta a ser apenas uma das threadsEnvio e a conexão é encerrada
+        private void terminarEscrita() {
+            synchronized (this) {
+                escrevendo = null;
+                if (!abandonada) {
+                    return;
+                }
+            }
+            Thread.interrupted();
+            if (substituida) {
+                redimensionar(-1);
+            }
+            assinante.encerrar();
+        }
+
+        private boolean semEscrita(long agora) {
+            return agora - ultimaEscrita >= streamProperties.getHeartbeat().toNanos();
+        }
+
+        @Override
+        public void run() {
+
+            boolean atrasada = false;
+            try {
+                atrasada = !cancelada && enviar();
+            } catch (IOException ex) {
+                //A conexão foi encerrada pelo cliente
+                cancelar();
+            } catch (RuntimeException ex) {
+                LOG.warn("Os eventos do stream não puderam ser enviados; nova tentativa na próxima execução", ex);
+            } finally {
+                agendada.set(false);
+            }
+            if (atrasada) {
+                agendar();
+            }
+        }
+
+        //Retorna true se ainda há eventos a enviar
+        private boolean enviar() throws IOException {
+
+            List<EventoDTO> eventos = buffer.apos(posicao, streamProperties.getLoteEnvio());
+            if (eventos == null) {
+                eventos = ler(posicao);
+            }
+
+            long agora = System.nanoTime();
+            if (eventos.isEmpty()) {
+                if (semEscrita(agora)) {
+                    iniciarEscrita();
+                    try {
+                        assinante.manterConexao();
+                    } finally {
+                        terminarEscrita();
+                    }
+                    ultimaEscrita = agora;
+                }
+                return false;
+            }
+
+            iniciarEscrita();
+            try {
+                assinante.enviar(eventos);
+            } finally {
+                terminarEscrita();
+            }
+            posicao = eventos.get(eventos.size() - 1).getPosicao();
+            ultimaEscrita = agora;
+            return eventos.size() == streamProperties.getLoteEnvio() || posicao < buffer.getUltima();
+        }
+
+    }
+
+}
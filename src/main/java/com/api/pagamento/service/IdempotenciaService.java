@@ -0,0 +1,17 @@
+package com.api.pagamento.service;
+
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.exception.AutorizadorIndisponivelException;
+import com.api.pagamento.domain.exception.ChaveIdempotenciaInvalidaException;
+import com.api.pagamento.domain.exception.InsercaoNaoPermitidaException;
+import com.api.pagamento.domain.model.Transacao;
+
+//Sem @Transactional na interface: a implementação abre a própria transação apenas em volta da gravação, para que o
+//resultado só seja entregue às requisições que aguardam a mesma chave depois do commit.
+
+public interface IdempotenciaService {
+
+    TransacaoDTO pagar(String chave, Transacao transacao) throws InsercaoNaoPermitidaException, ChaveIdempotenciaInvalidaException, AutorizadorIndisponivelException;
+    void limparExpiradas();
+
+}
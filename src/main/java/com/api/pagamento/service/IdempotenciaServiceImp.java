@@ -0,0 +1,168 @@
+package com.api.pagamento.service;
+
+import com.api.pagamento.config.IdempotenciaProperties;
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.dto.util.Mapper;
+import com.api.pagamento.domain.exception.AutorizadorIndisponivelException;
+import com.api.pagamento.domain.exception.ChaveIdempotenciaInvalidaException;
+import com.api.pagamento.domain.exception.InsercaoNaoPermitidaException;
+import com.api.pagamento.domain.model.Idempotencia;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.repository.IdempotenciaRepository;
+import com.api.pagamento.repository.TransacaoRepository;
+import com.api.pagamento.service.autorizador.ClienteAutorizador;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.transaction.Transactional;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Pagamento idempotente
+
+//1. Memória: cada chave tem um CompletableFuture no mapa. A primeira requisição com a chave cria o futuro e executa o
+//   pagamento; as demais (simultâneas ou retentativas dentro de ttlMemoria) apenas aguardam o mesmo futuro, então
+//   duplicatas simultâneas resultam em um único insert.
+//2. Banco: se a chave não está na memória (expirou, restart, outra instância), a tabela idempotencia é consultada e,
+//   se a chave já existe, a transação original é retornada sem passar pelo caminho de gravação.
+//3. Gravação: o pagamento é autorizado pelo emissor, fora da transação do banco, e a transação e a chave são gravadas
+//   na mesma transação do banco. Se outra instância gravou a mesma chave nesse meio tempo, a chave primária rejeita o
+//   insert, tudo é desfeito e a transação da outra instância é retornada.
+
+@Service
+@Profile("!reativo")
+@RequiredArgsConstructor
+public class IdempotenciaServiceImp implements IdempotenciaService {
+
+    static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+
+    private final TransacaoService transacaoService;
+
+    private final TransacaoRepository transacaoRepository;
+
+    private final IdempotenciaRepository idempotenciaRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final IdempotenciaProperties idempotenciaProperties;
+
+    @Override
+    public TransacaoDTO pagar(String chave, Transacao transacao) throws InsercaoNaoPermitidaException, ChaveIdempotenciaInvalidaException, AutorizadorIndisponivelException {
+
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new ChaveIdempotenciaInvalidaException();
+        }
+
+        Instant agora = Instant.now();
+        Entrada nova = new Entrada(new CompletableFuture<>(), agora.plus(idempotenciaProperties.getTtlMemoria()));
+        Entrada entrada = entradas.compute(chave, (k, existente) -> existente != null && !existente.expirada(agora) ? existente : nova);
+
+        if (entrada == nova) {
+            executar(chave, transacao, nova);
+        }
+
+        return aguardar(entrada.resultado);
+    }
+
+    //A cada minuto (api-pagamento.idempotencia.intervalo-limpeza), descarta da memória os resultados expirados e apaga
+    //do banco as chaves mais antigas que a retenção
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${api-pagamento.idempotencia.intervalo-limpeza:PT1M}")
+    public void limparExpiradas() {
+
+        Instant agora = Instant.now();
+        entradas.values().removeIf(entrada -> entrada.resultado.isDone() && entrada.expirada(agora));
+
+        idempotenciaRepository.apagarCriadasAntesDe(LocalDateTime.now().minus(idempotenciaProperties.getRetencao()));
+    }
+
+    private void executar(String chave, Transacao transacao, Entrada entrada) {
+
+        try {
+            entrada.resultado.complete(recuperar(chave).orElseGet(() -> gravar(chave, transacao)));
+        } catch (RuntimeException ex) {
+            //Uma falha não fica na memória: a próxima requisição com a chave tenta novamente
+            entradas.remove(chave, entrada);
+            entrada.resultado.completeExceptionally(ex);
+        }
+
+    }
+
+    private Optional<TransacaoDTO> recuperar(String chave) {
+        return idempotenciaRepository.findById(chave).map(idempotencia -> Mapper.toTransacaoDTO(idempotencia.getTransacao()));
+    }
+
+    private TransacaoDTO gravar(String chave, Transacao transacao) {
+
+        //A autorização é aguardada antes da transação, para que nenhuma conexão fique presa enquanto o emissor responde
+        Transacao autorizada;
+        try {
+            autorizada = ClienteAutorizador.aguardar(transacaoService.autorizar(transacao));
+        } catch (InsercaoNaoPermitidaException | AutorizadorIndisponivelException ex) {
+            throw new CompletionException(ex);
+        }
+
+        try {
+            return transactionTemplate.execute(status -> {
+                TransacaoDTO transacaoDTO = transacaoService.registrar(autorizada);
+                //saveAndFlush: uma chave duplicada é detectada aqui, e não apenas no commit
+                idempotenciaRepository.saveAndFlush(new Idempotencia(chave,
+                        transacaoRepository.getById(transacaoDTO.getId()), LocalDateTime.now()));
+                return transacaoDTO;
+            });
+        } catch (DataIntegrityViolationException ex) {
+            //Outra instância gravou a mesma chave entre a consulta e o insert: o pagamento desta foi desfeito
+            return recuperar(chave).orElseThrow(() -> ex);
+        }
+
+    }
+
+    private TransacaoDTO aguardar(CompletableFuture<TransacaoDTO> resultado) throws InsercaoNaoPermitidaException, AutorizadorIndisponivelException {
+
+        try {
+            return resultado.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof InsercaoNaoPermitidaException) {
+                throw (InsercaoNaoPermitidaException) ex.getCause();
+            }
+            if (ex.getCause() instanceof AutorizadorIndisponivelException) {
+                throw (AutorizadorIndisponivelException) ex.getCause();
+            }
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+
+    }
+
+    private static final class Entrada {
+
+        private final CompletableFuture<TransacaoDTO> resultado;
+
+        private final Instant expiraEm;
+
+        private Entrada(CompletableFuture<TransacaoDTO> resultado, Instant expiraEm) {
+            this.resultado = resultado;
+            this.expiraEm = expiraEm;
+        }
+
+        private boolean expirada(Instant agora) {
+            return agora.isAfter(expiraEm);
+        }
+
+    }
+
+}
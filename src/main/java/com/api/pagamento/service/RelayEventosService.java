@@ -0,0 +1,11 @@
+package com.api.pagamento.service;
+
+public interface RelayEventosService {
+
+    //Publica os eventos pendentes do outbox, em lotes, até que não reste nenhum. Retorna a quantidade publicada.
+    int publicarPendentes();
+
+    //Apaga os eventos publicados há mais tempo que a retenção (api-pagamento.eventos.retencao)
+    void apagarPublicados();
+
+}
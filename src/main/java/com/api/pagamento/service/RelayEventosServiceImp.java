@@ -0,0 +1,94 @@
+package com.api.pagamento.service;
+
+import com.api.pagamento.config.EventosProperties;
+import com.api.pagamento.domain.dto.EventoDTO;
+import com.api.pagamento.domain.dto.util.Mapper;
+import com.api.pagamento.repository.EventoRepository;
+import com.api.pagamento.service.publicador.PublicadorEventos;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.transaction.Transactional;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+//Relay do outbox
+
+//Cada lote é uma transação: reserva os eventos pendentes mais antigos (bloqueados por select ... for update), atribui a
+//eles as próximas posições de publicação e publica no PublicadorEventos. Se a publicação falhar, a transação é desfeita
+//e o lote inteiro continua pendente, sem posição; se a api cair depois da publicação e antes do commit, o lote é
+//publicado de novo. Por isso a entrega é "pelo menos uma vez", e nunca fora de ordem para uma mesma transação.
+
+//Os consumidores deixam de consultar GET /transacao/v1 periodicamente: o relay lê apenas os eventos pendentes, pela
+//chave primária.
+
+//Os eventos publicados ficam na tabela durante a retenção: o stream (FeedEventosServiceImp) lê por posição os eventos
+//já confirmados, sempre na ordem em que foram publicados.
+
+@Service
+@Profile("!reativo")
+@RequiredArgsConstructor
+public class RelayEventosServiceImp implements RelayEventosService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RelayEventosServiceImp.class);
+
+    private final EventoRepository eventoRepository;
+
+    private final PublicadorEventos publicadorEventos;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EventosProperties eventosProperties;
+
+    @Override
+    public int publicarPendentes() {
+
+        int publicados = 0;
+        int lote;
+        do {
+            lote = transactionTemplate.execute(status -> publicarLote());
+            publicados += lote;
+        } while (lote == eventosProperties.getTamanhoLote());
+        return publicados;
+    }
+
+    //A cada segundo (api-pagamento.eventos.intervalo), contado a partir do fim da execução anterior. Uma falha é
+    //registrada no log e os eventos são publicados na próxima execução.
+    @Scheduled(fixedDelayString = "${api-pagamento.eventos.intervalo:PT1S}",
+            initialDelayString = "${api-pagamento.eventos.intervalo:PT1S}")
+    public void publicarPendentesAgendado() {
+        try {
+            publicarPendentes();
+        } catch (RuntimeException ex) {
+            LOG.warn("Os eventos pendentes não puderam ser publicados; nova tentativa na próxima execução", ex);
+        }
+    }
+
+    //A cada minuto (api-pagamento.eventos.intervalo-limpeza)
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${api-pagamento.eventos.intervalo-limpeza:PT1M}")
+    public void apagarPublicados() {
+        eventoRepository.apagarPublicadosAntesDe(OffsetDateTime.now().minus(eventosProperties.getRetencao()));
+    }
+
+    private int publicarLote() {
+
+        List<Long> ids = eventoRepository.reservarPendentes(eventosProperties.getTamanhoLote());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<EventoDTO> eventosDTO = eventoRepository.findByIdInOrderByPosicaoAsc(ids).stream()
+                .map(Mapper::toEventoDTO)
+                .collect(Collectors.toList());
+        publicadorEventos.publicar(eventosDTO);
+        return ids.size();
+    }
+
+}
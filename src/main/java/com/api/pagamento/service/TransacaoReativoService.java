@@ -0,0 +1,20 @@
+package com.api.pagamento.service;
+
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.model.Transacao;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//Contraparte reativa do TransacaoService (perfil reativo)
+
+//Os erros (TransacaoInexistenteException, InsercaoNaoPermitidaException, EstornoNaoPermitidoException) são emitidos
+//pelo Mono/Flux em vez de lançados.
+
+public interface TransacaoReativoService {
+
+    Mono<TransacaoDTO> procurarPeloId(Long id);
+    Flux<TransacaoDTO> procurarTodos();
+    Mono<TransacaoDTO> pagar(Transacao transacao);
+    Mono<TransacaoDTO> estornar(Long id);
+
+}
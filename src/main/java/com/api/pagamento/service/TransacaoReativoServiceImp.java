@@ -0,0 +1,93 @@
+package com.api.pagamento.service;
+
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.dto.util.Mapper;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.exception.EstornoNaoPermitidoException;
+import com.api.pagamento.domain.exception.TransacaoInexistenteException;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.domain.model.util.MovimentoResumo;
+import com.api.pagamento.repository.reativo.ResumoDiarioReativoRepository;
+import com.api.pagamento.repository.reativo.TransacaoReativoRepository;
+import com.api.pagamento.service.autorizador.ClienteAutorizador;
+import com.api.pagamento.service.identificador.GeradorIdentificadores;
+import com.api.pagamento.service.util.RegrasPagamento;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//Serviço da api reativa (perfil reativo)
+
+//Nenhuma chamada bloqueia a thread: os repositórios R2DBC devolvem Mono/Flux e o TransactionalOperator delimita a
+//transação no próprio fluxo (o @Transactional do TransacaoService depende de uma thread por requisição).
+
+@Service
+@Profile("reativo")
+@RequiredArgsConstructor
+public class TransacaoReativoServiceImp implements TransacaoReativoService {
+
+    private final TransacaoReativoRepository transacaoRepository;
+
+    private final ResumoDiarioReativoRepository resumoDiarioRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ClienteAutorizador clienteAutorizador;
+
+    private final GeradorIdentificadores geradorIdentificadores;
+
+    @Override
+    public Mono<TransacaoDTO> procurarPeloId(Long id) {
+        return transacaoRepository.findById(id)
+                .map(Mapper::toTransacaoDTO)
+                .switchIfEmpty(Mono.error(TransacaoInexistenteException::new));
+    }
+
+    @Override
+    public Flux<TransacaoDTO> procurarTodos() {
+        return transacaoRepository.findAllByOrderByIdAsc()
+                .map(Mapper::toTransacaoDTO)
+                .switchIfEmpty(Flux.error(TransacaoInexistenteException::new));
+    }
+
+    //Um insert, com a descrição e a forma de pagamento na mesma linha; o id é gerado pelo banco (valor padrão da
+    //coluna) no próprio insert
+    //A transação envolve apenas o insert e o resumo diário: o TransactionalOperator obtém a conexão do pool (e envia o
+    //BEGIN) quando o fluxo dele é assinado, então a autorização e o nsu ficam antes dele, sem uma conexão presa
+    //durante a latência do emissor.
+    @Override
+    public Mono<TransacaoDTO> pagar(Transacao transacao) {
+        return Mono.fromCallable(() -> {
+                    RegrasPagamento.validarInsercao(transacao);
+                    return transacao;
+                })
+                //A resposta do emissor completa o futuro; nenhuma thread espera por ela
+                .flatMap(validada -> Mono.fromFuture(clienteAutorizador.autorizar(validada)))
+                //O nsu também: a reserva de um bloco de nsus não bloqueia a thread
+                .zipWhen(autorizacao -> Mono.fromFuture(geradorIdentificadores.proximoNsuAssincrono()))
+                .map(autorizacaoNsu -> RegrasPagamento.aplicar(transacao, autorizacaoNsu.getT1(), autorizacaoNsu.getT2()))
+                .flatMap(autorizada -> transacaoRepository.save(Mapper.toTransacaoRegistro(autorizada))
+                        .flatMap(registro -> {
+                            autorizada.setId(registro.getId());
+                            return resumoDiarioRepository.acumular(new MovimentoResumo().somar(autorizada))
+                                    .thenReturn(Mapper.toTransacaoDTO(autorizada));
+                        })
+                        .as(transactionalOperator::transactional));
+    }
+
+    //Mesmo estorno da api JPA: UPDATE condicional seguido da leitura e do resumo diário, na mesma transação
+    @Override
+    public Mono<TransacaoDTO> estornar(Long id) {
+        return transacaoRepository.estornar(id, StatusEnum.NEGADO.ordinal())
+                .flatMap(alteradas -> procurarPeloId(id)
+                        .flatMap(transacaoDTO -> alteradas == 1
+                                ? resumoDiarioRepository.acumular(new MovimentoResumo().estornar(Mapper.toTransacao(transacaoDTO)))
+                                        .thenReturn(transacaoDTO)
+                                : Mono.<TransacaoDTO>error(new EstornoNaoPermitidoException())))
+                .as(transactionalOperator::transactional);
+    }
+
+}
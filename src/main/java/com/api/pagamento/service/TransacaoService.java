@@ -1,12 +1,24 @@
 package com.api.pagamento.service;
 
+import com.api.pagamento.domain.dto.FiltroRelatorioDTO;
+import com.api.pagamento.domain.dto.FiltroTransacaoDTO;
+import com.api.pagamento.domain.dto.PaginaTransacaoDTO;
+import com.api.pagamento.domain.dto.ResultadoPagamentoDTO;
+import com.api.pagamento.domain.dto.TotalDTO;
 import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.exception.AutorizadorIndisponivelException;
+import com.api.pagamento.domain.exception.CursorInvalidoException;
+import com.api.pagamento.domain.exception.EstornoNaoPermitidoException;
+import com.api.pagamento.domain.exception.FiltroInvalidoException;
 import com.api.pagamento.domain.exception.InsercaoNaoPermitidaException;
+import com.api.pagamento.domain.exception.RelatorioInvalidoException;
 import com.api.pagamento.domain.exception.TransacaoInexistenteException;
 import com.api.pagamento.domain.model.Transacao;
 
 import javax.transaction.Transactional;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 //@Transactional
 
@@ -20,7 +32,15 @@ public interface TransacaoService {
 
     TransacaoDTO procurarPeloId(Long id) throws TransacaoInexistenteException;
     List<TransacaoDTO> procurarTodos() throws TransacaoInexistenteException;
-    TransacaoDTO pagar(Transacao transacao) throws InsercaoNaoPermitidaException;
-    TransacaoDTO estornar(Long id) throws TransacaoInexistenteException;
+    PaginaTransacaoDTO procurarPagina(String cursor, Integer tamanho) throws CursorInvalidoException;
+    PaginaTransacaoDTO buscar(FiltroTransacaoDTO filtro, String cursor, Integer tamanho) throws CursorInvalidoException, FiltroInvalidoException;
+    List<TotalDTO> totalizar(FiltroRelatorioDTO filtro) throws RelatorioInvalidoException;
+    void transmitirTodos(Consumer<TransacaoDTO> consumidor);
+    CompletableFuture<Transacao> autorizar(Transacao transacao) throws InsercaoNaoPermitidaException;
+    TransacaoDTO registrar(Transacao autorizada);
+    TransacaoDTO pagar(Transacao transacao) throws InsercaoNaoPermitidaException, AutorizadorIndisponivelException;
+    CompletableFuture<TransacaoDTO> pagarAssincrono(Transacao transacao) throws InsercaoNaoPermitidaException;
+    List<ResultadoPagamentoDTO> pagarEmLote(List<Transacao> transacoes);
+    TransacaoDTO estornar(Long id) throws TransacaoInexistenteException, EstornoNaoPermitidoException;
 
 }
@@ -1,18 +1,65 @@
 package com.api.pagamento.service;
 
+import com.api.pagamento.config.CacheConfig;
+import com.api.pagamento.config.LoteProperties;
+import com.api.pagamento.config.MetricasConfig;
+import com.api.pagamento.domain.dto.FiltroRelatorioDTO;
+import com.api.pagamento.domain.dto.FiltroTransacaoDTO;
+import com.api.pagamento.domain.dto.PaginaTransacaoDTO;
+import com.api.pagamento.domain.dto.ResponseErrorDTO;
+import com.api.pagamento.domain.dto.ResultadoPagamentoDTO;
+import com.api.pagamento.domain.dto.TotalDTO;
 import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.dto.util.Cursor;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
 import com.api.pagamento.domain.dto.util.Mapper;
-import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEventoEnum;
+import com.api.pagamento.domain.exception.AutorizadorIndisponivelException;
+import com.api.pagamento.domain.exception.CursorInvalidoException;
+import com.api.pagamento.domain.exception.EstornoNaoPermitidoException;
+import com.api.pagamento.domain.exception.FiltroInvalidoException;
 import com.api.pagamento.domain.exception.InsercaoNaoPermitidaException;
+import com.api.pagamento.domain.exception.RelatorioInvalidoException;
 import com.api.pagamento.domain.exception.TransacaoInexistenteException;
 import com.api.pagamento.domain.model.Transacao;
-import com.api.pagamento.repository.DescricaoRepository;
+import com.api.pagamento.domain.model.util.CriterioBusca;
+import com.api.pagamento.domain.model.util.CriterioRelatorio;
+import com.api.pagamento.domain.model.util.MovimentoResumo;
+import com.api.pagamento.repository.EventoRepository;
+import com.api.pagamento.repository.ResumoDiarioRepository;
 import com.api.pagamento.repository.TransacaoRepository;
+import com.api.pagamento.repository.replica.EscritasRecentes;
+import com.api.pagamento.repository.replica.LeituraReplica;
+import com.api.pagamento.service.arquivo.ArquivoTransacoes;
+import com.api.pagamento.service.autorizador.Autorizacao;
+import com.api.pagamento.service.autorizador.ClienteAutorizador;
+import com.api.pagamento.service.identificador.GeradorIdentificadores;
+import com.api.pagamento.service.util.MetricasMapeamento;
+import com.api.pagamento.service.util.RegrasPagamento;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 //@Service
 
@@ -24,6 +71,9 @@ import java.util.stream.Collectors;
 
 @Service
 
+//Api JPA (bloqueante); no perfil reativo o serviço é o TransacaoReativoServiceImp
+@Profile("!reativo")
+
 //@Transactional
 //https://www.devmedia.com.br/conheca-o-spring-transactional-annotations/32472
 //"A boa prática é sempre colocar o @Transactional nos métodos que precisam de transação, por exemplo: salvar, alterar,
@@ -38,23 +88,74 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class TransacaoServiceImp implements TransacaoService {
 
+    static final int TAMANHO_PAGINA_PADRAO = 50;
+
+    static final int TAMANHO_PAGINA_MAXIMO = 500;
+
+    private static final Pattern FINAL_CARTAO = Pattern.compile("\\d{4}");
+
+    //Erros fixos do pagamento em lote: o ResponseErrorDTO é imutável, então o mesmo corpo serve a todos os itens
+    private static final ResponseErrorDTO ERRO_GRAVACAO =
+            new ResponseErrorDTO(500, "Internal Server Error", "O pagamento não pôde ser gravado");
+
+    private static final ResponseErrorDTO ERRO_TRANSACAO_AUSENTE =
+            new ResponseErrorDTO(400, "Bad Request", "A transação não foi informada");
+
     private final TransacaoRepository transacaoRepository;
 
-    private final DescricaoRepository descricaoRepository;
+    private final ResumoDiarioRepository resumoDiarioRepository;
+
+    private final EventoRepository eventoRepository;
+
+    private final EntityManager entityManager;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final LoteProperties loteProperties;
+
+    private final MetricasMapeamento metricasMapeamento;
+
+    private final ClienteAutorizador clienteAutorizador;
+
+    private final GeradorIdentificadores geradorIdentificadores;
+
+    private final ArquivoTransacoes arquivoTransacoes;
+
+    private final EscritasRecentes escritasRecentes;
+
+    //@Cacheable
+    //Na primeira leitura de um id o resultado é guardado no cache; as próximas são respondidas sem ir ao banco.
+    //Uma transação só muda no estorno, que atualiza o cache (@CachePut em estornar). Ids inexistentes lançam exceção
+    //e, por isso, não são guardados.
+    //Um id que não está no banco é procurado nas transações arquivadas (ArquivoTransacoes).
+
+    //@LeituraReplica
+    //As leituras podem ser atendidas por uma réplica (RoteadorReplicas), quando configuradas. Uma transação paga ou
+    //estornada há pouco nesta instância só é lida de uma réplica que já a tenha (EscritasRecentes).
 
     @Override
+    @LeituraReplica
+    @Timed(value = MetricasConfig.METRICA_SERVICO, extraTags = {"operacao", "procurarPeloId"})
+    @Cacheable(cacheNames = CacheConfig.CACHE_TRANSACAO, key = "#id")
     public TransacaoDTO procurarPeloId(Long id) throws TransacaoInexistenteException {
-        TransacaoDTO transacaoDTO = (TransacaoDTO) transacaoRepository.findById(id).map(t -> Mapper.convert(t, TransacaoDTO.class)).orElse(null);
-        if(transacaoDTO != null){
-            return transacaoDTO;
+        Transacao transacao = escritasRecentes.ler(id, () -> transacaoRepository.findById(id))
+                .or(() -> arquivoTransacoes.procurar(id)).orElse(null);
+        if(transacao != null){
+            return metricasMapeamento.medir(MetricasMapeamento.PROCURAR_PELO_ID, () -> Mapper.toTransacaoDTO(transacao));
         }else{
             throw new TransacaoInexistenteException();
         }
     }
 
     @Override
+    @LeituraReplica
+    @Timed(value = MetricasConfig.METRICA_SERVICO, extraTags = {"operacao", "procurarTodos"})
     public List<TransacaoDTO> procurarTodos() throws TransacaoInexistenteException {
-        List<TransacaoDTO> transacaoDTO = transacaoRepository.findAll().stream().map(t -> (TransacaoDTO) Mapper.convert(t, TransacaoDTO.class)).collect(Collectors.toList());
+        List<Transacao> transacoes = transacaoRepository.findAll();
+        List<TransacaoDTO> transacaoDTO = metricasMapeamento.medir(MetricasMapeamento.PROCURAR_TODOS,
+                () -> transacoes.stream().map(Mapper::toTransacaoDTO).collect(Collectors.toList()));
         if(transacaoDTO.size() != 0){
             return transacaoDTO;
         }else{
@@ -63,31 +164,331 @@ public class TransacaoServiceImp implements TransacaoService {
     }
 
     @Override
-    public TransacaoDTO pagar(Transacao transacao) throws InsercaoNaoPermitidaException {
+    @LeituraReplica
+    public PaginaTransacaoDTO procurarPagina(String cursor, Integer tamanho) throws CursorInvalidoException {
 
-        if(transacao.getDescricao().getStatus() == null && transacao.getDescricao().getNsu() == null && transacao.getDescricao().getCodigoAutorizacao() == null && transacao.getId() == null && transacao.getDescricao().getId() == null && transacao.getFormaPagamento().getId() == null) {
-            transacao.getDescricao().setNsu("1234567890");
-            transacao.getDescricao().setCodigoAutorizacao("147258369");
-            transacao.getDescricao().setStatus(StatusEnum.AUTORIZADO);
-            return (TransacaoDTO) Mapper.convert(transacaoRepository.save(transacao), TransacaoDTO.class);
-        }else{
-            throw new InsercaoNaoPermitidaException();
+        Long ultimoId = Cursor.decodificar(cursor);
+        int tamanhoPagina = tamanho == null ? TAMANHO_PAGINA_PADRAO : Math.max(1, Math.min(tamanho, TAMANHO_PAGINA_MAXIMO));
+
+        //Busca um registro a mais para saber se existe próxima página sem precisar de um count
+        PageRequest limite = PageRequest.ofSize(tamanhoPagina + 1);
+        List<Transacao> transacoes = ultimoId == null
+                ? transacaoRepository.findAllByOrderByIdAsc(limite)
+                : transacaoRepository.findByIdGreaterThanOrderByIdAsc(ultimoId, limite);
+
+        boolean haProximaPagina = transacoes.size() > tamanhoPagina;
+        List<TransacaoDTO> conteudo = transacoes.stream().limit(tamanhoPagina).map(Mapper::toTransacaoDTO).collect(Collectors.toList());
+        String proximoCursor = haProximaPagina ? Cursor.codificar(conteudo.get(conteudo.size() - 1).getId()) : null;
+
+        return new PaginaTransacaoDTO(conteudo, proximoCursor);
+    }
+
+    @Override
+    @LeituraReplica
+    @Timed(value = MetricasConfig.METRICA_SERVICO, extraTags = {"operacao", "buscar"})
+    public PaginaTransacaoDTO buscar(FiltroTransacaoDTO filtro, String cursor, Integer tamanho) throws CursorInvalidoException, FiltroInvalidoException {
+
+        Cursor.Posicao posicao = Cursor.decodificarPosicao(cursor);
+        int tamanhoPagina = tamanho == null ? TAMANHO_PAGINA_PADRAO : Math.max(1, Math.min(tamanho, TAMANHO_PAGINA_MAXIMO));
+
+        CriterioBusca criterio = CriterioBusca.builder()
+                .estabelecimento(filtro.getEstabelecimento())
+                .status(filtro.getStatus())
+                .tipo(filtro.getTipo())
+                .inicio(lerDataHora(filtro.getInicio()))
+                .fim(lerDataHora(filtro.getFim()))
+                .finalCartao(lerFinalCartao(filtro.getFinalCartao()))
+                .aposDataHora(posicao == null ? null : posicao.getDataHora())
+                .aposId(posicao == null ? null : posicao.getId())
+                .build();
+
+        //Um registro a mais indica que existe próxima página, como em procurarPagina
+        List<Transacao> transacoes = transacaoRepository.buscar(criterio, tamanhoPagina + 1);
+
+        boolean haProximaPagina = transacoes.size() > tamanhoPagina;
+        List<TransacaoDTO> conteudo = transacoes.stream().limit(tamanhoPagina).map(Mapper::toTransacaoDTO).collect(Collectors.toList());
+        String proximoCursor = null;
+        if (haProximaPagina) {
+            TransacaoDTO ultima = conteudo.get(conteudo.size() - 1);
+            proximoCursor = Cursor.codificar(ultima.getDescricao().getDataHora(), ultima.getId());
         }
 
+        return new PaginaTransacaoDTO(conteudo, proximoCursor);
     }
 
-    public TransacaoDTO estornar(Long id) throws TransacaoInexistenteException {
+    private static OffsetDateTime lerDataHora(String texto) throws FiltroInvalidoException {
+        if (texto == null) {
+            return null;
+        }
+        OffsetDateTime dataHora = DataHoraCodec.ler(texto);
+        if (dataHora == null) {
+            throw new FiltroInvalidoException();
+        }
+        return dataHora;
+    }
 
-        try{
+    private static String lerFinalCartao(String finalCartao) throws FiltroInvalidoException {
+        if (finalCartao != null && !FINAL_CARTAO.matcher(finalCartao).matches()) {
+            throw new FiltroInvalidoException();
+        }
+        return finalCartao;
+    }
 
-            Transacao transacao = (Transacao) Mapper.convert(procurarPeloId(id), Transacao.class);
-            transacao.getDescricao().setStatus(StatusEnum.NEGADO);
+    //O relatório lê o resumo diário (V8__resumo_diario.sql), e não as transações: a quantidade de linhas lidas depende
+    //dos dias, estabelecimentos e formas de pagamento do período, e não da quantidade de transações.
 
-            descricaoRepository.save(transacao.getDescricao());
+    @Override
+    @LeituraReplica
+    @Timed(value = MetricasConfig.METRICA_SERVICO, extraTags = {"operacao", "totalizar"})
+    public List<TotalDTO> totalizar(FiltroRelatorioDTO filtro) throws RelatorioInvalidoException {
 
-            return (TransacaoDTO) Mapper.convert(transacao, TransacaoDTO.class);
-        }catch (TransacaoInexistenteException ex){
-            throw new TransacaoInexistenteException();
+        LocalDate inicio = lerDia(filtro.getInicio());
+        LocalDate fim = lerDia(filtro.getFim());
+        if (inicio != null && fim != null && inicio.isAfter(fim)) {
+            throw new RelatorioInvalidoException();
+        }
+
+        CriterioRelatorio criterio = CriterioRelatorio.builder()
+                .agrupamentos(filtro.getAgrupamento() == null ? List.of() : filtro.getAgrupamento().stream().distinct().collect(Collectors.toList()))
+                .inicio(inicio)
+                .fim(fim)
+                .estabelecimento(filtro.getEstabelecimento())
+                .status(filtro.getStatus())
+                .tipo(filtro.getTipo())
+                .build();
+
+        return resumoDiarioRepository.totalizar(criterio).stream().map(Mapper::toTotalDTO).collect(Collectors.toList());
+    }
+
+    private static LocalDate lerDia(String texto) throws RelatorioInvalidoException {
+        if (texto == null) {
+            return null;
+        }
+        LocalDate dia = DataHoraCodec.lerDia(texto);
+        if (dia == null) {
+            throw new RelatorioInvalidoException();
+        }
+        return dia;
+    }
+
+    @Override
+    @LeituraReplica
+    public void transmitirTodos(Consumer<TransacaoDTO> consumidor) {
+
+        try (Stream<Transacao> transacoes = transacaoRepository.streamAllByOrderByIdAsc()) {
+            int lidas = 0;
+            for (Transacao transacao : (Iterable<Transacao>) transacoes::iterator) {
+                consumidor.accept(Mapper.toTransacaoDTO(transacao));
+                //Descarta as entidades já entregues para que o contexto de persistência não cresça com a tabela
+                if (++lidas % TransacaoRepository.TAMANHO_BLOCO_STREAM == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    //A autorização não usa o banco: é feita sem transação, para que nenhuma conexão fique presa enquanto o emissor
+    //responde
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public CompletableFuture<Transacao> autorizar(Transacao transacao) throws InsercaoNaoPermitidaException {
+
+        RegrasPagamento.validarInsercao(transacao);
+        return clienteAutorizador.autorizar(transacao)
+                .thenApply(autorizacao -> RegrasPagamento.aplicar(transacao, autorizacao, geradorIdentificadores.proximoNsu()));
+    }
+
+    @Override
+    public TransacaoDTO registrar(Transacao autorizada) {
+        return gravar(autorizada);
+    }
+
+    //Aguarda a autorização na thread de quem chama, sem transação, para que nenhuma conexão fique presa enquanto o
+    //emissor responde; o pagamento autorizado é gravado em uma transação própria (registrar), como no Idempotency-Key.
+    //A api usa pagarAssincrono.
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    @Timed(value = MetricasConfig.METRICA_SERVICO, extraTags = {"operacao", "pagar"})
+    public TransacaoDTO pagar(Transacao transacao) throws InsercaoNaoPermitidaException, AutorizadorIndisponivelException {
+
+        Transacao autorizada = ClienteAutorizador.aguardar(autorizar(transacao));
+        return transactionTemplate.execute(status -> registrar(autorizada));
+
+    }
+
+    //A thread de quem chama é liberada logo após a validação. O pagamento autorizado é gravado em uma transação própria,
+    //na thread que recebeu a resposta do emissor (ClienteAutorizador).
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    @Timed(value = MetricasConfig.METRICA_SERVICO, extraTags = {"operacao", "pagar"})
+    public CompletableFuture<TransacaoDTO> pagarAssincrono(Transacao transacao) throws InsercaoNaoPermitidaException {
+
+        return autorizar(transacao).thenApply(autorizada -> transactionTemplate.execute(status -> gravar(autorizada)));
+
+    }
+
+    private TransacaoDTO gravar(Transacao autorizada) {
+
+        Transacao gravada = transacaoRepository.save(autorizada);
+        escritasRecentes.registrar(gravada.getId());
+        resumoDiarioRepository.acumular(new MovimentoResumo().somar(autorizada));
+        TransacaoDTO transacaoDTO = metricasMapeamento.medir(MetricasMapeamento.PAGAR, () -> Mapper.toTransacaoDTO(gravada));
+        eventoRepository.registrar(TipoEventoEnum.PAGAMENTO, List.of(transacaoDTO));
+        return transacaoDTO;
+
+    }
+
+    //@Transactional(NOT_SUPPORTED)
+    //O lote não roda em uma única transação: os itens válidos são gravados em blocos de loteProperties.tamanhoTransacao,
+    //cada bloco na sua própria transação. Dentro do bloco, com hibernate.jdbc.batch_size e order_inserts, os inserts
+    //das transações (uma linha cada, com a descrição e a forma de pagamento) são agrupados em batches JDBC. O resumo
+    //diário é acumulado uma vez por bloco, na transação dele: um bloco desfeito não deixa totais no resumo nem eventos
+    //no outbox.
+
+    //As autorizações também são feitas por bloco, em pipeline: as do bloco seguinte são enviadas ao emissor antes de o
+    //bloco atual ser aguardado e gravado, então a gravação de um bloco acontece enquanto o emissor responde o próximo.
+    //Um item negado é gravado com status NEGADO; um item sem resposta do emissor não é gravado e traz o erro 503.
+
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public List<ResultadoPagamentoDTO> pagarEmLote(List<Transacao> transacoes) {
+
+        List<ResultadoPagamentoDTO> resultados = new ArrayList<>(transacoes.size());
+        List<ItemLote> validos = new ArrayList<>(transacoes.size());
+
+        for (int indice = 0; indice < transacoes.size(); indice++) {
+
+            Transacao transacao = transacoes.get(indice);
+            ResultadoPagamentoDTO resultado = new ResultadoPagamentoDTO(indice, null, validarItem(transacao));
+            resultados.add(resultado);
+
+            if (resultado.getErro() == null) {
+                validos.add(new ItemLote(transacao, resultado));
+            }
+        }
+
+        int tamanhoBloco = loteProperties.getTamanhoTransacao();
+        List<ItemLote> bloco = autorizarBloco(validos, 0, tamanhoBloco);
+        for (int inicio = 0; inicio < validos.size(); inicio += tamanhoBloco) {
+            List<ItemLote> proximo = autorizarBloco(validos, inicio + tamanhoBloco, tamanhoBloco);
+            gravarBloco(bloco);
+            bloco = proximo;
+        }
+
+        return resultados;
+    }
+
+    private List<ItemLote> autorizarBloco(List<ItemLote> validos, int inicio, int tamanhoBloco) {
+
+        List<ItemLote> bloco = validos.subList(Math.min(inicio, validos.size()), Math.min(inicio + tamanhoBloco, validos.size()));
+        bloco.forEach(item -> item.autorizacao = clienteAutorizador.autorizar(item.transacao));
+        return bloco;
+    }
+
+    private void gravarBloco(List<ItemLote> bloco) {
+
+        List<Transacao> autorizadas = new ArrayList<>(bloco.size());
+        List<ResultadoPagamentoDTO> resultadosBloco = new ArrayList<>(bloco.size());
+        for (ItemLote item : bloco) {
+            try {
+                autorizadas.add(RegrasPagamento.aplicar(item.transacao, ClienteAutorizador.aguardar(item.autorizacao),
+                        geradorIdentificadores.proximoNsu()));
+                resultadosBloco.add(item.resultado);
+            } catch (AutorizadorIndisponivelException ex) {
+                item.resultado.setErro(ex.getResponseError());
+            }
+        }
+
+        if (autorizadas.isEmpty()) {
+            return;
+        }
+        try {
+            List<TransacaoDTO> gravadas = transactionTemplate.execute(status -> {
+                List<Transacao> salvas = transacaoRepository.saveAll(autorizadas);
+                salvas.forEach(salva -> escritasRecentes.registrar(salva.getId()));
+                MovimentoResumo movimento = new MovimentoResumo();
+                salvas.forEach(movimento::somar);
+                resumoDiarioRepository.acumular(movimento);
+                List<TransacaoDTO> salvasDTO = salvas.stream().map(Mapper::toTransacaoDTO).collect(Collectors.toList());
+                eventoRepository.registrar(TipoEventoEnum.PAGAMENTO, salvasDTO);
+                return salvasDTO;
+            });
+            for (int i = 0; i < resultadosBloco.size(); i++) {
+                resultadosBloco.get(i).setTransacao(gravadas.get(i));
+            }
+        } catch (DataAccessException | TransactionException ex) {
+            //O bloco inteiro foi desfeito: todos os itens dele são reportados como não gravados
+            resultadosBloco.forEach(resultado -> resultado.setErro(ERRO_GRAVACAO));
+        }
+    }
+
+    //Mesmas regras do POST /transacao/v1/pagamento: Bean Validation da Transacao (o que o @Valid faz no controller)
+    //e, em seguida, a verificação de campos que não podem ser informados pelo usuário.
+    private ResponseErrorDTO validarItem(Transacao transacao) {
+
+        if (transacao == null) {
+            return ERRO_TRANSACAO_AUSENTE;
+        }
+
+        Set<ConstraintViolation<Transacao>> violacoes = validator.validate(transacao);
+        if (!violacoes.isEmpty()) {
+            String mensagem = violacoes.stream()
+                    .map(violacao -> violacao.getPropertyPath() + ": " + violacao.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            return new ResponseErrorDTO(400, "Bad Request", mensagem);
+        }
+
+        try {
+            RegrasPagamento.validarInsercao(transacao);
+            return null;
+        } catch (InsercaoNaoPermitidaException ex) {
+            return ex.getResponseError();
+        }
+    }
+
+    //@CachePut
+    //Grava o TransacaoDTO retornado (com status NEGADO) no cache, no lugar do que estava lá.
+    //Se o estorno lançar exceção, o cache não é alterado.
+
+    //O estorno é um UPDATE condicional (TransacaoRepository.estornar) seguido da leitura da transação
+    //(findById, um único select): sempre duas instruções SQL, sem o select extra do merge.
+    //Quando nenhuma linha é alterada, a mesma leitura diz se a transação não existe ou se já estava estornada.
+    //Estornada, a transação passa da linha AUTORIZADO para a linha NEGADO do resumo diário e o evento do estorno é
+    //gravado no outbox, na mesma transação.
+
+    @Timed(value = MetricasConfig.METRICA_SERVICO, extraTags = {"operacao", "estornar"})
+    @CachePut(cacheNames = CacheConfig.CACHE_TRANSACAO, key = "#id")
+    public TransacaoDTO estornar(Long id) throws TransacaoInexistenteException, EstornoNaoPermitidoException {
+
+        boolean estornada = transacaoRepository.estornar(id) == 1;
+        if (estornada) {
+            escritasRecentes.registrar(id);
+        }
+
+        Transacao transacao = transacaoRepository.findById(id).orElseThrow(TransacaoInexistenteException::new);
+        if (!estornada) {
+            throw new EstornoNaoPermitidoException();
+        }
+        resumoDiarioRepository.acumular(new MovimentoResumo().estornar(transacao));
+
+        TransacaoDTO transacaoDTO = metricasMapeamento.medir(MetricasMapeamento.ESTORNAR, () -> Mapper.toTransacaoDTO(transacao));
+        eventoRepository.registrar(TipoEventoEnum.ESTORNO, List.of(transacaoDTO));
+        return transacaoDTO;
+    }
+
+    //Item válido do lote, com o resultado que volta na resposta e a autorização em andamento
+    private static final class ItemLote {
+
+        private final Transacao transacao;
+
+        private final ResultadoPagamentoDTO resultado;
+
+        private CompletableFuture<Autorizacao> autorizacao;
+
+        private ItemLote(Transacao transacao, ResultadoPagamentoDTO resultado) {
+            this.transacao = transacao;
+            this.resultado = resultado;
         }
 
     }
@@ -0,0 +1,87 @@
+package com.api.pagamento.service.arquivo;
+
+import com.api.pagamento.config.ArquivoProperties;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.repository.IdempotenciaRepository;
+import com.api.pagamento.repository.TransacaoRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+//Arquivamento das transações antigas
+
+//As transações com data e hora anterior a arquivoProperties.idadeMeses saem do banco, em lotes de
+//arquivoProperties.tamanhoLote na ordem do id. Cada lote, em uma transação do banco:
+//    é gravado em um arquivo (ArquivoTransacoes), que já está no disco quando o lote é apagado;
+//    perde as chaves de idempotência que ainda apontam para ele (a retenção delas é de horas, então quase nunca há);
+//    é apagado da transacao com um único delete pelos ids.
+//Se o delete falha depois da gravação, o lote é arquivado de novo na próxima execução: o arquivo repetido tem as
+//mesmas linhas e é inofensivo para a procura. Os totais (resumo_diario) não mudam: só a transacao é arquivada.
+
+@Component
+@Profile("!reativo")
+@ConditionalOnProperty(prefix = "api-pagamento.arquivo", name = "habilitado", havingValue = "true")
+@RequiredArgsConstructor
+public class ArquivadorTransacoes {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ArquivadorTransacoes.class);
+
+    private final TransacaoRepository transacaoRepository;
+
+    private final IdempotenciaRepository idempotenciaRepository;
+
+    private final ArquivoTransacoes arquivoTransacoes;
+
+    private final ArquivoProperties arquivoProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Scheduled(fixedDelayString = "${api-pagamento.arquivo.intervalo:PT6H}")
+    public void arquivarAgendado() {
+        try {
+            arquivar(ZonedDateTime.now(DataHoraCodec.ZONA).minusMonths(arquivoProperties.getIdadeMeses()).toOffsetDateTime());
+        } catch (RuntimeException ex) {
+            LOG.warn("As transações antigas não puderam ser arquivadas; nova tentativa na próxima execução", ex);
+        }
+    }
+
+    //Quantidade de transações arquivadas
+    public long arquivar(OffsetDateTime limite) {
+        long total = 0;
+        Integer arquivadas;
+        do {
+            arquivadas = transactionTemplate.execute(status -> arquivarLote(limite));
+            total += arquivadas == null ? 0 : arquivadas;
+        } while (arquivadas != null && arquivadas == arquivoProperties.getTamanhoLote());
+        if (total > 0) {
+            LOG.info("{} transações anteriores a {} arquivadas", total, limite);
+        }
+        return total;
+    }
+
+    private int arquivarLote(OffsetDateTime limite) {
+        List<Transacao> lote = transacaoRepository.findByDescricaoDataHoraBeforeOrderByIdAsc(limite,
+                PageRequest.of(0, arquivoProperties.getTamanhoLote()));
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        arquivoTransacoes.gravar(lote);
+        List<Long> ids = lote.stream().map(Transacao::getId).collect(Collectors.toList());
+        idempotenciaRepository.apagarPelasTransacoes(ids);
+        transacaoRepository.deleteAllByIdInBatch(ids);
+        return lote.size();
+    }
+
+}
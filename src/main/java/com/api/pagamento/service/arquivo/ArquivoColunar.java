@@ -0,0 +1,221 @@
+package com.api.pagamento.service.arquivo;
+
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+//Formato dos arquivos de transações (ArquivoTransacoes)
+
+//Colunar e comprimido com GZIP: depois do cabeçalho (MAGICO, VERSAO e quantidade de linhas), cada coluna é gravada
+//inteira antes da seguinte. Valores parecidos ficam lado a lado (o mesmo estabelecimento, status e parcelas, ids e
+//datas próximos), então a compressão é bem maior que a de linhas inteiras.
+//    id e data_hora: diferença para a linha anterior (as linhas estão na ordem do id), em varint zigzag.
+//    valor: centavos (valor com 2 casas sem a vírgula), em varint zigzag.
+//    status e tipo: o ordinal do enum em um byte (-1 = nulo).
+//    textos: tamanho em bytes + 1 em varint (0 = nulo), seguido do UTF-8.
+//A data e hora é gravada em microssegundos (a precisão do PostgreSQL) e lida no horário de Brasília.
+
+final class ArquivoColunar {
+
+    private static final int MAGICO = 0x41545843;
+
+    private static final int VERSAO = 1;
+
+    private static final int ESCALA_VALOR = 2;
+
+    private ArquivoColunar() { }
+
+    static void escrever(List<Transacao> transacoes, OutputStream destino) throws IOException {
+
+        GZIPOutputStream gzip = new GZIPOutputStream(destino, 1 << 16);
+        DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(gzip, 1 << 16));
+        saida.writeInt(MAGICO);
+        saida.writeByte(VERSAO);
+        escreverVarint(saida, transacoes.size());
+
+        long anterior = 0;
+        for (Transacao transacao : transacoes) {
+            escreverVarint(saida, zigzag(transacao.getId() - anterior));
+            anterior = transacao.getId();
+        }
+        for (Transacao transacao : transacoes) {
+            escreverTexto(saida, transacao.getCartao());
+        }
+        for (Transacao transacao : transacoes) {
+            BigDecimal valor = transacao.getDescricao().getValor();
+            escreverVarint(saida, valor == null ? 0 : 1);
+            if (valor != null) {
+                escreverVarint(saida, zigzag(valor.setScale(ESCALA_VALOR).unscaledValue().longValueExact()));
+            }
+        }
+        anterior = 0;
+        for (Transacao transacao : transacoes) {
+            long micros = ChronoUnit.MICROS.between(Instant.EPOCH, transacao.getDescricao().getDataHora().toInstant());
+            escreverVarint(saida, zigzag(micros - anterior));
+            anterior = micros;
+        }
+        for (Transacao transacao : transacoes) {
+            escreverTexto(saida, transacao.getDescricao().getEstabelecimento());
+        }
+        for (Transacao transacao : transacoes) {
+            escreverTexto(saida, transacao.getDescricao().getNsu());
+        }
+        for (Transacao transacao : transacoes) {
+            escreverTexto(saida, transacao.getDescricao().getCodigoAutorizacao());
+        }
+        for (Transacao transacao : transacoes) {
+            StatusEnum status = transacao.getDescricao().getStatus();
+            saida.writeByte(status == null ? -1 : status.ordinal());
+        }
+        for (Transacao transacao : transacoes) {
+            TipoEnum tipo = transacao.getFormaPagamento().getTipo();
+            saida.writeByte(tipo == null ? -1 : tipo.ordinal());
+        }
+        for (Transacao transacao : transacoes) {
+            escreverTexto(saida, transacao.getFormaPagamento().getParcelas());
+        }
+        //Completa o GZIP sem fechar o destino: quem o abriu ainda precisa gravá-lo no disco
+        saida.flush();
+        gzip.finish();
+    }
+
+    //Apenas os ids, na ordem do arquivo: a leitura para na primeira coluna, sem descomprimir as demais
+    static long[] lerIds(InputStream origem) throws IOException {
+
+        DataInputStream entrada = abrir(origem);
+        long[] ids = new long[(int) lerVarint(entrada)];
+        long anterior = 0;
+        for (int i = 0; i < ids.length; i++) {
+            anterior += unzigzag(lerVarint(entrada));
+            ids[i] = anterior;
+        }
+        return ids;
+    }
+
+    static List<Transacao> ler(InputStream origem) throws IOException {
+
+        DataInputStream entrada = abrir(origem);
+        int quantidade = (int) lerVarint(entrada);
+
+        List<Transacao> transacoes = new ArrayList<>(quantidade);
+        long anterior = 0;
+        for (int i = 0; i < quantidade; i++) {
+            anterior += unzigzag(lerVarint(entrada));
+            transacoes.add(new Transacao(anterior, null, new Descricao(), new FormaPagamento()));
+        }
+        for (Transacao transacao : transacoes) {
+            transacao.setCartao(lerTexto(entrada));
+        }
+        for (Transacao transacao : transacoes) {
+            if (lerVarint(entrada) == 1) {
+                transacao.getDescricao().setValor(new BigDecimal(BigInteger.valueOf(unzigzag(lerVarint(entrada))), ESCALA_VALOR));
+            }
+        }
+        anterior = 0;
+        for (Transacao transacao : transacoes) {
+            anterior += unzigzag(lerVarint(entrada));
+            transacao.getDescricao().setDataHora(OffsetDateTime.ofInstant(Instant.EPOCH.plus(anterior, ChronoUnit.MICROS), DataHoraCodec.ZONA));
+        }
+        for (Transacao transacao : transacoes) {
+            transacao.getDescricao().setEstabelecimento(lerTexto(entrada));
+        }
+        for (Transacao transacao : transacoes) {
+            transacao.getDescricao().setNsu(lerTexto(entrada));
+        }
+        for (Transacao transacao : transacoes) {
+            transacao.getDescricao().setCodigoAutorizacao(lerTexto(entrada));
+        }
+        for (Transacao transacao : transacoes) {
+            byte status = entrada.readByte();
+            transacao.getDescricao().setStatus(status < 0 ? null : StatusEnum.values()[status]);
+        }
+        for (Transacao transacao : transacoes) {
+            byte tipo = entrada.readByte();
+            transacao.getFormaPagamento().setTipo(tipo < 0 ? null : TipoEnum.values()[tipo]);
+        }
+        for (Transacao transacao : transacoes) {
+            transacao.getFormaPagamento().setParcelas(lerTexto(entrada));
+        }
+        return transacoes;
+    }
+
+    private static DataInputStream abrir(InputStream origem) throws IOException {
+        DataInputStream entrada = new DataInputStream(new BufferedInputStream(new GZIPInputStream(origem, 1 << 16), 1 << 16));
+        if (entrada.readInt() != MAGICO || entrada.readByte() != VERSAO) {
+            throw new IOException("Arquivo de transações em formato desconhecido");
+        }
+        return entrada;
+    }
+
+    private static void escreverTexto(DataOutputStream saida, String texto) throws IOException {
+        if (texto == null) {
+            escreverVarint(saida, 0);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        escreverVarint(saida, bytes.length + 1L);
+        saida.write(bytes);
+    }
+
+    private static String lerTexto(DataInputStream entrada) throws IOException {
+        int tamanho = (int) lerVarint(entrada) - 1;
+        if (tamanho < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[tamanho];
+        entrada.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //7 bits por byte, o bit mais alto indica que há mais bytes
+    private static void escreverVarint(DataOutputStream saida, long valor) throws IOException {
+        while ((valor & ~0x7FL) != 0) {
+            saida.writeByte((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        saida.writeByte((int) valor);
+    }
+
+    private static long lerVarint(DataInputStream entrada) throws IOException {
+        long valor = 0;
+        for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+            byte b = entrada.readByte();
+            valor |= (long) (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Varint inválido");
+    }
+
+    //Números negativos pequenos viram positivos pequenos (0, -1, 1, -2, ... -> 0, 1, 2, 3, ...)
+    private static long zigzag(long valor) {
+        return (valor << 1) ^ (valor >> 63);
+    }
+
+    private static long unzigzag(long valor) {
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+}
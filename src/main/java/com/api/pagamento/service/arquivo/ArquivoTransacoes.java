@@ -0,0 +1,214 @@
+package com.api.pagamento.service.arquivo;
+
+import com.api.pagamento.config.ArquivoProperties;
+import com.api.pagamento.domain.model.Transacao;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+//Transações arquivadas pelo ArquivadorTransacoes, fora do banco
+
+//Cada arquivo guarda um lote de transações na ordem do id (formato em ArquivoColunar) e o nome dele traz o primeiro e
+//o último id: transacoes_<primeiro>_<ultimo>_<gravado em milissegundos>.gz. O índice em memória é a lista dessas
+//faixas, montada pelos nomes (sem abrir os arquivos) ao subir e a cada arquivoProperties.intervalo, para encontrar
+//também os arquivos gravados por outras instâncias.
+//Os ids são reservados em blocos por instância, então as faixas de lotes diferentes podem se sobrepor, e uma faixa
+//tem lacunas (ids de outros lotes ou nunca usados). Uma procura confere, da faixa mais recente para a mais antiga,
+//os ids de cada arquivo cuja faixa contém o id: só a primeira coluna (ArquivoColunar.lerIds), guardada em cache
+//(arquivoProperties.idsEmCache). Um id que não está em nenhum arquivo, então, não descomprime arquivo algum depois da
+//primeira leitura dos ids. Apenas o arquivo que tem o id é lido inteiro, também guardado em cache
+//(arquivoProperties.arquivosEmCache).
+//Um arquivo apagado sai das faixas ao recarregar ou na primeira procura que não o encontra.
+//Sempre presente (mesmo com o arquivamento desligado), para que as transações já arquivadas continuem sendo lidas.
+
+@Component
+@Profile("!reativo")
+public class ArquivoTransacoes {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ArquivoTransacoes.class);
+
+    private static final Pattern NOME = Pattern.compile("transacoes_(\\d+)_(\\d+)_(\\d+)\\.gz");
+
+    private final Path diretorio;
+
+    private final ConcurrentSkipListSet<Faixa> faixas = new ConcurrentSkipListSet<>();
+
+    private final Cache<Path, long[]> ids;
+
+    private final Cache<Path, List<Transacao>> arquivos;
+
+    public ArquivoTransacoes(ArquivoProperties arquivoProperties) {
+        this.diretorio = Paths.get(arquivoProperties.getDiretorio());
+        this.ids = Caffeine.newBuilder()
+                .maximumWeight(arquivoProperties.getIdsEmCache())
+                .weigher((Path arquivo, long[] idsArquivo) -> idsArquivo.length)
+                .build();
+        this.arquivos = Caffeine.newBuilder()
+                .maximumSize(arquivoProperties.getArquivosEmCache())
+                .build();
+        recarregar();
+    }
+
+    //Grava o lote (ordenado pelo id) em um arquivo temporário e só então o renomeia: uma falha no meio nunca deixa
+    //um arquivo incompleto com o nome de um arquivo de transações
+    public void gravar(List<Transacao> transacoes) {
+        if (transacoes.isEmpty()) {
+            return;
+        }
+        long primeiro = transacoes.get(0).getId();
+        long ultimo = transacoes.get(transacoes.size() - 1).getId();
+        Path destino = diretorio.resolve("transacoes_" + primeiro + "_" + ultimo + "_" + System.currentTimeMillis() + ".gz");
+        Path temporario = diretorio.resolve(destino.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(diretorio);
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                OutputStream saida = Channels.newOutputStream(canal);
+                ArquivoColunar.escrever(transacoes, saida);
+                //O arquivo precisa estar no disco antes de as linhas serem apagadas do banco
+                canal.force(true);
+            }
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("As transações não puderam ser arquivadas em " + destino, ex);
+        }
+        faixas.add(faixa(destino));
+    }
+
+    //As linhas do arquivo estão na ordem do id: a posição do id na primeira coluna é a da transação no arquivo
+    public Optional<Transacao> procurar(Long id) {
+        for (Faixa faixa : faixas.descendingSet()) {
+            if (!faixa.contem(id)) {
+                continue;
+            }
+            Path arquivo = faixa.getArquivo();
+            try {
+                int posicao = Arrays.binarySearch(ids.get(arquivo, ArquivoTransacoes::lerIds), id);
+                if (posicao >= 0) {
+                    return Optional.of(arquivos.get(arquivo, ArquivoTransacoes::ler).get(posicao));
+                }
+            } catch (UncheckedIOException ex) {
+                if (!(ex.getCause() instanceof NoSuchFileException)) {
+                    throw ex;
+                }
+                LOG.warn("O arquivo de transações {} não existe mais e saiu das faixas", arquivo);
+                remover(faixa);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Collection<Faixa> getFaixas() {
+        return faixas;
+    }
+
+    @Scheduled(initialDelayString = "${api-pagamento.arquivo.intervalo:PT6H}", fixedDelayString = "${api-pagamento.arquivo.intervalo:PT6H}")
+    public void recarregar() {
+        Set<Faixa> encontradas = Set.of();
+        if (Files.isDirectory(diretorio)) {
+            try (Stream<Path> lista = Files.list(diretorio)) {
+                encontradas = lista.map(ArquivoTransacoes::faixa)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet());
+            } catch (IOException ex) {
+                LOG.warn("O diretório de transações arquivadas {} não pôde ser lido", diretorio, ex);
+                return;
+            }
+        }
+        faixas.addAll(encontradas);
+        //Um arquivo gravado por esta instância depois da listagem não está nas encontradas, mas existe
+        for (Faixa faixa : faixas) {
+            if (!encontradas.contains(faixa) && Files.notExists(faixa.getArquivo())) {
+                remover(faixa);
+            }
+        }
+    }
+
+    private void remover(Faixa faixa) {
+        faixas.remove(faixa);
+        ids.invalidate(faixa.getArquivo());
+        arquivos.invalidate(faixa.getArquivo());
+    }
+
+    private static long[] lerIds(Path arquivo) {
+        try (InputStream entrada = Files.newInputStream(arquivo)) {
+            return ArquivoColunar.lerIds(entrada);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("O arquivo de transações " + arquivo + " não pôde ser lido", ex);
+        }
+    }
+
+    private static List<Transacao> ler(Path arquivo) {
+        try (InputStream entrada = Files.newInputStream(arquivo)) {
+            return ArquivoColunar.ler(entrada);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("O arquivo de transações " + arquivo + " não pôde ser lido", ex);
+        }
+    }
+
+    //Faixa de ids do arquivo pelo nome dele; nula para os demais arquivos (ex: os temporários)
+    private static Faixa faixa(Path arquivo) {
+        Matcher nome = NOME.matcher(arquivo.getFileName().toString());
+        if (!nome.matches()) {
+            return null;
+        }
+        return new Faixa(Long.parseLong(nome.group(1)), Long.parseLong(nome.group(2)), Long.parseLong(nome.group(3)), arquivo);
+    }
+
+    //Ordenadas pelo momento da gravação e depois pelo primeiro id: o mesmo arquivo (mesmo nome) entra uma vez só
+    @Value
+    public static class Faixa implements Comparable<Faixa> {
+
+        long primeiroId;
+
+        long ultimoId;
+
+        long gravadoEm;
+
+        Path arquivo;
+
+        boolean contem(long id) {
+            return id >= primeiroId && id <= ultimoId;
+        }
+
+        @Override
+        public int compareTo(Faixa outra) {
+            int comparacao = Long.compare(gravadoEm, outra.gravadoEm);
+            if (comparacao == 0) {
+                comparacao = Long.compare(primeiroId, outra.primeiroId);
+            }
+            return comparacao != 0 ? comparacao : arquivo.compareTo(outra.arquivo);
+        }
+
+    }
+
+}
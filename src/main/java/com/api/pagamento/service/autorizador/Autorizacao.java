@@ -0,0 +1,15 @@
+package com.api.pagamento.service.autorizador;
+
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import lombok.Value;
+
+//Resposta do emissor: AUTORIZADO, com o código de autorização, ou NEGADO, sem código
+
+@Value
+public class Autorizacao {
+
+    StatusEnum status;
+
+    String codigoAutorizacao;
+
+}
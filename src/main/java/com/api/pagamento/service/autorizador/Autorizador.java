@@ -0,0 +1,18 @@
+package com.api.pagamento.service.autorizador;
+
+import com.api.pagamento.domain.model.Transacao;
+
+import java.util.concurrent.CompletableFuture;
+
+//Ponto de extensão da autorização: consulta o emissor do cartão e responde se o pagamento foi autorizado ou negado.
+
+//A implementação não deve bloquear a thread que chama: a requisição ao emissor é enviada e o futuro é completado
+//quando a resposta chega (ex: um cliente HTTP assíncrono), para que várias autorizações fiquem em andamento ao mesmo
+//tempo sem uma thread por autorização. O timeout, o limite de autorizações em andamento e a thread em que a resposta
+//é tratada ficam a cargo do ClienteAutorizador.
+
+public interface Autorizador {
+
+    CompletableFuture<Autorizacao> autorizar(Transacao transacao);
+
+}
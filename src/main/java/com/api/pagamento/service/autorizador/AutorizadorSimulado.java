@@ -0,0 +1,83 @@
+package com.api.pagamento.service.autorizador;
+
+import com.api.pagamento.config.AutorizadorProperties;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.service.identificador.GeradorIdentificadores;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//Emissor local, para desenvolvimento e testes de carga
+
+//Cada autorização é respondida depois da latência configurada (api-pagamento.autorizador.simulado.*), por um
+//agendador de uma única thread: como um cliente assíncrono, nenhuma thread fica parada esperando, e qualquer quantidade
+//de autorizações pode estar em andamento. Nega os pagamentos acima do valor máximo e uma fração sorteada dos demais.
+//Os códigos de autorização vêm do GeradorIdentificadores.
+
+@Component
+@ConditionalOnProperty(prefix = "api-pagamento.autorizador", name = "tipo", havingValue = "simulado", matchIfMissing = true)
+@RequiredArgsConstructor
+public class AutorizadorSimulado implements Autorizador {
+
+    private final ScheduledExecutorService agendador =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("emissor-simulado-"));
+
+    private final AutorizadorProperties autorizadorProperties;
+
+    private final GeradorIdentificadores geradorIdentificadores;
+
+    @Override
+    public CompletableFuture<Autorizacao> autorizar(Transacao transacao) {
+
+        AutorizadorProperties.Simulado simulado = autorizadorProperties.getSimulado();
+        CompletableFuture<Autorizacao> autorizacao = decidir(transacao, simulado);
+
+        long latencia = simulado.getLatencia().toNanos();
+        long variacao = simulado.getVariacaoLatencia().toNanos();
+        if (variacao > 0) {
+            latencia += ThreadLocalRandom.current().nextLong(variacao);
+        }
+        if (latencia <= 0) {
+            return autorizacao;
+        }
+
+        CompletableFuture<Autorizacao> resposta = new CompletableFuture<>();
+        agendador.schedule(() -> autorizacao.whenComplete((decidida, ex) -> {
+            if (ex != null) {
+                resposta.completeExceptionally(ex);
+            } else {
+                resposta.complete(decidida);
+            }
+        }), latencia, TimeUnit.NANOSECONDS);
+        return resposta;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        agendador.shutdownNow();
+    }
+
+    //O código vem de um futuro: quem chama o emissor pode ser o event loop da api reativa, que não pode esperar a
+    //reserva de um bloco de códigos
+    private CompletableFuture<Autorizacao> decidir(Transacao transacao, AutorizadorProperties.Simulado simulado) {
+
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        boolean acimaDoMaximo = simulado.getValorMaximo() != null
+                && transacao.getDescricao().getValor().compareTo(simulado.getValorMaximo()) > 0;
+        if (acimaDoMaximo || aleatorio.nextDouble() < simulado.getTaxaNegacao()) {
+            return CompletableFuture.completedFuture(new Autorizacao(StatusEnum.NEGADO, null));
+        }
+        return geradorIdentificadores.proximoCodigoAutorizacaoAssincrono()
+                .thenApply(codigo -> new Autorizacao(StatusEnum.AUTORIZADO, codigo));
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.api.pagamento.service.autorizador;
+
+import com.api.pagamento.config.AutorizadorProperties;
+import com.api.pagamento.domain.exception.AutorizadorIndisponivelException;
+import com.api.pagamento.domain.model.Transacao;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+//Chamadas ao Autorizador, com as proteções para um emissor lento
+
+//1. Bulkhead: no máximo maximoEmAndamento autorizações em andamento por instância. Acima disso a autorização falha na
+//   hora (AutorizadorIndisponivelException, 503), sem ocupar memória nem threads esperando.
+//2. Timeout: uma autorização sem resposta em api-pagamento.autorizador.timeout falha com a mesma exceção e libera a
+//   vaga do bulkhead.
+//3. Retorno: a resposta é tratada nas threads do ClienteAutorizador (threadsRetorno), e não na thread do emissor, então
+//   quem encadeia a gravação no banco depois da autorização não atrasa as respostas das demais autorizações.
+
+//Nenhuma thread fica parada enquanto o emissor responde: a thread da requisição é liberada (pagarAssincrono) e várias
+//autorizações ficam em andamento ao mesmo tempo (pipelining), inclusive as de um mesmo lote.
+
+@Component
+public class ClienteAutorizador {
+
+    private final Autorizador autorizador;
+
+    private final AutorizadorProperties autorizadorProperties;
+
+    private final Semaphore emAndamento;
+
+    private final ExecutorService retorno;
+
+    public ClienteAutorizador(Autorizador autorizador, AutorizadorProperties autorizadorProperties) {
+        this.autorizador = autorizador;
+        this.autorizadorProperties = autorizadorProperties;
+        this.emAndamento = new Semaphore(autorizadorProperties.getMaximoEmAndamento());
+        this.retorno = Executors.newFixedThreadPool(autorizadorProperties.getThreadsRetorno(),
+                new CustomizableThreadFactory("autorizacao-"));
+    }
+
+    public CompletableFuture<Autorizacao> autorizar(Transacao transacao) {
+
+        if (!emAndamento.tryAcquire()) {
+            return CompletableFuture.failedFuture(new AutorizadorIndisponivelException());
+        }
+
+        //copy: o timeout é aplicado a uma cópia, sem alterar o futuro devolvido pelo Autorizador
+        CompletableFuture<Autorizacao> resposta;
+        try {
+            resposta = autorizador.autorizar(transacao).copy()
+                    .orTimeout(autorizadorProperties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RuntimeException ex) {
+            emAndamento.release();
+            return CompletableFuture.failedFuture(ex);
+        }
+        resposta.whenComplete((autorizacao, ex) -> emAndamento.release());
+
+        return resposta.handleAsync((autorizacao, ex) -> {
+            if (ex == null) {
+                return autorizacao;
+            }
+            Throwable causa = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            throw new CompletionException(causa instanceof TimeoutException ? new AutorizadorIndisponivelException() : causa);
+        }, retorno);
+    }
+
+    //Espera uma autorização (ou algo encadeado a ela), devolvendo a exceção original em vez da CompletionException
+    public static <T> T aguardar(CompletableFuture<T> futuro) throws AutorizadorIndisponivelException {
+
+        try {
+            return futuro.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof AutorizadorIndisponivelException) {
+                throw (AutorizadorIndisponivelException) ex.getCause();
+            }
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        retorno.shutdownNow();
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.api.pagamento.service.identificador;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+//Contador crescente e sem lock, com os valores reservados em blocos
+
+//Cada valor custa um getAndIncrement no bloco atual: as threads não esperam umas pelas outras nem pelo banco. Só a
+//troca de bloco (uma vez a cada tamanhoBloco valores) é sincronizada, e o bloco seguinte já foi reservado em
+//segundo plano, no executor, enquanto o atual era usado. A reserva nunca é feita na thread de quem pede o valor.
+
+//Quem chega ao fim do bloco antes de a reserva seguinte terminar espera por ela: proximo() bloqueia a thread e
+//proximoAssincrono() devolve um futuro completado quando o bloco chega. Threads que não podem bloquear (o event loop da
+//api reativa, que o próprio R2DBC usa para concluir a reserva) usam proximoAssincrono().
+
+//Os valores de uma instância são crescentes, e os de instâncias diferentes nunca se repetem (cada bloco vem de um
+//nextval). Os valores de um bloco não usados até o encerramento da instância são descartados.
+
+public class ContadorEmBloco {
+
+    private static final CompletableFuture<Void> TROCADO = CompletableFuture.completedFuture(null);
+
+    private final LongSupplier reserva;
+
+    private final int tamanhoBloco;
+
+    private final Executor executor;
+
+    private volatile Bloco atual;
+
+    //Alterados apenas com o lock do contador (troca de bloco)
+    private CompletableFuture<Long> seguinte;
+
+    private CompletableFuture<Void> troca;
+
+    public ContadorEmBloco(LongSupplier reserva, int tamanhoBloco, Executor executor) {
+        this.reserva = reserva;
+        this.tamanhoBloco = tamanhoBloco;
+        this.executor = executor;
+    }
+
+    public long proximo() {
+
+        while (true) {
+            Bloco bloco = atual;
+            if (bloco != null) {
+                long valor = bloco.proximo.getAndIncrement();
+                if (valor < bloco.fim) {
+                    return valor;
+                }
+            }
+            try {
+                trocar(bloco).join();
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
+            }
+        }
+    }
+
+    public CompletableFuture<Long> proximoAssincrono() {
+
+        Bloco bloco = atual;
+        if (bloco != null) {
+            long valor = bloco.proximo.getAndIncrement();
+            if (valor < bloco.fim) {
+                return CompletableFuture.completedFuture(valor);
+            }
+        }
+        return trocar(bloco).thenCompose(trocado -> proximoAssincrono());
+    }
+
+    //Apenas uma troca fica em andamento: quem encontra o bloco esgotado depois dela recebe o mesmo futuro, e quem
+    //encontra um bloco que já foi trocado volta ao contador
+    private synchronized CompletableFuture<Void> trocar(Bloco esgotado) {
+
+        if (atual != esgotado) {
+            return TROCADO;
+        }
+        if (troca != null && !troca.isDone()) {
+            return troca;
+        }
+        if (seguinte == null) {
+            seguinte = reservar();
+        }
+        troca = seguinte.thenAccept(inicio -> instalar(inicio))
+                .whenComplete((trocado, ex) -> {
+                    if (ex != null) {
+                        descartarReserva();
+                    }
+                });
+        return troca;
+    }
+
+    private synchronized void instalar(long inicio) {
+        atual = new Bloco(inicio, inicio + tamanhoBloco);
+        seguinte = reservar();
+    }
+
+    //A reserva falhou (ex: banco indisponível): a próxima troca tenta reservar de novo
+    private synchronized void descartarReserva() {
+        seguinte = null;
+    }
+
+    private CompletableFuture<Long> reservar() {
+        return CompletableFuture.supplyAsync(reserva::getAsLong, executor);
+    }
+
+    private static final class Bloco {
+
+        private final AtomicLong proximo;
+
+        private final long fim;
+
+        private Bloco(long inicio, long fim) {
+            this.proximo = new AtomicLong(inicio);
+            this.fim = fim;
+        }
+
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.api.pagamento.service.identificador;
+
+import com.api.pagamento.repository.SequenciaRepository;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//Nsu e código de autorização de cada pagamento
+
+//Os valores vêm das sequences seq_nsu e seq_codigo_autorizacao (migração V12), reservados em blocos de TAMANHO_BLOCO
+//por ContadorEmBloco: o nsu é único entre as instâncias e crescente em cada uma, e um pagamento não vai ao banco para
+//obtê-lo. O banco recusa um nsu repetido: no PostgreSQL pela chave primária de transacao_nsu (migração V15), já que a
+//transacao particionada não tem um índice único só do nsu; no H2, pelo índice único ux_transacao_nsu.
+
+//O nsu tem 10 dígitos (mais, a partir do valor 10^10). O código de autorização tem 9 dígitos, como o dos emissores,
+//então se repete a cada 10^9 autorizações; a identificação única do pagamento é o nsu.
+
+@Component
+public class GeradorIdentificadores {
+
+    //Precisa ser igual ao INCREMENT BY das sequences (migração V12)
+    public static final int TAMANHO_BLOCO = 10_000;
+
+    public static final String SEQUENCIA_NSU = "seq_nsu";
+
+    public static final String SEQUENCIA_CODIGO_AUTORIZACAO = "seq_codigo_autorizacao";
+
+    private static final int DIGITOS_NSU = 10;
+
+    private static final int DIGITOS_CODIGO_AUTORIZACAO = 9;
+
+    private static final long LIMITE_CODIGO_AUTORIZACAO = 1_000_000_000L;
+
+    private final ExecutorService reservas =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("reserva-identificadores-"));
+
+    private final ContadorEmBloco nsu;
+
+    private final ContadorEmBloco codigoAutorizacao;
+
+    public GeradorIdentificadores(SequenciaRepository sequenciaRepository) {
+        this.nsu = new ContadorEmBloco(() -> sequenciaRepository.reservar(SEQUENCIA_NSU), TAMANHO_BLOCO, reservas);
+        this.codigoAutorizacao = new ContadorEmBloco(() -> sequenciaRepository.reservar(SEQUENCIA_CODIGO_AUTORIZACAO),
+                TAMANHO_BLOCO, reservas);
+    }
+
+    public String proximoNsu() {
+        return comZeros(nsu.proximo(), DIGITOS_NSU);
+    }
+
+    //Para threads que não podem bloquear (ver ContadorEmBloco)
+    public CompletableFuture<String> proximoNsuAssincrono() {
+        return nsu.proximoAssincrono().thenApply(valor -> comZeros(valor, DIGITOS_NSU));
+    }
+
+    public CompletableFuture<String> proximoCodigoAutorizacaoAssincrono() {
+        return codigoAutorizacao.proximoAssincrono()
+                .thenApply(valor -> comZeros(valor % LIMITE_CODIGO_AUTORIZACAO, DIGITOS_CODIGO_AUTORIZACAO));
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        reservas.shutdownNow();
+    }
+
+    //Sem String.format, que interpreta o padrão a cada chamada
+    private static String comZeros(long valor, int digitos) {
+        String texto = Long.toString(valor);
+        if (texto.length() >= digitos) {
+            return texto;
+        }
+        char[] resultado = new char[digitos];
+        int zeros = digitos - texto.length();
+        Arrays.fill(resultado, 0, zeros, '0');
+        texto.getChars(0, texto.length(), resultado, zeros);
+        return new String(resultado);
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.api.pagamento.service.particao;
+
+import com.api.pagamento.config.ParticoesProperties;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.repository.ParticaoRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+//Manutenção das partições mensais da transacao (migração V14)
+
+//Cada mês de data_hora (no horário de Brasília) é uma partição transacao_AAAA_MM. A cada execução:
+//    os meses de agora até particoesProperties.mesesFuturos à frente que ainda não têm partição ganham uma, para que os
+//    pagamentos do mês seguinte nunca caiam na partição padrão;
+//    as partições anteriores a particoesProperties.retencaoMeses são desanexadas: saem da transacao (e das consultas,
+//    índices e vacuum dela) de uma vez, sem um delete por linha, e continuam no banco como tabelas comuns.
+//Criar e desanexar são idempotentes entre execuções (o que já foi feito não aparece de novo), então uma execução com
+//falha é completada pela seguinte.
+
+@Component
+@Profile("!reativo")
+@ConditionalOnProperty(prefix = "api-pagamento.particoes", name = "habilitado", havingValue = "true")
+@RequiredArgsConstructor
+public class GerenciadorParticoes {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GerenciadorParticoes.class);
+
+    static final String PREFIXO = "transacao_";
+
+    private static final DateTimeFormatter FORMATO_MES = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final ParticaoRepository particaoRepository;
+
+    private final ParticoesProperties particoesProperties;
+
+    //Ao subir e depois a cada 6 horas (api-pagamento.particoes.intervalo): a virada do mês nunca fica sem partição
+    @Scheduled(initialDelay = 0, fixedDelayString = "${api-pagamento.particoes.intervalo:PT6H}")
+    public void manterAgendado() {
+        try {
+            manter(LocalDate.now(DataHoraCodec.ZONA));
+        } catch (RuntimeException ex) {
+            LOG.warn("As partições da transacao não puderam ser mantidas; nova tentativa na próxima execução", ex);
+        }
+    }
+
+    public void manter(LocalDate hoje) {
+
+        YearMonth atual = YearMonth.from(hoje);
+        List<String> existentes = particaoRepository.listar();
+
+        for (int i = 0; i <= particoesProperties.getMesesFuturos(); i++) {
+            YearMonth mes = atual.plusMonths(i);
+            String nome = nome(mes);
+            if (!existentes.contains(nome)) {
+                particaoRepository.criar(nome, inicio(mes), inicio(mes.plusMonths(1)));
+                LOG.info("Partição {} criada", nome);
+            }
+        }
+
+        YearMonth limite = atual.minusMonths(particoesProperties.getRetencaoMeses());
+        for (String nome : existentes) {
+            YearMonth mes = mes(nome);
+            if (mes != null && mes.isBefore(limite)) {
+                particaoRepository.desanexar(nome);
+                LOG.info("Partição {} desanexada", nome);
+            }
+        }
+    }
+
+    static String nome(YearMonth mes) {
+        return PREFIXO + mes.format(FORMATO_MES);
+    }
+
+    //Mês de uma partição mensal; nulo para as demais (ex: transacao_padrao)
+    static YearMonth mes(String nome) {
+        if (!nome.startsWith(PREFIXO)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(nome.substring(PREFIXO.length()), FORMATO_MES);
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+    private static OffsetDateTime inicio(YearMonth mes) {
+        return mes.atDay(1).atStartOfDay(DataHoraCodec.ZONA).toOffsetDateTime();
+    }
+
+}
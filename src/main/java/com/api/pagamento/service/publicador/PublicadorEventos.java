@@ -0,0 +1,16 @@
+package com.api.pagamento.service.publicador;
+
+import com.api.pagamento.domain.dto.EventoDTO;
+
+import java.util.List;
+
+//Destino dos eventos do outbox, escolhido por api-pagamento.eventos.destino
+
+//O relay chama publicar com um lote de eventos na ordem do id (para cada transação, o pagamento antes do estorno).
+//Uma exceção desfaz o lote: os eventos continuam no outbox e são publicados de novo, em ordem, na próxima execução.
+
+public interface PublicadorEventos {
+
+    void publicar(List<EventoDTO> eventos);
+
+}
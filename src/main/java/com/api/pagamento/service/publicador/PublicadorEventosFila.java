@@ -0,0 +1,29 @@
+package com.api.pagamento.service.publicador;
+
+import com.api.pagamento.domain.dto.EventoDTO;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+//Publicador em uma fila na memória da instância, consumida por componentes da própria api (e pelos testes, sem um
+//broker externo). Os eventos ficam na fila na ordem em que foram publicados.
+
+@Component
+@ConditionalOnProperty(prefix = "api-pagamento.eventos", name = "destino", havingValue = "fila")
+public class PublicadorEventosFila implements PublicadorEventos {
+
+    private final BlockingQueue<EventoDTO> fila = new LinkedBlockingQueue<>();
+
+    @Override
+    public void publicar(List<EventoDTO> eventos) {
+        fila.addAll(eventos);
+    }
+
+    public BlockingQueue<EventoDTO> getFila() {
+        return fila;
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.api.pagamento.service.publicador;
+
+import com.api.pagamento.domain.dto.EventoDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+//Publicador padrão: uma linha de log por evento (JSON), no logger com.api.pagamento.eventos. Com logging.file.name,
+//os eventos vão para um arquivo que pode ser lido por um coletor de logs.
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "api-pagamento.eventos", name = "destino", havingValue = "log", matchIfMissing = true)
+public class PublicadorEventosLog implements PublicadorEventos {
+
+    private static final Logger LOG = LoggerFactory.getLogger("com.api.pagamento.eventos");
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void publicar(List<EventoDTO> eventos) {
+        for (EventoDTO evento : eventos) {
+            try {
+                LOG.info(objectMapper.writeValueAsString(evento));
+            } catch (JsonProcessingException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+}
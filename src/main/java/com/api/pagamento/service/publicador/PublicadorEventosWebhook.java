@@ -0,0 +1,37 @@
+package com.api.pagamento.service.publicador;
+
+import com.api.pagamento.config.EventosProperties;
+import com.api.pagamento.domain.dto.EventoDTO;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+//Publicador por webhook: cada lote é enviado em um único POST (lista de eventos em JSON) para
+//api-pagamento.eventos.webhook-url. Uma resposta de erro (4xx/5xx) ou um timeout lança exceção e o lote é enviado de
+//novo na próxima execução do relay.
+
+@Component
+@ConditionalOnProperty(prefix = "api-pagamento.eventos", name = "destino", havingValue = "webhook")
+public class PublicadorEventosWebhook implements PublicadorEventos {
+
+    private final RestTemplate restTemplate;
+
+    private final String url;
+
+    public PublicadorEventosWebhook(RestTemplateBuilder restTemplateBuilder, EventosProperties eventosProperties) {
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(eventosProperties.getWebhookTimeout())
+                .setReadTimeout(eventosProperties.getWebhookTimeout())
+                .build();
+        this.url = eventosProperties.getWebhookUrl();
+    }
+
+    @Override
+    public void publicar(List<EventoDTO> eventos) {
+        restTemplate.postForEntity(url, eventos, Void.class);
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.api.pagamento.service.stream;
+
+import com.api.pagamento.domain.dto.EventoDTO;
+
+import java.io.IOException;
+import java.util.List;
+
+//Destino dos eventos de uma assinatura do stream (ex: a conexão SSE de GET /transacao/v1/stream). Os métodos são
+//chamados por uma thread de cada vez, e uma IOException encerra a assinatura.
+
+public interface AssinanteFeed {
+
+    //Eventos na ordem da posição, sem lacunas em relação ao último lote enviado
+    void enviar(List<EventoDTO> eventos) throws IOException;
+
+    //Chamado quando a conexão fica sem escrita pelo intervalo do heartbeat
+    void manterConexao() throws IOException;
+
+    //Chamado depois de uma escrita que passou do prazo (api-pagamento.stream.prazo-escrita), quando ela termina: a
+    //assinatura já foi cancelada e a conexão deve ser encerrada
+    void encerrar();
+
+}
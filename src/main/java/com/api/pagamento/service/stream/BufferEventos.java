@@ -0,0 +1,113 @@
+package com.api.pagamento.service.stream;
+
+import com.api.pagamento.domain.dto.EventoDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+//Buffer circular com os eventos publicados mais recentes, na ordem da posição
+
+//Uma única thread escreve (FeedEventosServiceImp.atualizar) e qualquer quantidade de threads lê, sem bloqueio: o
+//evento de número n fica em eventos[n % capacidade], e a leitura confere, depois de copiar os eventos, se a escrita
+//não passou por cima deles; se passou, a leitura é repetida. Cada assinante guarda apenas a posição do último evento
+//recebido, então a memória do stream não cresce com a quantidade de assinantes.
+
+//As posições são crescentes, mas podem ter lacunas (uma publicação desfeita consome valores da sequência), por isso o
+//evento seguinte a uma posição é encontrado por busca binária, e não pelo índice.
+
+public class BufferEventos {
+
+    private static final int TENTATIVAS = 3;
+
+    private final AtomicReferenceArray<EventoDTO> eventos;
+
+    private final int capacidade;
+
+    //Quantidade de escritas iniciadas e de escritas concluídas: a escrita de número n sobrescreve o evento de número
+    //n - capacidade
+    private volatile long iniciadas;
+
+    private volatile long escritas;
+
+    //Posição do evento mais recente que já saiu do buffer (ou a posição inicial): os eventos posteriores a ela estão
+    //todos no buffer
+    private volatile long base;
+
+    //Posição do evento mais recente
+    private volatile long ultima;
+
+    public BufferEventos(int capacidade, long posicaoInicial) {
+        this.eventos = new AtomicReferenceArray<>(capacidade);
+        this.capacidade = capacidade;
+        this.base = posicaoInicial;
+        this.ultima = posicaoInicial;
+    }
+
+    public long getUltima() {
+        return ultima;
+    }
+
+    //Somente pela thread que escreve, com posições crescentes. iniciadas e a base são atualizadas antes de o evento mais
+    //antigo ser sobrescrito, e escritas só depois de o novo evento estar no buffer.
+    public void adicionar(EventoDTO evento) {
+
+        long n = escritas;
+        iniciadas = n + 1;
+        int indice = (int) (n % capacidade);
+        if (n >= capacidade) {
+            base = eventos.get(indice).getPosicao();
+        }
+        eventos.set(indice, evento);
+        ultima = evento.getPosicao();
+        escritas = n + 1;
+    }
+
+    //Até limite eventos posteriores à posição, ou null se algum deles já saiu do buffer (o assinante está atrasado e
+    //deve ler da tabela evento)
+    public List<EventoDTO> apos(long posicao, int limite) {
+
+        for (int tentativa = 0; tentativa < TENTATIVAS; tentativa++) {
+
+            long escritasAntes = escritas;
+            if (posicao < base) {
+                return null;
+            }
+            if (posicao >= ultima) {
+                return List.of();
+            }
+
+            //Primeiro evento com posição maior que a informada
+            long esquerda = Math.max(0, escritasAntes - capacidade);
+            long direita = escritasAntes;
+            long menorLido = escritasAntes;
+            while (esquerda < direita) {
+                long meio = (esquerda + direita) >>> 1;
+                menorLido = Math.min(menorLido, meio);
+                if (evento(meio).getPosicao() > posicao) {
+                    direita = meio;
+                } else {
+                    esquerda = meio + 1;
+                }
+            }
+
+            long fim = Math.min(escritasAntes, esquerda + limite);
+            List<EventoDTO> lidos = new ArrayList<>((int) (fim - esquerda));
+            for (long i = esquerda; i < fim; i++) {
+                lidos.add(evento(i));
+            }
+            menorLido = Math.min(menorLido, esquerda);
+
+            //Nenhuma escrita iniciada sobrescreveu (ou está sobrescrevendo) um dos eventos lidos
+            if (iniciadas <= menorLido + capacidade) {
+                return lidos;
+            }
+        }
+        return null;
+    }
+
+    private EventoDTO evento(long numero) {
+        return eventos.get((int) (numero % capacidade));
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.api.pagamento.service.util;
+
+import com.api.pagamento.config.MetricasConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+//Tempo da conversão entidade -> DTO em cada operação do TransacaoServiceImp (métrica transacao.mapeamento)
+
+//Os Timers são criados uma única vez, no construtor: medir uma conversão não procura nada no registro.
+
+@Component
+public class MetricasMapeamento {
+
+    public static final String PROCURAR_PELO_ID = "procurarPeloId";
+
+    public static final String PROCURAR_TODOS = "procurarTodos";
+
+    public static final String PAGAR = "pagar";
+
+    public static final String ESTORNAR = "estornar";
+
+    private final Map<String, Timer> timers;
+
+    public MetricasMapeamento(MeterRegistry meterRegistry) {
+        timers = Map.of(
+                PROCURAR_PELO_ID, timer(meterRegistry, PROCURAR_PELO_ID),
+                PROCURAR_TODOS, timer(meterRegistry, PROCURAR_TODOS),
+                PAGAR, timer(meterRegistry, PAGAR),
+                ESTORNAR, timer(meterRegistry, ESTORNAR));
+    }
+
+    public <T> T medir(String operacao, Supplier<T> conversao) {
+        return timers.get(operacao).record(conversao);
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String operacao) {
+        return Timer.builder(MetricasConfig.METRICA_MAPEAMENTO).tag("operacao", operacao).register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.api.pagamento.service.util;
+
+import com.api.pagamento.domain.exception.InsercaoNaoPermitidaException;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.service.autorizador.Autorizacao;
+
+//Regras do pagamento compartilhadas pela api JPA (TransacaoServiceImp) e pela reativa (TransacaoReativoServiceImp)
+
+public class RegrasPagamento {
+
+    private RegrasPagamento() { }
+
+    //Os ids, o nsu, o código de autorização e o status são gerados pela api e não podem ser informados pelo usuário
+    public static void validarInsercao(Transacao transacao) throws InsercaoNaoPermitidaException {
+
+        if(transacao.getDescricao().getStatus() != null || transacao.getDescricao().getNsu() != null || transacao.getDescricao().getCodigoAutorizacao() != null || transacao.getId() != null || transacao.getDescricao().getId() != null || transacao.getFormaPagamento().getId() != null) {
+            throw new InsercaoNaoPermitidaException();
+        }
+
+    }
+
+    //O status e o código de autorização são os da resposta do emissor (Autorizador); o nsu é gerado pela api
+    //(GeradorIdentificadores)
+    public static Transacao aplicar(Transacao transacao, Autorizacao autorizacao, String nsu) {
+
+        transacao.getDescricao().setNsu(nsu);
+        transacao.getDescricao().setCodigoAutorizacao(autorizacao.getCodigoAutorizacao());
+        transacao.getDescricao().setStatus(autorizacao.getStatus());
+        return transacao;
+
+    }
+
+}
@@ -0,0 +1,16 @@
+-- Versão H2 (testes) de db/migration-postgresql/V5__valor_e_data_hora_tipados.sql.
+-- O H2 não converte o tipo de uma coluna com USING nem tem to_timestamp com fuso: as colunas são recriadas e a data e
+-- hora é montada no formato ISO com o deslocamento fixo de Brasília (-03:00).
+
+alter table descricao add column valor_numerico numeric(15, 2);
+alter table descricao add column data_hora_fuso timestamp with time zone;
+
+update descricao set
+    valor_numerico = cast(nullif(valor, '') as numeric(15, 2)),
+    data_hora_fuso = cast(substring(data_hora, 7, 4) || '-' || substring(data_hora, 4, 2) || '-' || substring(data_hora, 1, 2)
+        || ' ' || substring(data_hora, 12, 8) || '-03:00' as timestamp with time zone);
+
+alter table descricao drop column valor;
+alter table descricao drop column data_hora;
+alter table descricao rename column valor_numerico to valor;
+alter table descricao rename column data_hora_fuso to data_hora;
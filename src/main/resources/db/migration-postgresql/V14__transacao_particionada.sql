@@ -0,0 +1,68 @@
+-- Particionamento da transacao por mês de data_hora (no horário de Brasília), com o particionamento nativo do
+-- PostgreSQL. Só no PostgreSQL: o H2 dos testes não tem tabelas particionadas.
+-- data_hora já é timestamp with time zone (V5__valor_e_data_hora_tipados.sql) e, desde a V13, é coluna da própria
+-- transacao, então a chave de partição fica na mesma linha que ela divide.
+
+-- Uma consulta com intervalo de data_hora lê apenas as partições dos meses do intervalo, e um mês inteiro sai da
+-- tabela (GerenciadorParticoes) sem um delete de linha por linha.
+
+-- Restrições do particionamento:
+--     a chave primária e os índices únicos precisam conter a chave de partição: (id, data_hora) e (nsu, data_hora).
+--     A unicidade do id e do nsu continua garantida pelas sequences (seq_transacao e seq_nsu).
+--     a chave estrangeira de idempotencia para transacao (id) deixa de existir, pelo mesmo motivo.
+
+alter table idempotencia drop constraint fk_idempotencia_transacao;
+
+alter table transacao rename to transacao_nao_particionada;
+alter table transacao_nao_particionada rename constraint transacao_pkey to transacao_nao_particionada_pkey;
+drop index idx_transacao_estabelecimento_data_hora;
+drop index idx_transacao_status_data_hora;
+drop index idx_transacao_data_hora;
+drop index ux_transacao_nsu;
+drop index idx_transacao_final_cartao;
+
+create table transacao (
+    id bigint not null default nextval('seq_transacao'),
+    cartao varchar(255),
+    valor numeric(15, 2),
+    data_hora timestamp with time zone not null,
+    estabelecimento varchar(255),
+    nsu varchar(255),
+    codigo_autorizacao varchar(255),
+    status integer,
+    tipo integer,
+    parcelas varchar(255),
+    primary key (id, data_hora)
+) partition by range (data_hora);
+
+-- Datas fora dos meses com partição (um pagamento com data muito antiga ou futura) ficam na partição padrão.
+-- Antes de criar a partição de um mês, GerenciadorParticoes move para ela as linhas do mês que estão aqui.
+create table transacao_padrao partition of transacao default;
+
+-- Uma partição por mês, dos últimos 24 meses (api-pagamento.particoes.retencao-meses) até 3 meses à frente
+-- (api-pagamento.particoes.meses-futuros). Os nomes seguem GerenciadorParticoes: transacao_AAAA_MM.
+do $$
+declare
+    atual timestamp := date_trunc('month', now() at time zone 'America/Sao_Paulo');
+    mes timestamp;
+begin
+    for mes in select generate_series(atual - interval '24 months', atual + interval '3 months', interval '1 month') loop
+        execute format('create table %I partition of transacao for values from (%L) to (%L)',
+                'transacao_' || to_char(mes, 'YYYY_MM'),
+                (mes at time zone 'America/Sao_Paulo'),
+                ((mes + interval '1 month') at time zone 'America/Sao_Paulo'));
+    end loop;
+end $$;
+
+insert into transacao (id, cartao, valor, data_hora, estabelecimento, nsu, codigo_autorizacao, status, tipo, parcelas)
+select id, cartao, valor, data_hora, estabelecimento, nsu, codigo_autorizacao, status, tipo, parcelas
+from transacao_nao_particionada;
+
+drop table transacao_nao_particionada;
+
+-- Os índices da tabela particionada são criados em cada partição, inclusive nas criadas depois
+create index idx_transacao_estabelecimento_data_hora on transacao (estabelecimento, data_hora, id);
+create index idx_transacao_status_data_hora on transacao (status, data_hora, id);
+create index idx_transacao_data_hora on transacao (data_hora, id);
+create unique index ux_transacao_nsu on transacao (nsu, data_hora);
+create index idx_transacao_final_cartao on transacao (right(cartao, 4));
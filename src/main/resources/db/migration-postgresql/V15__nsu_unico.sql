@@ -0,0 +1,29 @@
+-- Nsu único na transacao particionada (só no PostgreSQL; no H2 continua o índice único ux_transacao_nsu da V13).
+
+-- Um índice único de tabela particionada precisa conter a chave de partição: o ux_transacao_nsu (nsu, data_hora) da
+-- V14 aceita o mesmo nsu em datas diferentes. A unicidade passa para a transacao_nsu, uma tabela comum (não
+-- particionada) com o nsu como chave primária. O gatilho insere nela o nsu de cada linha inserida na transacao (pelo
+-- JPA, pelo lote ou pela api reativa), na mesma transação: um nsu repetido desfaz o pagamento com o mesmo erro de
+-- unicidade (23505) de antes da V14.
+
+-- As linhas que o GerenciadorParticoes move da partição padrão para uma partição nova não passam pelo gatilho (são
+-- inseridas na tabela nova antes do attach), e o nsu delas já está aqui. Os nsus de partições desanexadas e de
+-- transações arquivadas continuam aqui e não podem ser usados de novo.
+
+create table transacao_nsu (
+    nsu varchar(255) primary key
+);
+
+insert into transacao_nsu (nsu)
+select distinct nsu from transacao where nsu is not null;
+
+create function registrar_nsu() returns trigger language plpgsql as $$
+begin
+    if new.nsu is not null then
+        insert into transacao_nsu (nsu) values (new.nsu);
+    end if;
+    return null;
+end $$;
+
+-- Criado na transacao particionada, o gatilho vale para todas as partições, inclusive as anexadas depois
+create trigger tg_transacao_nsu after insert on transacao for each row execute function registrar_nsu();
@@ -0,0 +1,11 @@
+-- Valor e data e hora da descricao passam de texto para numeric(15, 2) e timestamp with time zone, para que somas,
+-- intervalos e ordenações sejam feitos pelo banco.
+-- As linhas existentes são convertidas no próprio alter: o valor pelo cast e a data e hora (dd/MM/yyyy HH:mm:ss, sem
+-- fuso) no horário de Brasília, o mesmo do DataHoraCodec, inclusive nas datas do antigo horário de verão.
+-- Textos vazios viram null; um texto fora desses formatos interrompe a migração, que é desfeita por inteiro.
+
+alter table descricao
+    alter column valor type numeric(15, 2)
+        using cast(nullif(valor, '') as numeric(15, 2)),
+    alter column data_hora type timestamp with time zone
+        using cast(to_timestamp(nullif(data_hora, ''), 'DD/MM/YYYY HH24:MI:SS') as timestamp) at time zone 'America/Sao_Paulo';
@@ -0,0 +1,4 @@
+-- Índice de expressão para o filtro finalCartao da busca (right(cartao, 4) = ?), que um índice comum em cartao não
+-- atende. Só no PostgreSQL: o H2 dos testes não tem índices de expressão.
+
+create index idx_transacao_final_cartao on transacao (right(cartao, 4));
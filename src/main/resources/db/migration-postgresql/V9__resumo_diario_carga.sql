@@ -0,0 +1,12 @@
+-- Carga do resumo diário (V8__resumo_diario.sql) com as transações gravadas antes dele.
+-- Só no PostgreSQL: o dia é a data no horário de Brasília, e o H2 dos testes não converte o fuso no cast para date
+-- (o banco dos testes é criado vazio e não tem o que carregar).
+
+insert into resumo_diario (dia, estabelecimento, status, tipo, parcelas, quantidade, total)
+select cast(d.data_hora at time zone 'America/Sao_Paulo' as date), d.estabelecimento, d.status, f.tipo, f.parcelas,
+       count(*), sum(d.valor)
+from transacao t
+join descricao d on d.id = t.descricao_id
+join forma_pagamento f on f.id = t.forma_pagamento_id
+where d.estabelecimento is not null and d.status is not null and f.tipo is not null and f.parcelas is not null
+group by 1, 2, 3, 4, 5;
@@ -0,0 +1,17 @@
+-- Outbox dos eventos de pagamento e estorno (EventoGravacaoRepositoryImpl e RelayEventosServiceImp).
+-- O evento é gravado na mesma transação do pagamento ou do estorno e publicado depois pelo relay, que apaga os eventos
+-- publicados: a tabela guarda apenas os pendentes.
+
+-- Sem blocos (increment by 1) e com o id gerado no próprio insert: o estorno só começa depois que o pagamento foi
+-- gravado, então o evento do estorno sempre tem um id maior que o do pagamento da mesma transação, em qualquer
+-- instância da api. O relay publica na ordem do id.
+create sequence seq_evento start with 1 increment by 1;
+
+create table evento (
+    id bigint default nextval('seq_evento') not null,
+    transacao_id bigint not null,
+    tipo varchar(20) not null,
+    payload varchar not null,
+    criado_em timestamp with time zone not null,
+    primary key (id)
+);
@@ -0,0 +1,18 @@
+-- Posição de publicação dos eventos, usada como offset do GET /transacao/v1/stream (FeedEventosServiceImp).
+
+-- O id do evento é gerado no insert, mas os inserts terminam (commit) em qualquer ordem: um evento com id menor pode
+-- ficar visível depois de um com id maior. A posição é gerada pelo relay ao publicar, com o lote bloqueado: um relay
+-- só gera posições depois que o anterior terminou, então um evento com posição menor nunca aparece depois de um com
+-- posição maior, e quem lê "posicao > offset" não perde eventos.
+
+-- Publicados, os eventos deixam de ser apagados: ficam na tabela por api-pagamento.eventos.retencao para que os
+-- assinantes do stream possam retomar de um offset antigo.
+
+create sequence seq_posicao_evento start with 1 increment by 1;
+
+alter table evento add column posicao bigint;
+alter table evento add column publicado_em timestamp with time zone;
+
+-- Pendentes (posicao is null, na ordem do id) e publicados depois de um offset (posicao > ?, na ordem da posição)
+create index idx_evento_posicao on evento (posicao, id);
+create index idx_evento_publicado_em on evento (publicado_em);
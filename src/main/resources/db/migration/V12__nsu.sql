@@ -0,0 +1,14 @@
+-- Nsu e código de autorização únicos (GeradorIdentificadores).
+
+-- Cada nextval reserva um bloco de 10000 valores [valor, valor + 10000), entregues em memória pela instância que o
+-- reservou: instâncias diferentes nunca recebem o mesmo bloco. O incremento precisa ser igual a
+-- GeradorIdentificadores.TAMANHO_BLOCO; se ele mudar, crie uma nova migração com o novo incremento.
+
+create sequence seq_nsu start with 1 increment by 10000;
+create sequence seq_codigo_autorizacao start with 1 increment by 10000;
+
+-- Até aqui todo pagamento tinha o nsu 1234567890. Os existentes recebem um nsu com o prefixo M (migrado) e o id da
+-- descrição, que não coincide com os gerados (apenas dígitos).
+update descricao set nsu = 'M' || cast(id as varchar) where nsu is not null;
+
+create unique index ux_descricao_nsu on descricao (nsu);
@@ -0,0 +1,38 @@
+-- Descrição e forma de pagamento passam a ser colunas da própria transacao (@Embeddable), em vez de tabelas ligadas
+-- por chaves estrangeiras. Um pagamento passa a ser um insert em uma tabela, e cada leitura, um select sem junções.
+-- Os ids de descricao e forma_pagamento deixam de existir: na api, descricao.id e formaPagamento.id são o id da
+-- transação.
+
+alter table transacao add column valor numeric(15, 2);
+alter table transacao add column data_hora timestamp with time zone;
+alter table transacao add column estabelecimento varchar(255);
+alter table transacao add column nsu varchar(255);
+alter table transacao add column codigo_autorizacao varchar(255);
+alter table transacao add column status integer;
+alter table transacao add column tipo integer;
+alter table transacao add column parcelas varchar(255);
+
+update transacao set (valor, data_hora, estabelecimento, nsu, codigo_autorizacao, status) =
+    (select d.valor, d.data_hora, d.estabelecimento, d.nsu, d.codigo_autorizacao, d.status
+     from descricao d where d.id = transacao.descricao_id);
+
+update transacao set (tipo, parcelas) =
+    (select f.tipo, f.parcelas from forma_pagamento f where f.id = transacao.forma_pagamento_id);
+
+-- Os índices de V6__indices_busca.sql e V12__nsu.sql, agora na transacao. idx_transacao_descricao (a junção com a
+-- descricao) não é mais necessário.
+create index idx_transacao_estabelecimento_data_hora on transacao (estabelecimento, data_hora, id);
+create index idx_transacao_status_data_hora on transacao (status, data_hora, id);
+create index idx_transacao_data_hora on transacao (data_hora, id);
+create unique index ux_transacao_nsu on transacao (nsu);
+
+alter table transacao drop constraint fk_transacao_descricao;
+alter table transacao drop constraint fk_transacao_forma_pagamento;
+drop index if exists idx_transacao_descricao;
+alter table transacao drop column descricao_id;
+alter table transacao drop column forma_pagamento_id;
+
+drop table descricao;
+drop table forma_pagamento;
+drop sequence seq_descricao;
+drop sequence seq_forma_pagamento;
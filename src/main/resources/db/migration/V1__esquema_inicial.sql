@@ -0,0 +1,33 @@
+-- Esquema inicial, equivalente ao que o Hibernate criava com ddl-auto: create-drop.
+
+create sequence seq_transacao start with 1 increment by 1;
+create sequence seq_descricao start with 1 increment by 1;
+create sequence seq_forma_pagamento start with 1 increment by 1;
+
+create table descricao (
+    id bigint not null,
+    valor varchar(255),
+    data_hora varchar(255),
+    estabelecimento varchar(255),
+    nsu varchar(255),
+    codigo_autorizacao varchar(255),
+    status integer,
+    primary key (id)
+);
+
+create table forma_pagamento (
+    id bigint not null,
+    tipo integer,
+    parcelas varchar(255),
+    primary key (id)
+);
+
+create table transacao (
+    id bigint not null,
+    cartao varchar(255),
+    descricao_id bigint,
+    forma_pagamento_id bigint,
+    primary key (id),
+    constraint fk_transacao_descricao foreign key (descricao_id) references descricao (id),
+    constraint fk_transacao_forma_pagamento foreign key (forma_pagamento_id) references forma_pagamento (id)
+);
@@ -0,0 +1,8 @@
+-- Alinha o incremento das sequences ao tamanho do bloco do SequenciaEmBlocoGenerator (api_pagamento.id.tamanho_bloco).
+-- Com o otimizador pooled-lo, cada nextval reserva os ids [valor, valor + 50). Como o próximo valor fica acima de todos
+-- os ids já usados, a alteração é segura com dados existentes.
+-- Se o tamanho do bloco mudar, crie uma nova migração com o novo incremento.
+
+alter sequence seq_transacao increment by 50;
+alter sequence seq_descricao increment by 50;
+alter sequence seq_forma_pagamento increment by 50;
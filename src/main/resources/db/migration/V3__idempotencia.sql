@@ -0,0 +1,13 @@
+-- Chaves de idempotência do POST /transacao/v1/pagamento (cabeçalho Idempotency-Key).
+-- Cada chave aponta para a transação criada pela primeira requisição. A chave primária impede que duas instâncias da
+-- api gravem a mesma chave; as chaves mais antigas que a retenção configurada são apagadas periodicamente.
+
+create table idempotencia (
+    chave varchar(255) not null,
+    transacao_id bigint not null,
+    criada_em timestamp not null,
+    primary key (chave),
+    constraint fk_idempotencia_transacao foreign key (transacao_id) references transacao (id)
+);
+
+create index idx_idempotencia_criada_em on idempotencia (criada_em);
@@ -0,0 +1,8 @@
+-- Valor padrão dos ids pela sequence, usado pela api reativa (R2DBC), que insere sem informar o id.
+-- A api JPA continua informando o id (blocos pooled-lo de SequenciaEmBlocoGenerator), então o padrão não a afeta.
+-- Cada nextval reserva um bloco de 50 ids; o insert reativo usa o primeiro e descarta o restante, o que mantém os
+-- ids das duas apis sem sobreposição.
+
+alter table descricao alter column id set default nextval('seq_descricao');
+alter table forma_pagamento alter column id set default nextval('seq_forma_pagamento');
+alter table transacao alter column id set default nextval('seq_transacao');
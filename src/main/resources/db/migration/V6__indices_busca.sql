@@ -0,0 +1,11 @@
+-- Índices da busca de transações por filtros (GET /transacao/v1/busca, TransacaoBuscaRepositoryImpl).
+-- Cada índice tem o filtro de igualdade seguido da ordem da busca (data_hora, id): as linhas são lidas já ordenadas,
+-- a leitura para no tamanho da página e o cursor da página seguinte é um intervalo do mesmo índice.
+
+create index idx_descricao_estabelecimento_data_hora on descricao (estabelecimento, data_hora, id);
+create index idx_descricao_status_data_hora on descricao (status, data_hora, id);
+create index idx_descricao_data_hora on descricao (data_hora, id);
+
+-- As chaves estrangeiras não são indexadas automaticamente no PostgreSQL: sem este índice, cada descricao encontrada
+-- seria ligada à sua transacao por uma leitura completa da tabela transacao.
+create index idx_transacao_descricao on transacao (descricao_id);
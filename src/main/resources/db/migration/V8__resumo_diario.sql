@@ -0,0 +1,18 @@
+-- Resumo diário das transações (relatório GET /transacao/v1/relatorio, ResumoDiarioAgregacaoRepositoryImpl).
+-- Uma linha por dia (no horário de Brasília), estabelecimento, status, tipo e parcelas, com a quantidade e o total
+-- das transações. O resumo é mantido na mesma transação do pagamento e do estorno, então o relatório lê poucas linhas
+-- por dia em vez de agregar todas as transações do período.
+
+create table resumo_diario (
+    dia date not null,
+    estabelecimento varchar(255) not null,
+    status integer not null,
+    tipo integer not null,
+    parcelas varchar(255) not null,
+    quantidade bigint not null,
+    total numeric(17, 2) not null,
+    primary key (dia, estabelecimento, status, tipo, parcelas)
+);
+
+-- A chave primária atende o relatório por período; este índice atende o relatório de um estabelecimento
+create index idx_resumo_diario_estabelecimento_dia on resumo_diario (estabelecimento, dia);
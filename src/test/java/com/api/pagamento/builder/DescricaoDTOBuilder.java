@@ -2,9 +2,13 @@ package com.api.pagamento.builder;
 
 
 import com.api.pagamento.domain.dto.DescricaoDTO;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
 import com.api.pagamento.domain.enumeration.StatusEnum;
 import lombok.Builder;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
 @Builder
 public class DescricaoDTOBuilder {
 
@@ -12,10 +16,10 @@ public class DescricaoDTOBuilder {
     private static Long id = 1L;
 
     @Builder.Default
-    private static String valor = "500.50";
+    private static BigDecimal valor = new BigDecimal("500.50");
 
     @Builder.Default
-    private static String dataHora = "01/05/2021 18:00:00";
+    private static OffsetDateTime dataHora = DataHoraCodec.ler("01/05/2021 18:00:00");
 
     @Builder.Default
     private static String estabelecimento = "PetShop Mundo cão";
@@ -0,0 +1,100 @@
+package com.api.pagamento.config;
+
+import com.api.pagamento.repository.EventoRepository;
+import com.api.pagamento.repository.ResumoDiarioRepository;
+import com.api.pagamento.repository.TransacaoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.core.Is.is;
+
+/*
+    Testes de integração das métricas
+
+        Sobe a aplicação no perfil teste, faz requisições que terminam bem e com erro e confere as séries expostas em
+        /actuator/prometheus. @AutoConfigureMetrics liga a exportação, que os testes do Spring Boot desligam por padrão.
+
+*/
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("teste")
+@AutoConfigureMetrics
+public class MetricasConfigTest {
+
+    private static final String PAGAMENTO = "{\"cartao\":\"4444********1234\"," +
+            "\"descricao\":{\"valor\":\"500.50\",\"dataHora\":\"01/05/2021 18:00:00\",\"estabelecimento\":\"PetShop Mundo cão\"%s}," +
+            "\"formaPagamento\":{\"tipo\":\"AVISTA\",\"parcelas\":\"1\"}}";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private ResumoDiarioRepository resumoDiarioRepository;
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    //O H2 em memória é o mesmo dos outros testes: o pagamento gravado aqui é apagado ao final
+    @AfterEach
+    void tearDown() {
+        transacaoRepository.deleteAllInBatch();
+        resumoDiarioRepository.deleteAllInBatch();
+        eventoRepository.deleteAllInBatch();
+    }
+
+    // Quando as operações terminam bem ou com erro, os tempos são expostos por operação e por resultado
+    @Test
+    void whenOperationsSucceedOrFailThenTimersAreExposedByOperationAndOutcome() {
+
+        //Dado
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+
+        //Quando
+
+            assertThat(restTemplate.postForEntity("/transacao/v1/pagamento",
+                    new HttpEntity<>(String.format(PAGAMENTO, ""), headers), String.class).getStatusCodeValue(), is(equalTo(200)));
+            assertThat(restTemplate.postForEntity("/transacao/v1/pagamento",
+                    new HttpEntity<>(String.format(PAGAMENTO, ",\"status\":\"AUTORIZADO\""), headers), String.class).getStatusCodeValue(), is(equalTo(400)));
+            assertThat(restTemplate.getForEntity("/transacao/v1/" + Long.MAX_VALUE, String.class).getStatusCodeValue(), is(equalTo(404)));
+
+            String metricas = restTemplate.getForObject("/actuator/prometheus", String.class);
+
+        // Então
+
+            //Serviço, por operação e exceção
+            assertThat(contem(metricas, "transacao_servico_seconds_count{", "operacao=\"pagar\"", "exception=\"none\""), is(true));
+            assertThat(contem(metricas, "transacao_servico_seconds_count{", "operacao=\"pagar\"", "exception=\"InsercaoNaoPermitidaException\""), is(true));
+            assertThat(contem(metricas, "transacao_servico_seconds_count{", "operacao=\"procurarPeloId\"", "exception=\"TransacaoInexistenteException\""), is(true));
+
+            //Conversão para DTO, tempo de banco e pool de conexões
+            assertThat(contem(metricas, "transacao_mapeamento_seconds_count{", "operacao=\"pagar\""), is(true));
+            assertThat(contem(metricas, "spring_data_repository_invocations_seconds_count{", "repository=\"TransacaoRepository\"", "method=\"save\""), is(true));
+            assertThat(contem(metricas, "hikaricp_connections_active{"), is(true));
+
+    }
+
+    //Alguma linha começa com o nome da série e tem todos os rótulos informados
+    private boolean contem(String metricas, String serie, String... rotulos) {
+        return metricas.lines()
+                .filter(linha -> linha.startsWith(serie))
+                .anyMatch(linha -> Arrays.stream(rotulos).allMatch(linha::contains));
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.api.pagamento.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ThreadsVirtuaisConfigTest {
+
+    private final WebApplicationContextRunner contextRunner = new WebApplicationContextRunner()
+            .withUserConfiguration(ThreadsVirtuaisConfig.class);
+
+    // Quando o modo não é habilitado, a configuração de threads virtuais não é carregada
+    @Test
+    void whenVirtualThreadsAreNotEnabledThenConfigurationIsNotLoaded() {
+
+        contextRunner
+                .withPropertyValues("api-pagamento.threads-virtuais.habilitado=false")
+                .run(context -> assertThat(context).doesNotHaveBean(ThreadsVirtuaisConfig.class));
+
+    }
+
+    // Quando o modo é habilitado, as tarefas rodam em threads virtuais (Java 21+) ou a aplicação não sobe (Java 17)
+    @Test
+    void whenVirtualThreadsAreEnabledThenTasksRunOnVirtualThreadsOrStartupFails() throws Exception {
+
+        if (Runtime.version().feature() < 21) {
+            assertThrows(IllegalStateException.class, ThreadsVirtuaisConfig::criarExecutor);
+            return;
+        }
+
+        ExecutorService executor = ThreadsVirtuaisConfig.criarExecutor();
+        boolean virtual = executor.submit(() -> (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()))
+                .get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertTrue(virtual);
+
+    }
+
+}
@@ -1,32 +1,67 @@
 package com.api.pagamento.controller;
 
 import com.api.pagamento.builder.TransacaoDTOBuilder;
+import com.api.pagamento.config.StreamProperties;
+import com.api.pagamento.domain.dto.EventoDTO;
+import com.api.pagamento.domain.dto.FiltroRelatorioDTO;
+import com.api.pagamento.domain.dto.FiltroTransacaoDTO;
+import com.api.pagamento.domain.dto.PaginaTransacaoDTO;
+import com.api.pagamento.domain.dto.ResponseErrorDTO;
+import com.api.pagamento.domain.dto.ResultadoPagamentoDTO;
+import com.api.pagamento.domain.dto.TotalDTO;
 import com.api.pagamento.domain.dto.TransacaoDTO;
 import com.api.pagamento.domain.dto.util.Mapper;
+import com.api.pagamento.domain.enumeration.AgrupamentoEnum;
 import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.enumeration.TipoEventoEnum;
+import com.api.pagamento.domain.exception.AutorizadorIndisponivelException;
+import com.api.pagamento.domain.exception.CursorInvalidoException;
+import com.api.pagamento.domain.exception.EstornoNaoPermitidoException;
+import com.api.pagamento.domain.exception.FiltroInvalidoException;
 import com.api.pagamento.domain.exception.InsercaoNaoPermitidaException;
+import com.api.pagamento.domain.exception.LimiteAssinantesException;
+import com.api.pagamento.domain.exception.RelatorioInvalidoException;
 import com.api.pagamento.domain.exception.TransacaoInexistenteException;
 import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.service.FeedEventosService;
+import com.api.pagamento.service.IdempotenciaService;
 import com.api.pagamento.service.TransacaoService;
-import com.google.gson.Gson;
+import com.api.pagamento.service.stream.AssinanteFeed;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /*
@@ -109,6 +144,20 @@ public class TransacaoControllerTest {
     @Mock
     private TransacaoService transacaoService;
 
+    @Mock
+    private IdempotenciaService idempotenciaService;
+
+    @Mock
+    private FeedEventosService feedEventosService;
+
+    // Spy: propriedades reais (timeout da conexão do stream)
+    @Spy
+    private StreamProperties streamProperties = new StreamProperties();
+
+    // Spy: instancia real, usada pelo controller para serializar a exportação em NDJSON.
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     // InjectMocks: Cria uma intancia e injeta as dependências necessárias que estão anotadas com @Mock.
     @InjectMocks
     private TransacaoController transacaoController;
@@ -116,7 +165,10 @@ public class TransacaoControllerTest {
     // @BeforeEach: Execute antes de cada método de teste.
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(transacaoController).build();
+        //O standaloneSetup não procura @ControllerAdvice no contexto: o tratador de exceções é registrado aqui
+        mockMvc = MockMvcBuilders.standaloneSetup(transacaoController)
+                .setControllerAdvice(new TratadorExcecoes())
+                .build();
     }
 
     // @Test = A anotação de teste informa ao JUnit que o método void público ao qual está anexado pode ser executado
@@ -147,26 +199,30 @@ public class TransacaoControllerTest {
 
         //Quando
 
-        //transacaoService.pagar(transacao) -> transacaoDTO
-        when(transacaoService.pagar(transacao))
-                .thenReturn(transacaoDTO);
+        //transacaoService.pagarAssincrono(transacao) -> transacaoDTO
+        when(transacaoService.pagarAssincrono(transacao))
+                .thenReturn(CompletableFuture.completedFuture(transacaoDTO));
 
         // Então
 
         //perform: Executa o post /transacao/v1/pagamento
         //contentType: Define que o tipo do conteúdo é JSON
         //content: Define que o conteúdo é o Json de transacaoDTO
-        //andExpect: Espera-se que o post retorne o status OK
-        //andExpect: Espera-se que $.id seja igual a transacaoDTO.getId()
+        //andExpect: Espera-se que o processamento assíncrono seja iniciado (a resposta vem da autorização)
+        //asyncDispatch: Despacha o resultado; espera-se o status OK e $.id igual a transacaoDTO.getId()
 
-        mockMvc.perform(post("/transacao/v1/pagamento")
+        MvcResult mvcResult = mockMvc.perform(post("/transacao/v1/pagamento")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(new Gson().toJson(transacao)))
+                        .content(objectMapper.writeValueAsString(transacao)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(Math.toIntExact(transacaoDTO.getId()))))
                 .andExpect(jsonPath("$.cartao", is(transacaoDTO.getCartao())))
-                .andExpect(jsonPath("$.descricao.valor", is(transacaoDTO.getDescricao().getValor())))
-                .andExpect(jsonPath("$.descricao.dataHora", is(transacaoDTO.getDescricao().getDataHora())))
+                .andExpect(jsonPath("$.descricao.valor", is("500.50")))
+                .andExpect(jsonPath("$.descricao.dataHora", is("01/05/2021 18:00:00")))
                 .andExpect(jsonPath("$.descricao.estabelecimento", is(transacaoDTO.getDescricao().getEstabelecimento())))
                 .andExpect(jsonPath("$.descricao.nsu", is(transacaoDTO.getDescricao().getNsu())))
                 .andExpect(jsonPath("$.descricao.codigoAutorizacao", is(transacaoDTO.getDescricao().getCodigoAutorizacao())))
@@ -176,6 +232,41 @@ public class TransacaoControllerTest {
 
     }
 
+    // Quando o pagamento é chamado com Idempotency-Key, ele é delegado ao serviço de idempotência
+    @Test
+    void whenPaymentIsCalledWithIdempotencyKeyThenIdempotencyServiceIsUsed() throws Exception {
+
+        //Dado
+
+            TransacaoDTO transacaoDTO = TransacaoDTOBuilder.builder().build().toTransacaoDTO();
+
+            Transacao transacao = (Transacao) Mapper.convert(transacaoDTO, Transacao.class);
+            transacao.setId(null);
+            transacao.getDescricao().setId(null);
+            transacao.getFormaPagamento().setId(null);
+
+        //Quando
+
+            //idempotenciaService.pagar("chave-1", transacao) -> transacaoDTO
+            when(idempotenciaService.pagar("chave-1", transacao))
+                    .thenReturn(transacaoDTO);
+
+        // Então
+
+            MvcResult mvcResult = mockMvc.perform(post("/transacao/v1/pagamento")
+                            .header("Idempotency-Key", "chave-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(transacao)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(mvcResult))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id", is(Math.toIntExact(transacaoDTO.getId()))));
+
+            verifyNoInteractions(transacaoService);
+    }
+
     // Quando o nsu, codigo_pagamento ou o status é informado ao chamar o pagamento, uma exceção deve ser retornada
     @Test
     void whenPaymentInformedIdsNsuCodPagStatusInformedThenThenAnExceptionIsReturned() throws Exception {
@@ -196,8 +287,8 @@ public class TransacaoControllerTest {
 
         //transacao for inválida
 
-        //transacaoService.pagar(transacao) -> InsercaoNaoPermitidaException()
-        when(transacaoService.pagar(transacao))
+        //transacaoService.pagarAssincrono(transacao) -> InsercaoNaoPermitidaException()
+        when(transacaoService.pagarAssincrono(transacao))
                 .thenThrow(InsercaoNaoPermitidaException.class);
 
         // Então
@@ -208,13 +299,46 @@ public class TransacaoControllerTest {
 
         mockMvc.perform(post("/transacao/v1/pagamento")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(new Gson().toJson(transacao)))
+                        .content(objectMapper.writeValueAsString(transacao)))
                 .andExpect(status().isBadRequest())
                 .andExpect(result -> assertTrue(result.getResolvedException() instanceof InsercaoNaoPermitidaException))
         ;
 
     }
 
+    // Quando o emissor não responde a tempo (ou há autorizações demais em andamento), um ServiceUnavailable é retornado
+    @Test
+    void whenIssuerIsUnavailableThenServiceUnavailableIsReturned() throws Exception {
+
+        // Dado
+
+            TransacaoDTO transacaoDTO = TransacaoDTOBuilder.builder().build().toTransacaoDTO();
+
+            Transacao transacao = (Transacao) Mapper.convert(transacaoDTO, Transacao.class);
+            transacao.setId(null);
+            transacao.getDescricao().setId(null);
+            transacao.getFormaPagamento().setId(null);
+
+        //Quando
+
+            //transacaoService.pagarAssincrono(transacao) -> autorização que falha com AutorizadorIndisponivelException
+            when(transacaoService.pagarAssincrono(transacao))
+                    .thenReturn(CompletableFuture.failedFuture(new AutorizadorIndisponivelException()));
+
+        // Então
+
+            MvcResult mvcResult = mockMvc.perform(post("/transacao/v1/pagamento")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(transacao)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(mvcResult))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(result -> assertTrue(result.getResolvedException() instanceof AutorizadorIndisponivelException));
+
+    }
+
     // Quando uma transacao é chamada pelo id e não é encontrada, uma exceção deve ser retornada
     @Test
     void whenTransactionIsCalledByIdAndNotFoundThenAnExceptionIsReturned() throws Exception {
@@ -275,8 +399,35 @@ public class TransacaoControllerTest {
 
         mockMvc.perform(post("/transacao/v1/pagamento")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(new Gson().toJson(transacao)))
+                        .content(objectMapper.writeValueAsString(transacao)))
+                .andExpect(status().isBadRequest());
+
+    }
+
+    // Quando o pagamento é chamado com valor ou data e hora fora do formato da api, um BadRequest é retornado
+    @Test
+    void whenPaymentWithInvalidValueOrDateTimeIsCalledThenAnExceptionIsReturned() throws Exception {
+
+        // Dado
+
+        //Valor com vírgula e data e hora inexistente (31 de abril)
+        String valorInvalido = "{\"cartao\":\"4444********1234\",\"descricao\":{\"valor\":\"500,50\"," +
+                "\"dataHora\":\"01/05/2021 18:00:00\",\"estabelecimento\":\"PetShop Mundo cão\"}," +
+                "\"formaPagamento\":{\"tipo\":\"AVISTA\",\"parcelas\":\"1\"}}";
+        String dataHoraInvalida = valorInvalido.replace("500,50", "500.50").replace("01/05/2021", "31/04/2021");
+
+        // Então
+
+        //O corpo não é convertido em Transacao e o service não é chamado
+        mockMvc.perform(post("/transacao/v1/pagamento")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(valorInvalido))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/transacao/v1/pagamento")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(dataHoraInvalida))
                 .andExpect(status().isBadRequest());
+        verifyNoInteractions(transacaoService);
 
     }
 
@@ -311,8 +462,8 @@ public class TransacaoControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(Math.toIntExact(transacaoDTO.getId()))))
                 .andExpect(jsonPath("$.cartao", is(transacaoDTO.getCartao())))
-                .andExpect(jsonPath("$.descricao.valor", is(transacaoDTO.getDescricao().getValor())))
-                .andExpect(jsonPath("$.descricao.dataHora", is(transacaoDTO.getDescricao().getDataHora())))
+                .andExpect(jsonPath("$.descricao.valor", is("500.50")))
+                .andExpect(jsonPath("$.descricao.dataHora", is("01/05/2021 18:00:00")))
                 .andExpect(jsonPath("$.descricao.estabelecimento", is(transacaoDTO.getDescricao().getEstabelecimento())))
                 .andExpect(jsonPath("$.descricao.nsu", is(transacaoDTO.getDescricao().getNsu())))
                 .andExpect(jsonPath("$.descricao.codigoAutorizacao", is(transacaoDTO.getDescricao().getCodigoAutorizacao())))
@@ -322,6 +473,23 @@ public class TransacaoControllerTest {
 
     }
 
+    // Quando estorno é chamado para uma transação já estornada, uma exceção deve ser retornada
+    @Test
+    void whenReversalOfAlreadyReversedTransactionIsCalledThenAnExceptionIsReturned() throws Exception {
+
+        //Quando
+
+            when(transacaoService.estornar(1L))
+                    .thenThrow(EstornoNaoPermitidoException.class);
+
+        // Então
+
+            mockMvc.perform(put("/transacao/v1/estorno/1")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isConflict())
+                    .andExpect(result -> assertTrue(result.getResolvedException() instanceof EstornoNaoPermitidoException));
+    }
+
     //Quando a transacao é chamada pelo id, a transação é retornada
     @Test
     void whenTransactionByIdIsCalledThenIsReturned() throws Exception {
@@ -355,8 +523,8 @@ public class TransacaoControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(Math.toIntExact(transacaoDTO.getId()))))
                 .andExpect(jsonPath("$.cartao", is(transacaoDTO.getCartao())))
-                .andExpect(jsonPath("$.descricao.valor", is(transacaoDTO.getDescricao().getValor())))
-                .andExpect(jsonPath("$.descricao.dataHora", is(transacaoDTO.getDescricao().getDataHora())))
+                .andExpect(jsonPath("$.descricao.valor", is("500.50")))
+                .andExpect(jsonPath("$.descricao.dataHora", is("01/05/2021 18:00:00")))
                 .andExpect(jsonPath("$.descricao.estabelecimento", is(transacaoDTO.getDescricao().getEstabelecimento())))
                 .andExpect(jsonPath("$.descricao.nsu", is(transacaoDTO.getDescricao().getNsu())))
                 .andExpect(jsonPath("$.descricao.codigoAutorizacao", is(transacaoDTO.getDescricao().getCodigoAutorizacao())))
@@ -409,8 +577,8 @@ public class TransacaoControllerTest {
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.[0].id", is(Math.toIntExact(transacaoDTO1.getId()))))
                     .andExpect(jsonPath("$.[0].cartao", is(transacaoDTO1.getCartao())))
-                    .andExpect(jsonPath("$.[0].descricao.valor", is(transacaoDTO1.getDescricao().getValor())))
-                    .andExpect(jsonPath("$.[0].descricao.dataHora", is(transacaoDTO1.getDescricao().getDataHora())))
+                    .andExpect(jsonPath("$.[0].descricao.valor", is("500.50")))
+                    .andExpect(jsonPath("$.[0].descricao.dataHora", is("01/05/2021 18:00:00")))
                     .andExpect(jsonPath("$.[0].descricao.estabelecimento", is(transacaoDTO1.getDescricao().getEstabelecimento())))
                     .andExpect(jsonPath("$.[0].descricao.nsu", is(transacaoDTO1.getDescricao().getNsu())))
                     .andExpect(jsonPath("$.[0].descricao.codigoAutorizacao", is(transacaoDTO1.getDescricao().getCodigoAutorizacao())))
@@ -419,8 +587,8 @@ public class TransacaoControllerTest {
                     .andExpect(jsonPath("$.[0].formaPagamento.parcelas", is(transacaoDTO1.getFormaPagamento().getParcelas())))
                     .andExpect(jsonPath("$.[1].id", is(Math.toIntExact(transacaoDTO2.getId()))))
                     .andExpect(jsonPath("$.[1].cartao", is(transacaoDTO2.getCartao())))
-                    .andExpect(jsonPath("$.[1].descricao.valor", is(transacaoDTO2.getDescricao().getValor())))
-                    .andExpect(jsonPath("$.[1].descricao.dataHora", is(transacaoDTO2.getDescricao().getDataHora())))
+                    .andExpect(jsonPath("$.[1].descricao.valor", is("500.50")))
+                    .andExpect(jsonPath("$.[1].descricao.dataHora", is("01/05/2021 18:00:00")))
                     .andExpect(jsonPath("$.[1].descricao.estabelecimento", is(transacaoDTO2.getDescricao().getEstabelecimento())))
                     .andExpect(jsonPath("$.[1].descricao.nsu", is(transacaoDTO2.getDescricao().getNsu())))
                     .andExpect(jsonPath("$.[1].descricao.codigoAutorizacao", is(transacaoDTO2.getDescricao().getCodigoAutorizacao())))
@@ -428,4 +596,262 @@ public class TransacaoControllerTest {
                     .andExpect(jsonPath("$.[1].formaPagamento.tipo", is(transacaoDTO2.getFormaPagamento().getTipo().toString())))
                     .andExpect(jsonPath("$.[1].formaPagamento.parcelas", is(transacaoDTO2.getFormaPagamento().getParcelas())));
     }
+
+    // Quando uma página é solicitada, o conteúdo e o próximo cursor são retornados
+    @Test
+    void whenPageIsCalledThenContentAndNextCursorAreReturned() throws Exception {
+
+        //Dado
+
+            TransacaoDTO transacaoDTO = TransacaoDTOBuilder.builder().build().toTransacaoDTO();
+
+            PaginaTransacaoDTO paginaDTO = new PaginaTransacaoDTO(List.of(transacaoDTO), "MQ");
+
+        //Quando
+
+            //transacaoService.procurarPagina(null, 1) -> paginaDTO
+            when(transacaoService.procurarPagina(null, 1))
+                    .thenReturn(paginaDTO);
+
+        // Então
+
+            mockMvc.perform(get("/transacao/v1/pagina")
+                            .param("tamanho", "1")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.conteudo[0].id", is(Math.toIntExact(transacaoDTO.getId()))))
+                    .andExpect(jsonPath("$.conteudo[0].cartao", is(transacaoDTO.getCartao())))
+                    .andExpect(jsonPath("$.proximoCursor", is("MQ")));
+    }
+
+    // Quando uma página é solicitada com um cursor inválido, uma exceção deve ser retornada
+    @Test
+    void whenPageIsCalledWithInvalidCursorThenAnExceptionIsReturned() throws Exception {
+
+        //Quando
+
+            when(transacaoService.procurarPagina("invalido", null))
+                    .thenThrow(CursorInvalidoException.class);
+
+        // Então
+
+            mockMvc.perform(get("/transacao/v1/pagina")
+                            .param("cursor", "invalido")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(result -> assertTrue(result.getResolvedException() instanceof CursorInvalidoException));
+    }
+
+    // Quando a busca é chamada, os parâmetros da requisição preenchem os filtros e a página é retornada
+    @Test
+    void whenSearchIsCalledThenQueryParametersFillTheFilter() throws Exception {
+
+        //Dado
+
+            TransacaoDTO transacaoDTO = TransacaoDTOBuilder.builder().build().toTransacaoDTO();
+            FiltroTransacaoDTO filtro = new FiltroTransacaoDTO("PetShop Mundo cão", StatusEnum.AUTORIZADO, TipoEnum.AVISTA,
+                    "01/05/2021 00:00:00", "01/05/2021 23:59:59", "1234");
+
+        //Quando
+
+            when(transacaoService.buscar(filtro, null, 10))
+                    .thenReturn(new PaginaTransacaoDTO(List.of(transacaoDTO), null));
+
+        // Então
+
+            mockMvc.perform(get("/transacao/v1/busca")
+                            .param("estabelecimento", "PetShop Mundo cão")
+                            .param("status", "AUTORIZADO")
+                            .param("tipo", "AVISTA")
+                            .param("inicio", "01/05/2021 00:00:00")
+                            .param("fim", "01/05/2021 23:59:59")
+                            .param("finalCartao", "1234")
+                            .param("tamanho", "10"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.conteudo[0].cartao", is(transacaoDTO.getCartao())))
+                    .andExpect(jsonPath("$.proximoCursor", is(nullValue())));
+    }
+
+    // Quando a busca é chamada com um filtro inválido, uma exceção deve ser retornada
+    @Test
+    void whenSearchIsCalledWithInvalidFilterThenAnExceptionIsReturned() throws Exception {
+
+        //Quando
+
+            when(transacaoService.buscar(new FiltroTransacaoDTO(null, null, null, "ontem", null, null), null, null))
+                    .thenThrow(FiltroInvalidoException.class);
+
+        // Então
+
+            mockMvc.perform(get("/transacao/v1/busca")
+                            .param("inicio", "ontem"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.status", is(400)));
+    }
+
+    // Quando o relatório é chamado, os agrupamentos separados por vírgula preenchem o filtro e os totais são retornados
+    @Test
+    void whenReportIsCalledThenGroupingsFillTheFilterAndTotalsAreReturned() throws Exception {
+
+        //Dado
+
+            FiltroRelatorioDTO filtro = new FiltroRelatorioDTO(List.of(AgrupamentoEnum.ESTABELECIMENTO, AgrupamentoEnum.DIA),
+                    "01/05/2021", "31/05/2021", null, StatusEnum.AUTORIZADO, null);
+            TotalDTO totalDTO = new TotalDTO(LocalDate.of(2021, 5, 1), "PetShop Mundo cão", null, null, null, 3L,
+                    new BigDecimal("1501.50"), new BigDecimal("500.50"));
+
+        //Quando
+
+            when(transacaoService.totalizar(filtro))
+                    .thenReturn(List.of(totalDTO));
+
+        // Então
+
+            mockMvc.perform(get("/transacao/v1/relatorio")
+                            .param("agrupamento", "ESTABELECIMENTO,DIA")
+                            .param("inicio", "01/05/2021")
+                            .param("fim", "31/05/2021")
+                            .param("status", "AUTORIZADO"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].dia", is("01/05/2021")))
+                    .andExpect(jsonPath("$[0].estabelecimento", is("PetShop Mundo cão")))
+                    .andExpect(jsonPath("$[0].quantidade", is(3)))
+                    .andExpect(jsonPath("$[0].total", is("1501.50")))
+                    .andExpect(jsonPath("$[0].media", is("500.50")))
+                    //Dimensões não agrupadas ficam fora do JSON
+                    .andExpect(jsonPath("$[0].status").doesNotExist());
+    }
+
+    // Quando o relatório é chamado com um período inválido, uma exceção deve ser retornada
+    @Test
+    void whenReportIsCalledWithInvalidPeriodThenAnExceptionIsReturned() throws Exception {
+
+        //Quando
+
+            when(transacaoService.totalizar(FiltroRelatorioDTO.builder().inicio("2021-05-01").build()))
+                    .thenThrow(RelatorioInvalidoException.class);
+
+        // Então
+
+            mockMvc.perform(get("/transacao/v1/relatorio")
+                            .param("inicio", "2021-05-01"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.status", is(400)));
+    }
+
+    // Quando a exportação é chamada, as transações são retornadas uma por linha (NDJSON)
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenExportIsCalledThenTransactionsAreStreamedOnePerLine() throws Exception {
+
+        //Dado
+
+            TransacaoDTO transacaoDTO1 = TransacaoDTOBuilder.builder().id(1L).build().toTransacaoDTO();
+            TransacaoDTO transacaoDTO2 = TransacaoDTOBuilder.builder().id(2L).build().toTransacaoDTO();
+
+        //Quando
+
+            //transacaoService.transmitirTodos(consumidor) -> consumidor recebe transacaoDTO1 e transacaoDTO2
+            doAnswer(invocation -> {
+                Consumer<TransacaoDTO> consumidor = invocation.getArgument(0);
+                consumidor.accept(transacaoDTO1);
+                consumidor.accept(transacaoDTO2);
+                return null;
+            }).when(transacaoService).transmitirTodos(any(Consumer.class));
+
+        // Então
+
+            //O corpo é escrito de forma assíncrona: aguarda o início do processamento e despacha o resultado
+            MvcResult mvcResult = mockMvc.perform(get("/transacao/v1/exportacao"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(mvcResult))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("application/x-ndjson"))
+                    .andExpect(content().bytes((
+                            objectMapper.writeValueAsString(transacaoDTO1) + "\n" + objectMapper.writeValueAsString(transacaoDTO2) + "\n")
+                            .getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // Quando um lote de pagamentos é enviado, o resultado de cada item é retornado pelo índice
+    @Test
+    void whenBatchPaymentIsCalledThenAResultPerItemIsReturned() throws Exception {
+
+        //Dado
+
+            TransacaoDTO transacaoDTO = TransacaoDTOBuilder.builder().build().toTransacaoDTO();
+
+            Transacao transacao = (Transacao) Mapper.convert(transacaoDTO, Transacao.class);
+            transacao.setId(null);
+            transacao.getDescricao().setId(null);
+            transacao.getDescricao().setNsu(null);
+            transacao.getDescricao().setCodigoAutorizacao(null);
+            transacao.getDescricao().setStatus(null);
+            transacao.getFormaPagamento().setId(null);
+
+            List<ResultadoPagamentoDTO> resultados = List.of(
+                    new ResultadoPagamentoDTO(0, transacaoDTO, null),
+                    new ResultadoPagamentoDTO(1, null, new ResponseErrorDTO(400, "Bad Request", "cartao: must not be blank")));
+
+        //Quando
+
+            //transacaoService.pagarEmLote([transacao, transacao]) -> resultados
+            when(transacaoService.pagarEmLote(List.of(transacao, transacao)))
+                    .thenReturn(resultados);
+
+        // Então
+
+            mockMvc.perform(post("/transacao/v1/pagamentos")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(List.of(transacao, transacao))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.[0].indice", is(0)))
+                    .andExpect(jsonPath("$.[0].transacao.id", is(Math.toIntExact(transacaoDTO.getId()))))
+                    .andExpect(jsonPath("$.[0].erro").doesNotExist())
+                    .andExpect(jsonPath("$.[1].indice", is(1)))
+                    .andExpect(jsonPath("$.[1].transacao").doesNotExist())
+                    .andExpect(jsonPath("$.[1].erro.status", is(400)));
+    }
+
+    // Quando o stream é chamado com Last-Event-ID, a assinatura é retomada da posição e os eventos são enviados como SSE
+    @Test
+    void whenStreamIsCalledWithLastEventIdThenEventsAreSentFromThatPosition() throws Exception {
+
+        //Dado
+
+            EventoDTO eventoDTO = new EventoDTO(3L, 7L, 1L, TipoEventoEnum.ESTORNO, null, "{\"id\":1}");
+
+        //Quando
+
+            //feedEventosService.assinar(6, assinante) -> assinante recebe eventoDTO
+            when(feedEventosService.assinar(eq(6L), any(AssinanteFeed.class))).thenAnswer(invocation -> {
+                AssinanteFeed assinante = invocation.getArgument(1);
+                assinante.enviar(List.of(eventoDTO));
+                return (Runnable) () -> { };
+            });
+
+        // Então
+
+            mockMvc.perform(get("/transacao/v1/stream").header("Last-Event-ID", "6").param("apos", "1"))
+                    .andExpect(request().asyncStarted())
+                    .andExpect(content().string(containsString("id:7\nevent:ESTORNO\ndata:{\"id\":3,\"posicao\":7,")))
+                    .andExpect(content().string(containsString("\"transacao\":{\"id\":1}}")));
+    }
+
+    // Quando o limite de assinantes do stream foi atingido, uma exceção é retornada
+    @Test
+    void whenStreamSubscriberLimitIsReachedThenAnExceptionIsReturned() throws Exception {
+
+        //Quando
+
+            //feedEventosService.assinar(null, assinante) -> LimiteAssinantesException
+            when(feedEventosService.assinar(eq(null), any(AssinanteFeed.class))).thenThrow(LimiteAssinantesException.class);
+
+        // Então
+
+            mockMvc.perform(get("/transacao/v1/stream"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(jsonPath("$.status", is(503)));
+    }
 }
@@ -0,0 +1,189 @@
+package com.api.pagamento.controller;
+
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.core.Is.is;
+
+/*
+    Testes de integração da api reativa
+
+        Sobe a aplicação no perfil reativo (WebFlux + R2DBC) sobre o H2 em memória do perfil teste e faz as requisições
+        pelo WebTestClient, passando pelo controller, pelo serviço e pelos repositórios R2DBC.
+        O @SpringBootTest decide o tipo da aplicação antes de ler os arquivos dos perfis, por isso o
+        web-application-type do application-reativo.yaml é repetido aqui (senão o teste subiria o Tomcat).
+        O pool do R2DBC tem uma única conexão e o emissor simulado responde depois de LATENCIA: um pagamento que
+        prendesse a conexão durante a autorização faria o seguinte esperar por ela.
+
+*/
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.r2dbc.pool.initial-size=1",
+        "spring.r2dbc.pool.max-size=1",
+        "api-pagamento.autorizador.simulado.latencia=500ms"})
+@ActiveProfiles({"reativo", "teste"})
+public class TransacaoReativoControllerTest {
+
+    private static final String URL = "/transacao/v1";
+
+    private static final Duration LATENCIA = Duration.ofMillis(500);
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    // Quando um pagamento é realizado, a transação autorizada pode ser procurada pelo id
+    @Test
+    void whenPaymentIsMadeThenTransactionCanBeSearchedById() {
+
+        //Quando
+
+            TransacaoDTO transacao = pagar();
+
+        //Então
+
+            assertThat(transacao.getId(), is(notNullValue()));
+            assertThat(transacao.getDescricao().getStatus(), is(equalTo(StatusEnum.AUTORIZADO)));
+
+            webTestClient.get().uri(URL + "/" + transacao.getId())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.cartao").isEqualTo("4444********1234")
+                    .jsonPath("$.descricao.estabelecimento").isEqualTo("PetShop Mundo cão")
+                    .jsonPath("$.formaPagamento.tipo").isEqualTo("AVISTA");
+
+    }
+
+    // Quando dois pagamentos esperam o emissor ao mesmo tempo, a única conexão do pool não é presa por nenhum deles
+    @Test
+    void whenTwoPaymentsWaitForTheIssuerAtTheSameTimeThenBothFinishInAboutOneLatency() {
+
+        //Dado
+
+            //Reserva o bloco de nsus antes da medição
+            pagar();
+
+        //Quando
+
+            long inicio = System.nanoTime();
+            CompletableFuture<TransacaoDTO> primeiro = CompletableFuture.supplyAsync(this::pagar);
+            CompletableFuture<TransacaoDTO> segundo = CompletableFuture.supplyAsync(this::pagar);
+            CompletableFuture.allOf(primeiro, segundo).join();
+            Duration duracao = Duration.ofNanos(System.nanoTime() - inicio);
+
+        //Então
+
+            assertThat(primeiro.join().getDescricao().getStatus(), is(equalTo(StatusEnum.AUTORIZADO)));
+            assertThat(segundo.join().getDescricao().getStatus(), is(equalTo(StatusEnum.AUTORIZADO)));
+            //Com a conexão presa durante a autorização, o segundo terminaria depois de duas latências
+            assertThat(duracao, is(lessThan(LATENCIA.multipliedBy(2).minusMillis(100))));
+
+    }
+
+    // Quando a transação é estornada duas vezes, a primeira nega a transação e a segunda é rejeitada
+    @Test
+    void whenTransactionIsReversedTwiceThenTheSecondReversalIsRejected() {
+
+        //Dado
+
+            TransacaoDTO transacao = pagar();
+
+        //Quando e Então
+
+            webTestClient.put().uri(URL + "/estorno/" + transacao.getId())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.descricao.status").isEqualTo("NEGADO");
+
+            webTestClient.put().uri(URL + "/estorno/" + transacao.getId())
+                    .exchange()
+                    .expectStatus().isEqualTo(409)
+                    .expectBody()
+                    .jsonPath("$.message").isEqualTo("A transação já foi estornada");
+
+    }
+
+    // Quando a transação não existe, a resposta é 404
+    @Test
+    void whenTransactionDoesNotExistThenNotFoundIsReturned() {
+
+        webTestClient.get().uri(URL + "/" + Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        webTestClient.put().uri(URL + "/estorno/" + Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound();
+
+    }
+
+    // Quando o usuário informa o status, o pagamento é rejeitado com 400
+    @Test
+    void whenStatusIsInformedThenPaymentIsRejected() {
+
+        Transacao transacao = novaTransacao();
+        transacao.getDescricao().setStatus(StatusEnum.AUTORIZADO);
+
+        webTestClient.post().uri(URL + "/pagamento")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(transacao)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+    }
+
+    // Quando as transações são exportadas, cada uma é transmitida em uma linha NDJSON
+    @Test
+    void whenTransactionsAreExportedThenEachOneIsStreamedAsNdjson() {
+
+        pagar();
+
+        webTestClient.get().uri(URL + "/exportacao")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(TransacaoDTO.class)
+                .value(transacoes -> assertThat(transacoes.isEmpty(), is(false)));
+
+    }
+
+    private TransacaoDTO pagar() {
+        return webTestClient.post().uri(URL + "/pagamento")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(novaTransacao())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TransacaoDTO.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private Transacao novaTransacao() {
+        return new Transacao(null, "4444********1234",
+                new Descricao(null, new BigDecimal("500.50"), DataHoraCodec.ler("01/05/2021 18:00:00"), "PetShop Mundo cão", null, null, null),
+                new FormaPagamento(null, TipoEnum.AVISTA, "1"));
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.api.pagamento.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+//StatementInspector registrado no perfil teste (hibernate.session_factory.statement_inspector).
+//Guarda toda instrução SQL preparada pelo Hibernate, para que os testes contem inserts e chamadas de sequence.
+
+public class ContadorInstrucoesSql implements StatementInspector {
+
+    private static final List<String> INSTRUCOES = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        INSTRUCOES.add(sql.toLowerCase(Locale.ROOT));
+        return sql;
+    }
+
+    public static void limpar() {
+        INSTRUCOES.clear();
+    }
+
+    public static long contar(String trecho) {
+        return INSTRUCOES.stream().filter(sql -> sql.contains(trecho)).count();
+    }
+
+    //Última instrução que contém o trecho (ex: para executar um EXPLAIN dela)
+    public static String ultima(String trecho) {
+        for (int i = INSTRUCOES.size() - 1; i >= 0; i--) {
+            if (INSTRUCOES.get(i).contains(trecho)) {
+                return INSTRUCOES.get(i);
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,259 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.config.EventosProperties;
+import com.api.pagamento.config.ArquivoProperties;
+import com.api.pagamento.config.AutorizadorProperties;
+import com.api.pagamento.config.LoteProperties;
+import com.api.pagamento.config.ReplicasProperties;
+import com.api.pagamento.config.StreamProperties;
+import com.api.pagamento.domain.dto.EventoDTO;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.enumeration.TipoEventoEnum;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.service.FeedEventosServiceImp;
+import com.api.pagamento.service.RelayEventosService;
+import com.api.pagamento.service.RelayEventosServiceImp;
+import com.api.pagamento.repository.replica.EscritasRecentes;
+import com.api.pagamento.service.TransacaoService;
+import com.api.pagamento.service.TransacaoServiceImp;
+import com.api.pagamento.service.publicador.PublicadorEventosFila;
+import com.api.pagamento.service.stream.AssinanteFeed;
+import com.api.pagamento.service.arquivo.ArquivoTransacoes;
+import com.api.pagamento.service.autorizador.AutorizadorSimulado;
+import com.api.pagamento.service.autorizador.ClienteAutorizador;
+import com.api.pagamento.service.identificador.GeradorIdentificadores;
+import com.api.pagamento.service.util.MetricasMapeamento;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+/*
+    Testes de integração do outbox de eventos
+
+        Os pagamentos e estornos são feitos pelo serviço e os eventos são publicados pelo relay na fila em memória
+        (PublicadorEventosFila), sem broker externo, e transmitidos pelo stream a assinantes que os guardam em filas.
+        Sem a transação do teste (NOT_SUPPORTED): cada lote do relay é gravado ou desfeito de verdade, e as tabelas são
+        limpas ao final. O buffer do stream guarda apenas 2 eventos, para que os assinantes atrasados leiam da tabela.
+
+*/
+
+@DataJpaTest(properties = {"api-pagamento.eventos.destino=fila", "api-pagamento.stream.capacidade=2"})
+@ActiveProfiles("teste")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransacaoServiceImp.class, ClienteAutorizador.class, AutorizadorSimulado.class, GeradorIdentificadores.class,
+        SequenciaJdbcRepository.class, RelayEventosServiceImp.class, FeedEventosServiceImp.class, PublicadorEventosFila.class,
+        MetricasMapeamento.class, SimpleMeterRegistry.class, ArquivoTransacoes.class, EscritasRecentes.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@EnableConfigurationProperties({LoteProperties.class, AutorizadorProperties.class, EventosProperties.class, StreamProperties.class, ArquivoProperties.class, ReplicasProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EventoRepositoryTest {
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private RelayEventosService relayEventosService;
+
+    @Autowired
+    private FeedEventosServiceImp feedEventosService;
+
+    @SpyBean
+    private PublicadorEventosFila publicadorEventosFila;
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private ResumoDiarioRepository resumoDiarioRepository;
+
+    @Autowired
+    private EventosProperties eventosProperties;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        //Lotes de 2 eventos: os 3 eventos abaixo são publicados em duas transações do relay
+        eventosProperties.setTamanhoLote(2);
+        eventosProperties.setRetencao(Duration.ofHours(24));
+        publicadorEventosFila.getFila().clear();
+
+        pagar("PetShop Mundo cão");
+        pagar("Mercado Central");
+        transacaoService.estornar(ids.get(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventoRepository.deleteAllInBatch();
+        transacaoRepository.deleteAllInBatch();
+        resumoDiarioRepository.deleteAllInBatch();
+    }
+
+    // Quando pagamentos e estornos são feitos, o relay publica os eventos na ordem em que foram gravados e atribui a eles posições crescentes
+    @Test
+    void whenPaymentsAndReversalAreMadeThenEventsArePublishedInOrderWithIncreasingPositions() {
+
+        assertThat(pendentes(), is(equalTo(3L)));
+
+        assertThat(relayEventosService.publicarPendentes(), is(equalTo(3)));
+
+        List<EventoDTO> publicados = new ArrayList<>(publicadorEventosFila.getFila());
+        assertThat(publicados.stream().map(evento -> evento.getTipo() + " " + evento.getTransacaoId()).collect(Collectors.toList()),
+                contains("PAGAMENTO " + ids.get(0), "PAGAMENTO " + ids.get(1), "ESTORNO " + ids.get(0)));
+        //O evento traz a transação como ela estava quando o evento foi gravado
+        assertThat(publicados.get(0).getTransacao(), containsString("\"status\":\"AUTORIZADO\""));
+        assertThat(publicados.get(2).getTransacao(), containsString("\"status\":\"NEGADO\""));
+        assertThat(publicados.get(2).getTipo(), is(equalTo(TipoEventoEnum.ESTORNO)));
+        assertThat(posicoes(publicados), is(equalTo(posicoes(publicados).stream().sorted().distinct().collect(Collectors.toList()))));
+
+        assertThat(pendentes(), is(equalTo(0L)));
+        assertThat(relayEventosService.publicarPendentes(), is(equalTo(0)));
+
+        //Os publicados ficam na tabela até o fim da retenção
+        assertThat(eventoRepository.count(), is(equalTo(3L)));
+        eventosProperties.setRetencao(Duration.ZERO);
+        relayEventosService.apagarPublicados();
+        assertThat(eventoRepository.count(), is(equalTo(0L)));
+
+    }
+
+    // Quando a publicação de um lote falha, os eventos dele continuam pendentes e são publicados na próxima execução
+    @Test
+    void whenPublisherFailsThenTheBatchStaysPendingAndIsPublishedAgain() {
+
+        doThrow(new IllegalStateException("destino indisponível"))
+                .doCallRealMethod()
+                .when(publicadorEventosFila).publicar(any());
+
+        assertThrows(IllegalStateException.class, () -> relayEventosService.publicarPendentes());
+        assertThat(pendentes(), is(equalTo(3L)));
+        assertThat(publicadorEventosFila.getFila().size(), is(equalTo(0)));
+
+        assertThat(relayEventosService.publicarPendentes(), is(equalTo(3)));
+        List<Long> publicados = publicadorEventosFila.getFila().stream().map(EventoDTO::getId).collect(Collectors.toList());
+        assertThat(publicados, is(equalTo(publicados.stream().sorted().collect(Collectors.toList()))));
+        assertThat(publicados.size(), is(equalTo(3)));
+        assertThat(pendentes(), is(equalTo(0L)));
+
+    }
+
+    // Quando os eventos são publicados, o stream os envia aos assinantes na ordem, e um assinante pode retomar a partir de qualquer posição
+    @Test
+    void whenEventsArePublishedThenSubscribersReceiveThemInOrderAndCanResumeFromAnyPosition() throws Exception {
+
+        //Assina antes da publicação: recebe apenas os eventos novos
+        FilaAssinante novos = new FilaAssinante();
+        Runnable cancelarNovos = feedEventosService.assinar(null, novos);
+
+        relayEventosService.publicarPendentes();
+        feedEventosService.atualizar();
+
+        List<EventoDTO> recebidos = novos.receber(3);
+        assertThat(recebidos.stream().map(evento -> evento.getTipo() + " " + evento.getTransacaoId()).collect(Collectors.toList()),
+                contains("PAGAMENTO " + ids.get(0), "PAGAMENTO " + ids.get(1), "ESTORNO " + ids.get(0)));
+        assertThat(posicoes(recebidos), is(equalTo(posicoes(new ArrayList<>(publicadorEventosFila.getFila())))));
+
+        //Retomada a partir do primeiro evento: os seguintes ainda estão no buffer
+        FilaAssinante retomado = new FilaAssinante();
+        Runnable cancelarRetomado = feedEventosService.assinar(recebidos.get(0).getPosicao(), retomado);
+        assertThat(posicoes(retomado.receber(2)), is(equalTo(posicoes(recebidos.subList(1, 3)))));
+
+        //Retomada a partir do início: o primeiro evento já saiu do buffer (capacidade 2) e é lido da tabela
+        FilaAssinante atrasado = new FilaAssinante();
+        Runnable cancelarAtrasado = feedEventosService.assinar(0L, atrasado);
+        assertThat(posicoes(atrasado.receber(3)), is(equalTo(posicoes(recebidos))));
+
+        cancelarNovos.run();
+        cancelarRetomado.run();
+        cancelarAtrasado.run();
+
+    }
+
+    private long pendentes() {
+        return eventoRepository.findAll().stream().filter(evento -> evento.getPosicao() == null).count();
+    }
+
+    private static List<Long> posicoes(List<EventoDTO> eventos) {
+        return eventos.stream().map(EventoDTO::getPosicao).collect(Collectors.toList());
+    }
+
+    private void pagar(String estabelecimento) throws Exception {
+        Transacao transacao = new Transacao(null, "4444********1234",
+                new Descricao(null, new BigDecimal("500.50"), DataHoraCodec.ler("01/05/2021 18:00:00"), estabelecimento, null, null, null),
+                new FormaPagamento(null, TipoEnum.AVISTA, "1"));
+        ids.add(transacaoService.pagar(transacao).getId());
+    }
+
+    //Assinante do stream que guarda os eventos recebidos em uma fila
+    private static class FilaAssinante implements AssinanteFeed {
+
+        private final BlockingQueue<EventoDTO> fila = new LinkedBlockingQueue<>();
+
+        @Override
+        public void enviar(List<EventoDTO> eventos) {
+            fila.addAll(eventos);
+        }
+
+        @Override
+        public void manterConexao() {
+        }
+
+        @Override
+        public void encerrar() {
+        }
+
+        //Os eventos são enviados pelas threads do stream: aguarda até que a quantidade esperada chegue
+        List<EventoDTO> receber(int quantidade) throws InterruptedException {
+            List<EventoDTO> recebidos = new ArrayList<>();
+            while (recebidos.size() < quantidade) {
+                EventoDTO evento = fila.poll(5, TimeUnit.SECONDS);
+                assertThat("evento não recebido", evento, is(notNullValue()));
+                recebidos.add(evento);
+            }
+            assertThat(fila.poll(100, TimeUnit.MILLISECONDS), is(nullValue()));
+            return recebidos;
+        }
+
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.config.IdempotenciaProperties;
+import com.api.pagamento.config.ArquivoProperties;
+import com.api.pagamento.config.AutorizadorProperties;
+import com.api.pagamento.config.LoteProperties;
+import com.api.pagamento.config.ReplicasProperties;
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.service.IdempotenciaService;
+import com.api.pagamento.service.IdempotenciaServiceImp;
+import com.api.pagamento.repository.replica.EscritasRecentes;
+import com.api.pagamento.service.TransacaoService;
+import com.api.pagamento.service.TransacaoServiceImp;
+import com.api.pagamento.service.arquivo.ArquivoTransacoes;
+import com.api.pagamento.service.autorizador.AutorizadorSimulado;
+import com.api.pagamento.service.autorizador.ClienteAutorizador;
+import com.api.pagamento.service.identificador.GeradorIdentificadores;
+import com.api.pagamento.service.util.MetricasMapeamento;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.core.Is.is;
+
+/*
+    Testes de integração do pagamento idempotente
+
+        Assim como o pagamento em lote, o serviço controla a própria transação, por isso o teste não roda dentro da
+        transação do @DataJpaTest: os dados são realmente gravados no H2 e apagados ao final.
+
+*/
+
+@DataJpaTest
+@ActiveProfiles("teste")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransacaoServiceImp.class, ClienteAutorizador.class, AutorizadorSimulado.class, GeradorIdentificadores.class,
+        SequenciaJdbcRepository.class, IdempotenciaServiceImp.class, MetricasMapeamento.class, SimpleMeterRegistry.class, ArquivoTransacoes.class, EscritasRecentes.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@EnableConfigurationProperties({LoteProperties.class, AutorizadorProperties.class, IdempotenciaProperties.class, ArquivoProperties.class, ReplicasProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class IdempotenciaRepositoryTest {
+
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private ResumoDiarioRepository resumoDiarioRepository;
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private IdempotenciaRepository idempotenciaRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private IdempotenciaProperties idempotenciaProperties;
+
+    //O serviço é o mesmo em todos os testes (e guarda as chaves na memória), então cada teste usa uma chave própria
+    private String chave;
+
+    @BeforeEach
+    void setUp() {
+        chave = UUID.randomUUID().toString();
+        ContadorInstrucoesSql.limpar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        idempotenciaRepository.deleteAllInBatch();
+        transacaoRepository.deleteAllInBatch();
+        resumoDiarioRepository.deleteAllInBatch();
+        eventoRepository.deleteAllInBatch();
+    }
+
+    // Quando a mesma chave é reenviada, a transação original é retornada e nenhum insert é executado
+    @Test
+    void whenSameKeyIsSentAgainThenOriginalTransactionIsReturnedWithoutInserts() throws Exception {
+
+        TransacaoDTO original = idempotenciaService.pagar(chave, novaTransacao());
+        ContadorInstrucoesSql.limpar();
+
+        TransacaoDTO retentativa = idempotenciaService.pagar(chave, novaTransacao());
+
+        assertThat(retentativa, is(equalTo(original)));
+        assertThat(ContadorInstrucoesSql.contar("insert into"), is(equalTo(0L)));
+        assertThat(ContadorInstrucoesSql.contar("select"), is(equalTo(0L)));
+        assertThat(transacaoRepository.count(), is(equalTo(1L)));
+
+    }
+
+    // Quando a chave não está mais na memória (ex: restart), ela é encontrada no banco e nenhum pagamento é realizado
+    @Test
+    void whenKeyIsNoLongerInMemoryThenItIsFoundInTheDatabase() throws Exception {
+
+        TransacaoDTO original = idempotenciaService.pagar(chave, novaTransacao());
+        ContadorInstrucoesSql.limpar();
+
+        //Uma nova instância do serviço começa com a memória vazia, como após um restart
+        IdempotenciaService aposRestart = new IdempotenciaServiceImp(transacaoService, transacaoRepository,
+                idempotenciaRepository, transactionTemplate, idempotenciaProperties);
+        TransacaoDTO retentativa = aposRestart.pagar(chave, novaTransacao());
+
+        assertThat(retentativa, is(equalTo(original)));
+        assertThat(ContadorInstrucoesSql.contar("insert into"), is(equalTo(0L)));
+        assertThat(transacaoRepository.count(), is(equalTo(1L)));
+
+    }
+
+    private Transacao novaTransacao() {
+        return new Transacao(null, "4444********1234",
+                new Descricao(null, new BigDecimal("500.50"), DataHoraCodec.ler("01/05/2021 18:00:00"), "PetShop Mundo cão", null, null, null),
+                new FormaPagamento(null, TipoEnum.AVISTA, "1"));
+    }
+
+}
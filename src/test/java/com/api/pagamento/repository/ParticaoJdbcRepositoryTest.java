@@ -0,0 +1,64 @@
+package com.api.pagamento.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+
+/*
+    Testes de unidade do SQL do ParticaoJdbcRepository
+
+        O JdbcTemplate é simulado: os testes conferem as instruções montadas com o nome e os limites da partição (o DDL
+        não aceita parâmetros). A execução delas no PostgreSQL é testada pelo TransacaoParticionadaRepositoryTest.
+
+*/
+
+@ExtendWith(MockitoExtension.class)
+public class ParticaoJdbcRepositoryTest {
+
+    private static final OffsetDateTime INICIO = OffsetDateTime.of(2026, 11, 1, 0, 0, 0, 0, ZoneOffset.ofHours(-3));
+
+    private static final OffsetDateTime FIM = OffsetDateTime.of(2026, 12, 1, 0, 0, 0, 0, ZoneOffset.ofHours(-3));
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ParticaoJdbcRepository particaoJdbcRepository;
+
+    // Quando a partição é criada, a tabela nova recebe as linhas do intervalo que estavam na padrão e só então é anexada
+    @Test
+    void whenPartitionIsCreatedThenDefaultRowsAreMovedBeforeTheAttach() {
+
+        particaoJdbcRepository.criar("transacao_2026_11", INICIO, FIM);
+
+        InOrder ordem = inOrder(jdbcTemplate);
+        ordem.verify(jdbcTemplate).execute("create table transacao_2026_11 (like transacao including defaults including constraints)");
+        ordem.verify(jdbcTemplate).update("with movidas as (delete from transacao_padrao where data_hora >= ? and data_hora < ? returning *) " +
+                "insert into transacao_2026_11 select * from movidas", INICIO, FIM);
+        ordem.verify(jdbcTemplate).execute("alter table transacao attach partition transacao_2026_11 " +
+                "for values from ('2026-11-01T00:00-03:00') to ('2026-12-01T00:00-03:00')");
+        ordem.verifyNoMoreInteractions();
+
+    }
+
+    // Quando a partição é desanexada, apenas o detach é executado (a tabela e as linhas ficam)
+    @Test
+    void whenPartitionIsDetachedThenOnlyTheDetachIsExecuted() {
+
+        particaoJdbcRepository.desanexar("transacao_2024_09");
+
+        verify(jdbcTemplate).execute("alter table transacao detach partition transacao_2024_09");
+
+    }
+
+}
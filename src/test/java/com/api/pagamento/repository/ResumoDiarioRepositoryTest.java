@@ -0,0 +1,226 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.config.ArquivoProperties;
+import com.api.pagamento.config.AutorizadorProperties;
+import com.api.pagamento.config.LoteProperties;
+import com.api.pagamento.config.ReplicasProperties;
+import com.api.pagamento.domain.dto.FiltroRelatorioDTO;
+import com.api.pagamento.domain.dto.TotalDTO;
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.AgrupamentoEnum;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.exception.RelatorioInvalidoException;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.repository.replica.EscritasRecentes;
+import com.api.pagamento.service.TransacaoService;
+import com.api.pagamento.service.TransacaoServiceImp;
+import com.api.pagamento.service.arquivo.ArquivoTransacoes;
+import com.api.pagamento.service.autorizador.AutorizadorSimulado;
+import com.api.pagamento.service.autorizador.ClienteAutorizador;
+import com.api.pagamento.service.identificador.GeradorIdentificadores;
+import com.api.pagamento.service.util.MetricasMapeamento;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/*
+    Testes de integração do resumo diário e do relatório de totais
+
+        Os pagamentos e o estorno são feitos pelo serviço, que mantém o resumo_diario na mesma transação. Os totais do
+        relatório são conferidos com a mesma agregação feita diretamente nas transações.
+
+*/
+
+@DataJpaTest
+@ActiveProfiles("teste")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransacaoServiceImp.class, ClienteAutorizador.class, AutorizadorSimulado.class, GeradorIdentificadores.class,
+        SequenciaJdbcRepository.class, MetricasMapeamento.class, SimpleMeterRegistry.class, ArquivoTransacoes.class, EscritasRecentes.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@EnableConfigurationProperties({LoteProperties.class, AutorizadorProperties.class, ArquivoProperties.class, ReplicasProperties.class})
+public class ResumoDiarioRepositoryTest {
+
+    private static final String PETSHOP = "PetShop Mundo cão";
+
+    private static final String MERCADO = "Mercado Central";
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+
+        pagar(PETSHOP, "01/05/2021 08:00:00", "100.00", TipoEnum.AVISTA, "1");
+        pagar(PETSHOP, "01/05/2021 12:00:00", "50.25", TipoEnum.AVISTA, "1");
+        //23:30 em Brasília já é 02/05 em UTC: a transação é do dia 01/05
+        pagar(PETSHOP, "01/05/2021 23:30:00", "300.00", TipoEnum.PARCELADO_LOJA, "3");
+        pagar(MERCADO, "01/05/2021 09:00:00", "20.00", TipoEnum.AVISTA, "1");
+        pagar(MERCADO, "02/05/2021 10:00:00", "80.00", TipoEnum.PARCELADO_EMISSOR, "2");
+        pagar(PETSHOP, "02/05/2021 00:10:00", "10.00", TipoEnum.AVISTA, "1");
+
+        //O pagamento de 50.25 é estornado: sai de AUTORIZADO e entra em NEGADO
+        transacaoService.estornar(ids.get(1));
+
+        entityManager.flush();
+        entityManager.clear();
+        ContadorInstrucoesSql.limpar();
+    }
+
+    // Quando o relatório é agrupado por estabelecimento, status, tipo e parcelas, os totais são os das transações
+    @Test
+    void whenReportIsGroupedByMerchantStatusAndPaymentTypeThenTotalsMatchTheTransactions() throws Exception {
+
+        FiltroRelatorioDTO filtro = FiltroRelatorioDTO.builder()
+                .agrupamento(List.of(AgrupamentoEnum.ESTABELECIMENTO, AgrupamentoEnum.STATUS, AgrupamentoEnum.TIPO, AgrupamentoEnum.PARCELAS))
+                .build();
+
+        List<String> relatorio = transacaoService.totalizar(filtro).stream()
+                .map(total -> String.join("|", total.getEstabelecimento(), total.getStatus().name(), total.getTipo().name(),
+                        total.getParcelas(), total.getQuantidade().toString(), total.getTotal().toPlainString()))
+                .collect(Collectors.toList());
+
+        //Mesma agregação feita diretamente nas transações
+        List<String> esperado = entityManager.createQuery(
+                        "select d.estabelecimento, d.status, f.tipo, f.parcelas, count(t), sum(d.valor) " +
+                                "from Transacao t join t.descricao d join t.formaPagamento f " +
+                                "group by d.estabelecimento, d.status, f.tipo, f.parcelas " +
+                                "order by d.estabelecimento, d.status, f.tipo, f.parcelas", Object[].class)
+                .getResultList().stream()
+                .map(linha -> String.join("|", (String) linha[0], ((StatusEnum) linha[1]).name(), ((TipoEnum) linha[2]).name(),
+                        (String) linha[3], linha[4].toString(), ((BigDecimal) linha[5]).toPlainString()))
+                .collect(Collectors.toList());
+
+        assertThat(relatorio, is(equalTo(esperado)));
+        assertThat(relatorio.size(), is(equalTo(5)));
+
+    }
+
+    // Quando o relatório é agrupado por dia, o dia é o do horário de Brasília e a média é o total pela quantidade
+    @Test
+    void whenReportIsGroupedByDayThenDaysFollowBrasiliaTimeAndAverageIsComputed() throws Exception {
+
+        FiltroRelatorioDTO filtro = FiltroRelatorioDTO.builder()
+                .agrupamento(List.of(AgrupamentoEnum.DIA))
+                .status(StatusEnum.AUTORIZADO)
+                .estabelecimento(PETSHOP)
+                .build();
+
+        List<TotalDTO> relatorio = transacaoService.totalizar(filtro);
+
+        assertThat(relatorio.stream().map(TotalDTO::getDia).collect(Collectors.toList()),
+                contains(LocalDate.of(2021, 5, 1), LocalDate.of(2021, 5, 2)));
+        assertThat(relatorio.get(0).getQuantidade(), is(equalTo(2L)));
+        assertThat(relatorio.get(0).getTotal(), is(equalTo(new BigDecimal("400.00"))));
+        assertThat(relatorio.get(0).getMedia(), is(equalTo(new BigDecimal("200.00"))));
+        assertThat(relatorio.get(1).getQuantidade(), is(equalTo(1L)));
+        assertThat(relatorio.get(1).getTotal(), is(equalTo(new BigDecimal("10.00"))));
+
+    }
+
+    // Quando o relatório não tem agrupamento e é filtrado por período, uma única linha traz o total do período
+    @Test
+    void whenReportHasNoGroupingThenASingleRowHasThePeriodTotal() throws Exception {
+
+        FiltroRelatorioDTO filtro = FiltroRelatorioDTO.builder().inicio("02/05/2021").fim("02/05/2021").build();
+
+        List<TotalDTO> relatorio = transacaoService.totalizar(filtro);
+
+        assertThat(relatorio.size(), is(equalTo(1)));
+        assertThat(relatorio.get(0).getEstabelecimento(), is(equalTo(null)));
+        assertThat(relatorio.get(0).getQuantidade(), is(equalTo(2L)));
+        assertThat(relatorio.get(0).getTotal(), is(equalTo(new BigDecimal("90.00"))));
+        assertThat(relatorio.get(0).getMedia(), is(equalTo(new BigDecimal("45.00"))));
+
+    }
+
+    // Quando o relatório é filtrado por estabelecimento, o plano da consulta usa o índice do resumo diário
+    @Test
+    void whenReportIsFilteredByMerchantThenTheQueryPlanUsesTheIndex() throws Exception {
+
+        transacaoService.totalizar(FiltroRelatorioDTO.builder()
+                .agrupamento(List.of(AgrupamentoEnum.DIA))
+                .estabelecimento(MERCADO)
+                .inicio("01/05/2021")
+                .fim("31/05/2021")
+                .build());
+
+        String plano = explain(ContadorInstrucoesSql.ultima(" group by "));
+        assertThat(plano, containsString("idx_resumo_diario_estabelecimento_dia"));
+        assertThat(plano, not(containsString("tableScan")));
+
+    }
+
+    // Quando o período está fora do formato ou o início é posterior ao fim, uma exceção é lançada
+    @Test
+    void whenReportPeriodIsInvalidThenAnExceptionIsThrown() {
+
+        assertThrows(RelatorioInvalidoException.class,
+                () -> transacaoService.totalizar(FiltroRelatorioDTO.builder().inicio("2021-05-01").build()));
+        assertThrows(RelatorioInvalidoException.class,
+                () -> transacaoService.totalizar(FiltroRelatorioDTO.builder().inicio("02/05/2021").fim("01/05/2021").build()));
+
+    }
+
+    private void pagar(String estabelecimento, String dataHora, String valor, TipoEnum tipo, String parcelas) throws Exception {
+        Transacao transacao = new Transacao(null, "4444********1234",
+                new Descricao(null, new BigDecimal(valor), DataHoraCodec.ler(dataHora), estabelecimento, null, null, null),
+                new FormaPagamento(null, tipo, parcelas));
+        ids.add(pagarNaTransacaoDoTeste(transacao).getId());
+    }
+
+    //pagar grava em uma transação própria, que não seria desfeita ao final do teste: a autorização e a gravação são
+    //feitas separadamente, com a gravação (registrar) na transação do teste
+    private TransacaoDTO pagarNaTransacaoDoTeste(Transacao transacao) throws Exception {
+        return transacaoService.registrar(transacaoService.autorizar(transacao).join());
+    }
+
+    //EXPLAIN do H2: o índice usado aparece como /* public.idx_...: condição */
+    private String explain(String sql) throws Exception {
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement explain = conexao.prepareStatement("explain " + sql);
+             ResultSet plano = explain.executeQuery()) {
+            plano.next();
+            return plano.getString(1);
+        }
+    }
+
+}
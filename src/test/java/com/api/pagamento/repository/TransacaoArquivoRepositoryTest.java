@@ -0,0 +1,158 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.config.ArquivoProperties;
+import com.api.pagamento.config.AutorizadorProperties;
+import com.api.pagamento.config.LoteProperties;
+import com.api.pagamento.config.ReplicasProperties;
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Idempotencia;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.repository.replica.EscritasRecentes;
+import com.api.pagamento.service.TransacaoService;
+import com.api.pagamento.service.TransacaoServiceImp;
+import com.api.pagamento.service.arquivo.ArquivadorTransacoes;
+import com.api.pagamento.service.arquivo.ArquivoTransacoes;
+import com.api.pagamento.service.autorizador.AutorizadorSimulado;
+import com.api.pagamento.service.autorizador.ClienteAutorizador;
+import com.api.pagamento.service.identificador.GeradorIdentificadores;
+import com.api.pagamento.service.util.MetricasMapeamento;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.core.Is.is;
+
+/*
+    Testes de integração do arquivamento de transações
+
+        O ArquivadorTransacoes é executado contra o H2 (perfil teste), com lotes de 2 transações e um diretório
+        temporário próprio: as transações antigas saem do banco e continuam sendo encontradas pelo id.
+
+*/
+
+@DataJpaTest
+@ActiveProfiles("teste")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransacaoServiceImp.class, ClienteAutorizador.class, AutorizadorSimulado.class, GeradorIdentificadores.class,
+        SequenciaJdbcRepository.class, MetricasMapeamento.class, SimpleMeterRegistry.class, ArquivoTransacoes.class, EscritasRecentes.class,
+        ArquivadorTransacoes.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@EnableConfigurationProperties({LoteProperties.class, AutorizadorProperties.class, ArquivoProperties.class, ReplicasProperties.class})
+public class TransacaoArquivoRepositoryTest {
+
+    private static final Path DIRETORIO = diretorioTemporario();
+
+    @DynamicPropertySource
+    static void propriedades(DynamicPropertyRegistry registry) {
+        registry.add("api-pagamento.arquivo.habilitado", () -> "true");
+        registry.add("api-pagamento.arquivo.diretorio", DIRETORIO::toString);
+        registry.add("api-pagamento.arquivo.tamanho-lote", () -> "2");
+    }
+
+    @Autowired
+    private ArquivadorTransacoes arquivadorTransacoes;
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private IdempotenciaRepository idempotenciaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    //Ids das transações antigas (maio de 2021) e da recente
+    private final List<Long> antigas = new ArrayList<>();
+
+    private Long recente;
+
+    @BeforeEach
+    void setUp() {
+
+        for (int i = 0; i < 3; i++) {
+            antigas.add(gravar("0" + (i + 1) + "/05/2021 18:00:00"));
+        }
+        recente = gravar("01/05/2026 18:00:00");
+        idempotenciaRepository.save(new Idempotencia("chave-antiga", entityManager.getReference(Transacao.class, antigas.get(0)),
+                LocalDateTime.now()));
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // Quando as transações antigas são arquivadas, elas saem do banco e continuam sendo encontradas pelo id
+    @Test
+    void whenOldTransactionsAreArchivedThenTheyLeaveTheDatabaseAndAreStillFoundById() throws Exception {
+
+        long arquivadas = arquivadorTransacoes.arquivar(DataHoraCodec.ler("01/01/2022 00:00:00"));
+        entityManager.clear();
+
+        assertThat(arquivadas, is(equalTo(3L)));
+        assertThat(transacaoRepository.findAll().size(), is(equalTo(1)));
+        assertThat(transacaoRepository.findById(recente).isPresent(), is(true));
+        //A chave de idempotência da transação arquivada é apagada junto com ela
+        assertThat(idempotenciaRepository.findById("chave-antiga").isPresent(), is(false));
+
+        for (Long id : antigas) {
+            TransacaoDTO transacao = transacaoService.procurarPeloId(id);
+            assertThat(transacao.getId(), is(equalTo(id)));
+            assertThat(transacao.getDescricao().getEstabelecimento(), is(equalTo("PetShop Mundo cão")));
+            assertThat(transacao.getDescricao().getStatus(), is(equalTo(StatusEnum.AUTORIZADO)));
+        }
+
+    }
+
+    // Quando não há transações antigas, nada é arquivado
+    @Test
+    void whenThereAreNoOldTransactionsThenNothingIsArchived() {
+
+        assertThat(arquivadorTransacoes.arquivar(DataHoraCodec.ler("01/01/2020 00:00:00")), is(equalTo(0L)));
+        assertThat(transacaoRepository.count(), is(equalTo(4L)));
+
+    }
+
+    private Long gravar(String dataHora) {
+        Transacao transacao = new Transacao(null, "4444********1234",
+                new Descricao(null, new BigDecimal("500.50"), DataHoraCodec.ler(dataHora), "PetShop Mundo cão", null, "147258369", StatusEnum.AUTORIZADO),
+                new FormaPagamento(null, TipoEnum.AVISTA, "1"));
+        return transacaoRepository.save(transacao).getId();
+    }
+
+    private static Path diretorioTemporario() {
+        try {
+            return Files.createTempDirectory("arquivo-teste");
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+}
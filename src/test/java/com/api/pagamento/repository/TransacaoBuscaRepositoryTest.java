@@ -0,0 +1,220 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.config.ArquivoProperties;
+import com.api.pagamento.config.AutorizadorProperties;
+import com.api.pagamento.config.LoteProperties;
+import com.api.pagamento.config.ReplicasProperties;
+import com.api.pagamento.domain.dto.FiltroTransacaoDTO;
+import com.api.pagamento.domain.dto.PaginaTransacaoDTO;
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.exception.FiltroInvalidoException;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.repository.replica.EscritasRecentes;
+import com.api.pagamento.service.TransacaoService;
+import com.api.pagamento.service.TransacaoServiceImp;
+import com.api.pagamento.service.arquivo.ArquivoTransacoes;
+import com.api.pagamento.service.autorizador.AutorizadorSimulado;
+import com.api.pagamento.service.autorizador.ClienteAutorizador;
+import com.api.pagamento.service.identificador.GeradorIdentificadores;
+import com.api.pagamento.service.util.MetricasMapeamento;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/*
+    Testes de integração da busca de transações por filtros
+
+        A busca é executada contra o H2 (perfil teste) e o plano de cada consulta gerada pelo Hibernate é conferido com
+        EXPLAIN: a transacao deve ser lida pelo índice do filtro (V13__transacao_em_uma_tabela.sql) e nunca por inteiro
+        (tableScan).
+
+*/
+
+@DataJpaTest
+@ActiveProfiles("teste")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransacaoServiceImp.class, ClienteAutorizador.class, AutorizadorSimulado.class, GeradorIdentificadores.class,
+        SequenciaJdbcRepository.class, MetricasMapeamento.class, SimpleMeterRegistry.class, ArquivoTransacoes.class, EscritasRecentes.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@EnableConfigurationProperties({LoteProperties.class, AutorizadorProperties.class, ArquivoProperties.class, ReplicasProperties.class})
+public class TransacaoBuscaRepositoryTest {
+
+    private static final String PETSHOP = "PetShop Mundo cão";
+
+    private static final String MERCADO = "Mercado Central";
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    //Ids das transações gravadas, na ordem em que foram gravadas (da mais antiga para a mais recente)
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+
+        gravar(PETSHOP, "01/05/2021 08:00:00", StatusEnum.AUTORIZADO, TipoEnum.AVISTA, "4444********1234");
+        gravar(MERCADO, "01/05/2021 09:00:00", StatusEnum.AUTORIZADO, TipoEnum.AVISTA, "4444********1234");
+        gravar(PETSHOP, "01/05/2021 10:00:00", StatusEnum.NEGADO, TipoEnum.PARCELADO_LOJA, "5555********5678");
+        gravar(PETSHOP, "01/05/2021 11:00:00", StatusEnum.AUTORIZADO, TipoEnum.PARCELADO_LOJA, "4444********1234");
+        gravar(MERCADO, "02/05/2021 12:00:00", StatusEnum.NEGADO, TipoEnum.AVISTA, "5555********5678");
+        gravar(PETSHOP, "02/05/2021 13:00:00", StatusEnum.AUTORIZADO, TipoEnum.AVISTA, "5555********5678");
+
+        entityManager.flush();
+        entityManager.clear();
+        ContadorInstrucoesSql.limpar();
+    }
+
+    // Quando a busca é feita por estabelecimento e período, apenas as transações dele no período são retornadas, da mais recente para a mais antiga
+    @Test
+    void whenSearchedByMerchantAndPeriodThenMatchingTransactionsAreReturnedNewestFirst() throws Exception {
+
+        FiltroTransacaoDTO filtro = FiltroTransacaoDTO.builder()
+                .estabelecimento(PETSHOP)
+                .inicio("01/05/2021 09:30:00")
+                .fim("02/05/2021 23:59:59")
+                .build();
+
+        PaginaTransacaoDTO pagina = transacaoService.buscar(filtro, null, null);
+
+        assertThat(idsDe(pagina), contains(ids.get(5), ids.get(3), ids.get(2)));
+        assertThat(pagina.getProximoCursor(), is(nullValue()));
+
+    }
+
+    // Quando os filtros de status, tipo e final do cartão são combinados, todos eles são aplicados
+    @Test
+    void whenStatusTipoAndCardSuffixAreCombinedThenAllFiltersAreApplied() throws Exception {
+
+        FiltroTransacaoDTO filtro = FiltroTransacaoDTO.builder()
+                .status(StatusEnum.AUTORIZADO)
+                .tipo(TipoEnum.AVISTA)
+                .finalCartao("1234")
+                .build();
+
+        assertThat(idsDe(transacaoService.buscar(filtro, null, null)), contains(ids.get(1), ids.get(0)));
+
+    }
+
+    // Quando a busca é paginada, as páginas seguem o cursor sem repetir nem pular transações
+    @Test
+    void whenSearchIsPagedThenPagesFollowTheCursorWithoutRepeatsOrGaps() throws Exception {
+
+        List<Long> encontrados = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            PaginaTransacaoDTO pagina = transacaoService.buscar(new FiltroTransacaoDTO(), cursor, 4);
+            encontrados.addAll(idsDe(pagina));
+            cursor = pagina.getProximoCursor();
+            paginas++;
+        } while (cursor != null);
+
+        assertThat(paginas, is(equalTo(2)));
+        assertThat(encontrados, contains(ids.get(5), ids.get(4), ids.get(3), ids.get(2), ids.get(1), ids.get(0)));
+        //Uma instrução SQL por página, sem count
+        assertThat(ContadorInstrucoesSql.contar("select"), is(equalTo(2L)));
+
+    }
+
+    // Quando a busca é feita por estabelecimento, status ou apenas período, o plano da consulta usa os índices
+    @Test
+    void whenSearchedByEachFilterThenTheQueryPlanUsesTheIndexes() throws Exception {
+
+        assertThat(plano(FiltroTransacaoDTO.builder().estabelecimento(PETSHOP).build()),
+                containsString("idx_transacao_estabelecimento_data_hora"));
+        assertThat(plano(FiltroTransacaoDTO.builder().status(StatusEnum.NEGADO).build()),
+                containsString("idx_transacao_status_data_hora"));
+        assertThat(plano(FiltroTransacaoDTO.builder().inicio("01/05/2021 00:00:00").fim("01/05/2021 23:59:59").build()),
+                containsString("idx_transacao_data_hora"));
+
+        //Página seguinte: o cursor é um intervalo do mesmo índice
+        String cursor = transacaoService.buscar(FiltroTransacaoDTO.builder().estabelecimento(PETSHOP).build(), null, 1).getProximoCursor();
+        transacaoService.buscar(FiltroTransacaoDTO.builder().estabelecimento(PETSHOP).build(), cursor, 1);
+        String planoPaginaSeguinte = explain(ContadorInstrucoesSql.ultima(" order by "));
+        assertThat(planoPaginaSeguinte, containsString("idx_transacao_estabelecimento_data_hora"));
+        //Uma tabela só, sem junções: nenhuma leitura completa
+        assertThat(planoPaginaSeguinte, not(containsString("tableScan")));
+
+    }
+
+    // Quando o período ou o final do cartão estão fora do formato, uma exceção é lançada
+    @Test
+    void whenFilterIsInvalidThenAnExceptionIsThrown() {
+
+        assertThrows(FiltroInvalidoException.class,
+                () -> transacaoService.buscar(FiltroTransacaoDTO.builder().inicio("2021-05-01").build(), null, null));
+        assertThrows(FiltroInvalidoException.class,
+                () -> transacaoService.buscar(FiltroTransacaoDTO.builder().finalCartao("12a4").build(), null, null));
+
+    }
+
+    private void gravar(String estabelecimento, String dataHora, StatusEnum status, TipoEnum tipo, String cartao) {
+        Transacao transacao = new Transacao(null, cartao,
+                new Descricao(null, new BigDecimal("500.50"), DataHoraCodec.ler(dataHora), estabelecimento, String.valueOf(ids.size()), "147258369", status),
+                new FormaPagamento(null, tipo, "1"));
+        ids.add(transacaoRepository.save(transacao).getId());
+    }
+
+    private static List<Long> idsDe(PaginaTransacaoDTO pagina) {
+        return pagina.getConteudo().stream().map(TransacaoDTO::getId).collect(Collectors.toList());
+    }
+
+    //Plano da consulta gerada pelo Hibernate para o filtro
+    private String plano(FiltroTransacaoDTO filtro) throws Exception {
+        ContadorInstrucoesSql.limpar();
+        transacaoService.buscar(filtro, null, null);
+        return explain(ContadorInstrucoesSql.ultima(" order by "));
+    }
+
+    //EXPLAIN do H2: o índice usado em cada tabela aparece como /* public.idx_...: condição */
+    private String explain(String sql) throws Exception {
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement explain = conexao.prepareStatement("explain " + sql);
+             ResultSet plano = explain.executeQuery()) {
+            plano.next();
+            return plano.getString(1);
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.config.CacheConfig;
+import com.api.pagamento.config.ArquivoProperties;
+import com.api.pagamento.config.AutorizadorProperties;
+import com.api.pagamento.config.LoteProperties;
+import com.api.pagamento.config.ReplicasProperties;
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.repository.replica.EscritasRecentes;
+import com.api.pagamento.service.TransacaoService;
+import com.api.pagamento.service.TransacaoServiceImp;
+import com.api.pagamento.service.arquivo.ArquivoTransacoes;
+import com.api.pagamento.service.autorizador.AutorizadorSimulado;
+import com.api.pagamento.service.autorizador.ClienteAutorizador;
+import com.api.pagamento.service.identificador.GeradorIdentificadores;
+import com.api.pagamento.service.util.MetricasMapeamento;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.core.Is.is;
+
+/*
+    Testes de integração do cache de procurarPeloId
+
+        Além da camada JPA, sobe o CacheManager do Spring Boot (Caffeine, configurado em spring.cache no application.yaml) e o CacheConfig.
+        As estatísticas do Hibernate mostram se a leitura foi ao banco ou foi respondida pelo cache.
+
+*/
+
+@DataJpaTest
+@ActiveProfiles("teste")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransacaoServiceImp.class, ClienteAutorizador.class, AutorizadorSimulado.class, GeradorIdentificadores.class,
+        SequenciaJdbcRepository.class, CacheConfig.class, MetricasMapeamento.class, SimpleMeterRegistry.class, ArquivoTransacoes.class, EscritasRecentes.class})
+@ImportAutoConfiguration({ValidationAutoConfiguration.class, CacheAutoConfiguration.class})
+@EnableConfigurationProperties({LoteProperties.class, AutorizadorProperties.class, ArquivoProperties.class, ReplicasProperties.class})
+public class TransacaoCacheTest {
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    private Long id;
+
+    @BeforeEach
+    void setUp() {
+
+        id = transacaoRepository.save(new Transacao(null, "4444********1234",
+                new Descricao(null, new BigDecimal("500.50"), DataHoraCodec.ler("01/05/2021 18:00:00"), "PetShop Mundo cão", "1234567890", "147258369", StatusEnum.AUTORIZADO),
+                new FormaPagamento(null, TipoEnum.AVISTA, "1"))).getId();
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    // Quando a mesma transação é procurada duas vezes, apenas a primeira leitura vai ao banco
+    @Test
+    void whenTransactionIsSearchedTwiceThenOnlyTheFirstSearchHitsTheDatabase() throws Exception {
+
+        transacaoService.procurarPeloId(id);
+        TransacaoDTO transacao = transacaoService.procurarPeloId(id);
+
+        assertThat(transacao.getId(), is(equalTo(id)));
+        assertThat(statistics.getPrepareStatementCount(), is(equalTo(1L)));
+
+    }
+
+    // Quando a transação é estornada, a próxima leitura retorna o status NEGADO sem ir ao banco
+    @Test
+    void whenTransactionIsReversedThenCachedTransactionIsUpdated() throws Exception {
+
+        //Dado
+
+            assertThat(transacaoService.procurarPeloId(id).getDescricao().getStatus(), is(equalTo(StatusEnum.AUTORIZADO)));
+
+        //Quando
+
+            transacaoService.estornar(id);
+            entityManager.flush();
+            long instrucoesAposEstorno = statistics.getPrepareStatementCount();
+
+        // Então
+
+            assertThat(transacaoService.procurarPeloId(id).getDescricao().getStatus(), is(equalTo(StatusEnum.NEGADO)));
+            assertThat(statistics.getPrepareStatementCount(), is(equalTo(instrucoesAposEstorno)));
+
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.config.ArquivoProperties;
+import com.api.pagamento.config.AutorizadorProperties;
+import com.api.pagamento.config.LoteProperties;
+import com.api.pagamento.config.ReplicasProperties;
+import com.api.pagamento.domain.dto.ResultadoPagamentoDTO;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.ResumoDiario;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.repository.replica.EscritasRecentes;
+import com.api.pagamento.service.TransacaoService;
+import com.api.pagamento.service.TransacaoServiceImp;
+import com.api.pagamento.service.arquivo.ArquivoTransacoes;
+import com.api.pagamento.service.autorizador.AutorizadorSimulado;
+import com.api.pagamento.service.autorizador.ClienteAutorizador;
+import com.api.pagamento.service.identificador.GeradorIdentificadores;
+import com.api.pagamento.service.util.MetricasMapeamento;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+
+/*
+    Testes de integração do pagamento em lote
+
+        O pagamento em lote grava cada bloco em uma transação própria, por isso este teste não roda dentro da transação
+        do @DataJpaTest (Propagation.NOT_SUPPORTED): os dados são realmente gravados no H2 e apagados ao final.
+
+*/
+
+@DataJpaTest
+@ActiveProfiles("teste")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransacaoServiceImp.class, ClienteAutorizador.class, AutorizadorSimulado.class, GeradorIdentificadores.class,
+        SequenciaJdbcRepository.class, MetricasMapeamento.class, SimpleMeterRegistry.class, ArquivoTransacoes.class, EscritasRecentes.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@EnableConfigurationProperties({LoteProperties.class, AutorizadorProperties.class, ArquivoProperties.class, ReplicasProperties.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TransacaoLoteRepositoryTest {
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private ResumoDiarioRepository resumoDiarioRepository;
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @Autowired
+    private LoteProperties loteProperties;
+
+    @BeforeEach
+    void setUp() {
+        loteProperties.setTamanhoTransacao(4);
+        ContadorInstrucoesSql.limpar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transacaoRepository.deleteAllInBatch();
+        resumoDiarioRepository.deleteAllInBatch();
+        eventoRepository.deleteAllInBatch();
+    }
+
+    // Quando um lote é pago, os itens válidos são gravados em batches e os inválidos são reportados pelo índice
+    @Test
+    void whenBatchIsPaidThenValidItemsAreSavedInBatchesAndInvalidOnesAreReported() {
+
+        //Dado
+
+            //10 pagamentos válidos e, no índice 3, um pagamento sem cartão
+            List<Transacao> transacoes = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                transacoes.add(novaTransacao("4444********1234"));
+            }
+            transacoes.add(3, novaTransacao(null));
+
+        //Quando
+
+            List<ResultadoPagamentoDTO> resultados = transacaoService.pagarEmLote(transacoes);
+
+        // Então
+
+            assertThat(resultados.size(), is(equalTo(11)));
+            assertThat(resultados.get(3).getTransacao(), is(nullValue()));
+            assertThat(resultados.get(3).getErro().getStatus(), is(equalTo(400)));
+            for (int i = 0; i < resultados.size(); i++) {
+                assertThat(resultados.get(i).getIndice(), is(equalTo(i)));
+                if (i != 3) {
+                    assertThat(resultados.get(i).getErro(), is(nullValue()));
+                    assertThat(resultados.get(i).getTransacao().getId(), is(notNullValue()));
+                }
+            }
+            assertThat(transacaoRepository.count(), is(equalTo(10L)));
+
+            //10 itens válidos em blocos de 4 (4 + 4 + 2): em cada bloco, um único insert preparado (transacao)
+            assertThat(ContadorInstrucoesSql.contar("insert into"), is(equalTo(3L)));
+
+            //Os 10 itens têm o mesmo dia, estabelecimento, status e forma de pagamento: uma linha no resumo diário
+            List<ResumoDiario> resumo = resumoDiarioRepository.findAll();
+            assertThat(resumo.size(), is(equalTo(1)));
+            assertThat(resumo.get(0).getQuantidade(), is(equalTo(10L)));
+            assertThat(resumo.get(0).getTotal(), is(equalTo(new BigDecimal("5005.00"))));
+
+    }
+
+    private Transacao novaTransacao(String cartao) {
+        return new Transacao(null, cartao,
+                new Descricao(null, new BigDecimal("500.50"), DataHoraCodec.ler("01/05/2021 18:00:00"), "PetShop Mundo cão", null, null, null),
+                new FormaPagamento(null, TipoEnum.AVISTA, "1"));
+    }
+
+}
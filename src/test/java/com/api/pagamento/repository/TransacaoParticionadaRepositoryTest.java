@@ -0,0 +1,150 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/*
+    Testes de integração da transacao particionada (migrações V14 e V15) e do ParticaoJdbcRepository
+
+        O H2 não tem tabelas particionadas: estes testes precisam de um PostgreSQL, informado na execução
+        (mvn test -Dteste.postgresql.url=jdbc:postgresql://localhost:5432/db, com -Dteste.postgresql.usuario e
+        -Dteste.postgresql.senha). Sem a url, são ignorados.
+        As migrações são aplicadas do zero no esquema teste_particao, apagado antes de cada teste; os demais esquemas
+        do banco não são alterados.
+
+*/
+
+@EnabledIfSystemProperty(named = "teste.postgresql.url", matches = ".+")
+public class TransacaoParticionadaRepositoryTest {
+
+    private static final String ESQUEMA = "teste_particao";
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ParticaoRepository particaoRepository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(System.getProperty("teste.postgresql.url"),
+                System.getProperty("teste.postgresql.usuario", "euller"), System.getProperty("teste.postgresql.senha", "12345"));
+        dataSource.setSchema(ESQUEMA);
+
+        Flyway flyway = Flyway.configure().dataSource(dataSource)
+                .schemas(ESQUEMA)
+                .locations("classpath:db/migration", "classpath:db/migration-postgresql")
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        particaoRepository = new ParticaoJdbcRepository(jdbcTemplate);
+    }
+
+    // Quando as migrações são aplicadas, a transacao tem as partições mensais e a padrão
+    @Test
+    void whenMigratedThenTransacaoHasMonthlyPartitionsAndTheDefaultOne() {
+
+        YearMonth atual = YearMonth.now(DataHoraCodec.ZONA);
+
+        assertThat(particaoRepository.listar(), hasItems("transacao_padrao", nome(atual.minusMonths(24)), nome(atual),
+                nome(atual.plusMonths(3))));
+
+    }
+
+    // Quando um nsu se repete em outro mês (outra partição), o insert é recusado
+    @Test
+    void whenNsuRepeatsInAnotherMonthThenTheInsertIsRejected() {
+
+        YearMonth atual = YearMonth.now(DataHoraCodec.ZONA);
+        inserir("0000000001", atual.atDay(1).atTime(12, 0));
+
+        assertThrows(DuplicateKeyException.class, () -> inserir("0000000001", atual.minusMonths(2).atDay(1).atTime(12, 0)));
+
+    }
+
+    // Quando a partição de um mês é criada, as linhas dele saem da partição padrão e continuam na transacao
+    @Test
+    void whenPartitionIsCreatedThenItsRowsMoveOutOfTheDefaultPartition() {
+
+        YearMonth mes = YearMonth.of(2040, 1);
+        inserir("0000000001", mes.atDay(15).atTime(12, 0));
+        //Primeiro instante do mês seguinte em Brasília: fora do intervalo, fica na padrão
+        inserir("0000000002", mes.plusMonths(1).atDay(1).atStartOfDay());
+        assertThat(contar("transacao_padrao"), is(2));
+
+        criar(mes);
+
+        assertThat(particaoRepository.listar(), hasItem(nome(mes)));
+        assertThat(contar(nome(mes)), is(1));
+        assertThat(contar("transacao_padrao"), is(1));
+        assertThat(contar("transacao"), is(2));
+
+        //A partição nova também recebe os pagamentos do mês e recusa um nsu repetido
+        inserir("0000000003", mes.atDay(20).atTime(12, 0));
+        assertThat(contar(nome(mes)), is(2));
+        assertThrows(DuplicateKeyException.class, () -> inserir("0000000002", mes.atDay(21).atTime(12, 0)));
+
+    }
+
+    // Quando a partição é desanexada, as linhas dela saem da transacao, mas continuam na tabela da partição
+    @Test
+    void whenPartitionIsDetachedThenItsRowsLeaveTransacaoButStayInItsTable() {
+
+        YearMonth mes = YearMonth.of(2041, 1);
+        inserir("0000000001", mes.atDay(15).atTime(12, 0));
+        criar(mes);
+
+        transactionTemplate.executeWithoutResult(status -> particaoRepository.desanexar(nome(mes)));
+
+        assertThat(particaoRepository.listar(), not(hasItem(nome(mes))));
+        assertThat(contar("transacao"), is(0));
+        assertThat(contar(nome(mes)), is(1));
+
+    }
+
+    private void criar(YearMonth mes) {
+        transactionTemplate.executeWithoutResult(status -> particaoRepository.criar(nome(mes), inicio(mes), inicio(mes.plusMonths(1))));
+    }
+
+    private void inserir(String nsu, LocalDateTime dataHora) {
+        jdbcTemplate.update("insert into transacao (cartao, valor, data_hora, estabelecimento, nsu, codigo_autorizacao, " +
+                        "status, tipo, parcelas) values ('4444********1234', 500.50, ?, 'PetShop Mundo cão', ?, '000000001', 0, 0, '1')",
+                dataHora.atZone(DataHoraCodec.ZONA).toOffsetDateTime(), nsu);
+    }
+
+    private int contar(String tabela) {
+        return jdbcTemplate.queryForObject("select count(*) from " + tabela, Integer.class);
+    }
+
+    private static String nome(YearMonth mes) {
+        return "transacao_" + mes.getYear() + "_" + String.format("%02d", mes.getMonthValue());
+    }
+
+    private static OffsetDateTime inicio(YearMonth mes) {
+        return mes.atDay(1).atStartOfDay(DataHoraCodec.ZONA).toOffsetDateTime();
+    }
+
+}
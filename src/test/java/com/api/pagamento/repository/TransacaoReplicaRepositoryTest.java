@@ -0,0 +1,200 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.config.ArquivoProperties;
+import com.api.pagamento.config.AutorizadorProperties;
+import com.api.pagamento.config.LoteProperties;
+import com.api.pagamento.config.ReplicasConfig;
+import com.api.pagamento.config.ReplicasProperties;
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.repository.replica.EscritasRecentes;
+import com.api.pagamento.repository.replica.RoteadorReplicas;
+import com.api.pagamento.service.TransacaoService;
+import com.api.pagamento.service.TransacaoServiceImp;
+import com.api.pagamento.service.arquivo.ArquivoTransacoes;
+import com.api.pagamento.service.autorizador.AutorizadorSimulado;
+import com.api.pagamento.service.autorizador.ClienteAutorizador;
+import com.api.pagamento.service.identificador.GeradorIdentificadores;
+import com.api.pagamento.service.util.MetricasMapeamento;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.core.Is.is;
+
+/*
+    Testes de integração das leituras nas réplicas
+
+        Duas instâncias do H2 em memória: o banco do perfil teste é o primário e a réplica é um segundo banco, com as
+        mesmas migrações. Não há replicação entre elas: o teste copia as linhas para a réplica com outro
+        estabelecimento, para saber qual banco respondeu cada leitura. A quantidade de transações de cada banco faz o
+        papel da posição do WAL: a réplica só alcança o primário depois que a cópia é feita.
+        Assim como o pagamento idempotente, o teste não roda dentro da transação do @DataJpaTest: cada método do
+        serviço abre a sua, e só as somente de leitura podem ir à réplica.
+        AopAutoConfiguration: o @DataJpaTest não aplica Advisors comuns, como o da marcação de @LeituraReplica
+        (ReplicasConfig); na aplicação, ele já faz parte do contexto.
+
+*/
+
+@DataJpaTest
+@ActiveProfiles("teste")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransacaoServiceImp.class, ClienteAutorizador.class, AutorizadorSimulado.class, GeradorIdentificadores.class,
+        SequenciaJdbcRepository.class, MetricasMapeamento.class, SimpleMeterRegistry.class, ArquivoTransacoes.class, EscritasRecentes.class,
+        ReplicasConfig.class})
+@ImportAutoConfiguration({ValidationAutoConfiguration.class, AopAutoConfiguration.class})
+@EnableConfigurationProperties({LoteProperties.class, AutorizadorProperties.class, ArquivoProperties.class, ReplicasProperties.class})
+@TestPropertySource(properties = {
+        "api-pagamento.replicas.habilitado=true",
+        "api-pagamento.replicas.consulta-posicao-primario=select count(*) from transacao",
+        "api-pagamento.replicas.consulta-posicao-replica=select count(*) from transacao",
+        "api-pagamento.replicas.instancias[0].url=" + TransacaoReplicaRepositoryTest.URL_REPLICA
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TransacaoReplicaRepositoryTest {
+
+    static final String URL_REPLICA = "jdbc:h2:mem:replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final String ESTABELECIMENTO_REPLICA = "Cópia na réplica";
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private RoteadorReplicas roteadorReplicas;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private ResumoDiarioRepository resumoDiarioRepository;
+
+    @Autowired
+    private EventoRepository eventoRepository;
+
+    @BeforeAll
+    static void migrarReplica() {
+        Flyway.configure().dataSource(URL_REPLICA, "sa", "")
+                .locations("classpath:db/migration", "classpath:db/migration-h2")
+                .load()
+                .migrate();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        transacaoRepository.deleteAllInBatch();
+        resumoDiarioRepository.deleteAllInBatch();
+        eventoRepository.deleteAllInBatch();
+        try (Connection replica = DriverManager.getConnection(URL_REPLICA, "sa", "");
+             Statement limpeza = replica.createStatement()) {
+            limpeza.execute("delete from transacao");
+        }
+    }
+
+    // Quando a transação acabou de ser paga, ela é lida do primário; depois que a réplica a alcança, é lida da réplica
+    @Test
+    void whenTransactionWasJustPaidThenItIsReadFromThePrimaryUntilTheReplicaCatchesUp() throws Exception {
+
+        roteadorReplicas.medirAtraso();
+
+        TransacaoDTO paga = transacaoService.pagar(novaTransacao());
+        copiarParaReplica(paga.getId());
+
+        //A réplica foi medida antes do pagamento: ainda não o tem
+        assertThat(transacaoService.procurarPeloId(paga.getId()).getDescricao().getEstabelecimento(), is(equalTo("PetShop Mundo cão")));
+
+        Thread.sleep(5);
+        roteadorReplicas.medirAtraso();
+        assertThat(transacaoService.procurarPeloId(paga.getId()).getDescricao().getEstabelecimento(), is(equalTo(ESTABELECIMENTO_REPLICA)));
+
+    }
+
+    // Quando a réplica ainda não recebeu a transação paga, ela é lida do primário mesmo depois de uma nova medição
+    @Test
+    void whenReplicaHasNotReceivedTheJustPaidTransactionThenItIsReadFromThePrimary() throws Exception {
+
+        roteadorReplicas.medirAtraso();
+
+        TransacaoDTO paga = transacaoService.pagar(novaTransacao());
+
+        Thread.sleep(5);
+        roteadorReplicas.medirAtraso();
+        assertThat(transacaoService.procurarPeloId(paga.getId()).getDescricao().getEstabelecimento(), is(equalTo("PetShop Mundo cão")));
+
+    }
+
+    // Quando as transações são listadas, a réplica responde; o pagamento e o estorno são gravados no primário
+    @Test
+    void whenTransactionsAreListedThenTheReplicaAnswersAndWritesGoToThePrimary() throws Exception {
+
+        TransacaoDTO paga = transacaoService.pagar(novaTransacao());
+        copiarParaReplica(paga.getId());
+        transacaoService.estornar(paga.getId());
+        roteadorReplicas.medirAtraso();
+
+        List<String> estabelecimentos = transacaoService.procurarTodos().stream()
+                .map(transacao -> transacao.getDescricao().getEstabelecimento())
+                .collect(Collectors.toList());
+
+        assertThat(estabelecimentos, contains(ESTABELECIMENTO_REPLICA));
+        assertThat(transacaoRepository.findById(paga.getId()).orElseThrow().getDescricao().getEstabelecimento(), is(equalTo("PetShop Mundo cão")));
+
+    }
+
+    //A "replicação": a linha do primário, com outro estabelecimento
+    private void copiarParaReplica(Long id) throws SQLException {
+        Transacao transacao = transacaoRepository.findById(id).orElseThrow();
+        try (Connection replica = DriverManager.getConnection(URL_REPLICA, "sa", "");
+             PreparedStatement insert = replica.prepareStatement("insert into transacao (id, cartao, valor, data_hora, " +
+                     "estabelecimento, nsu, codigo_autorizacao, status, tipo, parcelas) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            insert.setLong(1, transacao.getId());
+            insert.setString(2, transacao.getCartao());
+            insert.setBigDecimal(3, transacao.getDescricao().getValor());
+            insert.setObject(4, transacao.getDescricao().getDataHora());
+            insert.setString(5, ESTABELECIMENTO_REPLICA);
+            insert.setString(6, transacao.getDescricao().getNsu());
+            insert.setString(7, transacao.getDescricao().getCodigoAutorizacao());
+            insert.setInt(8, transacao.getDescricao().getStatus().ordinal());
+            insert.setInt(9, transacao.getFormaPagamento().getTipo().ordinal());
+            insert.setString(10, transacao.getFormaPagamento().getParcelas());
+            insert.executeUpdate();
+        }
+    }
+
+    private static Transacao novaTransacao() {
+        return new Transacao(null, "4444********1234",
+                new Descricao(null, new BigDecimal("500.50"), DataHoraCodec.ler("01/05/2021 18:00:00"), "PetShop Mundo cão", null, null, null),
+                new FormaPagamento(null, TipoEnum.AVISTA, "1"));
+    }
+
+}
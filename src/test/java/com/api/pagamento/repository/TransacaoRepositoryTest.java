@@ -0,0 +1,239 @@
+package com.api.pagamento.repository;
+
+import com.api.pagamento.config.ArquivoProperties;
+import com.api.pagamento.config.AutorizadorProperties;
+import com.api.pagamento.config.LoteProperties;
+import com.api.pagamento.config.ReplicasProperties;
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.exception.EstornoNaoPermitidoException;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.repository.replica.EscritasRecentes;
+import com.api.pagamento.service.TransacaoService;
+import com.api.pagamento.service.TransacaoServiceImp;
+import com.api.pagamento.service.arquivo.ArquivoTransacoes;
+import com.api.pagamento.service.autorizador.AutorizadorSimulado;
+import com.api.pagamento.service.autorizador.ClienteAutorizador;
+import com.api.pagamento.service.identificador.GeradorIdentificadores;
+import com.api.pagamento.service.util.MetricasMapeamento;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/*
+    Testes de integração do TransacaoRepository
+
+        Diferente dos testes de unidade, aqui o repositório é executado contra um banco H2 em memória (perfil teste),
+        e as estatísticas do Hibernate contam quantas instruções SQL cada leitura realmente executa.
+        Assim, um N+1 (um select extra por linha) ou um insert a mais por pagamento faz o teste falhar.
+
+    @DataJpaTest
+        Sobe apenas a camada JPA (entidades, repositórios, EntityManager) e executa cada teste dentro de uma transação
+        que é desfeita ao final.
+
+*/
+
+@DataJpaTest
+@ActiveProfiles("teste")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TransacaoServiceImp.class, ClienteAutorizador.class, AutorizadorSimulado.class, GeradorIdentificadores.class,
+        SequenciaJdbcRepository.class, MetricasMapeamento.class, SimpleMeterRegistry.class, ArquivoTransacoes.class, EscritasRecentes.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@EnableConfigurationProperties({LoteProperties.class, AutorizadorProperties.class, ArquivoProperties.class, ReplicasProperties.class})
+public class TransacaoRepositoryTest {
+
+    private static final int QUANTIDADE_TRANSACOES = 5;
+
+    @Autowired
+    private TransacaoService transacaoService;
+
+    @Autowired
+    private TransacaoRepository transacaoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+
+        for (int i = 0; i < QUANTIDADE_TRANSACOES; i++) {
+            Transacao transacao = new Transacao(null, "4444********1234",
+                    new Descricao(null, new BigDecimal("500.50"), DataHoraCodec.ler("01/05/2021 18:00:00"), "PetShop Mundo cão", String.valueOf(i), "147258369", StatusEnum.AUTORIZADO),
+                    new FormaPagamento(null, TipoEnum.AVISTA, "1"));
+            ids.add(transacaoRepository.save(transacao).getId());
+        }
+
+        //Grava no banco e esvazia o contexto de persistência para que as leituras abaixo realmente vão ao banco
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ContadorInstrucoesSql.limpar();
+    }
+
+    // Quando vários pagamentos são realizados, os ids vêm do bloco reservado e não há um nextval por insert
+    @Test
+    void whenSeveralPaymentsAreMadeThenIdsComeFromTheReservedBlock() throws Exception {
+
+        int quantidadePagamentos = 10;
+
+        for (int i = 0; i < quantidadePagamentos; i++) {
+            pagarNaTransacaoDoTeste(new Transacao(null, "4444********1234",
+                    new Descricao(null, new BigDecimal("500.50"), DataHoraCodec.ler("01/05/2021 18:00:00"), "PetShop Mundo cão", null, null, null),
+                    new FormaPagamento(null, TipoEnum.AVISTA, "1")));
+        }
+        entityManager.flush();
+
+        //No máximo um nextval (blocos de 50 ids), em vez de um por pagamento.
+        //Descrição e forma de pagamento estão na linha da transacao: os inserts são agrupados em um batch JDBC, com
+        //um único insert preparado.
+        assertThat(ContadorInstrucoesSql.contar("insert into"), is(equalTo(1L)));
+        assertThat(ContadorInstrucoesSql.contar("seq_"), is(lessThanOrEqualTo(1L)));
+
+    }
+
+    // Quando vários pagamentos são realizados, cada um recebe um nsu diferente, crescente na instância
+    @Test
+    void whenSeveralPaymentsAreMadeThenEachOneReceivesADistinctIncreasingNsu() throws Exception {
+
+        List<String> nsus = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            nsus.add(pagarNaTransacaoDoTeste(new Transacao(null, "4444********1234",
+                    new Descricao(null, new BigDecimal("500.50"), DataHoraCodec.ler("01/05/2021 18:00:00"), "PetShop Mundo cão", null, null, null),
+                    new FormaPagamento(null, TipoEnum.AVISTA, "1"))).getDescricao().getNsu());
+        }
+
+        assertThat(nsus.get(0), matchesPattern("\\d{10}"));
+        assertThat(nsus.get(0).compareTo(nsus.get(1)), is(lessThan(0)));
+        assertThat(nsus.get(1).compareTo(nsus.get(2)), is(lessThan(0)));
+
+    }
+
+    // Quando dois pagamentos são gravados com o mesmo nsu, o índice único rejeita o segundo
+    @Test
+    void whenTwoPaymentsHaveTheSameNsuThenTheUniqueIndexRejectsTheSecond() {
+
+        Transacao repetida = new Transacao(null, "4444********1234",
+                new Descricao(null, new BigDecimal("500.50"), DataHoraCodec.ler("01/05/2021 18:00:00"), "PetShop Mundo cão", "0", "147258369", StatusEnum.AUTORIZADO),
+                new FormaPagamento(null, TipoEnum.AVISTA, "1"));
+
+        assertThrows(PersistenceException.class, () -> {
+            transacaoRepository.save(repetida);
+            entityManager.flush();
+        });
+
+    }
+
+    // Quando a transação é estornada, são executadas apenas duas instruções SQL: o UPDATE condicional e a leitura
+    @Test
+    void whenTransactionIsReversedThenOnlyTwoStatementsAreExecuted() throws Exception {
+
+        TransacaoDTO transacao = transacaoService.estornar(ids.get(0));
+
+        assertThat(transacao.getDescricao().getStatus(), is(equalTo(StatusEnum.NEGADO)));
+        assertThat(ContadorInstrucoesSql.contar("update "), is(equalTo(1L)));
+        assertThat(statistics.getPrepareStatementCount(), is(equalTo(2L)));
+
+    }
+
+    // Quando uma transação já estornada é estornada de novo, nada é alterado e uma exceção é lançada
+    @Test
+    void whenTransactionIsReversedTwiceThenTheSecondReversalIsRejected() throws Exception {
+
+        transacaoService.estornar(ids.get(0));
+        ContadorInstrucoesSql.limpar();
+        statistics.clear();
+
+        assertThrows(EstornoNaoPermitidoException.class, () -> transacaoService.estornar(ids.get(0)));
+        assertThat(statistics.getPrepareStatementCount(), is(equalTo(2L)));
+        assertThat(transacaoService.procurarPeloId(ids.get(0)).getDescricao().getStatus(), is(equalTo(StatusEnum.NEGADO)));
+
+    }
+
+    // Quando todas as transações são procuradas, apenas uma instrução SQL é executada
+    @Test
+    void whenAllTransactionsAreSearchedThenOnlyOneStatementIsExecuted() throws Exception {
+
+        List<TransacaoDTO> transacoes = transacaoService.procurarTodos();
+
+        assertThat(transacoes.size(), is(equalTo(QUANTIDADE_TRANSACOES)));
+        assertThat(statistics.getPrepareStatementCount(), is(equalTo(1L)));
+
+    }
+
+    // Quando a transação é procurada pelo id, apenas uma instrução SQL é executada
+    @Test
+    void whenTransactionIsSearchedByIdThenOnlyOneStatementIsExecuted() throws Exception {
+
+        TransacaoDTO transacao = transacaoService.procurarPeloId(ids.get(0));
+
+        assertThat(transacao.getDescricao().getEstabelecimento(), is(equalTo("PetShop Mundo cão")));
+        assertThat(transacao.getFormaPagamento().getTipo(), is(equalTo(TipoEnum.AVISTA)));
+        //Sem ids próprios na tabela, descricao e formaPagamento respondem com o id da transação
+        assertThat(transacao.getDescricao().getId(), is(equalTo(ids.get(0))));
+        assertThat(transacao.getFormaPagamento().getId(), is(equalTo(ids.get(0))));
+        assertThat(statistics.getPrepareStatementCount(), is(equalTo(1L)));
+
+    }
+
+    // Quando uma página é procurada, apenas uma instrução SQL é executada
+    @Test
+    void whenPageIsSearchedThenOnlyOneStatementIsExecuted() throws Exception {
+
+        assertThat(transacaoService.procurarPagina(null, 2).getConteudo().size(), is(equalTo(2)));
+        assertThat(statistics.getPrepareStatementCount(), is(equalTo(1L)));
+
+    }
+
+    // Quando todas as transações são transmitidas, apenas uma instrução SQL é executada
+    @Test
+    void whenAllTransactionsAreStreamedThenOnlyOneStatementIsExecuted() {
+
+        List<TransacaoDTO> transacoes = new ArrayList<>();
+        transacaoService.transmitirTodos(transacoes::add);
+
+        assertThat(transacoes.size(), is(equalTo(QUANTIDADE_TRANSACOES)));
+        assertThat(statistics.getPrepareStatementCount(), is(equalTo(1L)));
+
+    }
+
+    //pagar grava em uma transação própria, que não seria desfeita ao final do teste: a autorização e a gravação são
+    //feitas separadamente, com a gravação (registrar) na transação do teste
+    private TransacaoDTO pagarNaTransacaoDoTeste(Transacao transacao) throws Exception {
+        return transacaoService.registrar(transacaoService.autorizar(transacao).join());
+    }
+
+}
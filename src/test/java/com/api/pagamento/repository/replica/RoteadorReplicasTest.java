@@ -0,0 +1,230 @@
+package com.api.pagamento.repository.replica;
+
+import com.api.pagamento.config.ReplicasProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+
+/*
+    Testes do roteamento entre primário e réplicas
+
+        O primário e as duas réplicas são bancos H2 em memória diferentes, cada um com o seu pool. A posição do WAL de
+        cada banco (a gravada no primário e a aplicada em cada réplica) é lida de uma tabela dele (posicao_simulada),
+        que os testes alteram para simular escritas no primário e réplicas atrasadas.
+        A chamada de um método com @LeituraReplica é simulada pelas marcações que ela faz: a transação somente de leitura
+        (TransactionSynchronizationManager) e a do RoteadorReplicas.
+
+*/
+
+public class RoteadorReplicasTest {
+
+    private final ReplicasProperties replicasProperties = new ReplicasProperties();
+
+    private HikariDataSource primario;
+
+    private HikariDataSource replica1;
+
+    private HikariDataSource replica2;
+
+    private EscritasRecentes escritasRecentes;
+
+    private RoteadorReplicas roteadorReplicas;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        replicasProperties.setHabilitado(true);
+        replicasProperties.setAtrasoMaximo(Duration.ofSeconds(5));
+        replicasProperties.setConsultaPosicaoPrimario("select posicao from posicao_simulada");
+        replicasProperties.setConsultaPosicaoReplica("select posicao from posicao_simulada");
+
+        primario = banco("primario", "primario");
+        replica1 = banco("replica1", "replica-1");
+        replica2 = banco("replica2", "replica-2");
+        simularPosicao(primario, 0);
+        simularPosicao(replica1, 0);
+        simularPosicao(replica2, 0);
+
+        escritasRecentes = new EscritasRecentes(replicasProperties);
+        roteadorReplicas = new RoteadorReplicas(primario, List.of(replica1, replica2), escritasRecentes, replicasProperties);
+        roteadorReplicas.medirAtraso();
+        roteadorReplicas.marcarLeituraReplica(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        roteadorReplicas.marcarLeituraReplica(false);
+        roteadorReplicas.close();
+        primario.close();
+    }
+
+    // Quando a transação não é somente de leitura, a conexão é do primário
+    @Test
+    void whenTransactionIsNotReadOnlyThenTheConnectionComesFromThePrimary() throws SQLException {
+
+        assertThat(urlDaConexao(roteadorReplicas), containsString("primario"));
+
+    }
+
+    // Quando a transação somente de leitura não é de um método com @LeituraReplica (ex: um repositório chamado fora de uma transação), a conexão é do primário
+    @Test
+    void whenReadOnlyTransactionIsNotMarkedForReplicasThenTheConnectionComesFromThePrimary() throws SQLException {
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        roteadorReplicas.marcarLeituraReplica(false);
+
+        assertThat(urlDaConexao(roteadorReplicas), containsString("primario"));
+
+    }
+
+    // Quando as leituras usam rodízio, as réplicas são usadas uma de cada vez
+    @Test
+    void whenBalancingIsRoundRobinThenReplicasTakeTurns() throws SQLException {
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        String primeira = urlDaConexao(roteadorReplicas);
+        String segunda = urlDaConexao(roteadorReplicas);
+
+        assertThat(primeira.equals(segunda), is(false));
+        assertThat(urlDaConexao(roteadorReplicas), is(equalTo(primeira)));
+
+    }
+
+    // Quando as leituras vão à réplica menos ocupada, a que tem uma conexão em uso é evitada
+    @Test
+    void whenBalancingIsLeastBusyThenTheReplicaWithConnectionsInUseIsAvoided() throws SQLException {
+
+        replicasProperties.setBalanceamento(ReplicasProperties.Balanceamento.MENOS_OCUPADA);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        try (Connection ocupada = replica1.getConnection()) {
+            assertThat(roteadorReplicas.escolher(), is(replica2));
+            assertThat(roteadorReplicas.escolher(), is(replica2));
+        }
+
+    }
+
+    // Quando uma réplica não aplica as escritas do primário dentro do limite, ela deixa de receber leituras; com as duas atrasadas, a leitura vai ao primário
+    @Test
+    void whenReplicaLagsBeyondTheLimitThenReadsSkipIt() throws Exception {
+
+        replicasProperties.setAtrasoMaximo(Duration.ofMillis(200));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        simularPosicao(primario, 10);
+        simularPosicao(replica2, 10);
+        Thread.sleep(250);
+        roteadorReplicas.medirAtraso();
+        assertThat(roteadorReplicas.escolher(), is(replica2));
+        assertThat(roteadorReplicas.escolher(), is(replica2));
+
+        simularPosicao(primario, 20);
+        Thread.sleep(250);
+        roteadorReplicas.medirAtraso();
+        assertThat(roteadorReplicas.escolher(), is(nullValue()));
+        assertThat(urlDaConexao(roteadorReplicas), containsString("primario"));
+
+    }
+
+    // Quando o atraso de uma réplica não pode ser medido, ela deixa de receber leituras até a próxima medição
+    @Test
+    void whenReplicaCannotBeMeasuredThenReadsSkipItUntilTheNextMeasurement() throws SQLException {
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        try (Connection conexao = replica1.getConnection(); Statement ddl = conexao.createStatement()) {
+            ddl.execute("drop table posicao_simulada");
+        }
+        roteadorReplicas.medirAtraso();
+        assertThat(roteadorReplicas.escolher(), is(replica2));
+
+        simularPosicao(replica1, 0);
+        roteadorReplicas.medirAtraso();
+        assertThat(List.of(roteadorReplicas.escolher(), roteadorReplicas.escolher()).contains(replica1), is(true));
+
+    }
+
+    // Quando a transação acabou de ser gravada, a leitura dela vai ao primário até uma réplica alcançar a escrita
+    @Test
+    void whenTransactionWasJustWrittenThenItsReadGoesToThePrimaryUntilAReplicaCatchesUp() throws Exception {
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Thread.sleep(2);
+        escritasRecentes.registrar(1L);
+
+        assertThat(escritasRecentes.ler(1L, roteadorReplicas::escolher), is(nullValue()));
+        //Outros ids continuam nas réplicas
+        assertThat(escritasRecentes.ler(2L, roteadorReplicas::escolher) != null, is(true));
+
+        Thread.sleep(2);
+        roteadorReplicas.medirAtraso();
+        assertThat(escritasRecentes.ler(1L, roteadorReplicas::escolher) != null, is(true));
+
+    }
+
+    // Quando a réplica aplicou tudo o que recebeu (atraso zero para ela), mas ainda não recebeu a escrita, a leitura da transação gravada vai ao primário
+    @Test
+    void whenReplicaAppliedEverythingItReceivedButNotTheWriteThenItsReadGoesToThePrimary() throws Exception {
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        //O commit da transação 1 leva o primário à posição 10; as réplicas estão paradas na 5
+        simularPosicao(primario, 10);
+        simularPosicao(replica1, 5);
+        simularPosicao(replica2, 5);
+        Thread.sleep(2);
+        escritasRecentes.registrar(1L);
+
+        Thread.sleep(2);
+        roteadorReplicas.medirAtraso();
+        assertThat(escritasRecentes.ler(1L, roteadorReplicas::escolher), is(nullValue()));
+        //Outros ids continuam nas réplicas, que alcançaram a medição anterior
+        assertThat(escritasRecentes.ler(2L, roteadorReplicas::escolher) != null, is(true));
+
+        simularPosicao(replica1, 10);
+        roteadorReplicas.medirAtraso();
+        assertThat(escritasRecentes.ler(1L, roteadorReplicas::escolher), is(replica1));
+
+    }
+
+    private static HikariDataSource banco(String nome, String pool) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(pool);
+        dataSource.setJdbcUrl("jdbc:h2:mem:roteador_" + nome + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(2);
+        return dataSource;
+    }
+
+    private static void simularPosicao(HikariDataSource banco, long posicao) throws SQLException {
+        try (Connection conexao = banco.getConnection(); Statement ddl = conexao.createStatement()) {
+            ddl.execute("create table if not exists posicao_simulada (posicao bigint)");
+            ddl.execute("delete from posicao_simulada");
+            ddl.execute("insert into posicao_simulada values (" + posicao + ")");
+        }
+    }
+
+    //URL do banco que entregou a conexão
+    private static String urlDaConexao(RoteadorReplicas roteadorReplicas) throws SQLException {
+        try (Connection conexao = roteadorReplicas.getConnection()) {
+            return conexao.getMetaData().getURL();
+        }
+    }
+
+}
@@ -0,0 +1,192 @@
+package com.api.pagamento.service;
+
+import com.api.pagamento.config.StreamProperties;
+import com.api.pagamento.domain.dto.EventoDTO;
+import com.api.pagamento.domain.exception.LimiteAssinantesException;
+import com.api.pagamento.domain.model.Evento;
+import com.api.pagamento.repository.EventoRepository;
+import com.api.pagamento.service.stream.AssinanteFeed;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/*
+    Testes de unidade do stream de eventos
+
+        A tabela evento é um mock com 3 eventos publicados e o atualizar é chamado pelo próprio teste, no lugar do
+        @Scheduled. Com uma única thread de envio, um assinante que não lê os eventos (a escrita dele fica presa até o
+        teste liberá-la, ignorando a interrupção, como a do servlet) deixaria os demais sem eventos se a escrita não
+        fosse abandonada depois de prazoEscrita.
+
+*/
+
+public class FeedEventosServiceTest {
+
+    private final StreamProperties streamProperties = new StreamProperties();
+
+    private final EventoRepository eventoRepository = mock(EventoRepository.class);
+
+    private FeedEventosServiceImp feedEventosService;
+
+    @BeforeEach
+    void setUp() {
+        List<Evento> eventos = LongStream.rangeClosed(1, 3).mapToObj(FeedEventosServiceTest::evento).collect(Collectors.toList());
+        when(eventoRepository.findByPosicaoGreaterThanOrderByPosicaoAsc(anyLong(), any(Pageable.class)))
+                .thenAnswer(chamada -> eventos.stream()
+                        .filter(evento -> evento.getPosicao() > chamada.<Long>getArgument(0))
+                        .collect(Collectors.toList()));
+        streamProperties.setThreadsEnvio(1);
+        streamProperties.setPrazoEscrita(Duration.ofMillis(100));
+        streamProperties.setMaximoAssinantes(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        feedEventosService.encerrar();
+    }
+
+    // Quando a escrita de um assinante fica presa além do prazo, ela é abandonada e os demais recebem os eventos
+    @Test
+    void whenASubscriberWriteHangsPastTheDeadlineThenTheOtherSubscribersStillReceiveEvents() throws Exception {
+
+        //Dado
+
+            feedEventosService = new FeedEventosServiceImp(eventoRepository, streamProperties);
+            AssinantePreso preso = new AssinantePreso();
+            Runnable cancelarPreso = feedEventosService.assinar(0L, preso);
+            feedEventosService.atualizar();
+            assertThat(preso.escrevendo.await(5, TimeUnit.SECONDS), is(true));
+
+            //A única thread de envio está presa: o segundo assinante fica na fila do executor
+            FilaAssinante fila = new FilaAssinante();
+            Runnable cancelarFila = feedEventosService.assinar(0L, fila);
+
+        //Quando
+
+            Thread.sleep(streamProperties.getPrazoEscrita().toMillis() * 2);
+            feedEventosService.atualizar();
+
+        //Então
+
+            List<Long> recebidos = fila.receber(3).stream().map(EventoDTO::getPosicao).collect(Collectors.toList());
+            assertThat(recebidos, is(equalTo(List.of(1L, 2L, 3L))));
+
+            //Liberada a escrita, a conexão do assinante abandonado é encerrada e a vaga dele foi devolvida
+            preso.liberar.countDown();
+            assertThat(preso.encerrado.await(5, TimeUnit.SECONDS), is(true));
+            feedEventosService.assinar(null, new FilaAssinante());
+
+            cancelarPreso.run();
+            cancelarFila.run();
+
+    }
+
+    // Quando uma assinatura é cancelada mais de uma vez, apenas uma vaga é devolvida
+    @Test
+    void whenSubscriptionIsCancelledTwiceThenOnlyOneSlotIsReturned() throws Exception {
+
+        feedEventosService = new FeedEventosServiceImp(eventoRepository, streamProperties);
+        Runnable cancelar = feedEventosService.assinar(null, new FilaAssinante());
+        feedEventosService.assinar(null, new FilaAssinante());
+        assertThrows(LimiteAssinantesException.class, () -> feedEventosService.assinar(null, new FilaAssinante()));
+
+        cancelar.run();
+        cancelar.run();
+
+        feedEventosService.assinar(null, new FilaAssinante());
+        assertThrows(LimiteAssinantesException.class, () -> feedEventosService.assinar(null, new FilaAssinante()));
+
+    }
+
+    private static Evento evento(long posicao) {
+        Evento evento = mock(Evento.class);
+        when(evento.getId()).thenReturn(posicao);
+        when(evento.getPosicao()).thenReturn(posicao);
+        return evento;
+    }
+
+    //Assinante cuja escrita só termina quando o teste a libera, mesmo se a thread for interrompida
+    private static class AssinantePreso implements AssinanteFeed {
+
+        private final CountDownLatch escrevendo = new CountDownLatch(1);
+
+        private final CountDownLatch liberar = new CountDownLatch(1);
+
+        private final CountDownLatch encerrado = new CountDownLatch(1);
+
+        @Override
+        public void enviar(List<EventoDTO> eventos) {
+            escrevendo.countDown();
+            boolean liberado = false;
+            while (!liberado) {
+                try {
+                    liberado = liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    //Ignorada, como na escrita do servlet
+                }
+            }
+        }
+
+        @Override
+        public void manterConexao() {
+        }
+
+        @Override
+        public void encerrar() {
+            encerrado.countDown();
+        }
+
+    }
+
+    //Assinante que guarda os eventos recebidos em uma fila
+    private static class FilaAssinante implements AssinanteFeed {
+
+        private final BlockingQueue<EventoDTO> fila = new LinkedBlockingQueue<>();
+
+        @Override
+        public void enviar(List<EventoDTO> eventos) {
+            fila.addAll(eventos);
+        }
+
+        @Override
+        public void manterConexao() {
+        }
+
+        @Override
+        public void encerrar() {
+        }
+
+        List<EventoDTO> receber(int quantidade) throws InterruptedException {
+            List<EventoDTO> recebidos = new ArrayList<>();
+            while (recebidos.size() < quantidade) {
+                EventoDTO evento = fila.poll(5, TimeUnit.SECONDS);
+                assertThat("evento não recebido", evento, is(notNullValue()));
+                recebidos.add(evento);
+            }
+            return recebidos;
+        }
+
+    }
+
+}
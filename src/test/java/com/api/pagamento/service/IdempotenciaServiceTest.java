@@ -0,0 +1,166 @@
+package com.api.pagamento.service;
+
+import com.api.pagamento.builder.TransacaoDTOBuilder;
+import com.api.pagamento.config.IdempotenciaProperties;
+import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.dto.util.Mapper;
+import com.api.pagamento.domain.exception.ChaveIdempotenciaInvalidaException;
+import com.api.pagamento.domain.exception.InsercaoNaoPermitidaException;
+import com.api.pagamento.domain.model.Idempotencia;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.repository.IdempotenciaRepository;
+import com.api.pagamento.repository.TransacaoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class IdempotenciaServiceTest {
+
+    @Mock
+    private TransacaoService transacaoService;
+
+    @Mock
+    private TransacaoRepository transacaoRepository;
+
+    @Mock
+    private IdempotenciaRepository idempotenciaRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private IdempotenciaProperties idempotenciaProperties = new IdempotenciaProperties();
+
+    @InjectMocks
+    private IdempotenciaServiceImp idempotenciaService;
+
+    private Transacao transacao;
+
+    private TransacaoDTO transacaoDTO;
+
+    @BeforeEach
+    void setUp() {
+
+        transacaoDTO = TransacaoDTOBuilder.builder().build().toTransacaoDTO();
+        transacao = Mapper.toTransacao(transacaoDTO);
+        transacao.setId(null);
+
+        //transactionTemplate.execute(callback) -> executa o callback
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    // Quando a mesma chave é enviada por requisições simultâneas, apenas um pagamento é realizado
+    @Test
+    void whenSameKeyIsSentConcurrentlyThenOnlyOnePaymentIsMade() throws Exception {
+
+        //Dado
+
+            CountDownLatch pagamentoIniciado = new CountDownLatch(1);
+            CountDownLatch liberarPagamento = new CountDownLatch(1);
+
+            //transacaoService.autorizar(transacao) -> transacao autorizada
+            when(transacaoService.autorizar(transacao)).thenReturn(CompletableFuture.completedFuture(transacao));
+
+            //transacaoService.registrar(transacao) -> aguarda liberarPagamento e retorna transacaoDTO
+            when(transacaoService.registrar(transacao)).thenAnswer(invocation -> {
+                pagamentoIniciado.countDown();
+                liberarPagamento.await(5, TimeUnit.SECONDS);
+                return transacaoDTO;
+            });
+
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        //Quando
+
+            Future<TransacaoDTO> primeira = executor.submit(() -> idempotenciaService.pagar("chave-1", transacao));
+            assertThat(pagamentoIniciado.await(5, TimeUnit.SECONDS), is(true));
+            Future<TransacaoDTO> segunda = executor.submit(() -> idempotenciaService.pagar("chave-1", transacao));
+            liberarPagamento.countDown();
+
+        // Então
+
+            assertThat(primeira.get(5, TimeUnit.SECONDS), is(sameInstance(transacaoDTO)));
+            assertThat(segunda.get(5, TimeUnit.SECONDS), is(sameInstance(transacaoDTO)));
+            verify(transacaoService, times(1)).registrar(transacao);
+            executor.shutdown();
+
+    }
+
+    // Quando a chave já está gravada no banco, a transação original é retornada sem realizar outro pagamento
+    @Test
+    void whenKeyIsAlreadyStoredThenOriginalTransactionIsReturned() throws Exception {
+
+        //Quando
+
+            //idempotenciaRepository.findById("chave-1") -> chave gravada para a transação original
+            when(idempotenciaRepository.findById("chave-1"))
+                    .thenReturn(Optional.of(new Idempotencia("chave-1", Mapper.toTransacao(transacaoDTO), LocalDateTime.now())));
+
+        // Então
+
+            assertThat(idempotenciaService.pagar("chave-1", transacao).getId(), is(equalTo(transacaoDTO.getId())));
+            verify(transacaoService, never()).autorizar(any());
+
+    }
+
+    // Quando o pagamento falha, a falha não fica guardada e a mesma chave pode ser usada novamente
+    @Test
+    void whenPaymentFailsThenTheSameKeyCanBeRetried() throws Exception {
+
+        //Quando
+
+            //transacaoService.autorizar(transacao) -> exceção na primeira chamada, transacao autorizada na segunda
+            when(transacaoService.autorizar(transacao))
+                    .thenThrow(new InsercaoNaoPermitidaException())
+                    .thenReturn(CompletableFuture.completedFuture(transacao));
+
+            //transacaoService.registrar(transacao) -> transacaoDTO
+            when(transacaoService.registrar(transacao)).thenReturn(transacaoDTO);
+
+        // Então
+
+            assertThrows(InsercaoNaoPermitidaException.class, () -> idempotenciaService.pagar("chave-1", transacao));
+            assertThat(idempotenciaService.pagar("chave-1", transacao), is(sameInstance(transacaoDTO)));
+
+    }
+
+    // Quando a chave é vazia, uma exceção deve ser retornada
+    @Test
+    void whenKeyIsBlankThenAnExceptionIsReturned() {
+
+        assertThrows(ChaveIdempotenciaInvalidaException.class, () -> idempotenciaService.pagar(" ", transacao));
+
+    }
+
+}
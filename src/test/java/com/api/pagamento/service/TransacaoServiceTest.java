@@ -1,31 +1,57 @@
 package com.api.pagamento.service;
 
 import com.api.pagamento.builder.TransacaoDTOBuilder;
+import com.api.pagamento.config.ReplicasProperties;
+import com.api.pagamento.domain.dto.PaginaTransacaoDTO;
 import com.api.pagamento.domain.dto.TransacaoDTO;
+import com.api.pagamento.domain.dto.util.Cursor;
 import com.api.pagamento.domain.dto.util.Mapper;
 import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.exception.AutorizadorIndisponivelException;
+import com.api.pagamento.domain.exception.CursorInvalidoException;
+import com.api.pagamento.domain.exception.EstornoNaoPermitidoException;
 import com.api.pagamento.domain.exception.InsercaoNaoPermitidaException;
 import com.api.pagamento.domain.exception.TransacaoInexistenteException;
 import com.api.pagamento.domain.model.Transacao;
-import com.api.pagamento.repository.DescricaoRepository;
+import com.api.pagamento.repository.EventoRepository;
+import com.api.pagamento.repository.ResumoDiarioRepository;
 import com.api.pagamento.repository.TransacaoRepository;
+import com.api.pagamento.repository.replica.EscritasRecentes;
+import com.api.pagamento.service.arquivo.ArquivoTransacoes;
+import com.api.pagamento.service.autorizador.Autorizacao;
+import com.api.pagamento.service.autorizador.ClienteAutorizador;
+import com.api.pagamento.service.identificador.GeradorIdentificadores;
+import com.api.pagamento.service.util.MetricasMapeamento;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
 import javax.validation.ConstraintViolationException;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /*
@@ -109,7 +135,34 @@ public class TransacaoServiceTest {
     private TransacaoServiceImp transacaoService;
 
     @Mock
-    private DescricaoRepository descricaoRepository;
+    private EntityManager entityManager;
+
+    @Mock
+    private ResumoDiarioRepository resumoDiarioRepository;
+
+    @Mock
+    private EventoRepository eventoRepository;
+
+    @Mock
+    private ClienteAutorizador clienteAutorizador;
+
+    @Mock
+    private GeradorIdentificadores geradorIdentificadores;
+
+    @Mock
+    private ArquivoTransacoes arquivoTransacoes;
+
+    // Spy: instância real, com as réplicas desligadas (a leitura vai direto ao repositório)
+    @Spy
+    private EscritasRecentes escritasRecentes = new EscritasRecentes(new ReplicasProperties());
+
+    // Spy: instância real, com o gerenciador de transações simulado (o callback é executado sem banco)
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    // Spy: instância real (a medição da conversão para DTO grava em um registro em memória)
+    @Spy
+    private MetricasMapeamento metricasMapeamento = new MetricasMapeamento(new SimpleMeterRegistry());
 
 
     // @Test = A anotação de teste informa ao JUnit que o método void público ao qual está anexado pode ser executado
@@ -120,7 +173,7 @@ public class TransacaoServiceTest {
 
     // Quando o pagamento é informado, ele deve ser criado
     @Test
-    void whenPaymentInformedThenItShouldBeCreated() throws InsercaoNaoPermitidaException {
+    void whenPaymentInformedThenItShouldBeCreated() throws InsercaoNaoPermitidaException, AutorizadorIndisponivelException {
 
         // Dado
 
@@ -136,6 +189,10 @@ public class TransacaoServiceTest {
 
         //Quando
 
+            //clienteAutorizador.autorizar(transacao) -> autorização do emissor
+            when(clienteAutorizador.autorizar(transacao))
+                    .thenReturn(CompletableFuture.completedFuture(new Autorizacao(StatusEnum.AUTORIZADO, "147258369")));
+
             //transacaoService.save( -> transacaoRepository.save(expectedTransacao) -> expectedTransacao
             when(transacaoRepository
                     .save(transacao))
@@ -157,6 +214,9 @@ public class TransacaoServiceTest {
             assertThat(createdTransacaoDTO.getFormaPagamento().getTipo(), is(equalTo(expectedTransacaoDTO.getFormaPagamento().getTipo())));
             assertThat(createdTransacaoDTO.getFormaPagamento().getParcelas(), is(equalTo(expectedTransacaoDTO.getFormaPagamento().getParcelas())));
 
+            //Verifica se o pagamento foi gravado em uma transação própria, depois da autorização
+            verify(transactionTemplate).execute(any());
+
     }
 
     // Quando o nsu, codigo_pagamento ou o status é informado, uma exceção deve ser lançada
@@ -206,6 +266,33 @@ public class TransacaoServiceTest {
 
     }
 
+    // Quando uma transacao informada pelo id não está no banco, mas foi arquivada, ela é lida do arquivo
+    @Test
+    void whenTransactionIsNotInTheDatabaseButWasArchivedThenItIsReadFromTheArchive() throws TransacaoInexistenteException {
+        // Dado
+
+            Long id = 1L;
+
+            //Gera uma Transacao
+            Transacao transacao = (Transacao) Mapper.convert(TransacaoDTOBuilder.builder().build().toTransacaoDTO(), Transacao.class);
+
+        //Quando
+
+            //transacaoRepository.findById(id) -> vazio
+            when(transacaoRepository.findById(id))
+                    .thenReturn(Optional.empty());
+
+            //arquivoTransacoes.procurar(id) -> transacao
+            when(arquivoTransacoes.procurar(id))
+                    .thenReturn(Optional.of(transacao));
+
+        // Então
+
+            //Verifica se a transação arquivada foi retornada
+            assertThat(transacaoService.procurarPeloId(id).getId(), is(equalTo(transacao.getId())));
+
+    }
+
     // Quando um pagamento não é informado com todos os campos obrigatórios, uma exceção deve ser retornada
     @Test
     void whenPaymentWithoutAllFieldsIsInformedThenAnExceptionIsReturned()  {
@@ -224,6 +311,10 @@ public class TransacaoServiceTest {
 
         //Quando
 
+        //clienteAutorizador.autorizar(transacao) -> autorização do emissor
+            when(clienteAutorizador.autorizar(transacao))
+                    .thenReturn(CompletableFuture.completedFuture(new Autorizacao(StatusEnum.AUTORIZADO, "147258369")));
+
         //transacaoRepository.save(transacao) -> ConstraintViolationException
             when(transacaoRepository.save(transacao))
                    .thenThrow(ConstraintViolationException.class);
@@ -235,6 +326,38 @@ public class TransacaoServiceTest {
 
     }
 
+    // Quando o emissor não responde (timeout ou bulkhead cheio), uma exceção deve ser lançada e nada é gravado
+    @Test
+    void whenIssuerIsUnavailableThenAnExceptionIsReturnedAndNothingIsSaved() {
+
+        // Dado
+
+            //Gera um TransacaoDTO
+            TransacaoDTO transacaoDTO = TransacaoDTOBuilder.builder().build().toTransacaoDTO();
+
+            //Tranforma o TransacaoDTO em um Transacao
+            Transacao transacao = (Transacao) Mapper.convert(transacaoDTO, Transacao.class);
+
+            transacao.setId(null);
+            transacao.getDescricao().setId(null);
+            transacao.getFormaPagamento().setId(null);
+
+        //Quando
+
+            //clienteAutorizador.autorizar(transacao) -> AutorizadorIndisponivelException
+            when(clienteAutorizador.autorizar(transacao))
+                    .thenReturn(CompletableFuture.failedFuture(new AutorizadorIndisponivelException()));
+
+        // Então
+
+            //Verifica se transacaoService.pagar(transacao) lançou a exceção AutorizadorIndisponivelException.class
+            assertThrows(AutorizadorIndisponivelException.class, () -> transacaoService.pagar(transacao));
+
+            //Verifica se o pagamento não foi gravado
+            verify(transacaoRepository, never()).save(any());
+
+    }
+
     // Quando estorno é chamado pelo id, o estorno é retornado
     @Test
     void whenReversalInformedByIdThenReversalIsReturned() throws Exception {
@@ -255,6 +378,10 @@ public class TransacaoServiceTest {
 
         //When
 
+        //transacaoRepository.estornar(id) -> 1 linha alterada
+        when(transacaoRepository.estornar(id))
+                .thenReturn(1);
+
         //transacaoService.findById(id) -> transacao
         when(transacaoRepository.findById(id))
                 .thenReturn(Optional.ofNullable(transacao));
@@ -280,6 +407,57 @@ public class TransacaoServiceTest {
 
     }
 
+    // Quando estorno é chamado para uma transação já estornada, uma exceção deve ser retornada
+    @Test
+    void whenReversalOfAlreadyReversedTransactionIsInformedThenAnExceptionIsReturned() {
+
+        // Dado
+
+            Long id = 1L;
+
+            TransacaoDTO transacaoDTO = TransacaoDTOBuilder.builder().build().toTransacaoDTO();
+            transacaoDTO.getDescricao().setStatus(StatusEnum.NEGADO);
+
+        //Quando
+
+            //transacaoRepository.estornar(id) -> nenhuma linha alterada
+            when(transacaoRepository.estornar(id))
+                    .thenReturn(0);
+
+            //transacaoRepository.findById(id) -> transacao já estornada
+            when(transacaoRepository.findById(id))
+                    .thenReturn(Optional.of(Mapper.toTransacao(transacaoDTO)));
+
+        // Então
+
+            assertThrows(EstornoNaoPermitidoException.class, () -> transacaoService.estornar(id));
+
+    }
+
+    // Quando estorno é chamado para uma transação inexistente, uma exceção deve ser retornada
+    @Test
+    void whenReversalOfNonexistentTransactionIsInformedThenAnExceptionIsReturned() {
+
+        // Dado
+
+            Long id = 1L;
+
+        //Quando
+
+            //transacaoRepository.estornar(id) -> nenhuma linha alterada
+            when(transacaoRepository.estornar(id))
+                    .thenReturn(0);
+
+            //transacaoRepository.findById(id) -> vazio
+            when(transacaoRepository.findById(id))
+                    .thenReturn(Optional.empty());
+
+        // Então
+
+            assertThrows(TransacaoInexistenteException.class, () -> transacaoService.estornar(id));
+
+    }
+
     //Quando a transacao é informada pelo id, a transação é retornada
     @Test
     void whenTransactionByIdIsInformedThenIsReturned() throws Exception {
@@ -390,4 +568,87 @@ public class TransacaoServiceTest {
 
     }
 
+    // Quando uma página é solicitada e há mais registros, o próximo cursor aponta para o último id da página
+    @Test
+    void whenPageIsCalledAndThereAreMoreRowsThenNextCursorIsReturned() throws Exception {
+
+        //Dado
+
+            Transacao transacao1 = Mapper.toTransacao(TransacaoDTOBuilder.builder().id(11L).build().toTransacaoDTO());
+            Transacao transacao2 = Mapper.toTransacao(TransacaoDTOBuilder.builder().id(12L).build().toTransacaoDTO());
+            Transacao transacao3 = Mapper.toTransacao(TransacaoDTOBuilder.builder().id(13L).build().toTransacaoDTO());
+
+        //Quando
+
+            //É buscado um registro a mais do que o tamanho da página para saber se há próxima página
+            when(transacaoRepository.findByIdGreaterThanOrderByIdAsc(10L, PageRequest.ofSize(3)))
+                    .thenReturn(List.of(transacao1, transacao2, transacao3));
+
+        // Então
+
+            PaginaTransacaoDTO paginaDTO = transacaoService.procurarPagina(Cursor.codificar(10L), 2);
+
+            assertThat(paginaDTO.getConteudo().size(), is(equalTo(2)));
+            assertThat(paginaDTO.getConteudo().get(0).getId(), is(equalTo(11L)));
+            assertThat(paginaDTO.getConteudo().get(1).getId(), is(equalTo(12L)));
+            assertThat(Cursor.decodificar(paginaDTO.getProximoCursor()), is(equalTo(12L)));
+
+    }
+
+    // Quando a última página é solicitada, o próximo cursor é nulo
+    @Test
+    void whenLastPageIsCalledThenNextCursorIsNull() throws Exception {
+
+        //Dado
+
+            Transacao transacao = Mapper.toTransacao(TransacaoDTOBuilder.builder().build().toTransacaoDTO());
+
+        //Quando
+
+            //O tamanho acima do máximo é limitado a TAMANHO_PAGINA_MAXIMO
+            when(transacaoRepository.findAllByOrderByIdAsc(PageRequest.ofSize(TransacaoServiceImp.TAMANHO_PAGINA_MAXIMO + 1)))
+                    .thenReturn(List.of(transacao));
+
+        // Então
+
+            PaginaTransacaoDTO paginaDTO = transacaoService.procurarPagina(null, 100_000);
+
+            assertThat(paginaDTO.getConteudo().size(), is(equalTo(1)));
+            assertThat(paginaDTO.getProximoCursor(), is(nullValue()));
+
+    }
+
+    // Quando o cursor informado é inválido, uma exceção deve ser lançada
+    @Test
+    void whenInvalidCursorIsInformedThenAnExceptionShouldBeThrown() {
+
+        assertThrows(CursorInvalidoException.class, () -> transacaoService.procurarPagina("@@@", null));
+
+    }
+
+    // Quando todas as transações são transmitidas, o consumidor recebe cada uma em ordem
+    @Test
+    void whenAllTransactionsAreStreamedThenConsumerReceivesEachInOrder() {
+
+        //Dado
+
+            Transacao transacao1 = Mapper.toTransacao(TransacaoDTOBuilder.builder().id(1L).build().toTransacaoDTO());
+            Transacao transacao2 = Mapper.toTransacao(TransacaoDTOBuilder.builder().id(2L).build().toTransacaoDTO());
+
+        //Quando
+
+            when(transacaoRepository.streamAllByOrderByIdAsc())
+                    .thenReturn(Stream.of(transacao1, transacao2));
+
+        // Então
+
+            List<TransacaoDTO> recebidas = new ArrayList<>();
+            transacaoService.transmitirTodos(recebidas::add);
+
+            assertThat(recebidas.size(), is(equalTo(2)));
+            assertThat(recebidas.get(0).getId(), is(equalTo(1L)));
+            assertThat(recebidas.get(1).getId(), is(equalTo(2L)));
+
+    }
+
 }
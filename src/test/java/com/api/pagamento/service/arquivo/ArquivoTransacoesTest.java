@@ -0,0 +1,180 @@
+package com.api.pagamento.service.arquivo;
+
+import com.api.pagamento.config.ArquivoProperties;
+import com.api.pagamento.domain.dto.util.DataHoraCodec;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.enumeration.TipoEnum;
+import com.api.pagamento.domain.model.Descricao;
+import com.api.pagamento.domain.model.FormaPagamento;
+import com.api.pagamento.domain.model.Transacao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/*
+    Testes de unidade dos arquivos de transações
+
+        Os arquivos são gravados em um diretório temporário: os testes conferem que uma transação arquivada volta
+        igual (ArquivoColunar), que a procura usa as faixas de ids dos nomes dos arquivos e que o índice é montado de
+        novo a partir do diretório, como em uma instância que acabou de subir. Arquivos apagados ou truncados
+        conferem que um id ausente é procurado só na coluna de ids e que um arquivo que sumiu não gera erro.
+
+*/
+
+public class ArquivoTransacoesTest {
+
+    @TempDir
+    Path diretorio;
+
+    private ArquivoTransacoes arquivoTransacoes;
+
+    @BeforeEach
+    void setUp() {
+        arquivoTransacoes = new ArquivoTransacoes(propriedades());
+    }
+
+    // Quando um lote é arquivado, cada transação dele é lida de volta com todos os campos
+    @Test
+    void whenBatchIsArchivedThenEachTransactionIsReadBackWithAllFields() {
+
+        arquivoTransacoes.gravar(List.of(transacao(10L, "0000000010", StatusEnum.AUTORIZADO),
+                transacao(12L, null, StatusEnum.NEGADO), transacao(15L, "0000000015", null)));
+
+        Transacao lida = arquivoTransacoes.procurar(12L).orElseThrow();
+
+        assertThat(lida.getCartao(), is(equalTo("4444********1234")));
+        assertThat(lida.getDescricao().getValor(), is(equalTo(new BigDecimal("500.50"))));
+        assertThat(lida.getDescricao().getDataHora(), is(equalTo(DataHoraCodec.ler("01/05/2021 18:00:00"))));
+        assertThat(lida.getDescricao().getEstabelecimento(), is(equalTo("PetShop Mundo cão")));
+        assertThat(lida.getDescricao().getNsu(), is(nullValue()));
+        assertThat(lida.getDescricao().getCodigoAutorizacao(), is(equalTo("147258369")));
+        assertThat(lida.getDescricao().getStatus(), is(equalTo(StatusEnum.NEGADO)));
+        assertThat(lida.getFormaPagamento().getTipo(), is(equalTo(TipoEnum.PARCELADO_LOJA)));
+        assertThat(lida.getFormaPagamento().getParcelas(), is(equalTo("3")));
+        assertThat(arquivoTransacoes.procurar(15L).orElseThrow().getDescricao().getStatus(), is(nullValue()));
+
+    }
+
+    // Quando o id está fora das faixas arquivadas ou em uma lacuna de uma delas, nada é encontrado
+    @Test
+    void whenIdIsNotArchivedThenNothingIsFound() {
+
+        arquivoTransacoes.gravar(List.of(transacao(10L, "0000000010", StatusEnum.AUTORIZADO),
+                transacao(15L, "0000000015", StatusEnum.AUTORIZADO)));
+
+        assertThat(arquivoTransacoes.procurar(9L).isPresent(), is(false));
+        assertThat(arquivoTransacoes.procurar(12L).isPresent(), is(false));
+        assertThat(arquivoTransacoes.procurar(16L).isPresent(), is(false));
+
+    }
+
+    // Quando as faixas de dois arquivos se sobrepõem, a transação é encontrada no arquivo que a contém
+    @Test
+    void whenRangesOverlapThenTheTransactionIsFoundInTheFileThatHasIt() {
+
+        arquivoTransacoes.gravar(List.of(transacao(1L, "1", StatusEnum.AUTORIZADO), transacao(100L, "100", StatusEnum.AUTORIZADO)));
+        arquivoTransacoes.gravar(List.of(transacao(50L, "50", StatusEnum.AUTORIZADO), transacao(60L, "60", StatusEnum.AUTORIZADO)));
+
+        assertThat(arquivoTransacoes.procurar(1L).orElseThrow().getDescricao().getNsu(), is(equalTo("1")));
+        assertThat(arquivoTransacoes.procurar(50L).orElseThrow().getDescricao().getNsu(), is(equalTo("50")));
+        assertThat(arquivoTransacoes.procurar(100L).orElseThrow().getDescricao().getNsu(), is(equalTo("100")));
+
+    }
+
+    // Quando uma nova instância lê o diretório, o índice é montado pelos nomes dos arquivos, sem os temporários
+    @Test
+    void whenANewInstanceReadsTheDirectoryThenTheIndexIsRebuiltFromTheFileNames() throws Exception {
+
+        arquivoTransacoes.gravar(List.of(transacao(10L, "0000000010", StatusEnum.AUTORIZADO)));
+        Files.createFile(diretorio.resolve("transacoes_20_30_1.gz.tmp"));
+
+        ArquivoTransacoes outraInstancia = new ArquivoTransacoes(propriedades());
+
+        assertThat(outraInstancia.getFaixas(), hasSize(1));
+        assertThat(outraInstancia.procurar(10L).isPresent(), is(true));
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            assertThat(arquivos.count(), is(equalTo(2L)));
+        }
+
+    }
+
+    // Quando o id está em uma lacuna da faixa, só a coluna de ids é lida: o restante do arquivo, truncado, não é aberto
+    @Test
+    void whenIdIsInAGapOfTheRangeThenOnlyTheIdColumnIsRead() throws Exception {
+
+        //Cartões aleatórios não comprimem: cortar o arquivo pela metade deixa a coluna de ids inteira e perde o resto
+        arquivoTransacoes.gravar(LongStream.rangeClosed(1, 2000)
+                .mapToObj(id -> transacao(id * 2, UUID.randomUUID().toString(), StatusEnum.AUTORIZADO))
+                .peek(transacao -> transacao.setCartao(UUID.randomUUID().toString()))
+                .collect(Collectors.toList()));
+        Path arquivo = arquivoTransacoes.getFaixas().iterator().next().getArquivo();
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.WRITE)) {
+            canal.truncate(canal.size() / 2);
+        }
+
+        assertThat(arquivoTransacoes.procurar(3L).isPresent(), is(false));
+        assertThat(arquivoTransacoes.procurar(2001L).isPresent(), is(false));
+        assertThrows(UncheckedIOException.class, () -> arquivoTransacoes.procurar(2000L));
+
+    }
+
+    // Quando um arquivo é apagado, a procura não falha e a faixa dele sai do índice
+    @Test
+    void whenFileIsDeletedThenTheSearchDoesNotFailAndItsRangeIsDropped() throws Exception {
+
+        arquivoTransacoes.gravar(List.of(transacao(10L, "0000000010", StatusEnum.AUTORIZADO)));
+        Files.delete(arquivoTransacoes.getFaixas().iterator().next().getArquivo());
+
+        assertThat(arquivoTransacoes.procurar(10L).isPresent(), is(false));
+        assertThat(arquivoTransacoes.getFaixas(), hasSize(0));
+
+    }
+
+    // Quando o diretório é lido de novo, as faixas dos arquivos apagados saem do índice
+    @Test
+    void whenDirectoryIsReloadedThenTheRangesOfDeletedFilesAreDropped() throws Exception {
+
+        arquivoTransacoes.gravar(List.of(transacao(10L, "0000000010", StatusEnum.AUTORIZADO)));
+        arquivoTransacoes.gravar(List.of(transacao(20L, "0000000020", StatusEnum.AUTORIZADO)));
+        assertThat(arquivoTransacoes.procurar(10L).isPresent(), is(true));
+        Files.delete(arquivoTransacoes.getFaixas().iterator().next().getArquivo());
+
+        arquivoTransacoes.recarregar();
+
+        assertThat(arquivoTransacoes.getFaixas(), hasSize(1));
+        assertThat(arquivoTransacoes.getFaixas().iterator().next().getPrimeiroId(), is(equalTo(20L)));
+
+    }
+
+    private ArquivoProperties propriedades() {
+        ArquivoProperties arquivoProperties = new ArquivoProperties();
+        arquivoProperties.setDiretorio(diretorio.toString());
+        return arquivoProperties;
+    }
+
+    private static Transacao transacao(Long id, String nsu, StatusEnum status) {
+        return new Transacao(id, "4444********1234",
+                new Descricao(null, new BigDecimal("500.50"), DataHoraCodec.ler("01/05/2021 18:00:00"), "PetShop Mundo cão", nsu, "147258369", status),
+                new FormaPagamento(null, TipoEnum.PARCELADO_LOJA, "3"));
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.api.pagamento.service.autorizador;
+
+import com.api.pagamento.builder.TransacaoDTOBuilder;
+import com.api.pagamento.config.AutorizadorProperties;
+import com.api.pagamento.domain.dto.util.Mapper;
+import com.api.pagamento.domain.enumeration.StatusEnum;
+import com.api.pagamento.domain.exception.AutorizadorIndisponivelException;
+import com.api.pagamento.domain.model.Transacao;
+import com.api.pagamento.service.identificador.GeradorIdentificadores;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/*
+    Testes de unidade do cliente do emissor
+
+        O emissor que nunca responde é um Autorizador que devolve um futuro nunca completado.
+
+*/
+
+public class ClienteAutorizadorTest {
+
+    private final AutorizadorProperties autorizadorProperties = new AutorizadorProperties();
+
+    private Transacao transacao;
+
+    private ClienteAutorizador clienteAutorizador;
+
+    @BeforeEach
+    void setUp() {
+        transacao = Mapper.toTransacao(TransacaoDTOBuilder.builder().build().toTransacaoDTO());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (clienteAutorizador != null) {
+            clienteAutorizador.encerrar();
+        }
+    }
+
+    // Quando o emissor não responde dentro do timeout, a autorização falha com AutorizadorIndisponivelException
+    @Test
+    void whenIssuerDoesNotAnswerWithinTimeoutThenAuthorizationFails() {
+
+        autorizadorProperties.setTimeout(Duration.ofMillis(50));
+        clienteAutorizador = new ClienteAutorizador(t -> new CompletableFuture<>(), autorizadorProperties);
+
+        assertThrows(AutorizadorIndisponivelException.class,
+                () -> ClienteAutorizador.aguardar(clienteAutorizador.autorizar(transacao)));
+
+    }
+
+    // Quando o limite de autorizações em andamento é atingido, a seguinte falha na hora, e a vaga volta no timeout
+    @Test
+    void whenTooManyAuthorizationsAreInFlightThenTheNextOneFailsImmediately() throws AutorizadorIndisponivelException {
+
+        autorizadorProperties.setMaximoEmAndamento(1);
+        autorizadorProperties.setTimeout(Duration.ofMillis(50));
+        CompletableFuture<Autorizacao> semResposta = new CompletableFuture<>();
+        clienteAutorizador = new ClienteAutorizador(t -> semResposta, autorizadorProperties);
+
+        CompletableFuture<Autorizacao> primeira = clienteAutorizador.autorizar(transacao);
+        CompletableFuture<Autorizacao> segunda = clienteAutorizador.autorizar(transacao);
+
+        //A segunda falha sem esperar o emissor
+        assertThat(segunda.isCompletedExceptionally(), is(true));
+        assertThrows(AutorizadorIndisponivelException.class, () -> ClienteAutorizador.aguardar(primeira));
+
+        //O timeout da primeira liberou a vaga: com o emissor respondendo de novo, a próxima é autorizada
+        semResposta.complete(new Autorizacao(StatusEnum.AUTORIZADO, "147258369"));
+        assertThat(ClienteAutorizador.aguardar(clienteAutorizador.autorizar(transacao)).getStatus(), is(equalTo(StatusEnum.AUTORIZADO)));
+
+    }
+
+    // Quando o valor está acima do máximo do emissor simulado, o pagamento é negado; abaixo dele, é autorizado
+    @Test
+    void whenValueIsAboveTheSimulatedMaximumThenPaymentIsDenied() throws AutorizadorIndisponivelException {
+
+        autorizadorProperties.getSimulado().setValorMaximo(new BigDecimal("100.00"));
+        AtomicLong sequencia = new AtomicLong(1 - GeradorIdentificadores.TAMANHO_BLOCO);
+        GeradorIdentificadores geradorIdentificadores =
+                new GeradorIdentificadores(nome -> sequencia.addAndGet(GeradorIdentificadores.TAMANHO_BLOCO));
+        AutorizadorSimulado autorizadorSimulado = new AutorizadorSimulado(autorizadorProperties, geradorIdentificadores);
+        clienteAutorizador = new ClienteAutorizador(autorizadorSimulado, autorizadorProperties);
+
+        transacao.getDescricao().setValor(new BigDecimal("100.01"));
+        Autorizacao negada = ClienteAutorizador.aguardar(clienteAutorizador.autorizar(transacao));
+        assertThat(negada.getStatus(), is(equalTo(StatusEnum.NEGADO)));
+        assertThat(negada.getCodigoAutorizacao(), is(nullValue()));
+
+        transacao.getDescricao().setValor(new BigDecimal("100.00"));
+        Autorizacao autorizada = ClienteAutorizador.aguardar(clienteAutorizador.autorizar(transacao));
+        assertThat(autorizada.getStatus(), is(equalTo(StatusEnum.AUTORIZADO)));
+        assertThat(autorizada.getCodigoAutorizacao(), is(equalTo("000000001")));
+
+        autorizadorSimulado.encerrar();
+        geradorIdentificadores.encerrar();
+
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.api.pagamento.service.identificador;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/*
+    Testes de unidade do contador em blocos
+
+        A sequence do banco é simulada por um AtomicLong incrementado pelo tamanho do bloco, como o nextval.
+
+*/
+
+public class ContadorEmBlocoTest {
+
+    private static final int TAMANHO_BLOCO = 100;
+
+    private final ExecutorService reservas = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        reservas.shutdownNow();
+    }
+
+    // Quando várias threads pedem valores ao mesmo tempo, nenhum se repete e os de cada thread são crescentes
+    @Test
+    void whenSeveralThreadsAskForValuesThenNoValueRepeatsAndEachThreadSeesIncreasingValues() throws Exception {
+
+        AtomicLong sequencia = new AtomicLong(1 - TAMANHO_BLOCO);
+        ContadorEmBloco contador = new ContadorEmBloco(() -> sequencia.addAndGet(TAMANHO_BLOCO), TAMANHO_BLOCO, reservas);
+
+        int threads = 8;
+        int porThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<long[]>> resultados = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            resultados.add(executor.submit(() -> {
+                long[] valores = new long[porThread];
+                for (int i = 0; i < porThread; i++) {
+                    valores[i] = contador.proximo();
+                }
+                return valores;
+            }));
+        }
+
+        Set<Long> todos = new HashSet<>();
+        for (Future<long[]> resultado : resultados) {
+            long[] valores = resultado.get();
+            for (int i = 0; i < valores.length; i++) {
+                todos.add(valores[i]);
+                if (i > 0) {
+                    assertThat(valores[i - 1] < valores[i], is(true));
+                }
+            }
+        }
+        executor.shutdown();
+
+        assertThat(todos.size(), is(threads * porThread));
+        //Um bloco em uso e um reservado à frente
+        assertThat(sequencia.get(), is(lessThanOrEqualTo(1L + (long) TAMANHO_BLOCO * (threads * porThread / TAMANHO_BLOCO + 1))));
+
+    }
+
+    // Quando duas instâncias usam a mesma sequence, cada uma recebe blocos próprios
+    @Test
+    void whenTwoInstancesShareTheSequenceThenEachOneReceivesItsOwnBlocks() {
+
+        AtomicLong sequencia = new AtomicLong(1 - TAMANHO_BLOCO);
+        ContadorEmBloco primeira = new ContadorEmBloco(() -> sequencia.addAndGet(TAMANHO_BLOCO), TAMANHO_BLOCO, reservas);
+        ContadorEmBloco segunda = new ContadorEmBloco(() -> sequencia.addAndGet(TAMANHO_BLOCO), TAMANHO_BLOCO, reservas);
+
+        assertThat(List.of(primeira.proximo(), primeira.proximo()), contains(1L, 2L));
+        //O bloco seguinte (101) já foi reservado pela primeira: a segunda começa no 201
+        assertThat(List.of(segunda.proximo(), segunda.proximo()), contains(201L, 202L));
+
+    }
+
+    // Quando a reserva de um bloco falha, a exceção chega a quem pediu o valor e a próxima chamada tenta de novo
+    @Test
+    void whenReservationFailsThenTheErrorIsThrownAndTheNextCallRetries() {
+
+        AtomicInteger chamadas = new AtomicInteger();
+        ContadorEmBloco contador = new ContadorEmBloco(() -> {
+            if (chamadas.incrementAndGet() == 1) {
+                throw new IllegalStateException("banco indisponível");
+            }
+            return 1;
+        }, TAMANHO_BLOCO, reservas);
+
+        assertThrows(IllegalStateException.class, contador::proximo);
+        assertThat(contador.proximo(), is(1L));
+
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.api.pagamento.service.particao;
+
+import com.api.pagamento.config.ParticoesProperties;
+import com.api.pagamento.repository.ParticaoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/*
+    Testes de unidade da manutenção das partições
+
+        O ParticaoRepository é simulado: os testes conferem quais partições seriam criadas e desanexadas para cada
+        conjunto de partições existentes.
+
+*/
+
+@ExtendWith(MockitoExtension.class)
+public class GerenciadorParticoesTest {
+
+    private static final LocalDate HOJE = LocalDate.of(2026, 10, 17);
+
+    @Mock
+    private ParticaoRepository particaoRepository;
+
+    private final ParticoesProperties particoesProperties = new ParticoesProperties();
+
+    private GerenciadorParticoes gerenciadorParticoes;
+
+    @BeforeEach
+    void setUp() {
+        particoesProperties.setMesesFuturos(2);
+        particoesProperties.setRetencaoMeses(12);
+        gerenciadorParticoes = new GerenciadorParticoes(particaoRepository, particoesProperties);
+    }
+
+    // Quando faltam partições para o mês atual e os seguintes, elas são criadas com os limites do mês em Brasília
+    @Test
+    void whenCurrentAndFutureMonthsHaveNoPartitionThenTheyAreCreated() {
+
+        when(particaoRepository.listar()).thenReturn(List.of("transacao_2026_10", "transacao_padrao"));
+
+        gerenciadorParticoes.manter(HOJE);
+
+        verify(particaoRepository).criar("transacao_2026_11",
+                OffsetDateTime.of(2026, 11, 1, 0, 0, 0, 0, ZoneOffset.ofHours(-3)),
+                OffsetDateTime.of(2026, 12, 1, 0, 0, 0, 0, ZoneOffset.ofHours(-3)));
+        verify(particaoRepository).criar("transacao_2026_12",
+                OffsetDateTime.of(2026, 12, 1, 0, 0, 0, 0, ZoneOffset.ofHours(-3)),
+                OffsetDateTime.of(2027, 1, 1, 0, 0, 0, 0, ZoneOffset.ofHours(-3)));
+        verify(particaoRepository, never()).criar(eq("transacao_2026_10"), any(), any());
+
+    }
+
+    // Quando uma partição é mais antiga que a retenção, ela é desanexada; a padrão e as recentes continuam
+    @Test
+    void whenPartitionIsOlderThanRetentionThenItIsDetached() {
+
+        when(particaoRepository.listar()).thenReturn(List.of("transacao_2025_09", "transacao_2025_10",
+                "transacao_2026_10", "transacao_2026_11", "transacao_2026_12", "transacao_padrao"));
+
+        gerenciadorParticoes.manter(HOJE);
+
+        verify(particaoRepository).desanexar("transacao_2025_09");
+        verify(particaoRepository, never()).desanexar("transacao_2025_10");
+        verify(particaoRepository, never()).desanexar("transacao_padrao");
+        verify(particaoRepository, never()).criar(anyString(), any(), any());
+
+    }
+
+    // Quando o nome não é de uma partição mensal, ele não tem mês
+    @Test
+    void whenNameIsNotAMonthlyPartitionThenItHasNoMonth() {
+
+        assertThat(GerenciadorParticoes.mes("transacao_padrao"), is(nullValue()));
+        assertThat(GerenciadorParticoes.mes("evento"), is(nullValue()));
+
+    }
+
+}
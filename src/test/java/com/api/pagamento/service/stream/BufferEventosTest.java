@@ -0,0 +1,76 @@
+package com.api.pagamento.service.stream;
+
+import com.api.pagamento.domain.dto.EventoDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+
+/*
+    Testes de unidade do buffer circular do stream
+
+        As posições têm lacunas, como as geradas por uma publicação desfeita.
+
+*/
+
+public class BufferEventosTest {
+
+    // Quando os eventos cabem no buffer, a leitura a partir de uma posição retorna os seguintes, até o limite
+    @Test
+    void whenEventsFitInTheBufferThenReadingFromAPositionReturnsTheNextOnes() {
+
+        BufferEventos buffer = buffer(4, 10L, 11L, 14L, 15L);
+
+        assertThat(posicoes(buffer.apos(10L, 10)), contains(11L, 14L, 15L));
+        //12 e 13 não existem: o seguinte a 12 é o 14
+        assertThat(posicoes(buffer.apos(12L, 10)), contains(14L, 15L));
+        assertThat(posicoes(buffer.apos(9L, 2)), contains(10L, 11L));
+        assertThat(buffer.apos(15L, 10), is(empty()));
+
+    }
+
+    // Quando o buffer está cheio, os eventos mais antigos são sobrescritos e a leitura anterior a eles retorna nulo
+    @Test
+    void whenTheBufferIsFullThenOldestEventsAreOverwrittenAndEarlierReadsReturnNull() {
+
+        BufferEventos buffer = buffer(3, 1L, 2L, 4L, 7L, 8L);
+
+        assertThat(posicoes(buffer.apos(2L, 10)), contains(4L, 7L, 8L));
+        assertThat(posicoes(buffer.apos(3L, 10)), contains(4L, 7L, 8L));
+        //O evento 2 saiu do buffer: a partir da posição 1 o assinante deve ler da tabela
+        assertThat(buffer.apos(1L, 10), is(nullValue()));
+
+    }
+
+    // Quando o buffer começa em uma posição, as leituras anteriores a ela retornam nulo
+    @Test
+    void whenTheBufferStartsAtAPositionThenEarlierReadsReturnNull() {
+
+        BufferEventos buffer = new BufferEventos(4, 100L);
+
+        assertThat(buffer.apos(100L, 10), is(empty()));
+        assertThat(buffer.apos(99L, 10), is(nullValue()));
+
+    }
+
+    private static BufferEventos buffer(int capacidade, Long... posicoes) {
+        BufferEventos buffer = new BufferEventos(capacidade, posicoes[0] - 1);
+        for (Long posicao : posicoes) {
+            EventoDTO evento = new EventoDTO();
+            evento.setPosicao(posicao);
+            buffer.adicionar(evento);
+        }
+        return buffer;
+    }
+
+    private static List<Long> posicoes(List<EventoDTO> eventos) {
+        return eventos.stream().map(EventoDTO::getPosicao).collect(Collectors.toList());
+    }
+
+}